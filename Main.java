@@ -1,6 +1,7 @@
 import controller.Controller;
 import controller.ControllerInterface;
 import controller.GuiController;
+import controller.HttpController;
 import model.ModelInterface;
 import model.ModelService;
 import view.GuiView;
@@ -25,7 +26,8 @@ public class Main {
    * creates instances of the {@link View} and {@link ModelService} to serve as the View and Model
    * layers. A {@link Controller} is instantiated with references to both the Model and View, along
    * with the standard input stream, to handle user interactions. Finally, the application's control
-   * flow is initiated by calling the {@code go} method on the controller.
+   * flow is initiated by calling the {@code go} method on the controller. Passing {@code server}
+   * and an optional port instead starts an {@link HttpController} serving the model as JSON.
    * </p>
    *
    * @param args Command line arguments passed to the application.
@@ -39,7 +41,11 @@ public class Main {
       useConsole = true;
     }
 
-    if (useConsole) {
+    if (args.length > 0 && args[0].equalsIgnoreCase("server")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+      System.out.println("Server mode selected.");
+      new HttpController(modelInterface, port).start();
+    } else if (useConsole) {
       System.out.println("Console mode selected.");
       ViewInterface viewInterface = new View();
       ControllerInterface controllerInterface = new Controller(modelInterface, viewInterface,
@@ -12,7 +12,6 @@ import java.util.Scanner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import model.ModelInterface;
-import model.PortfolioManager;
 import model.PortfolioManagerInterface;
 import model.StockAnalysisInterface;
 import model.UserManagerInterface;
@@ -103,7 +102,8 @@ public class Controller implements ControllerInterface {
         viewInterface.printValue("This email already exists. Logging you in!\n");
         viewInterface.printValue("Hey "
             + (userManagerInterface.getExistingUserData(emailID)).get(0) + "!");
-        PortfolioManagerInterface portfolioManagerInterface = new PortfolioManager(emailID);
+        PortfolioManagerInterface portfolioManagerInterface =
+            modelInterface.createPortfolioManager(emailID);
         mainMenuWorkflow(portfolioManagerInterface);
       } else {
         getUserDataWorkflow(emailID);
@@ -122,7 +122,8 @@ public class Controller implements ControllerInterface {
       if (userManagerInterface.isExistingUser(emailID)) {
         viewInterface.printValue("\nHey "
             + (userManagerInterface.getExistingUserData(emailID)).get(0) + "!");
-        PortfolioManagerInterface portfolioManagerInterface = new PortfolioManager(emailID);
+        PortfolioManagerInterface portfolioManagerInterface =
+            modelInterface.createPortfolioManager(emailID);
         mainMenuWorkflow(portfolioManagerInterface);
       } else {
         existingUserEmailNotPresentWorkflow(emailID);
@@ -158,7 +159,8 @@ public class Controller implements ControllerInterface {
       String emailID) {
     UserManagerInterface userManagerInterface = modelInterface.createUserManager();
     userManagerInterface.saveUserData(firstName, lastName, emailID);
-    PortfolioManagerInterface portfolioManagerInterface = new PortfolioManager(emailID);
+    PortfolioManagerInterface portfolioManagerInterface =
+        modelInterface.createPortfolioManager(emailID);
     viewInterface.printValue("Hey " + firstName + "!");
     return portfolioManagerInterface;
   }
@@ -7,7 +7,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import model.ModelInterface;
-import model.PortfolioManager;
 import model.PortfolioManagerInterface;
 import model.StockAnalysisInterface;
 import model.UserManagerInterface;
@@ -71,7 +70,7 @@ public class GuiController implements GuiControllerInterface {
     String emailID = userData.get(2);
 
     if (userManagerInterface.isExistingUser(emailID)) {
-      this.portfolioManagerInterface = new PortfolioManager(emailID);
+      this.portfolioManagerInterface = modelInterface.createPortfolioManager(emailID);
       s = "User already exists logging you in.";
     } else {
       createNewUserWorkflow(userData.get(0), userData.get(1), emailID);
@@ -84,7 +83,7 @@ public class GuiController implements GuiControllerInterface {
       String emailID) {
     UserManagerInterface userManagerInterface = modelInterface.createUserManager();
     userManagerInterface.saveUserData(firstName, lastName, emailID);
-    this.portfolioManagerInterface = new PortfolioManager(emailID);
+    this.portfolioManagerInterface = modelInterface.createPortfolioManager(emailID);
   }
 
 
@@ -96,7 +95,7 @@ public class GuiController implements GuiControllerInterface {
     if (userManagerInterface.isExistingUser(emailID)) {
       viewInterface.printValue("\nHey "
           + (userManagerInterface.getExistingUserData(emailID)).get(0) + "!");
-      this.portfolioManagerInterface = new PortfolioManager(emailID);
+      this.portfolioManagerInterface = modelInterface.createPortfolioManager(emailID);
       s = "Hey " + emailID + "! Logging you in";
     }
     return s;
@@ -0,0 +1,617 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.ModelInterface;
+import model.NetWorth;
+import model.PortfolioManagerInterface;
+import model.StockAnalysisInterface;
+import model.UserManagerInterface;
+import model.ValueSeries;
+
+/**
+ * A headless controller that serves the model over HTTP with JSON responses. It exposes user
+ * registration and login, portfolio creation, trading, valuation and performance, net worth and
+ * stock analysis as endpoints on top of {@link ModelInterface}, so that the simulator can be driven
+ * by other programs instead of the console or the GUI.
+ *
+ * <p>Parameters are read from the query string and, for POST requests, from a form encoded body.
+ * Dates use the ISO format {@code yyyy-MM-dd}. Queries are GET requests and changes are POST
+ * requests. Invalid input is answered with status 400, portfolio requests for a user who has not
+ * logged in with 401, unknown paths with 404, the wrong method with 405, failures to read stock
+ * data with 500 and requests that arrive while the server is full with 503; every error response
+ * is a JSON object with an {@code error} message.</p>
+ *
+ * <p>Requests are handled on a bounded pool of worker threads with a bounded queue in front of it.
+ * The portfolio manager of a logged in user is taken from the model on every request, so all of
+ * that user's requests share the manager of the user's session.</p>
+ */
+public class HttpController implements ControllerInterface {
+
+  private static final int MAX_WORKERS = 256;
+  private static final int MAX_QUEUED = 1024;
+  private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> false);
+
+  private final ModelInterface modelInterface;
+  private final int port;
+  private final Map<String, Route> routes = new HashMap<>();
+  private final Set<String> loggedIn = ConcurrentHashMap.newKeySet();
+  private HttpServer server;
+  private ThreadPoolExecutor executor;
+
+  /**
+   * A single endpoint of the service.
+   */
+  private interface Endpoint {
+
+    Object handle(Map<String, String> params) throws IOException;
+  }
+
+  private static final class Route {
+
+    private final String method;
+    private final Endpoint endpoint;
+
+    private Route(String method, Endpoint endpoint) {
+      this.method = method;
+      this.endpoint = endpoint;
+    }
+  }
+
+  private static final class HttpError extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    private HttpError(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+
+  /**
+   * Constructs an HTTP controller serving the given model on a port.
+   *
+   * @param modelInterface the instance of model interface that handles business logic.
+   * @param port           the port to listen on, or 0 to use any free port.
+   * @throws IllegalArgumentException if the port is out of range.
+   */
+  public HttpController(ModelInterface modelInterface, int port) {
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid port: " + port);
+    }
+    this.modelInterface = modelInterface;
+    this.port = port;
+    get("/stocks/trend", this::stockTrend);
+    get("/stocks/movingaverage", this::movingAverage);
+    get("/stocks/crossovers", this::crossovers);
+    get("/stocks/performance", this::stockPerformance);
+    post("/users/register", this::register);
+    post("/users/login", this::login);
+    post("/users/logout", this::logout);
+    post("/portfolios/create", this::createPortfolio);
+    post("/portfolios/buy", params -> trade(params, true));
+    post("/portfolios/sell", params -> trade(params, false));
+    get("/portfolios/exists", this::portfolioExists);
+    get("/portfolios/composition", this::composition);
+    get("/portfolios/value", this::portfolioValue);
+    get("/portfolios/costbasis", this::costBasis);
+    get("/portfolios/performance", this::performance);
+    get("/networth", this::netWorth);
+  }
+
+  /**
+   * Starts listening for requests. The call returns once the server is accepting connections.
+   *
+   * @throws IllegalStateException if the server cannot be started or is already running.
+   */
+  @Override
+  public synchronized void start() {
+    if (server != null) {
+      throw new IllegalStateException("Server is already running.");
+    }
+    AtomicInteger threads = new AtomicInteger();
+    ThreadFactory factory = runnable -> {
+      Thread thread = new Thread(runnable, "http-worker-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    executor = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 30, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(MAX_QUEUED), factory, (exchange, pool) -> reject(exchange));
+    executor.allowCoreThreadTimeOut(true);
+    try {
+      server = HttpServer.create(new InetSocketAddress(port), MAX_WORKERS);
+    } catch (IOException e) {
+      executor.shutdown();
+      throw new IllegalStateException("Could not start server: " + e.getMessage(), e);
+    }
+    server.createContext("/", this::handle);
+    server.setExecutor(executor);
+    server.start();
+    System.out.println("Listening on port " + getPort() + ".");
+  }
+
+  /**
+   * Stops the server, discarding requests that have not been answered yet.
+   */
+  public synchronized void stop() {
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+      server = null;
+      executor = null;
+    }
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   *
+   * @return The port, which is only known once the server has started if it was constructed with
+   *         port 0.
+   */
+  public synchronized int getPort() {
+    return server == null ? port : server.getAddress().getPort();
+  }
+
+  /**
+   * Runs a request that did not fit in the queue on the thread that accepted it, marked so that it
+   * is answered with 503 instead of being served.
+   */
+  private static void reject(Runnable exchange) {
+    REJECTED.set(true);
+    try {
+      exchange.run();
+    } finally {
+      REJECTED.set(false);
+    }
+  }
+
+  private void get(String path, Endpoint endpoint) {
+    routes.put(path, new Route("GET", endpoint));
+  }
+
+  private void post(String path, Endpoint endpoint) {
+    routes.put(path, new Route("POST", endpoint));
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    int status = 200;
+    Object body;
+    try {
+      if (REJECTED.get()) {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        throw new HttpError(503, "Server is busy, try again later.");
+      }
+      Route route = routes.get(exchange.getRequestURI().getPath());
+      if (route == null) {
+        throw new HttpError(404, "Not found: " + exchange.getRequestURI().getPath());
+      }
+      if (!route.method.equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", route.method);
+        throw new HttpError(405, "Method not allowed: " + exchange.getRequestMethod());
+      }
+      body = route.endpoint.handle(parameters(exchange));
+    } catch (HttpError e) {
+      status = e.status;
+      body = error(e.getMessage());
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      status = 400;
+      body = error(e.getMessage());
+    } catch (IOException | RuntimeException e) {
+      status = 500;
+      body = error(e.getMessage());
+    }
+    byte[] bytes = JsonWriter.write(body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static Map<String, Object> error(String message) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("error", message == null ? "Internal error" : message);
+    return body;
+  }
+
+  private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+    Map<String, String> params = new HashMap<>();
+    decode(exchange.getRequestURI().getRawQuery(), params);
+    if ("POST".equals(exchange.getRequestMethod())) {
+      try (InputStream in = exchange.getRequestBody()) {
+        decode(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+      }
+    }
+    return params;
+  }
+
+  private static void decode(String encoded, Map<String, String> params) {
+    if (encoded == null || encoded.isEmpty()) {
+      return;
+    }
+    for (String pair : encoded.split("&")) {
+      int equals = pair.indexOf('=');
+      String key = equals < 0 ? pair : pair.substring(0, equals);
+      String value = equals < 0 ? "" : pair.substring(equals + 1);
+      params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static String required(Map<String, String> params, String name) {
+    String value = params.get(name);
+    if (value == null || value.trim().isEmpty()) {
+      throw new IllegalArgumentException("Missing parameter: " + name);
+    }
+    return value.trim();
+  }
+
+  private static LocalDate date(Map<String, String> params, String name) {
+    return LocalDate.parse(required(params, name));
+  }
+
+  private static double positive(Map<String, String> params, String name) {
+    double value = Double.parseDouble(required(params, name));
+    if (!(value > 0)) {
+      throw new IllegalArgumentException(name + " must be greater than 0.");
+    }
+    return value;
+  }
+
+  private static int positiveInt(Map<String, String> params, String name, int fallback) {
+    String value = params.get(name);
+    int number = value == null ? fallback : Integer.parseInt(value.trim());
+    if (number <= 0) {
+      throw new IllegalArgumentException(name + " must be greater than 0.");
+    }
+    return number;
+  }
+
+  private static String email(Map<String, String> params) {
+    String email = required(params, "email");
+    if (!email.matches("^[\\w.-]+@[a-zA-Z\\d.-]+\\.[a-zA-Z]{2,}$")) {
+      throw new IllegalArgumentException("Invalid email format: " + email);
+    }
+    return email;
+  }
+
+  private static String sessionKey(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+  private PortfolioManagerInterface session(Map<String, String> params) {
+    String email = email(params);
+    if (!loggedIn.contains(sessionKey(email))) {
+      throw new HttpError(401, "Not logged in: " + email);
+    }
+    return modelInterface.createPortfolioManager(email);
+  }
+
+  private PortfolioManagerInterface existingPortfolio(Map<String, String> params,
+      PortfolioManagerInterface portfolioManager) {
+    String name = required(params, "name");
+    if (!portfolioManager.portfolioExists(name)) {
+      throw new HttpError(404, "Portfolio not found: " + name);
+    }
+    return portfolioManager;
+  }
+
+  private static Object number(String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return value;
+    }
+  }
+
+  private static Map<String, Object> series(ValueSeries series) {
+    List<String> dates = new ArrayList<>(series.size());
+    double[] values = new double[series.size()];
+    for (int i = 0; i < series.size(); i++) {
+      dates.add(series.date(i).toString());
+      values[i] = series.value(i);
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("dates", dates);
+    body.put("values", values);
+    body.put("totalReturn", series.totalReturn());
+    body.put("maxDrawdown", series.maxDrawdown());
+    return body;
+  }
+
+  private Map<String, Object> user(String email) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("email", email);
+    ArrayList<String> userData = modelInterface.createUserManager().getExistingUserData(email);
+    if (userData.size() >= 2) {
+      body.put("firstName", userData.get(0));
+      body.put("lastName", userData.get(1));
+    }
+    return body;
+  }
+
+  private Object register(Map<String, String> params) {
+    String email = email(params);
+    String firstName = required(params, "firstName");
+    String lastName = required(params, "lastName");
+    UserManagerInterface userManagerInterface = modelInterface.createUserManager();
+    if (userManagerInterface.isExistingUser(email)) {
+      throw new IllegalArgumentException("User already exists: " + email);
+    }
+    userManagerInterface.saveUserData(firstName, lastName, email);
+    loggedIn.add(sessionKey(email));
+    modelInterface.createPortfolioManager(email);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("email", email);
+    body.put("firstName", firstName);
+    body.put("lastName", lastName);
+    return body;
+  }
+
+  private Object login(Map<String, String> params) {
+    String email = email(params);
+    if (!modelInterface.createUserManager().isExistingUser(email)) {
+      throw new HttpError(404, "User not found: " + email);
+    }
+    loggedIn.add(sessionKey(email));
+    modelInterface.createPortfolioManager(email);
+    return user(email);
+  }
+
+  private Object logout(Map<String, String> params) {
+    String email = email(params);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("email", email);
+    body.put("loggedOut", loggedIn.remove(sessionKey(email)));
+    modelInterface.closeSession(email);
+    return body;
+  }
+
+  private Object createPortfolio(Map<String, String> params) throws IOException {
+    PortfolioManagerInterface portfolioManager = session(params);
+    String name = required(params, "name");
+    if (!name.matches("[\\w-]+")) {
+      throw new IllegalArgumentException("Invalid portfolio name: " + name);
+    }
+    if (portfolioManager.portfolioExists(name)) {
+      throw new IllegalArgumentException("Portfolio already exists: " + name);
+    }
+    String type = params.getOrDefault("type", "flexible").toLowerCase(Locale.ROOT);
+    if (type.equals("flexible")) {
+      portfolioManager.createFlexiblePortfolio(name);
+    } else if (type.equals("immutable")) {
+      portfolioManager.savePortfolio(name, stocks(required(params, "stocks")));
+    } else {
+      throw new IllegalArgumentException("Invalid portfolio type: " + type);
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("type", type);
+    return body;
+  }
+
+  private static HashMap<String, ArrayList<String>> stocks(String stocks) {
+    String today = LocalDate.now().format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+    HashMap<String, ArrayList<String>> stockData = new HashMap<>();
+    for (String stock : stocks.split(",")) {
+      String[] values = stock.split(":");
+      if (values.length != 2) {
+        throw new IllegalArgumentException("Invalid stock: " + stock);
+      }
+      int shares = Integer.parseInt(values[1].trim());
+      if (shares <= 0) {
+        throw new IllegalArgumentException("Shares must be greater than 0: " + stock);
+      }
+      ArrayList<String> data = new ArrayList<>();
+      data.add("" + shares);
+      data.add(today);
+      stockData.put(values[0].trim().toUpperCase(Locale.ROOT), data);
+    }
+    return stockData;
+  }
+
+  private Object trade(Map<String, String> params, boolean buy) {
+    PortfolioManagerInterface portfolioManager = existingPortfolio(params, session(params));
+    String name = required(params, "name");
+    if (!portfolioManager.isPortfolioMutable(name)) {
+      throw new IllegalArgumentException("Portfolio is not flexible: " + name);
+    }
+    String ticker = required(params, "ticker").toUpperCase(Locale.ROOT);
+    double shares = positive(params, "shares");
+    LocalDate date = date(params, "date");
+    if (buy) {
+      portfolioManager.buyPortfolioStock(name, ticker, shares, date);
+    } else {
+      portfolioManager.sellPortfolioStock(name, ticker, shares, date);
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("action", buy ? "buy" : "sell");
+    body.put("ticker", ticker);
+    body.put("shares", shares);
+    body.put("date", date.toString());
+    return body;
+  }
+
+  private Object portfolioExists(Map<String, String> params) {
+    PortfolioManagerInterface portfolioManager = session(params);
+    String name = required(params, "name");
+    boolean exists = portfolioManager.portfolioExists(name);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("exists", exists);
+    body.put("mutable", exists && portfolioManager.isPortfolioMutable(name));
+    return body;
+  }
+
+  private Object composition(Map<String, String> params) {
+    PortfolioManagerInterface portfolioManager = existingPortfolio(params, session(params));
+    String name = required(params, "name");
+    LocalDate date = date(params, "date");
+    Map<String, Object> holdings = new TreeMap<>();
+    for (Map.Entry<String, ArrayList<String>> entry
+        : portfolioManager.getPortfolioComposition(name, date).entrySet()) {
+      holdings.put(entry.getKey(), entry.getValue().isEmpty() ? null
+          : number(entry.getValue().get(0)));
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("date", date.toString());
+    body.put("holdings", holdings);
+    return body;
+  }
+
+  private Object portfolioValue(Map<String, String> params) throws IOException {
+    PortfolioManagerInterface portfolioManager = existingPortfolio(params, session(params));
+    String name = required(params, "name");
+    LocalDate date = date(params, "date");
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("date", date.toString());
+    body.put("value", number(portfolioManager.getTotalPortfolioValue(name, date)));
+    return body;
+  }
+
+  private Object costBasis(Map<String, String> params) {
+    PortfolioManagerInterface portfolioManager = existingPortfolio(params, session(params));
+    String name = required(params, "name");
+    LocalDate date = date(params, "date");
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.put("date", date.toString());
+    body.put("costBasis", portfolioManager.getCostPortfolioBasis(name, date));
+    return body;
+  }
+
+  private Object performance(Map<String, String> params) throws IOException {
+    PortfolioManagerInterface portfolioManager = existingPortfolio(params, session(params));
+    String name = required(params, "name");
+    LocalDate start = date(params, "start");
+    LocalDate end = date(params, "end");
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("End date must not be before start date.");
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("name", name);
+    body.putAll(series(portfolioManager.getPortfolioValueSeries(name, start, end)));
+    return body;
+  }
+
+  private Object netWorth(Map<String, String> params) throws IOException {
+    PortfolioManagerInterface portfolioManager = session(params);
+    NetWorth netWorth;
+    if (params.containsKey("date")) {
+      netWorth = portfolioManager.getNetWorth(date(params, "date"));
+    } else {
+      LocalDate start = date(params, "start");
+      LocalDate end = date(params, "end");
+      if (end.isBefore(start)) {
+        throw new IllegalArgumentException("End date must not be before start date.");
+      }
+      netWorth = portfolioManager.getNetWorth(start, end);
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    if (netWorth != null) {
+      body.put("total", netWorth.getTotal());
+      body.put("portfolios", netWorth.getPortfolioTotals());
+      body.put("tickers", netWorth.getTickerTotals());
+      if (!netWorth.getMissingTickers().isEmpty()) {
+        body.put("missingTickers", netWorth.getMissingTickers());
+      }
+      if (!params.containsKey("date")) {
+        body.put("series", series(netWorth.getTotalSeries()));
+      }
+    }
+    return body;
+  }
+
+  private StockAnalysisInterface stock(Map<String, String> params) throws IOException {
+    return modelInterface.stockAnalysis(required(params, "ticker").toUpperCase(Locale.ROOT));
+  }
+
+  private Object stockTrend(Map<String, String> params) throws IOException {
+    StockAnalysisInterface stockAnalysis = stock(params);
+    Map<String, Object> body = new LinkedHashMap<>();
+    if (params.containsKey("date")) {
+      LocalDate date = date(params, "date");
+      body.put("date", date.toString());
+      body.put("trend", stockAnalysis.getStockTrendOnDate(date));
+    } else {
+      LocalDate start = date(params, "start");
+      LocalDate end = date(params, "end");
+      body.put("start", start.toString());
+      body.put("end", end.toString());
+      body.put("trend", stockAnalysis.getStockTrend(start, end));
+    }
+    return body;
+  }
+
+  private Object movingAverage(Map<String, String> params) throws IOException {
+    StockAnalysisInterface stockAnalysis = stock(params);
+    LocalDate date = date(params, "date");
+    int days = positiveInt(params, "days", 30);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("date", date.toString());
+    body.put("days", days);
+    body.put("movingAverage", stockAnalysis.getMovingAverage(date, days));
+    return body;
+  }
+
+  private Object crossovers(Map<String, String> params) throws IOException {
+    StockAnalysisInterface stockAnalysis = stock(params);
+    LocalDate start = date(params, "start");
+    LocalDate end = date(params, "end");
+    HashMap<LocalDate, String> days;
+    if (params.containsKey("x") || params.containsKey("y")) {
+      days = stockAnalysis.getMovingCrossoversDays(start, end, positiveInt(params, "x", 0),
+          positiveInt(params, "y", 0));
+    } else {
+      days = stockAnalysis.getCrossoversDays(start, end);
+    }
+    Map<String, Object> crossovers = new TreeMap<>();
+    for (Map.Entry<LocalDate, String> entry : days.entrySet()) {
+      crossovers.put(entry.getKey().toString(), entry.getValue());
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("start", start.toString());
+    body.put("end", end.toString());
+    body.put("crossovers", crossovers);
+    return body;
+  }
+
+  private Object stockPerformance(Map<String, String> params) throws IOException {
+    StockAnalysisInterface stockAnalysis = stock(params);
+    LocalDate start = date(params, "start");
+    LocalDate end = date(params, "end");
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("start", start.toString());
+    body.put("end", end.toString());
+    body.put("performance", stockAnalysis.getStockPerformance(start, end));
+    return body;
+  }
+}
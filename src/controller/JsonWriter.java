@@ -0,0 +1,114 @@
+package controller;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Serializes simple Java values to JSON. Maps become objects, collections and arrays of doubles
+ * become arrays, numbers and booleans are written as they are and anything else is written as a
+ * string. Only the value shapes produced by {@link HttpController} are supported.
+ */
+final class JsonWriter {
+
+  private JsonWriter() {
+  }
+
+  /**
+   * Serializes a value to JSON.
+   *
+   * @param value The value to serialize.
+   * @return The JSON text of the value.
+   */
+  static String write(Object value) {
+    StringBuilder json = new StringBuilder();
+    append(json, value);
+    return json.toString();
+  }
+
+  private static void append(StringBuilder json, Object value) {
+    if (value == null) {
+      json.append("null");
+    } else if (value instanceof Map) {
+      json.append('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!first) {
+          json.append(',');
+        }
+        first = false;
+        appendString(json, String.valueOf(entry.getKey()));
+        json.append(':');
+        append(json, entry.getValue());
+      }
+      json.append('}');
+    } else if (value instanceof Collection) {
+      json.append('[');
+      boolean first = true;
+      for (Object element : (Collection<?>) value) {
+        if (!first) {
+          json.append(',');
+        }
+        first = false;
+        append(json, element);
+      }
+      json.append(']');
+    } else if (value instanceof double[]) {
+      double[] values = (double[]) value;
+      json.append('[');
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          json.append(',');
+        }
+        appendNumber(json, values[i]);
+      }
+      json.append(']');
+    } else if (value instanceof Number) {
+      appendNumber(json, ((Number) value).doubleValue());
+    } else if (value instanceof Boolean) {
+      json.append(value);
+    } else {
+      appendString(json, value.toString());
+    }
+  }
+
+  private static void appendNumber(StringBuilder json, double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      json.append("null");
+    } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      json.append((long) value);
+    } else {
+      json.append(value);
+    }
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+}
@@ -9,7 +9,9 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -20,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import model.KeyValueStoreInterface;
 
 /**
  * This class provides functionality to export a portfolio to a CSV file, search for stock names
@@ -28,11 +31,24 @@ import java.util.Map;
  */
 public class PortfolioReadWrite implements PortfolioReadWriteInterface {
 
+  private final KeyValueStoreInterface store;
+
   /**
    * Constructor for the portfolioReadWrite Class.
    */
   public PortfolioReadWrite() {
-    // Creates portfolioReadWrite class object.
+    this.store = null;
+  }
+
+  /**
+   * Constructs a portfolioReadWrite object that saves strategies in a key-value store instead of
+   * one CSV file per strategy. Each strategy is stored, in the same CSV format, under the key
+   * {@code strategies/<strategy>/<portfolio>}.
+   *
+   * @param store The key-value store holding the strategies.
+   */
+  public PortfolioReadWrite(KeyValueStoreInterface store) {
+    this.store = store;
   }
 
   /**
@@ -206,6 +222,12 @@ public class PortfolioReadWrite implements PortfolioReadWriteInterface {
             + endDateStr + "," + intervalDays;
 
     try {
+      if (store != null) {
+        if (!store.containsKey(strategyKey(portfolioName, strategyName))) {
+          store.put(strategyKey(portfolioName, strategyName), header + data);
+        }
+        return;
+      }
       Files.createDirectories(strategyPath);
       if (!Files.exists(filePath)) {
         try (FileWriter writer = new FileWriter(filePath.toFile())) {
@@ -227,6 +249,9 @@ public class PortfolioReadWrite implements PortfolioReadWriteInterface {
    */
 
   public boolean strategyExists(String portfolioName, String strategyName) {
+    if (store != null) {
+      return store.containsKey(strategyKey(portfolioName, strategyName));
+    }
     Path strategyPath = Paths.get("res/Data/Strategy/" + strategyName + "/");
     Path filePath = strategyPath.resolve(portfolioName + ".csv");
     return Files.exists(filePath);
@@ -251,12 +276,24 @@ public class PortfolioReadWrite implements PortfolioReadWriteInterface {
     Path destinationPath = Paths.get(directoryPath + portfolioName + "_"
             + strategyName + ".csv");
     try {
-      Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+      if (store != null) {
+        String strategy = store.get(strategyKey(portfolioName, strategyName));
+        if (strategy == null) {
+          throw new NoSuchFileException(portfolioName + "_" + strategyName);
+        }
+        Files.write(destinationPath, strategy.getBytes(StandardCharsets.UTF_8));
+      } else {
+        Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  private static String strategyKey(String portfolioName, String strategyName) {
+    return "strategies/" + strategyName + "/" + portfolioName;
+  }
+
   /**
    * Imports strategy details from a CSV file into a map of parameters. The method assumes the CSV
    * follows a specific format with a header and a single row of data detailing the strategy.
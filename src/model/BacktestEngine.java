@@ -0,0 +1,238 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+
+/**
+ * Backtests {@link Strategy} implementations against simulated portfolios. Every scenario gets a
+ * fresh in-memory {@link FlexiblePortfolio} and a strategy built for it by the given factory, fed
+ * from a fixed set of price series instead of the live data. The price series are immutable and
+ * shared by all scenarios, so grids of scenarios run in parallel on a fork-join pool without any
+ * locking or reloading.
+ */
+public class BacktestEngine implements BacktestEngineInterface {
+
+  /**
+   * The largest number of scenarios a fork-join task runs itself instead of splitting.
+   */
+  private static final int SEQUENTIAL_THRESHOLD = 8;
+
+  private static final User BACKTEST_USER = new User("Backtest", "Backtest", "backtest");
+
+  private final Map<String, PriceSeries> prices;
+  private final BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+      strategyFactory;
+  private final ForkJoinPool pool;
+  private final ValuationEngineInterface valuationEngine = new ValuationEngine();
+
+  /**
+   * Constructs a backtest engine that runs on the common fork-join pool.
+   *
+   * @param prices          The price series of every ticker the scenarios may invest in.
+   * @param strategyFactory Builds the strategy under test for a simulated portfolio and price
+   *                        source, for example {@code DollarCostAveragingStrategy::new}.
+   */
+  public BacktestEngine(Map<String, PriceSeries> prices,
+      BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+          strategyFactory) {
+    this(prices, strategyFactory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a backtest engine that runs on the given fork-join pool.
+   *
+   * @param prices          The price series of every ticker the scenarios may invest in.
+   * @param strategyFactory Builds the strategy under test for a simulated portfolio and price
+   *                        source.
+   * @param pool            The pool the scenarios run on.
+   */
+  public BacktestEngine(Map<String, PriceSeries> prices,
+      BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+          strategyFactory, ForkJoinPool pool) {
+    this.prices = Collections.unmodifiableMap(new HashMap<>(prices));
+    this.strategyFactory = strategyFactory;
+    this.pool = pool;
+  }
+
+  @Override
+  public BacktestResult run(BacktestScenario scenario) {
+    FlexiblePortfolioInterface portfolio = new FlexiblePortfolio(BACKTEST_USER, "Backtest");
+    Strategy strategy = strategyFactory.apply(portfolio, new FixedPriceSource(prices));
+    strategy.investPeriodically(scenario.getAmount(), new HashMap<>(scenario.getStockRatio()),
+        scenario.getStartDate(), scenario.getEndDate(), scenario.getIntervalDays());
+    return measure(scenario, portfolio.getHoldingsTimeline());
+  }
+
+  @Override
+  public List<BacktestResult> runAll(List<BacktestScenario> scenarios) {
+    BacktestResult[] results = new BacktestResult[scenarios.size()];
+    pool.invoke(new RunRange(scenarios, results, 0, results.length));
+    List<BacktestResult> ranked = new ArrayList<>(Arrays.asList(results));
+    ranked.sort(BacktestResult.BY_RETURN);
+    return ranked;
+  }
+
+  private BacktestResult measure(BacktestScenario scenario,
+      PersistentSortedMap<LocalDate, Holdings> timeline) {
+    LocalDate start = scenario.getStartDate();
+    ValueSeries values = valuationEngine.valueSeries(timeline, prices, start,
+        scenario.getEndDate());
+
+    double[] flows = new double[values.size()];
+    double invested = 0;
+    Holdings previous = Holdings.empty();
+    for (Map.Entry<LocalDate, Holdings> change : timeline.entries(null, scenario.getEndDate())) {
+      Holdings current = change.getValue();
+      double flow = FixedPoint.toDollars(current.cashUnits() - previous.cashUnits());
+      for (int k = 0; k < current.size(); k++) {
+        flow += tradeValue(current.ticker(k),
+            current.microShares(k) - previous.microSharesOf(current.ticker(k)), change.getKey());
+      }
+      for (int k = 0; k < previous.size(); k++) {
+        if (current.indexOf(previous.ticker(k)) < 0) {
+          flow -= tradeValue(previous.ticker(k), previous.microShares(k), change.getKey());
+        }
+      }
+      int day = (int) (change.getKey().toEpochDay() - start.toEpochDay());
+      flows[Math.max(day, 0)] += flow;
+      invested += Math.max(flow, 0);
+      previous = current;
+    }
+
+    double index = 1;
+    double peak = 1;
+    double drawdown = 0;
+    double before = 0;
+    for (int i = 0; i < values.size(); i++) {
+      double value = values.value(i);
+      if (before > 0) {
+        index *= (value - flows[i]) / before;
+        peak = Math.max(peak, index);
+        drawdown = Math.max(drawdown, (peak - index) / peak);
+      }
+      before = value;
+    }
+    double finalValue = values.size() == 0 ? 0 : values.value(values.size() - 1);
+    return new BacktestResult(scenario, invested, finalValue, drawdown);
+  }
+
+  private double tradeValue(String ticker, long microShares, LocalDate date) {
+    if (microShares == 0) {
+      return 0;
+    }
+    long close = valuationEngine.priceAsOf(prices.getOrDefault(ticker, PriceSeries.empty()), date);
+    return FixedPoint.toDollars(FixedPoint.value(microShares, close));
+  }
+
+  /**
+   * Runs a range of scenarios, splitting it in halves until it is small enough to run directly.
+   */
+  private final class RunRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<BacktestScenario> scenarios;
+    private final BacktestResult[] results;
+    private final int from;
+    private final int to;
+
+    RunRange(List<BacktestScenario> scenarios, BacktestResult[] results, int from, int to) {
+      this.scenarios = scenarios;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          results[i] = run(scenarios.get(i));
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RunRange(scenarios, results, from, middle),
+          new RunRange(scenarios, results, middle, to));
+    }
+  }
+
+  /**
+   * A read-only price source over a fixed set of price series. Nothing is ever refreshed, so a
+   * backtest sees the same data however long it runs.
+   */
+  private static final class FixedPriceSource implements DataFreshnessManagerInterface {
+
+    private final Map<String, PriceSeries> prices;
+
+    FixedPriceSource(Map<String, PriceSeries> prices) {
+      this.prices = prices;
+    }
+
+    @Override
+    public PriceSeries getPriceSeries(String ticker, LocalDate date) {
+      return prices.getOrDefault(ticker, PriceSeries.empty());
+    }
+
+    @Override
+    public Map<String, PriceSeries> getPriceSeries(Collection<String> tickers, LocalDate date) {
+      Map<String, PriceSeries> series = new HashMap<>();
+      for (String ticker : tickers) {
+        series.put(ticker, getPriceSeries(ticker, date));
+      }
+      return series;
+    }
+
+    @Override
+    public PriceSeries getPriceSeriesForTrade(String ticker, LocalDate date) {
+      return getPriceSeries(ticker, date);
+    }
+
+    @Override
+    public TradingCalendar getTradingCalendar(Collection<String> tickers, LocalDate date) {
+      return TradingCalendar.union(getPriceSeries(tickers, date).values());
+    }
+
+    @Override
+    public boolean isRefreshDue(String ticker, LocalDate date) {
+      return false;
+    }
+
+    @Override
+    public void refresh(String ticker) throws IOException {
+      throw new IOException("Backtest prices cannot be refreshed.");
+    }
+
+    @Override
+    public void invalidate(String ticker) {
+      // The series are fixed for the lifetime of the backtest.
+    }
+
+    @Override
+    public LocalDate getLastBarDate(String ticker) {
+      PriceSeries series = prices.get(ticker);
+      return series == null || series.isEmpty() ? null
+          : LocalDate.ofEpochDay(series.epochDay(series.size() - 1));
+    }
+
+    @Override
+    public void setPolicy(RefreshPolicy policy) {
+      // The series are never refreshed, so there is no policy to apply.
+    }
+
+    @Override
+    public void shutdown() {
+      // There is no background worker to stop.
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package model;
+
+import java.util.List;
+
+/**
+ * This interface specifies how investment strategies are backtested. Each scenario is run against
+ * its own simulated portfolio, so backtests never touch the user's portfolios or each other.
+ */
+public interface BacktestEngineInterface {
+
+  /**
+   * Backtests a single scenario.
+   *
+   * @param scenario The parameters of the investment.
+   * @return The outcome of the backtest.
+   */
+  public BacktestResult run(BacktestScenario scenario);
+
+  /**
+   * Backtests every scenario of a grid and ranks the outcomes.
+   *
+   * @param scenarios The scenarios to backtest.
+   * @return The outcomes, from the highest return to the lowest.
+   */
+  public List<BacktestResult> runAll(List<BacktestScenario> scenarios);
+}
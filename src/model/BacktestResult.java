@@ -0,0 +1,90 @@
+package model;
+
+import java.util.Comparator;
+
+/**
+ * The outcome of backtesting one scenario: how much was invested, what the holdings were worth at
+ * the end, the return on the amount invested and the largest decline along the way. The drawdown
+ * is measured on time-weighted returns, so new investments do not hide losses on earlier ones.
+ */
+public final class BacktestResult {
+
+  /**
+   * Orders results from the highest return to the lowest, breaking ties by the smaller drawdown.
+   */
+  public static final Comparator<BacktestResult> BY_RETURN =
+      Comparator.comparingDouble(BacktestResult::getTotalReturn).reversed()
+          .thenComparingDouble(BacktestResult::getMaxDrawdown);
+
+  private final BacktestScenario scenario;
+  private final double invested;
+  private final double finalValue;
+  private final double maxDrawdown;
+
+  /**
+   * Constructs a result.
+   *
+   * @param scenario    The scenario that was backtested.
+   * @param invested    The total amount invested.
+   * @param finalValue  The value of the holdings on the end date.
+   * @param maxDrawdown The largest peak-to-trough decline as a fraction of the peak.
+   */
+  public BacktestResult(BacktestScenario scenario, double invested, double finalValue,
+      double maxDrawdown) {
+    this.scenario = scenario;
+    this.invested = invested;
+    this.finalValue = finalValue;
+    this.maxDrawdown = maxDrawdown;
+  }
+
+  /**
+   * Returns the scenario that was backtested.
+   *
+   * @return The scenario.
+   */
+  public BacktestScenario getScenario() {
+    return scenario;
+  }
+
+  /**
+   * Returns the total amount invested over the backtest.
+   *
+   * @return The amount invested.
+   */
+  public double getInvested() {
+    return invested;
+  }
+
+  /**
+   * Returns the value of the holdings on the end date.
+   *
+   * @return The final value.
+   */
+  public double getFinalValue() {
+    return finalValue;
+  }
+
+  /**
+   * Returns the gain or loss on the amount invested.
+   *
+   * @return The return as a fraction of the amount invested, or 0 if nothing was invested.
+   */
+  public double getTotalReturn() {
+    return invested > 0 ? finalValue / invested - 1 : 0;
+  }
+
+  /**
+   * Returns the largest time-weighted peak-to-trough decline over the backtest.
+   *
+   * @return The maximum drawdown as a non-negative fraction of the peak.
+   */
+  public double getMaxDrawdown() {
+    return maxDrawdown;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: invested=%.2f, final=%.2f, return=%.2f%%, drawdown=%.2f%%",
+        scenario, invested, finalValue, getTotalReturn() * 100, maxDrawdown * 100);
+  }
+}
@@ -0,0 +1,122 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One set of parameters for a periodic investment to be backtested: the amount invested each
+ * period, the weights of the tickers, the period and the dates the investment runs between.
+ * Scenarios are immutable, so a grid of them can be shared between backtest workers.
+ */
+public final class BacktestScenario {
+
+  private final double amount;
+  private final Map<String, Double> stockRatio;
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+  private final long intervalDays;
+
+  /**
+   * Constructs a scenario.
+   *
+   * @param amount       The amount invested in each interval.
+   * @param stockRatio   The share of the amount invested in each ticker.
+   * @param startDate    The date of the first investment.
+   * @param endDate      The date the backtest ends on.
+   * @param intervalDays The number of days between investments.
+   * @throws IllegalArgumentException if the end date is before the start date.
+   */
+  public BacktestScenario(double amount, Map<String, Double> stockRatio, LocalDate startDate,
+      LocalDate endDate, long intervalDays) {
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date should not be before the start date.");
+    }
+    this.amount = amount;
+    this.stockRatio = Collections.unmodifiableMap(new HashMap<>(stockRatio));
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.intervalDays = intervalDays;
+  }
+
+  /**
+   * Builds every combination of the given parameter values, all ending on the same date.
+   *
+   * @param amounts    The amounts to try.
+   * @param intervals  The intervals in days to try.
+   * @param weights    The ticker weights to try.
+   * @param startDates The start dates to try.
+   * @param endDate    The date every scenario ends on.
+   * @return The scenarios of the grid.
+   */
+  public static List<BacktestScenario> grid(List<Double> amounts, List<Long> intervals,
+      List<? extends Map<String, Double>> weights, List<LocalDate> startDates,
+      LocalDate endDate) {
+    List<BacktestScenario> scenarios = new ArrayList<>(
+        amounts.size() * intervals.size() * weights.size() * startDates.size());
+    for (double amount : amounts) {
+      for (long interval : intervals) {
+        for (Map<String, Double> weight : weights) {
+          for (LocalDate startDate : startDates) {
+            scenarios.add(new BacktestScenario(amount, weight, startDate, endDate, interval));
+          }
+        }
+      }
+    }
+    return scenarios;
+  }
+
+  /**
+   * Returns the amount invested in each interval.
+   *
+   * @return The amount.
+   */
+  public double getAmount() {
+    return amount;
+  }
+
+  /**
+   * Returns the share of the amount invested in each ticker.
+   *
+   * @return An unmodifiable map of ticker symbols to weights.
+   */
+  public Map<String, Double> getStockRatio() {
+    return stockRatio;
+  }
+
+  /**
+   * Returns the date of the first investment.
+   *
+   * @return The start date.
+   */
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Returns the date the backtest ends on.
+   *
+   * @return The end date.
+   */
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Returns the number of days between investments.
+   *
+   * @return The interval in days.
+   */
+  public long getIntervalDays() {
+    return intervalDays;
+  }
+
+  @Override
+  public String toString() {
+    return "amount=" + amount + ", weights=" + stockRatio + ", start=" + startDate + ", end="
+        + endDate + ", interval=" + intervalDays;
+  }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The Buy and Sell signals of a ticker, in date order. A Buy signal is given on a day when the
+ * shorter moving average of the closing prices rises above the longer one, and a Sell signal when
+ * it falls below. As in {@link StockAnalysis#getMovingAverage(LocalDate, int)}, the moving average
+ * of a day is taken over the bars before it, so a signal can be acted on at that day's close.
+ *
+ * <p>Signals are computed in a single pass over the price series. Both moving averages are kept as
+ * running sums that gain the newest bar and drop the oldest one, so finding every crossover of a
+ * series takes time linear in its length whatever the lengths of the averages.</p>
+ */
+public final class CrossoverSignals {
+
+  /**
+   * The signal to buy.
+   */
+  public static final String BUY = "Buy";
+
+  /**
+   * The signal to sell.
+   */
+  public static final String SELL = "Sell";
+
+  private final long[] epochDays;
+  private final boolean[] buys;
+
+  private CrossoverSignals(long[] epochDays, boolean[] buys) {
+    this.epochDays = epochDays;
+    this.buys = buys;
+  }
+
+  /**
+   * Finds the crossovers of two moving averages of a price series between two days. Days with
+   * fewer earlier bars than the longer average have no signal.
+   *
+   * @param series    The price series.
+   * @param shortDays The number of bars in the shorter moving average.
+   * @param longDays  The number of bars in the longer moving average.
+   * @param fromDay   The first day that may have a signal, as an epoch day.
+   * @param toDay     The last day that may have a signal, as an epoch day.
+   * @return The signals.
+   * @throws IllegalArgumentException if the periods are not positive or not in order.
+   */
+  public static CrossoverSignals movingAverages(PriceSeries series, int shortDays, int longDays,
+      long fromDay, long toDay) {
+    if (shortDays <= 0 || longDays <= 0) {
+      throw new IllegalArgumentException("Moving average periods must be positive.");
+    }
+    if (shortDays >= longDays) {
+      throw new IllegalArgumentException(
+          "The shorter moving average period 'x' must be less than the longer period 'y'.");
+    }
+    int first = Math.max(series.floorIndex(fromDay - 1) + 1, longDays);
+    int last = series.floorIndex(toDay);
+    if (first > last) {
+      return new CrossoverSignals(new long[0], new boolean[0]);
+    }
+    long shortSum = 0;
+    long longSum = 0;
+    for (int i = first - longDays; i < first; i++) {
+      longSum += series.closeUnits(i);
+      if (i >= first - shortDays) {
+        shortSum += series.closeUnits(i);
+      }
+    }
+    long[] days = new long[last - first + 1];
+    boolean[] signals = new boolean[days.length];
+    int size = 0;
+    int previous = 0;
+    for (int i = first; i <= last; i++) {
+      int comparison = Long.compare(shortSum * longDays, longSum * shortDays);
+      if (i > first && previous < 0 && comparison > 0) {
+        days[size] = series.epochDay(i);
+        signals[size++] = true;
+      } else if (i > first && previous > 0 && comparison < 0) {
+        days[size] = series.epochDay(i);
+        signals[size++] = false;
+      }
+      previous = comparison;
+      long close = series.closeUnits(i);
+      shortSum += close - series.closeUnits(i - shortDays);
+      longSum += close - series.closeUnits(i - longDays);
+    }
+    return new CrossoverSignals(Arrays.copyOf(days, size), Arrays.copyOf(signals, size));
+  }
+
+  /**
+   * Returns the number of signals.
+   *
+   * @return The number of signals.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Returns the day of a signal as an epoch day.
+   *
+   * @param index The position of the signal.
+   * @return The epoch day.
+   */
+  public long epochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Returns the day of a signal.
+   *
+   * @param index The position of the signal.
+   * @return The date.
+   */
+  public LocalDate date(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]);
+  }
+
+  /**
+   * Checks whether a signal is a Buy signal.
+   *
+   * @param index The position of the signal.
+   * @return true for a Buy signal, false for a Sell signal.
+   */
+  public boolean isBuy(int index) {
+    return buys[index];
+  }
+
+  /**
+   * Returns the signals keyed by date, as "Buy" or "Sell".
+   *
+   * @return The signals.
+   */
+  public HashMap<LocalDate, String> toMap() {
+    HashMap<LocalDate, String> signals = new HashMap<>();
+    for (int i = 0; i < epochDays.length; i++) {
+      signals.put(date(i), buys[i] ? BUY : SELL);
+    }
+    return signals;
+  }
+}
@@ -0,0 +1,401 @@
+package model;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the locally stored stock data fresh without putting network fetches on the valuation path.
+ * For every ticker it tracks the last refresh time, the last stored bar and the loaded price
+ * series. Reads are served from the loaded series; when the configured {@link RefreshPolicy}
+ * considers a ticker stale, a refresh is handed to a background worker and the cached series is
+ * swapped once the new data has been stored. When a reload changes bars that were already stored,
+ * the memoized valuations from the first corrected day on are invalidated. Listeners registered
+ * with {@link #addRefreshListener(Consumer)} are told about every ticker whose new data has been
+ * stored.
+ */
+public class DataFreshnessManager implements DataFreshnessManagerInterface {
+
+  private static final DataFreshnessManager INSTANCE =
+      new DataFreshnessManager(RefreshPolicy.BEYOND_LAST_BAR, Duration.ofHours(1));
+
+  private static final int MAX_LOADER_THREADS = 64;
+
+  private static final ExecutorService LOADER = createLoader();
+
+  private static final int MAX_CACHED_CALENDARS = 64;
+
+  private final ConcurrentHashMap<String, TickerState> states = new ConcurrentHashMap<>();
+  private final SoftLruCache<List<String>, CachedCalendar> calendars =
+      new SoftLruCache<>(MAX_CACHED_CALENDARS);
+  private final List<Consumer<String>> refreshListeners = new CopyOnWriteArrayList<>();
+  private final Duration ttl;
+  private final Clock clock;
+  private volatile RefreshPolicy policy;
+  private ScheduledExecutorService worker;
+
+  /**
+   * Tracks the freshness of a single ticker.
+   */
+  private static class TickerState {
+
+    private volatile PriceSeries series;
+    private volatile PriceSeries replaced;
+    private volatile long lastRefreshMillis = Long.MIN_VALUE;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+  }
+
+  /**
+   * A trading calendar together with the price series it was built from. The calendar is reused
+   * for as long as the same series are still loaded.
+   */
+  private static class CachedCalendar {
+
+    private final Map<String, PriceSeries> sources;
+    private final TradingCalendar calendar;
+
+    CachedCalendar(Map<String, PriceSeries> sources, TradingCalendar calendar) {
+      this.sources = sources;
+      this.calendar = calendar;
+    }
+
+    boolean builtFrom(Map<String, PriceSeries> prices) {
+      for (Map.Entry<String, PriceSeries> entry : prices.entrySet()) {
+        if (sources.get(entry.getKey()) != entry.getValue()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Constructs a freshness manager with the given policy and time to live.
+   *
+   * @param policy The policy that decides when data is refreshed.
+   * @param ttl    How long a refresh is considered current by the time based policies.
+   */
+  public DataFreshnessManager(RefreshPolicy policy, Duration ttl) {
+    this(policy, ttl, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructs a freshness manager with the given policy, time to live and clock.
+   *
+   * @param policy The policy that decides when data is refreshed.
+   * @param ttl    How long a refresh is considered current by the time based policies.
+   * @param clock  The clock used to measure refresh times.
+   */
+  public DataFreshnessManager(RefreshPolicy policy, Duration ttl, Clock clock) {
+    this.policy = policy;
+    this.ttl = ttl;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the freshness manager shared by all portfolios of the application.
+   *
+   * @return The shared freshness manager.
+   */
+  public static DataFreshnessManager getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public PriceSeries getPriceSeries(String ticker, LocalDate date) throws IOException {
+    TickerState state = states.computeIfAbsent(ticker, key -> new TickerState());
+    PriceSeries series = state.series;
+    if (series == null) {
+      series = new StockData(ticker).getPriceSeries();
+      if (series.isEmpty() && state.lastRefreshMillis == Long.MIN_VALUE) {
+        refresh(ticker);
+        return state.series;
+      }
+      PriceSeries replaced = state.replaced;
+      if (replaced != null) {
+        recordCorrections(ticker, replaced, series);
+        state.replaced = null;
+      }
+      state.series = series;
+    }
+    if (isRefreshDue(ticker, date)) {
+      scheduleRefresh(ticker, state);
+    }
+    return series;
+  }
+
+  @Override
+  public Map<String, PriceSeries> getPriceSeries(Collection<String> tickers, LocalDate date)
+      throws IOException {
+    Map<String, PriceSeries> prices = new HashMap<>();
+    List<String> pending = new ArrayList<>();
+    for (String ticker : tickers) {
+      TickerState state = states.get(ticker);
+      if (state != null && state.series != null) {
+        prices.put(ticker, getPriceSeries(ticker, date));
+      } else {
+        pending.add(ticker);
+      }
+    }
+    if (pending.size() == 1) {
+      prices.put(pending.get(0), getPriceSeries(pending.get(0), date));
+    } else if (!pending.isEmpty()) {
+      List<CompletableFuture<PriceSeries>> loads = new ArrayList<>(pending.size());
+      for (String ticker : pending) {
+        loads.add(CompletableFuture.supplyAsync(() -> {
+          try {
+            return getPriceSeries(ticker, date);
+          } catch (IOException e) {
+            throw new CompletionException(e);
+          }
+        }, LOADER));
+      }
+      try {
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+        for (CompletableFuture<PriceSeries> load : loads) {
+          load.cancel(false);
+        }
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+      for (int i = 0; i < pending.size(); i++) {
+        prices.put(pending.get(i), loads.get(i).join());
+      }
+    }
+    return prices;
+  }
+
+  @Override
+  public PriceSeries getPriceSeriesForTrade(String ticker, LocalDate date) throws IOException {
+    PriceSeries series = getPriceSeries(ticker, date);
+    LocalDate today = LocalDate.now(clock);
+    LocalDate target = date.isAfter(today) ? today : date;
+    if (!series.isEmpty()
+        && !target.isAfter(LocalDate.ofEpochDay(series.epochDay(series.size() - 1)))) {
+      return series;
+    }
+    TickerState state = states.computeIfAbsent(ticker, key -> new TickerState());
+    long seen = state.lastRefreshMillis;
+    boolean fetched = false;
+    try {
+      // A refresh that is running holds the lock, so this waits for it and then uses its result
+      // rather than fetching again. A refresh within the time to live is not repeated either.
+      synchronized (state) {
+        if (state.lastRefreshMillis == seen && !isRecent(state)) {
+          fetch(ticker, state);
+          fetched = true;
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("Refresh before trading failed for " + ticker + ": " + e.getMessage());
+    }
+    if (fetched) {
+      notifyRefreshListeners(ticker);
+    }
+    return getPriceSeries(ticker, date);
+  }
+
+  @Override
+  public TradingCalendar getTradingCalendar(Collection<String> tickers, LocalDate date)
+      throws IOException {
+    Map<String, PriceSeries> prices = getPriceSeries(tickers, date);
+    List<String> key = new ArrayList<>(new TreeSet<>(tickers));
+    CachedCalendar cached = calendars.get(key);
+    if (cached != null && cached.builtFrom(prices)) {
+      return cached.calendar;
+    }
+    TradingCalendar calendar = TradingCalendar.union(prices.values());
+    calendars.put(key, new CachedCalendar(prices, calendar));
+    return calendar;
+  }
+
+  @Override
+  public boolean isRefreshDue(String ticker, LocalDate date) {
+    TickerState state = states.get(ticker);
+    if (state == null) {
+      return policy != RefreshPolicy.MANUAL;
+    }
+    long now = clock.millis();
+    boolean neverRefreshed = state.lastRefreshMillis == Long.MIN_VALUE;
+    boolean expired = neverRefreshed || now - state.lastRefreshMillis >= ttl.toMillis();
+    switch (policy) {
+      case ONCE_PER_SESSION:
+        return neverRefreshed;
+      case TTL:
+        return expired;
+      case BEYOND_LAST_BAR:
+        LocalDate lastBar = getLastBarDate(ticker);
+        return expired && (lastBar == null || date.isAfter(lastBar));
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public void refresh(String ticker) throws IOException {
+    TickerState state = states.computeIfAbsent(ticker, key -> new TickerState());
+    synchronized (state) {
+      fetch(ticker, state);
+    }
+    notifyRefreshListeners(ticker);
+  }
+
+  /**
+   * Registers a listener that is called with the ticker symbol after each refresh has stored new
+   * data, on the thread that ran the refresh.
+   *
+   * @param listener The listener.
+   */
+  public void addRefreshListener(Consumer<String> listener) {
+    refreshListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener registered with {@link #addRefreshListener(Consumer)}.
+   *
+   * @param listener The listener.
+   */
+  public void removeRefreshListener(Consumer<String> listener) {
+    refreshListeners.remove(listener);
+  }
+
+  @Override
+  public void invalidate(String ticker) {
+    TickerState state = states.get(ticker);
+    if (state != null && state.series != null) {
+      state.replaced = state.series;
+      state.series = null;
+    }
+  }
+
+  @Override
+  public LocalDate getLastBarDate(String ticker) {
+    TickerState state = states.get(ticker);
+    if (state == null || state.series == null || state.series.isEmpty()) {
+      return null;
+    }
+    return LocalDate.ofEpochDay(state.series.epochDay(state.series.size() - 1));
+  }
+
+  @Override
+  public void setPolicy(RefreshPolicy policy) {
+    this.policy = policy;
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    if (worker != null) {
+      worker.shutdownNow();
+      worker = null;
+    }
+  }
+
+  /**
+   * Periodically checks every tracked ticker against the refresh policy for the current date and
+   * refreshes the stale ones in the background.
+   *
+   * @param period The time between two checks.
+   */
+  public void schedulePeriodicRefresh(Duration period) {
+    getWorker().scheduleAtFixedRate(() -> {
+      LocalDate today = LocalDate.now(clock);
+      states.forEach((ticker, state) -> {
+        if (isRefreshDue(ticker, today)) {
+          scheduleRefresh(ticker, state);
+        }
+      });
+    }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void scheduleRefresh(String ticker, TickerState state) {
+    if (!state.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    getWorker().schedule(() -> {
+      try {
+        refresh(ticker);
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Background refresh failed for " + ticker + ": " + e.getMessage());
+        state.lastRefreshMillis = clock.millis();
+      } finally {
+        state.refreshing.set(false);
+      }
+    }, 0, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized ScheduledExecutorService getWorker() {
+    if (worker == null) {
+      worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-data-refresh");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return worker;
+  }
+
+  private void fetch(String ticker, TickerState state) throws IOException {
+    StockData stockData = new StockData(ticker);
+    PriceSeries before = state.series != null ? state.series : stockData.getPriceSeries();
+    stockData.getHistoricalStockData();
+    PriceSeries after = stockData.getPriceSeries();
+    recordCorrections(ticker, before, after);
+    state.series = after;
+    state.lastRefreshMillis = clock.millis();
+  }
+
+  private boolean isRecent(TickerState state) {
+    return state.lastRefreshMillis != Long.MIN_VALUE
+        && clock.millis() - state.lastRefreshMillis < ttl.toMillis();
+  }
+
+  private void notifyRefreshListeners(String ticker) {
+    for (Consumer<String> listener : refreshListeners) {
+      try {
+        listener.accept(ticker);
+      } catch (RuntimeException e) {
+        System.err.println("Refresh listener failed for " + ticker + ": " + e.getMessage());
+      }
+    }
+  }
+
+  private void recordCorrections(String ticker, PriceSeries before, PriceSeries after) {
+    long corrected = before.firstCorrectedDay(after);
+    if (corrected != Long.MAX_VALUE) {
+      ValuationMemo.getInstance().invalidateFrom(ticker, LocalDate.ofEpochDay(corrected));
+    }
+  }
+
+  private static ExecutorService createLoader() {
+    AtomicInteger count = new AtomicInteger();
+    return new ThreadPoolExecutor(0, MAX_LOADER_THREADS, 30,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "price-loader-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+}
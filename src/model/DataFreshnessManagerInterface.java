@@ -0,0 +1,108 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * This interface specifies how locally stored stock data is read and kept fresh. Reads always
+ * return local data; refreshes from the remote source are decided by a {@link RefreshPolicy} and
+ * run in the background, so valuation code never waits on the network.
+ */
+public interface DataFreshnessManagerInterface {
+
+  /**
+   * Returns the locally stored price series of a ticker. If the refresh policy considers the data
+   * stale for the requested date, a background refresh is scheduled and the current local data is
+   * returned. Data is fetched synchronously only when nothing is stored locally yet.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @param date   The latest date the caller is interested in.
+   * @return The locally stored price series of the ticker.
+   * @throws IOException If the local data cannot be read.
+   */
+  public PriceSeries getPriceSeries(String ticker, LocalDate date) throws IOException;
+
+  /**
+   * Returns the locally stored price series of several tickers. Series that are not loaded yet are
+   * read concurrently, so the call takes about as long as the slowest single read rather than the
+   * sum of all of them.
+   *
+   * @param tickers The ticker symbols of the stocks.
+   * @param date    The latest date the caller is interested in.
+   * @return The locally stored price series of each ticker, keyed by ticker symbol.
+   * @throws IOException If the local data of any ticker cannot be read.
+   */
+  public Map<String, PriceSeries> getPriceSeries(Collection<String> tickers, LocalDate date)
+      throws IOException;
+
+  /**
+   * Returns the price series of a ticker for pricing a trade on a date. Unlike
+   * {@link #getPriceSeries(String, LocalDate)}, if the date is after the last stored bar, the
+   * data is refreshed before returning, waiting for a refresh that is already running instead of
+   * starting another one. A date after today is treated as today, since no newer bar exists.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @param date   The date of the trade.
+   * @return The price series of the ticker.
+   * @throws IOException If the local data cannot be read.
+   */
+  public PriceSeries getPriceSeriesForTrade(String ticker, LocalDate date) throws IOException;
+
+  /**
+   * Returns the trading calendar made of every day on which any of the tickers has a stored bar.
+   *
+   * @param tickers The ticker symbols of the stocks.
+   * @param date    The latest date the caller is interested in.
+   * @return The trading calendar of the tickers.
+   * @throws IOException If the local data of any ticker cannot be read.
+   */
+  public TradingCalendar getTradingCalendar(Collection<String> tickers, LocalDate date)
+      throws IOException;
+
+  /**
+   * Checks whether the refresh policy considers a ticker's data stale for a date.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @param date   The date being requested.
+   * @return true if a refresh is due.
+   */
+  public boolean isRefreshDue(String ticker, LocalDate date);
+
+  /**
+   * Fetches a ticker's data from the remote source and replaces the local copy, waiting for the
+   * fetch to complete.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @throws IOException If the data cannot be fetched or stored.
+   */
+  public void refresh(String ticker) throws IOException;
+
+  /**
+   * Discards the cached series of a ticker so that the next read reloads the local file.
+   *
+   * @param ticker The ticker symbol of the stock.
+   */
+  public void invalidate(String ticker);
+
+  /**
+   * Returns the date of the most recent stored bar of a ticker.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @return The last bar date, or null if the ticker has not been loaded or has no data.
+   */
+  public LocalDate getLastBarDate(String ticker);
+
+  /**
+   * Changes the refresh policy used for subsequent reads.
+   *
+   * @param policy The new refresh policy.
+   */
+  public void setPolicy(RefreshPolicy policy);
+
+  /**
+   * Stops the background refresh worker.
+   */
+  public void shutdown();
+}
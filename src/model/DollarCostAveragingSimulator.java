@@ -0,0 +1,141 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulates a periodic dollar-cost averaging schedule against preloaded price series. Every
+ * scheduled date is moved forward to the first day, within a week, on which every ticker of the
+ * schedule has a closing price, and the amount is split between the tickers by their ratios at
+ * those prices. The next date is scheduled the given interval after the day actually traded; if no
+ * such day is found within the week, the date is skipped and the next one is scheduled after the
+ * week.
+ *
+ * <p>The days on which every ticker has a price are indexed once in a {@link TradingCalendar}, so
+ * each scheduled date is resolved to its trading day with a constant-time lookup instead of
+ * probing the days after it, and the result is returned as one {@link TradeBatch}.</p>
+ */
+public final class DollarCostAveragingSimulator {
+
+  /**
+   * How many days, starting with the scheduled date, are tried to find a common trading day.
+   */
+  public static final int DAYS_TO_TRY = 7;
+
+  private DollarCostAveragingSimulator() {
+  }
+
+  /**
+   * Computes every purchase of a periodic investment schedule.
+   *
+   * @param amount       The amount invested on each scheduled date.
+   * @param stockRatio   The share of the amount invested in each ticker. Tickers with a ratio of
+   *                     zero are left out.
+   * @param startDate    The first scheduled date.
+   * @param endDate      The last date on which an investment may be scheduled.
+   * @param intervalDays The number of days between a purchase and the next scheduled date.
+   * @param prices       The price series of every ticker with a positive ratio.
+   * @return The purchases, in date order.
+   * @throws IllegalArgumentException if the interval is not positive.
+   */
+  public static TradeBatch simulate(double amount, Map<String, Double> stockRatio,
+      LocalDate startDate, LocalDate endDate, long intervalDays,
+      Map<String, PriceSeries> prices) {
+    return schedule(amount, stockRatio, startDate.toEpochDay(), endDate.toEpochDay(),
+        intervalDays, prices).trades;
+  }
+
+  /**
+   * Computes the purchases of a periodic investment schedule from a scheduled day onwards, and the
+   * day the schedule continues from. A scheduled day whose week runs past the last common trading
+   * day is not decided yet, so the schedule stops there and continues from that day once more
+   * prices are stored.
+   *
+   * @param amount       The amount invested on each scheduled date.
+   * @param stockRatio   The share of the amount invested in each ticker.
+   * @param startDay     The first scheduled day, as an epoch day.
+   * @param endDay       The last day on which an investment may be scheduled, as an epoch day.
+   * @param intervalDays The number of days between a purchase and the next scheduled date.
+   * @param prices       The price series of every ticker with a positive ratio.
+   * @return The purchases and the next scheduled day.
+   */
+  static Schedule schedule(double amount, Map<String, Double> stockRatio, long startDay,
+      long endDay, long intervalDays, Map<String, PriceSeries> prices) {
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("Interval days must be greater than 0.");
+    }
+    List<String> tickers = new ArrayList<>();
+    for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
+      if (entry.getValue() > 0) {
+        tickers.add(entry.getKey());
+      }
+    }
+    Collections.sort(tickers);
+    int count = tickers.size();
+    PriceSeries[] series = new PriceSeries[count];
+    double[] investments = new double[count];
+    for (int t = 0; t < count; t++) {
+      series[t] = prices.getOrDefault(tickers.get(t), PriceSeries.empty());
+      investments[t] = amount * stockRatio.get(tickers.get(t));
+    }
+    if (count == 0) {
+      return new Schedule(TradeBatch.empty(), 0, Math.max(startDay, endDay + 1));
+    }
+
+    TradingCalendar calendar = TradingCalendar.common(Arrays.asList(series), startDay);
+    int capacity = (int) Math.min(Math.min(Integer.MAX_VALUE / count, calendar.size()),
+        Math.max(0, (endDay - startDay) / intervalDays + 1));
+    long[] epochDays = new long[capacity * count];
+    String[] lotTickers = new String[capacity * count];
+    long[] microShares = new long[capacity * count];
+    int lots = 0;
+    int installments = 0;
+
+    long day = startDay;
+    while (day <= endDay) {
+      int index = calendar.ceilingIndex(day);
+      if (index == calendar.size()) {
+        break;
+      }
+      long tradingDay = calendar.epochDay(index);
+      if (tradingDay > day + DAYS_TO_TRY - 1) {
+        day += DAYS_TO_TRY + intervalDays;
+        continue;
+      }
+      for (int t = 0; t < count; t++) {
+        double close = series[t].close(series[t].indexOf(tradingDay));
+        long shares = FixedPoint.toMicroShares(investments[t] / close);
+        if (shares > 0) {
+          epochDays[lots] = tradingDay;
+          lotTickers[lots] = tickers.get(t);
+          microShares[lots] = shares;
+          lots++;
+        }
+      }
+      installments++;
+      day = tradingDay + intervalDays;
+    }
+    return new Schedule(new TradeBatch(Arrays.copyOf(epochDays, lots),
+        Arrays.copyOf(lotTickers, lots), Arrays.copyOf(microShares, lots)), installments, day);
+  }
+
+  /**
+   * The purchases of part of a schedule and the day the schedule continues from.
+   */
+  static final class Schedule {
+
+    final TradeBatch trades;
+    final int installments;
+    final long nextDay;
+
+    Schedule(TradeBatch trades, int installments, long nextDay) {
+      this.trades = trades;
+      this.installments = installments;
+      this.nextDay = nextDay;
+    }
+  }
+}
@@ -3,17 +3,24 @@ package model;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * This class implements a dollar-cost averaging strategy for investing in a flexible portfolio.
  * This strategy involves investing a fixed amount of money at regular intervals, regardless of the
  * stock price, which can potentially reduce the impact of volatility.
+ *
+ * <p>A periodic investment is planned up front by {@link DollarCostAveragingSimulator} from each
+ * ticker's price series, loaded once, and the resulting purchases are added to the portfolio as a
+ * single batch.</p>
  */
 public class DollarCostAveragingStrategy implements Strategy {
 
   private FlexiblePortfolioInterface flexiblePortfolioInterface;
+  private final DataFreshnessManagerInterface dataFreshnessManager;
 
   /**
    * Constructs a DollarCostAveragingStrategy with a given flexible portfolio.
@@ -22,7 +29,21 @@ public class DollarCostAveragingStrategy implements Strategy {
    *                                   be made.
    */
   public DollarCostAveragingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface) {
+    this(flexiblePortfolioInterface, DataFreshnessManager.getInstance());
+  }
+
+  /**
+   * Constructs a DollarCostAveragingStrategy with a given flexible portfolio and source of prices.
+   *
+   * @param flexiblePortfolioInterface An interface to the flexible portfolio where investments will
+   *                                   be made.
+   * @param dataFreshnessManager       The source of the price series used to plan periodic
+   *                                   investments.
+   */
+  public DollarCostAveragingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                                     DataFreshnessManagerInterface dataFreshnessManager) {
     this.flexiblePortfolioInterface = flexiblePortfolioInterface;
+    this.dataFreshnessManager = dataFreshnessManager;
   }
 
   @Override
@@ -31,10 +52,10 @@ public class DollarCostAveragingStrategy implements Strategy {
       throw new IllegalArgumentException("Invalid date. Try earlier Date");
     }
 
-    HashMap<String, String> composition = flexiblePortfolioInterface.getComposition(date);
+    Holdings holdings = flexiblePortfolioInterface.getHoldings(date);
     for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
       String ticker = entry.getKey();
-      if (!(composition.containsKey(ticker))) {
+      if (holdings.indexOf(ticker) < 0) {
         throw new IllegalArgumentException("Trying to invest in a non-exiting stock" + ticker
                 + ". Please buy the stock first or try investing on another date.");
       }
@@ -57,6 +78,8 @@ public class DollarCostAveragingStrategy implements Strategy {
     if (Math.abs(sum - 1.0) > 0.000001) {
       throw new IllegalArgumentException("The sum of the investment ratios must equal 1.");
     }
+    List<String> tickers = new ArrayList<>();
+    List<Long> shares = new ArrayList<>();
     for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
       String ticker = entry.getKey();
       Double ratio = entry.getValue();
@@ -71,8 +94,20 @@ public class DollarCostAveragingStrategy implements Strategy {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-      flexiblePortfolioInterface.buy(ticker, stockShares, date);
+      long microShares = FixedPoint.toMicroShares(stockShares);
+      if (microShares > 0) {
+        tickers.add(ticker);
+        shares.add(microShares);
+      }
+    }
+    long[] epochDays = new long[tickers.size()];
+    long[] microShares = new long[tickers.size()];
+    for (int i = 0; i < microShares.length; i++) {
+      epochDays[i] = date.toEpochDay();
+      microShares[i] = shares.get(i);
     }
+    flexiblePortfolioInterface.buyAll(new TradeBatch(epochDays,
+            tickers.toArray(new String[0]), microShares));
   }
 
   @Override
@@ -94,6 +129,10 @@ public class DollarCostAveragingStrategy implements Strategy {
       throw new IllegalArgumentException("Can't invest on this date. Try earlier Date");
     }
 
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("Interval days must be greater than 0.");
+    }
+
     if (intervalDays > ChronoUnit.DAYS.between(startDate, endDate)) {
       throw new IllegalArgumentException("Interval days cannot be more than the difference"
               + " between start date and end date.");
@@ -116,22 +155,18 @@ public class DollarCostAveragingStrategy implements Strategy {
       }
     }
 
-    while (!endDate.isBefore(startDate)) {
-      boolean success = false;
-      int retryCount = 0;
-      int maxRetries = 7;
-
-      while (!success && retryCount < maxRetries) {
-        try {
-          buyWeightedRatioStocks(amount, stockRatio, startDate);
-          success = true;
-        } catch (Exception e) {
-          startDate = startDate.plusDays(1);
-          retryCount++;
-        }
+    Map<String, PriceSeries> prices;
+    try {
+      prices = dataFreshnessManager.getPriceSeries(stockRatio.keySet(), endDate);
+      // Loaded together first; only series that end before the last installment are refreshed.
+      for (String ticker : stockRatio.keySet()) {
+        prices.put(ticker, dataFreshnessManager.getPriceSeriesForTrade(ticker, endDate));
       }
-      startDate = startDate.plusDays(intervalDays);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
+    flexiblePortfolioInterface.buyAll(DollarCostAveragingSimulator.simulate(amount, stockRatio,
+            startDate, endDate, intervalDays, prices));
   }
 
 }
@@ -0,0 +1,114 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for share counts and prices. Shares are held as micro-shares (millionths of a
+ * share) and prices and money as hundredths of a cent, both in a {@code long}, so that totals are
+ * exact and holdings never have to be formatted and parsed back to be valued.
+ */
+public final class FixedPoint {
+
+  /**
+   * The number of micro-shares in one share.
+   */
+  public static final long SHARE_SCALE = 1_000_000L;
+
+  /**
+   * The number of price units (hundredths of a cent) in one dollar.
+   */
+  public static final long PRICE_SCALE = 10_000L;
+
+  private FixedPoint() {
+    // Utility class.
+  }
+
+  /**
+   * Converts a share count to micro-shares, rounding to the nearest micro-share.
+   *
+   * @param shares The number of shares.
+   * @return The number of micro-shares.
+   */
+  public static long toMicroShares(double shares) {
+    return Math.round(shares * SHARE_SCALE);
+  }
+
+  /**
+   * Converts a dollar amount to price units, rounding to the nearest hundredth of a cent.
+   *
+   * @param amount The amount in dollars.
+   * @return The amount in price units.
+   */
+  public static long toPriceUnits(double amount) {
+    return Math.round(amount * PRICE_SCALE);
+  }
+
+  /**
+   * Parses a decimal share count exactly into micro-shares.
+   *
+   * @param shares The share count as text.
+   * @return The number of micro-shares.
+   * @throws NumberFormatException if the text is not a number.
+   */
+  public static long parseMicroShares(String shares) {
+    return new BigDecimal(shares.trim()).movePointRight(6)
+        .setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  /**
+   * Parses a decimal dollar amount exactly into price units.
+   *
+   * @param amount The amount as text.
+   * @return The amount in price units.
+   * @throws NumberFormatException if the text is not a number.
+   */
+  public static long parsePriceUnits(String amount) {
+    return new BigDecimal(amount.trim()).movePointRight(4)
+        .setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  /**
+   * Converts micro-shares back to a share count.
+   *
+   * @param microShares The number of micro-shares.
+   * @return The number of shares.
+   */
+  public static double toShares(long microShares) {
+    return microShares / (double) SHARE_SCALE;
+  }
+
+  /**
+   * Converts price units back to dollars.
+   *
+   * @param priceUnits The amount in price units.
+   * @return The amount in dollars.
+   */
+  public static double toDollars(long priceUnits) {
+    return priceUnits / (double) PRICE_SCALE;
+  }
+
+  /**
+   * Computes the value of a position, rounded to the nearest price unit. The whole and fractional
+   * shares are multiplied separately so that the intermediate products stay within a long.
+   *
+   * @param microShares The size of the position in micro-shares.
+   * @param priceUnits  The price of one share in price units.
+   * @return The value of the position in price units.
+   */
+  public static long value(long microShares, long priceUnits) {
+    long whole = microShares / SHARE_SCALE;
+    long fraction = microShares % SHARE_SCALE;
+    return whole * priceUnits + Math.round(fraction * (double) priceUnits / SHARE_SCALE);
+  }
+
+  /**
+   * Formats micro-shares with three decimals, the format used by portfolio compositions.
+   *
+   * @param microShares The number of micro-shares.
+   * @return The formatted share count.
+   */
+  public static String formatShares(long microShares) {
+    return String.format("%.3f", toShares(microShares));
+  }
+}
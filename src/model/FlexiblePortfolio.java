@@ -7,26 +7,37 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class represents a user's flexible investment portfolio, that facilitates buying, and
  * selling of stocks in history. It supports operations including cost basis, total value, and
  * performance over time. The portfolio adjusts with transactions and maintains composition.
+ *
+ * <p>Cash deposited, withdrawn, paid for purchases or received from sales is kept in the same
+ * history as the shares, so every trade updates the cash ledger and the positions together.</p>
+ *
+ * <p>The portfolio is safe for concurrent use. Its history is an immutable map published through a
+ * volatile field: every read works on the version it picked up when it started, without locking,
+ * while trades are validated and applied one at a time under a lock.</p>
  */
 public class FlexiblePortfolio implements FlexiblePortfolioInterface {
 
   private User user;
   private String portfolioName;
 
-  private TreeMap<LocalDate, ArrayList<Stock>> composition = new TreeMap<>();
+  private volatile PersistentSortedMap<LocalDate, Holdings> composition;
 
-  private Map<String, Double> netShares = new HashMap<>();
+  private final ReentrantLock tradeLock = new ReentrantLock();
+
+  private final ValuationEngineInterface valuationEngine = new ValuationEngine();
+  private final ValuationMemo valuationMemo;
+
+  private final DataFreshnessManagerInterface dataFreshnessManager =
+          DataFreshnessManager.getInstance();
 
   /**
    * Constructs a new FlexiblePortfolio with the given user and portfolio name.
@@ -35,63 +46,30 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
    * @param portfolioName The name of the portfolio.
    */
   public FlexiblePortfolio(User user, String portfolioName) {
+    this(user, portfolioName, PersistentSortedMap.empty(), ValuationMemo.getInstance());
+  }
+
+  private FlexiblePortfolio(User user, String portfolioName,
+                            PersistentSortedMap<LocalDate, Holdings> composition,
+                            ValuationMemo valuationMemo) {
     this.user = user;
     this.portfolioName = portfolioName;
+    this.composition = composition;
+    this.valuationMemo = valuationMemo;
   }
 
   /**
-   * Represents a stock within the portfolio, tracking its ticker and shares owned.
+   * Creates a copy of this portfolio under a new name for trying out hypothetical trades. The
+   * copy shares the holdings history with this portfolio, so forking takes constant time and
+   * memory; trades on either portfolio afterwards do not affect the other. The copy is a
+   * throwaway scenario, so its values are not memoized.
+   *
+   * @param scenarioName The name of the forked portfolio.
+   * @return The forked portfolio.
    */
-  private class Stock {
-
-    private String ticker;
-    private double shares = 0;
-
-    /**
-     * Constructs a Stock instance with the specified ticker.
-     *
-     * @param ticker The stock's ticker symbol.
-     */
-    public Stock(String ticker) {
-      this.ticker = ticker;
-    }
-
-    /**
-     * Adds shares to this stock.
-     *
-     * @param shares The number of shares to add.
-     */
-    public void addShares(double shares) {
-      this.shares += shares;
-    }
-
-    /**
-     * Removes shares from this stock.
-     *
-     * @param shares The number of shares to remove.
-     */
-    public void removeShares(double shares) {
-      this.shares -= shares;
-    }
-
-    /**
-     * Returns the number of shares owned.
-     *
-     * @return The number of shares.
-     */
-    public double getShares() {
-      return shares;
-    }
-
-    /**
-     * Returns the stock ticker symbol.
-     *
-     * @return The ticker symbol.
-     */
-    public String getTicker() {
-      return ticker;
-    }
-
+  @Override
+  public FlexiblePortfolioInterface fork(String scenarioName) {
+    return new FlexiblePortfolio(user, scenarioName, composition, null);
   }
 
   /**
@@ -111,53 +89,16 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
       throw new IllegalArgumentException("Invalid date,can't buy shares in future");
     }
 
-    if (shares <= 0.00) {
+    long microShares = FixedPoint.toMicroShares(shares);
+    if (microShares <= 0) {
       throw new IllegalArgumentException("Invalid number of shares");
     }
-
-    LocalDate latestDateBeforeOrEqual = composition.floorKey(date);
-    ArrayList<Stock> stocksOnDate;
-
-    if (latestDateBeforeOrEqual != null && latestDateBeforeOrEqual.equals(date)) {
-      stocksOnDate = new ArrayList<>(composition.get(latestDateBeforeOrEqual));
-    } else {
-      stocksOnDate = new ArrayList<>();
-      if (latestDateBeforeOrEqual != null) {
-        for (Stock stock : composition.get(latestDateBeforeOrEqual)) {
-          Stock newStock = new Stock(stock.getTicker());
-          newStock.addShares(stock.getShares());
-          stocksOnDate.add(newStock);
-        }
-      }
+    tradeLock.lock();
+    try {
+      applyTrade(ticker, microShares, date);
+    } finally {
+      tradeLock.unlock();
     }
-
-    boolean stockFound = false;
-    for (Stock stock : stocksOnDate) {
-      if (stock.getTicker().equalsIgnoreCase(ticker)) {
-        stock.addShares(shares);
-        stockFound = true;
-        break;
-      }
-    }
-    if (!stockFound) {
-      Stock newStock = new Stock(ticker);
-      newStock.addShares(shares);
-      stocksOnDate.add(newStock);
-    }
-    composition.put(date, stocksOnDate);
-
-    composition.tailMap(date, false).forEach((futureDate, futureStocks) -> {
-      for (Stock futureStock : futureStocks) {
-        if (futureStock.getTicker().equalsIgnoreCase(ticker)) {
-          futureStock.addShares(shares);
-          return;
-        }
-      }
-      Stock newStock = new Stock(ticker);
-      newStock.addShares(shares);
-      futureStocks.add(newStock);
-    });
-    netShares.put(ticker, netShares.getOrDefault(ticker, 0.0) + shares);
   }
 
   /**
@@ -176,55 +117,246 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
       throw new IllegalArgumentException("Invalid date,can't buy shares in future");
     }
 
-    if (shares <= 0.00) {
+    long microShares = FixedPoint.toMicroShares(shares);
+    if (microShares <= 0) {
       throw new IllegalArgumentException("Invalid Number of shares");
     }
-    double currentShares = netShares.getOrDefault(ticker, 0.0);
-    if (currentShares < shares) {
+    tradeLock.lock();
+    try {
+      requireShares(composition, ticker, microShares, date);
+      applyTrade(ticker, -microShares, date);
+    } finally {
+      tradeLock.unlock();
+    }
+  }
+
+  /**
+   * Buys a number of shares of a stock on a certain date, paying for them from the portfolio's
+   * cash. The cash held on that date and on every later date is reduced by the cost.
+   *
+   * @param ticker The ticker symbol of the stock to buy.
+   * @param shares The number of shares to buy.
+   * @param cost   The amount paid for the shares.
+   * @param date   The date of the purchase.
+   * @throws IllegalArgumentException if the number of shares or the cost is invalid, or there is
+   *                                  not enough cash on the date or a later date.
+   */
+  @Override
+  public void buyWithCash(String ticker, double shares, double cost, LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date,can't buy shares in future");
+    }
+    long microShares = FixedPoint.toMicroShares(shares);
+    if (microShares <= 0) {
+      throw new IllegalArgumentException("Invalid number of shares");
+    }
+    long costUnits = FixedPoint.toPriceUnits(cost);
+    if (costUnits < 0) {
+      throw new IllegalArgumentException("Invalid amount of cash");
+    }
+    tradeLock.lock();
+    try {
+      requireCash(composition, costUnits, date);
+      applyChange(Holdings.empty().plus(ticker, microShares).plusCash(-costUnits), date);
+    } finally {
+      tradeLock.unlock();
+    }
+  }
+
+  /**
+   * Sells a number of shares of a stock on a certain date and adds the proceeds to the portfolio's
+   * cash.
+   *
+   * @param ticker   The ticker symbol of the stock to sell.
+   * @param shares   The number of shares to sell.
+   * @param proceeds The amount received for the shares.
+   * @param date     The date of the sale.
+   * @throws IllegalArgumentException if the number of shares or the proceeds are invalid, or not
+   *                                  enough shares are available.
+   */
+  @Override
+  public void sellForCash(String ticker, double shares, double proceeds, LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date,can't buy shares in future");
+    }
+    long microShares = FixedPoint.toMicroShares(shares);
+    if (microShares <= 0) {
+      throw new IllegalArgumentException("Invalid Number of shares");
+    }
+    long proceedsUnits = FixedPoint.toPriceUnits(proceeds);
+    if (proceedsUnits < 0) {
+      throw new IllegalArgumentException("Invalid amount of cash");
+    }
+    tradeLock.lock();
+    try {
+      requireShares(composition, ticker, microShares, date);
+      applyChange(Holdings.empty().plus(ticker, -microShares).plusCash(proceedsUnits), date);
+    } finally {
+      tradeLock.unlock();
+    }
+  }
+
+  /**
+   * Adds cash to the portfolio on a certain date, such as a contribution. Later dates reflect the
+   * deposit.
+   *
+   * @param amount The amount of cash to add.
+   * @param date   The date of the deposit.
+   * @throws IllegalArgumentException if the amount is not positive or the date is in the future.
+   */
+  @Override
+  public void deposit(double amount, LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date,can't deposit cash in future");
+    }
+    long cashUnits = FixedPoint.toPriceUnits(amount);
+    if (cashUnits <= 0) {
+      throw new IllegalArgumentException("Invalid amount of cash");
+    }
+    tradeLock.lock();
+    try {
+      applyChange(Holdings.empty().plusCash(cashUnits), date);
+    } finally {
+      tradeLock.unlock();
+    }
+  }
+
+  /**
+   * Takes cash out of the portfolio on a certain date. Later dates reflect the withdrawal.
+   *
+   * @param amount The amount of cash to take out.
+   * @param date   The date of the withdrawal.
+   * @throws IllegalArgumentException if the amount is not positive, the date is in the future or
+   *                                  there is not enough cash on the date or a later date.
+   */
+  @Override
+  public void withdraw(double amount, LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date,can't withdraw cash in future");
+    }
+    long cashUnits = FixedPoint.toPriceUnits(amount);
+    if (cashUnits <= 0) {
+      throw new IllegalArgumentException("Invalid amount of cash");
+    }
+    tradeLock.lock();
+    try {
+      requireCash(composition, cashUnits, date);
+      applyChange(Holdings.empty().plusCash(-cashUnits), date);
+    } finally {
+      tradeLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the cash held in the portfolio on a given date.
+   *
+   * @param date The date of the balance.
+   * @return The cash held on that date, 0 before the first deposit.
+   */
+  @Override
+  public double getCash(LocalDate date) {
+    return holdingsOn(getHoldingsTimeline(), date).cash();
+  }
+
+  private static void requireShares(PersistentSortedMap<LocalDate, Holdings> timeline,
+                                    String ticker, long microShares, LocalDate date) {
+    if (timeline.isEmpty()
+            || timeline.lastEntry().getValue().microSharesOf(ticker) < microShares) {
       throw new IllegalArgumentException("Cannot sell the stock: not enough shares available for "
               + ticker);
     }
-    netShares.put(ticker, currentShares - shares);
-
-    boolean stockFound = false;
-    double sharesToSell = shares;
-    for (LocalDate key : composition.headMap(date, true).descendingMap().keySet()) {
-      for (Stock existingStock : composition.get(key)) {
-        if (existingStock.getTicker().equalsIgnoreCase(ticker)) {
-          if (existingStock.getShares() < sharesToSell) {
-            sharesToSell -= existingStock.getShares();
-            existingStock.removeShares(existingStock.getShares());
-          } else {
-            existingStock.removeShares(sharesToSell);
-            sharesToSell = 0.00;
-          }
-          stockFound = true;
-          if (sharesToSell == 0.00) {
-            break;
-          }
-        }
+    if (holdingsOn(timeline, date).microSharesOf(ticker) < microShares) {
+      throw new IllegalArgumentException("Cannot sell the stock: "
+              + "not enough shares or stock not found by " + date);
+    }
+    for (Map.Entry<LocalDate, Holdings> future : timeline.entries(date.plusDays(1), null)) {
+      if (future.getValue().microSharesOf(ticker) < microShares) {
+        throw new IllegalArgumentException(
+                "Cannot sell the stock: not enough shares available for " + ticker);
       }
-      if (sharesToSell == 0.00) {
-        break;
+    }
+  }
+
+  private static void requireCash(PersistentSortedMap<LocalDate, Holdings> timeline,
+                                  long cashUnits, LocalDate date) {
+    if (cashUnits == 0) {
+      return;
+    }
+    if (holdingsOn(timeline, date).cashUnits() < cashUnits) {
+      throw new IllegalArgumentException("Not enough cash available by " + date);
+    }
+    for (Map.Entry<LocalDate, Holdings> future : timeline.entries(date.plusDays(1), null)) {
+      if (future.getValue().cashUnits() < cashUnits) {
+        throw new IllegalArgumentException("Not enough cash available after " + date);
       }
     }
+  }
 
-    if (!stockFound || sharesToSell > 0.00) {
-      throw new IllegalArgumentException("Cannot sell the stock: "
-              + "not enough shares or stock not found by " + date);
-    } else {
-      for (LocalDate futureDate : composition.tailMap(date, false).keySet()) {
-        ArrayList<Stock> futureStocks = new ArrayList<>(composition.get(futureDate));
-        for (Stock futureStock : futureStocks) {
-          if (futureStock.getTicker().equalsIgnoreCase(ticker)) {
-            futureStock.removeShares(shares);
-          }
+  /**
+   * Buys every lot of a batch as a single trade. The history is rebuilt in one merge of the batch
+   * with the existing entries from the first lot onwards, and the new history is published once,
+   * so readers see either none or all of the lots.
+   *
+   * @param batch The purchases to make, in date order.
+   * @throws IllegalArgumentException if a lot is dated in the future.
+   */
+  @Override
+  public void buyAll(TradeBatch batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    if (batch.date(batch.size() - 1).isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date,can't buy shares in future");
+    }
+    tradeLock.lock();
+    try {
+      PersistentSortedMap<LocalDate, Holdings> original = composition;
+      PersistentSortedMap<LocalDate, Holdings> updated = original;
+      Iterator<Map.Entry<LocalDate, Holdings>> existing =
+              original.entries(batch.date(0), null).iterator();
+      Map.Entry<LocalDate, Holdings> next = existing.hasNext() ? existing.next() : null;
+      Holdings bought = Holdings.empty();
+      int lot = 0;
+      while (lot < batch.size() || next != null) {
+        long day = lot < batch.size() ? batch.epochDay(lot) : Long.MAX_VALUE;
+        if (next != null && next.getKey().toEpochDay() < day) {
+          updated = updated.put(next.getKey(), next.getValue().plus(bought));
+          next = existing.hasNext() ? existing.next() : null;
+          continue;
+        }
+        LocalDate date = LocalDate.ofEpochDay(day);
+        for (; lot < batch.size() && batch.epochDay(lot) == day; lot++) {
+          bought = bought.plus(batch.ticker(lot), batch.microShares(lot));
         }
-        composition.put(futureDate, futureStocks);
+        if (next != null && next.getKey().equals(date)) {
+          next = existing.hasNext() ? existing.next() : null;
+        }
+        updated = updated.put(date, holdingsOn(original, date).plus(bought));
       }
+      composition = updated;
+    } finally {
+      tradeLock.unlock();
     }
   }
 
+  private void applyTrade(String ticker, long microShares, LocalDate date) {
+    PersistentSortedMap<LocalDate, Holdings> timeline = composition;
+    composition = timeline.put(date, holdingsOn(timeline, date).plus(ticker, microShares))
+            .mapValuesAfter(date, holdings -> holdings.plus(ticker, microShares));
+  }
+
+  private void applyChange(Holdings delta, LocalDate date) {
+    PersistentSortedMap<LocalDate, Holdings> timeline = composition;
+    composition = timeline.put(date, holdingsOn(timeline, date).plus(delta))
+            .mapValuesAfter(date, holdings -> holdings.plus(delta));
+  }
+
+  private static Holdings holdingsOn(PersistentSortedMap<LocalDate, Holdings> timeline,
+                                     LocalDate date) {
+    Map.Entry<LocalDate, Holdings> entry = timeline.floorEntry(date);
+    return entry == null ? Holdings.empty() : entry.getValue();
+  }
+
   /**
    * Calculates the cost basis of the portfolio up to a specific date.
    *
@@ -234,49 +366,27 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
    */
   @Override
   public float costBasis(String portfolioName, LocalDate date) {
-    float totalCostBasis = 0.00F;
-
-    Set<String> uniqueTickers = new HashSet<>();
-    for (ArrayList<Stock> stocksOnDate : composition.values()) {
-      for (Stock stock : stocksOnDate) {
-        uniqueTickers.add(stock.getTicker());
-      }
-    }
-
-    for (String ticker : uniqueTickers) {
-      float tickerCostBasis = 0.00F;
-      double previousShares = 0.00;
-
-      for (Map.Entry<LocalDate, ArrayList<Stock>> entry : composition.entrySet()) {
-        if (entry.getKey().isAfter(date)) {
-          break;
-        }
-
-        double currentShares = 0.00;
-
-        for (Stock stock : entry.getValue()) {
-          if (stock.getTicker().equalsIgnoreCase(ticker)) {
-            currentShares = stock.getShares();
-            break;
-          }
-        }
-
-        double sharesBought = currentShares - previousShares;
-        if (sharesBought > 0.00) {
+    long totalCostBasis = 0;
+    Holdings previous = Holdings.empty();
+
+    for (Map.Entry<LocalDate, Holdings> entry : getHoldingsTimeline().entries(null, date)) {
+      Holdings current = entry.getValue();
+      for (int i = 0; i < current.size(); i++) {
+        long sharesBought = current.microShares(i) - previous.microSharesOf(current.ticker(i));
+        if (sharesBought > 0) {
           try {
-            float purchasePricePerShare = getClosingValue(ticker, entry.getKey());
-            tickerCostBasis += sharesBought * purchasePricePerShare;
+            long purchasePricePerShare = valuationEngine.priceAsOf(dataFreshnessManager
+                    .getPriceSeries(current.ticker(i), entry.getKey()), entry.getKey());
+            totalCostBasis += FixedPoint.value(sharesBought, purchasePricePerShare);
           } catch (IOException e) {
             e.printStackTrace();
           }
         }
-        previousShares = currentShares;
       }
-
-      totalCostBasis += tickerCostBasis;
+      previous = current;
     }
 
-    return totalCostBasis;
+    return (float) FixedPoint.toDollars(totalCostBasis);
   }
 
   /**
@@ -289,25 +399,33 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
    */
   @Override
   public float totalValue(LocalDate date) throws IOException {
-    float totalValue = 0.0F;
-    if (!(composition.isEmpty())) {
-      if (date.isBefore(composition.firstKey())) {
-        return totalValue;
-      }
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    Holdings held = holdingsOn(timeline, date);
+    Long memoized = valuationMemo == null ? null : valuationMemo.lookup(getMemoKey(), held, date);
+    if (memoized != null) {
+      return (float) FixedPoint.toDollars(memoized);
     }
-    HashMap<String, String> portfolioComposition = getComposition(date);
-    for (Map.Entry<String, String> entry : portfolioComposition.entrySet()) {
-      String ticker = entry.getKey();
-      float numShares = Float.parseFloat(entry.getValue());
-      float tickerValue = getClosingValue(ticker, date);
-      if (tickerValue == 0.0) {
-        throw new IllegalArgumentException("No data found for the given date");
-      } else {
-        float stockValue = tickerValue * numShares;
-        totalValue += stockValue;
-      }
+    Map<String, PriceSeries> prices = loadPriceSeries(timeline, date, date);
+    Valuation valuation = valuationEngine.valuationOn(timeline, prices, date);
+    if (valuationMemo != null) {
+      valuationMemo.record(getMemoKey(), held, date, valuation.totalUnits(), prices,
+          valuationEngine);
     }
-    return totalValue;
+    return (float) valuation.total();
+  }
+
+  /**
+   * Values the portfolio on a given date, keeping the value contributed by each holding.
+   *
+   * @param date The date of the valuation.
+   * @return The valuation of the portfolio on the given date.
+   * @throws IOException if there is an error fetching stock values.
+   */
+  @Override
+  public Valuation getValuation(LocalDate date) throws IOException {
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    Map<String, PriceSeries> prices = loadPriceSeries(timeline, date, date);
+    return valuationEngine.valuationOn(timeline, prices, date);
   }
 
   /**
@@ -319,20 +437,23 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
    */
   @Override
   public HashMap<String, String> getComposition(LocalDate date) {
-    LocalDate queryDate = composition.floorKey(date);
-    if (queryDate == null) {
-      queryDate = composition.isEmpty() ? null : composition.firstKey();
-    }
-    ArrayList<Stock> stocks = new ArrayList<>();
-    HashMap<String, String> currentCompostion = new HashMap<>();
-    stocks = composition.get(queryDate);
-    for (int i = 0; i < stocks.size(); i++) {
-      if (stocks.get(i).getShares() != 0.00) {
-        currentCompostion.put(stocks.get(i).getTicker(), String.format("%.3f",
-                stocks.get(i).getShares()));
-      }
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    Map.Entry<LocalDate, Holdings> entry = timeline.floorEntry(date);
+    if (entry == null) {
+      entry = timeline.firstEntry();
     }
-    return currentCompostion;
+    return entry == null ? new HashMap<>() : entry.getValue().toComposition();
+  }
+
+  /**
+   * Returns the shares held on a given date as a typed holdings view.
+   *
+   * @param date The date for which to retrieve the holdings.
+   * @return The holdings on the given date, empty before the first purchase.
+   */
+  @Override
+  public Holdings getHoldings(LocalDate date) {
+    return holdingsOn(getHoldingsTimeline(), date);
   }
 
   /**
@@ -376,6 +497,7 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
   public void getHistoricalData(String ticker) throws IOException {
     StockData stockData = new StockData(ticker);
     stockData.getHistoricalStockData();
+    dataFreshnessManager.invalidate(ticker);
   }
 
   /**
@@ -389,11 +511,12 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
   public void updateHistoricalData(String ticker, LocalDate date) throws IOException {
     StockData stockData = new StockData(ticker);
     stockData.updateHistoricalStockData(date);
+    dataFreshnessManager.invalidate(ticker);
   }
 
   /**
-   * Gets the closing value of a stock on a specified date. This could involve looking up the value
-   * in a local cache or fetching it from a remote source.
+   * Gets the closing value of a stock on a specified date, for pricing a trade. If the date is
+   * after the last locally stored bar, the data is refreshed first.
    *
    * @param ticker The ticker symbol of the stock.
    * @param date   The date for which the closing value is requested.
@@ -402,15 +525,12 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
    */
   @Override
   public float getClosingValue(String ticker, LocalDate date) throws IOException {
-    StockData stockData = new StockData(ticker);
-    stockData.updateHistoricalStockData(date);
-    float value = stockData.getStockClosingValue(date);
-    return value;
+    return (float) dataFreshnessManager.getPriceSeriesForTrade(ticker, date).closeOn(date);
   }
 
   /**
    * Generates a performance chart for the portfolio between two dates, showing the portfolio value
-   * over time.
+   * over time. Only trading days of the held stocks are charted.
    *
    * @param portfolioName The name of the portfolio.
    * @param startDate     The start date of the period to analyze.
@@ -425,50 +545,28 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
       throw new IllegalArgumentException("End date should be after the start date.");
     }
 
-    final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
-    StringBuilder chart = new StringBuilder();
-    TreeMap<LocalDate, Float> portfolioValues = new TreeMap<>();
-    float lastValue = 0;
-
-    for (LocalDate date = startDate; !date.isAfter(endDate);
-         date = date.plusDays(1)) {
-      HashMap<String, String> composition = getComposition(date);
-      float totalValue = 0;
-      boolean dataAvailable = false;
-
-      for (Map.Entry<String, String> entry : composition.entrySet()) {
-        String ticker = entry.getKey();
-        double shares = Double.parseDouble(entry.getValue());
-        try {
-          float closingValue = getClosingValue(ticker, date);
-          if (closingValue > 0) {
-            dataAvailable = true;
-          }
-          totalValue += closingValue * shares;
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-      lastValue = dataAvailable ? totalValue : lastValue;
-      portfolioValues.put(date, lastValue);
+    ValueSeries portfolioValues;
+    try {
+      TradingCalendar calendar = dataFreshnessManager.getTradingCalendar(
+              heldTickers(getHoldingsTimeline(), startDate, endDate), endDate);
+      portfolioValues = getValueSeries(startDate, endDate).onTradingDays(calendar);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
 
-    List<LocalDate> selectedDates = new ArrayList<>(portfolioValues.keySet());
+    final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    StringBuilder chart = new StringBuilder();
     final int maxLines = 30;
-    int interval = (int) Math.ceil(selectedDates.size() / (double) maxLines);
+    int interval = (int) Math.ceil(portfolioValues.size() / (double) maxLines);
 
-    List<LocalDate> datesForChart = IntStream.range(0,
-                    selectedDates.size()).filter(i -> i % interval == 0)
-            .mapToObj(selectedDates::get).collect(Collectors.toList());
-
-    float maxPortfolioValue = Collections.max(portfolioValues.values());
+    float maxPortfolioValue = (float) portfolioValues.maxValue();
     int scale = (int) Math.ceil(maxPortfolioValue / 50);
     scale = Math.max(1, scale);
 
-    for (LocalDate date : datesForChart) {
-      float value = portfolioValues.get(date);
+    for (int i = 0; i < portfolioValues.size(); i += interval) {
+      float value = (float) portfolioValues.value(i);
       int stars = (int) (value / scale);
-      chart.append(formatter.format(date)).append(": ")
+      chart.append(formatter.format(portfolioValues.date(i))).append(": ")
               .append(String.join("", Collections.nCopies(stars, "*")))
               .append("\n");
     }
@@ -477,4 +575,66 @@ public class FlexiblePortfolio implements FlexiblePortfolioInterface {
     return chart.toString();
   }
 
+  /**
+   * Computes the value of the portfolio on every calendar day between two dates. Each ticker's
+   * locally stored series is read once for the whole range, and the values are produced by a
+   * single pass of the valuation engine.
+   *
+   * @param startDate The first date of the series.
+   * @param endDate   The last date of the series.
+   * @return The daily value series of the portfolio.
+   * @throws IOException if there is an error fetching stock values.
+   */
+  @Override
+  public ValueSeries getValueSeries(LocalDate startDate, LocalDate endDate) throws IOException {
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    ValueSeries memoized = valuationMemo == null ? null
+        : valuationMemo.lookupSeries(getMemoKey(), timeline, startDate, endDate);
+    if (memoized != null) {
+      return memoized;
+    }
+    Map<String, PriceSeries> prices = loadPriceSeries(timeline, startDate, endDate);
+    ValueSeries series = valuationEngine.valueSeries(timeline, prices, startDate, endDate);
+    if (valuationMemo != null) {
+      valuationMemo.recordSeries(getMemoKey(), timeline, series, prices, valuationEngine);
+    }
+    return series;
+  }
+
+  private String getMemoKey() {
+    return user.getEmailId() + "/" + portfolioName;
+  }
+
+  /**
+   * Returns the holdings change points of the portfolio. Each entry maps a transaction date to the
+   * shares of every ticker held from that date until the next entry.
+   *
+   * @return The holdings timeline in date order.
+   */
+  @Override
+  public PersistentSortedMap<LocalDate, Holdings> getHoldingsTimeline() {
+    return composition;
+  }
+
+  private Map<String, PriceSeries> loadPriceSeries(
+          PersistentSortedMap<LocalDate, Holdings> timeline, LocalDate startDate,
+          LocalDate endDate) throws IOException {
+    return dataFreshnessManager.getPriceSeries(heldTickers(timeline, startDate, endDate),
+            endDate);
+  }
+
+  private static Set<String> heldTickers(PersistentSortedMap<LocalDate, Holdings> timeline,
+                                         LocalDate startDate, LocalDate endDate) {
+    LocalDate first = timeline.floorKey(startDate);
+    Set<String> tickers = new HashSet<>();
+    for (Map.Entry<LocalDate, Holdings> entry : timeline.entries(
+            first == null ? startDate : first, endDate)) {
+      Holdings holdings = entry.getValue();
+      for (int i = 0; i < holdings.size(); i++) {
+        tickers.add(holdings.ticker(i));
+      }
+    }
+    return tickers;
+  }
+
 }
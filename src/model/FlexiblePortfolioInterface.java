@@ -30,6 +30,61 @@ public interface FlexiblePortfolioInterface extends PortfolioInterface {
    */
   public void sell(String ticker, double shares, LocalDate date);
 
+  /**
+   * Buys a number of shares of a stock on a certain date, paying for them from the portfolio's
+   * cash. The cash held on that date and on every later date is reduced by the cost.
+   *
+   * @param ticker The ticker symbol of the stock to buy.
+   * @param shares The number of shares to buy.
+   * @param cost   The amount paid for the shares.
+   * @param date   The date of the purchase.
+   */
+  public void buyWithCash(String ticker, double shares, double cost, LocalDate date);
+
+  /**
+   * Sells a number of shares of a stock on a certain date and adds the proceeds to the portfolio's
+   * cash.
+   *
+   * @param ticker   The ticker symbol of the stock to sell.
+   * @param shares   The number of shares to sell.
+   * @param proceeds The amount received for the shares.
+   * @param date     The date of the sale.
+   */
+  public void sellForCash(String ticker, double shares, double proceeds, LocalDate date);
+
+  /**
+   * Adds cash to the portfolio on a certain date, such as a contribution. Later dates reflect the
+   * deposit.
+   *
+   * @param amount The amount of cash to add.
+   * @param date   The date of the deposit.
+   */
+  public void deposit(double amount, LocalDate date);
+
+  /**
+   * Takes cash out of the portfolio on a certain date. Later dates reflect the withdrawal.
+   *
+   * @param amount The amount of cash to take out.
+   * @param date   The date of the withdrawal.
+   */
+  public void withdraw(double amount, LocalDate date);
+
+  /**
+   * Returns the cash held in the portfolio on a given date.
+   *
+   * @param date The date of the balance.
+   * @return The cash held on that date.
+   */
+  public double getCash(LocalDate date);
+
+  /**
+   * Buys every lot of a batch as a single trade: either all of the lots are added to the
+   * portfolio's history or, if the batch is invalid, none of them are.
+   *
+   * @param batch The purchases to make, in date order.
+   */
+  public void buyAll(TradeBatch batch);
+
   /**
    * Calculates the cost basis of the portfolio up to a specific date.
    *
@@ -38,4 +93,13 @@ public interface FlexiblePortfolioInterface extends PortfolioInterface {
    * @return The cost basis of the portfolio.
    */
   public float costBasis(String portfolioName, LocalDate date);
+
+  /**
+   * Creates a copy of this portfolio under a new name for trying out hypothetical trades without
+   * touching this portfolio. Forking takes constant time regardless of the portfolio's history.
+   *
+   * @param scenarioName The name of the forked portfolio.
+   * @return The forked portfolio.
+   */
+  public FlexiblePortfolioInterface fork(String scenarioName);
 }
@@ -0,0 +1,95 @@
+package model;
+
+import java.util.HashMap;
+
+/**
+ * A portfolio on or near the efficient frontier: the weight of every ticker together with the
+ * annualized expected return and volatility those weights are estimated to have.
+ */
+public final class FrontierPoint {
+
+  private final String[] tickers;
+  private final double[] weights;
+  private final double expectedReturn;
+  private final double volatility;
+
+  /**
+   * Constructs a point. The arrays are owned by the point and must not be changed afterwards.
+   *
+   * @param tickers        The tickers, in the order of the weights.
+   * @param weights        The weight of each ticker.
+   * @param expectedReturn The annualized expected return.
+   * @param volatility     The annualized standard deviation of the return.
+   */
+  FrontierPoint(String[] tickers, double[] weights, double expectedReturn, double volatility) {
+    this.tickers = tickers;
+    this.weights = weights;
+    this.expectedReturn = expectedReturn;
+    this.volatility = volatility;
+  }
+
+  /**
+   * Returns the weight of a ticker.
+   *
+   * @param ticker The ticker symbol of the stock.
+   * @return The weight, or 0 if the ticker is not part of the portfolio.
+   */
+  public double getWeight(String ticker) {
+    for (int i = 0; i < tickers.length; i++) {
+      if (tickers[i].equals(ticker)) {
+        return weights[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the tickers with a positive weight and their weights, in the form the investment
+   * strategies take as their stock ratio.
+   *
+   * @return The weights keyed by ticker symbol.
+   */
+  public HashMap<String, Double> getStockRatio() {
+    HashMap<String, Double> stockRatio = new HashMap<>();
+    for (int i = 0; i < tickers.length; i++) {
+      if (weights[i] > 0) {
+        stockRatio.put(tickers[i], weights[i]);
+      }
+    }
+    return stockRatio;
+  }
+
+  /**
+   * Returns the annualized expected return of the portfolio.
+   *
+   * @return The expected return as a fraction.
+   */
+  public double getExpectedReturn() {
+    return expectedReturn;
+  }
+
+  /**
+   * Returns the annualized volatility of the portfolio.
+   *
+   * @return The standard deviation of the return as a fraction.
+   */
+  public double getVolatility() {
+    return volatility;
+  }
+
+  /**
+   * Returns the excess return of the portfolio per unit of volatility.
+   *
+   * @param riskFreeRate The annualized risk-free rate.
+   * @return The Sharpe ratio, or 0 if the portfolio has no volatility.
+   */
+  public double getSharpeRatio(double riskFreeRate) {
+    return volatility > 0 ? (expectedReturn - riskFreeRate) / volatility : 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Return: %.2f%%, Volatility: %.2f%%, Weights: %s",
+        expectedReturn * 100, volatility * 100, getStockRatio());
+  }
+}
@@ -0,0 +1,272 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable, typed view of the shares held in a portfolio at one point in time. Tickers are kept
+ * sorted case-insensitively next to a parallel array of micro-share counts, so lookups are a binary
+ * search and valuation can walk the arrays without boxing or parsing. Positions that drop to zero
+ * shares are removed.
+ *
+ * <p>Holdings also carry the portfolio's cash balance in price units. Keeping it in the same
+ * snapshot as the shares means the cash ledger changes at the same change points as the positions,
+ * and a timeline can be valued in one pass without a second history to merge.</p>
+ */
+public final class Holdings {
+
+  private static final Holdings EMPTY = new Holdings(new String[0], new long[0], 0);
+
+  private final String[] tickers;
+  private final long[] microShares;
+  private final long cashUnits;
+  private long fingerprint;
+
+  private Holdings(String[] tickers, long[] microShares, long cashUnits) {
+    this.tickers = tickers;
+    this.microShares = microShares;
+    this.cashUnits = cashUnits;
+  }
+
+  /**
+   * Returns holdings with no positions.
+   *
+   * @return The empty holdings.
+   */
+  public static Holdings empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builds holdings from a map of tickers to share counts.
+   *
+   * @param shares A map of ticker symbols to the number of shares held.
+   * @return The holdings.
+   */
+  public static Holdings of(Map<String, Double> shares) {
+    Holdings holdings = EMPTY;
+    for (Map.Entry<String, Double> entry : shares.entrySet()) {
+      holdings = holdings.plus(entry.getKey(), FixedPoint.toMicroShares(entry.getValue()));
+    }
+    return holdings;
+  }
+
+  /**
+   * Returns the number of positions.
+   *
+   * @return The number of tickers held.
+   */
+  public int size() {
+    return tickers.length;
+  }
+
+  /**
+   * Checks whether no shares are held.
+   *
+   * @return true if there are no positions.
+   */
+  public boolean isEmpty() {
+    return tickers.length == 0;
+  }
+
+  /**
+   * Returns the ticker of a position.
+   *
+   * @param index The position index.
+   * @return The ticker symbol.
+   */
+  public String ticker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * Returns the size of a position in micro-shares.
+   *
+   * @param index The position index.
+   * @return The number of micro-shares.
+   */
+  public long microShares(int index) {
+    return microShares[index];
+  }
+
+  /**
+   * Returns the size of a position in shares.
+   *
+   * @param index The position index.
+   * @return The number of shares.
+   */
+  public double shares(int index) {
+    return FixedPoint.toShares(microShares[index]);
+  }
+
+  /**
+   * Returns the cash balance in price units.
+   *
+   * @return The cash held, in price units.
+   */
+  public long cashUnits() {
+    return cashUnits;
+  }
+
+  /**
+   * Returns the cash balance.
+   *
+   * @return The cash held.
+   */
+  public double cash() {
+    return FixedPoint.toDollars(cashUnits);
+  }
+
+  /**
+   * Finds the position of a ticker, ignoring case.
+   *
+   * @param ticker The ticker symbol.
+   * @return The position index, or -1 if the ticker is not held.
+   */
+  public int indexOf(String ticker) {
+    int index = Arrays.binarySearch(tickers, ticker, String.CASE_INSENSITIVE_ORDER);
+    return index >= 0 ? index : -1;
+  }
+
+  /**
+   * Returns the micro-shares held of a ticker, ignoring case.
+   *
+   * @param ticker The ticker symbol.
+   * @return The number of micro-shares, or 0 if the ticker is not held.
+   */
+  public long microSharesOf(String ticker) {
+    int index = indexOf(ticker);
+    return index >= 0 ? microShares[index] : 0;
+  }
+
+  /**
+   * Returns new holdings with a number of micro-shares added to a ticker. A negative amount removes
+   * shares, and a position that reaches zero is dropped.
+   *
+   * @param ticker           The ticker symbol.
+   * @param deltaMicroShares The micro-shares to add, negative to remove.
+   * @return The updated holdings; this instance is not modified.
+   */
+  public Holdings plus(String ticker, long deltaMicroShares) {
+    if (deltaMicroShares == 0) {
+      return this;
+    }
+    int index = Arrays.binarySearch(tickers, ticker, String.CASE_INSENSITIVE_ORDER);
+    if (index >= 0) {
+      long updated = microShares[index] + deltaMicroShares;
+      if (updated == 0) {
+        String[] newTickers = new String[tickers.length - 1];
+        long[] newShares = new long[tickers.length - 1];
+        System.arraycopy(tickers, 0, newTickers, 0, index);
+        System.arraycopy(microShares, 0, newShares, 0, index);
+        System.arraycopy(tickers, index + 1, newTickers, index, tickers.length - index - 1);
+        System.arraycopy(microShares, index + 1, newShares, index, tickers.length - index - 1);
+        return new Holdings(newTickers, newShares, cashUnits);
+      }
+      long[] newShares = microShares.clone();
+      newShares[index] = updated;
+      return new Holdings(tickers, newShares, cashUnits);
+    }
+    int insert = -index - 1;
+    String[] newTickers = new String[tickers.length + 1];
+    long[] newShares = new long[tickers.length + 1];
+    System.arraycopy(tickers, 0, newTickers, 0, insert);
+    System.arraycopy(microShares, 0, newShares, 0, insert);
+    newTickers[insert] = ticker;
+    newShares[insert] = deltaMicroShares;
+    System.arraycopy(tickers, insert, newTickers, insert + 1, tickers.length - insert);
+    System.arraycopy(microShares, insert, newShares, insert + 1, tickers.length - insert);
+    return new Holdings(newTickers, newShares, cashUnits);
+  }
+
+  /**
+   * Returns new holdings with an amount added to the cash balance.
+   *
+   * @param deltaCashUnits The cash to add in price units, negative to remove.
+   * @return The updated holdings; this instance is not modified.
+   */
+  public Holdings plusCash(long deltaCashUnits) {
+    if (deltaCashUnits == 0) {
+      return this;
+    }
+    return new Holdings(tickers, microShares, cashUnits + deltaCashUnits);
+  }
+
+  /**
+   * Returns new holdings with every position and the cash of another holdings added to this one.
+   *
+   * @param delta The positions and cash to add; negative counts remove shares.
+   * @return The combined holdings; this instance is not modified.
+   */
+  public Holdings plus(Holdings delta) {
+    Holdings combined = plusCash(delta.cashUnits);
+    for (int i = 0; i < delta.tickers.length; i++) {
+      combined = combined.plus(delta.tickers[i], delta.microShares[i]);
+    }
+    return combined;
+  }
+
+  /**
+   * Returns a 64-bit fingerprint of the positions and cash, ignoring the case of the tickers. Cash
+   * is only mixed in when there is some, so holdings without cash keep their earlier fingerprints.
+   * Equal holdings always have the same fingerprint, so it can stand in for the holdings in
+   * persistent keys.
+   *
+   * @return The fingerprint of the holdings.
+   */
+  public long fingerprint() {
+    long hash = fingerprint;
+    if (hash == 0) {
+      hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < tickers.length; i++) {
+        String ticker = tickers[i].toUpperCase(Locale.ROOT);
+        for (int c = 0; c < ticker.length(); c++) {
+          hash = (hash ^ ticker.charAt(c)) * 0x100000001b3L;
+        }
+        hash = (hash ^ ':') * 0x100000001b3L;
+        hash = (hash ^ microShares[i]) * 0x100000001b3L;
+      }
+      if (cashUnits != 0) {
+        hash = (hash ^ '$') * 0x100000001b3L;
+        hash = (hash ^ cashUnits) * 0x100000001b3L;
+      }
+      hash = hash == 0 ? 1 : hash;
+      fingerprint = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Formats the holdings as a composition map of tickers to share counts with three decimals.
+   *
+   * @return A map of ticker symbols to formatted share counts.
+   */
+  public HashMap<String, String> toComposition() {
+    HashMap<String, String> composition = new HashMap<>();
+    for (int i = 0; i < tickers.length; i++) {
+      composition.put(tickers[i], FixedPoint.formatShares(microShares[i]));
+    }
+    return composition;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Holdings)) {
+      return false;
+    }
+    Holdings holdings = (Holdings) other;
+    return cashUnits == holdings.cashUnits && Arrays.equals(tickers, holdings.tickers)
+        && Arrays.equals(microShares, holdings.microShares);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(tickers) + Arrays.hashCode(microShares))
+        + Long.hashCode(cashUnits);
+  }
+}
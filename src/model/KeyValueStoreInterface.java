@@ -0,0 +1,61 @@
+package model;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A persistent map from string keys to string values. Keys are hierarchical by convention, with
+ * parts separated by {@code /}, so that related values can be listed by prefix.
+ */
+public interface KeyValueStoreInterface {
+
+  /**
+   * Returns the value stored under a key.
+   *
+   * @param key The key.
+   * @return The value, or null if nothing is stored under the key.
+   * @throws IOException If the value cannot be read.
+   */
+  public String get(String key) throws IOException;
+
+  /**
+   * Checks whether a value is stored under a key.
+   *
+   * @param key The key.
+   * @return true if a value is stored under the key.
+   */
+  public boolean containsKey(String key);
+
+  /**
+   * Stores a value under a key, replacing any value already stored under it.
+   *
+   * @param key   The key.
+   * @param value The value.
+   * @throws IOException If the value cannot be written.
+   */
+  public void put(String key, String value) throws IOException;
+
+  /**
+   * Removes the value stored under a key.
+   *
+   * @param key The key.
+   * @return true if a value was stored under the key.
+   * @throws IOException If the removal cannot be written.
+   */
+  public boolean delete(String key) throws IOException;
+
+  /**
+   * Lists the keys starting with a prefix.
+   *
+   * @param prefix The prefix, or an empty string for every key.
+   * @return The matching keys in ascending order.
+   */
+  public List<String> keys(String prefix);
+
+  /**
+   * Forces every write made so far to durable storage.
+   *
+   * @throws IOException If the writes cannot be forced.
+   */
+  public void flush() throws IOException;
+}
@@ -0,0 +1,524 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * An embedded key-value store kept in a single directory as a sequence of append-only segment
+ * files. Every write appends a record to the active segment and points an in-memory index at it,
+ * so a write is one sequential append and a read is one positional read. Opening the store reads
+ * each segment once, in order, to rebuild the index.
+ *
+ * <p>When the active segment reaches its size limit a new one is started. Once superseded and
+ * deleted records take up more space than live ones, a background compaction copies the live
+ * records of every full segment into a single new segment and removes the old ones; reads and
+ * writes continue while the records are copied. Each record carries a checksum, so a record left
+ * half written by a crash is detected and dropped when the store is next opened.</p>
+ *
+ * <p>A background compaction that fails leaves every segment in place, and the failure is thrown
+ * from the next write, flush or compaction so that the caller learns of it.</p>
+ */
+public final class LogStructuredStore implements KeyValueStoreInterface, Closeable {
+
+  /**
+   * The size at which a segment is closed and a new one started, unless configured otherwise.
+   */
+  public static final long DEFAULT_SEGMENT_BYTES = 4L << 20;
+
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final int HEADER_BYTES = 4 + 1 + 4 + 4;
+
+  private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "store-compactor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Path directory;
+  private final long segmentBytes;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ReentrantLock compaction = new ReentrantLock();
+  private final TreeMap<String, Location> index = new TreeMap<>();
+  private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+  private FileChannel active;
+  private long activeId;
+  private long activeSize;
+  private long nextId;
+  private long liveBytes;
+  private long totalBytes;
+  private boolean closed;
+  private volatile IOException compactionFailure;
+
+  /**
+   * The position of a live record.
+   */
+  private static final class Location {
+
+    private final long segment;
+    private final long offset;
+    private final int keyLength;
+    private final int valueLength;
+
+    private Location(long segment, long offset, int keyLength, int valueLength) {
+      this.segment = segment;
+      this.offset = offset;
+      this.keyLength = keyLength;
+      this.valueLength = valueLength;
+    }
+
+    private int recordLength() {
+      return HEADER_BYTES + keyLength + valueLength;
+    }
+  }
+
+  /**
+   * Opens the store kept in a directory with the default segment size, creating the directory if
+   * it does not exist.
+   *
+   * @param directory The directory holding the segment files.
+   * @throws IOException If the directory or its segments cannot be read.
+   */
+  public LogStructuredStore(Path directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens the store kept in a directory, creating the directory if it does not exist.
+   *
+   * @param directory    The directory holding the segment files.
+   * @param segmentBytes The size at which a segment is closed and a new one started.
+   * @throws IOException If the directory or its segments cannot be read.
+   * @throws IllegalArgumentException if the segment size is not positive.
+   */
+  public LogStructuredStore(Path directory, long segmentBytes) throws IOException {
+    if (segmentBytes <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive.");
+    }
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    TreeMap<Long, Path> files = new TreeMap<>();
+    try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory)) {
+      for (Path file : listing) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          files.put(Long.parseLong(matcher.group(1)), file);
+        } else if (file.getFileName().toString().endsWith(".tmp")) {
+          Files.delete(file);
+        }
+      }
+    }
+    for (Map.Entry<Long, Path> file : files.entrySet()) {
+      long valid = replay(file.getKey(), file.getValue());
+      if (valid < Files.size(file.getValue())) {
+        try (FileChannel channel = FileChannel.open(file.getValue(), StandardOpenOption.WRITE)) {
+          channel.truncate(valid);
+        }
+      }
+      segments.put(file.getKey(), FileChannel.open(file.getValue(), StandardOpenOption.READ));
+      totalBytes += valid;
+    }
+    nextId = files.isEmpty() ? 1 : files.lastKey() + 1;
+    if (!files.isEmpty() && Files.size(files.lastEntry().getValue()) < segmentBytes) {
+      activeId = files.lastKey();
+      active = FileChannel.open(files.lastEntry().getValue(), StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND);
+      activeSize = active.size();
+    } else {
+      startSegment(nextId++);
+    }
+  }
+
+  private long replay(long segment, Path file) throws IOException {
+    long position = 0;
+    long size = Files.size(file);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Files.newInputStream(file)))) {
+      while (true) {
+        int checksum;
+        try {
+          checksum = in.readInt();
+        } catch (EOFException e) {
+          return position;
+        }
+        byte type;
+        byte[] key;
+        byte[] value;
+        try {
+          type = in.readByte();
+          int keyLength = in.readInt();
+          int valueLength = in.readInt();
+          if (keyLength < 0 || valueLength < 0
+              || position + HEADER_BYTES + keyLength + (long) valueLength > size) {
+            return position;
+          }
+          key = new byte[keyLength];
+          value = new byte[valueLength];
+          in.readFully(key);
+          in.readFully(value);
+        } catch (EOFException e) {
+          return position;
+        }
+        if (checksum != checksum(type, key, value)) {
+          return position;
+        }
+        String name = new String(key, StandardCharsets.UTF_8);
+        if (type == PUT) {
+          index(name, new Location(segment, position, key.length, value.length));
+        } else {
+          unindex(name);
+        }
+        position += HEADER_BYTES + key.length + value.length;
+      }
+    }
+  }
+
+  @Override
+  public String get(String key) throws IOException {
+    lock.readLock().lock();
+    try {
+      ensureOpen();
+      Location location = index.get(key);
+      return location == null ? null : read(location);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsKey(String key) {
+    lock.readLock().lock();
+    try {
+      return index.containsKey(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void put(String key, String value) throws IOException {
+    append(PUT, key, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public boolean delete(String key) throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (!index.containsKey(key)) {
+        return false;
+      }
+      append(DELETE, key, new byte[0]);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public List<String> keys(String prefix) {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<>(index.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+          .keySet());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    lock.writeLock().lock();
+    try {
+      ensureOpen();
+      throwCompactionFailure();
+      active.force(false);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of segment files currently in use.
+   *
+   * @return The number of segments, including the active one.
+   */
+  public int segmentCount() {
+    lock.readLock().lock();
+    try {
+      return segments.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Copies the live records of every full segment into a single new segment and removes the old
+   * segments. Reads and writes may continue while the records are copied. If a compaction is
+   * already running, this one starts when it has finished.
+   *
+   * @throws IOException If the new segment cannot be written, or an earlier background compaction
+   *                     failed.
+   */
+  public void compact() throws IOException {
+    compaction.lock();
+    try {
+      throwCompactionFailure();
+      compactSegments();
+    } finally {
+      compaction.unlock();
+    }
+  }
+
+  private void compactSegments() throws IOException {
+    long compactedId;
+    Map<String, Location> live = new HashMap<>();
+    Map<Long, FileChannel> sealed;
+    lock.writeLock().lock();
+    try {
+      ensureOpen();
+      active.force(false);
+      active.close();
+      if (activeSize == 0) {
+        segments.remove(activeId).close();
+        Files.delete(segmentPath(activeId));
+      }
+      compactedId = nextId++;
+      startSegment(nextId++);
+      sealed = new HashMap<>(segments.headMap(compactedId));
+      for (Map.Entry<String, Location> entry : index.entrySet()) {
+        if (entry.getValue().segment < compactedId) {
+          live.put(entry.getKey(), entry.getValue());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Map<String, Location> moved = new HashMap<>();
+    Path temporary = directory.resolve(segmentPath(compactedId).getFileName() + ".tmp");
+    try {
+      try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.WRITE)) {
+        long position = 0;
+        for (Map.Entry<String, Location> entry : live.entrySet()) {
+          byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+          byte[] value = readBytes(sealed.get(entry.getValue().segment), entry.getValue());
+          writeFully(out, record(PUT, key, value));
+          moved.put(entry.getKey(), new Location(compactedId, position, key.length, value.length));
+          position += HEADER_BYTES + key.length + value.length;
+        }
+        out.force(true);
+      }
+      Files.move(temporary, segmentPath(compactedId), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+
+    lock.writeLock().lock();
+    try {
+      segments.put(compactedId, FileChannel.open(segmentPath(compactedId),
+          StandardOpenOption.READ));
+      for (Map.Entry<String, Location> entry : moved.entrySet()) {
+        if (index.get(entry.getKey()) == live.get(entry.getKey())) {
+          index.put(entry.getKey(), entry.getValue());
+        }
+      }
+      for (long segment : sealed.keySet()) {
+        segments.remove(segment).close();
+        Files.deleteIfExists(segmentPath(segment));
+      }
+      totalBytes = 0;
+      for (long segment : segments.keySet()) {
+        totalBytes += segment == activeId ? activeSize : Files.size(segmentPath(segment));
+      }
+      liveBytes = 0;
+      for (Location location : index.values()) {
+        liveBytes += location.recordLength();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Waits for a running compaction to finish, then forces pending writes to storage and closes
+   * every segment file. The store cannot be used afterwards.
+   *
+   * @throws IOException If the segment files cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    compaction.lock();
+    try {
+      lock.writeLock().lock();
+      try {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        active.force(false);
+        active.close();
+        for (FileChannel channel : segments.values()) {
+          channel.close();
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      compaction.unlock();
+    }
+  }
+
+  private void append(byte type, String key, byte[] value) throws IOException {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record = record(type, keyBytes, value);
+    boolean scheduleCompaction = false;
+    lock.writeLock().lock();
+    try {
+      ensureOpen();
+      throwCompactionFailure();
+      long offset = activeSize;
+      writeFully(active, record);
+      activeSize += record.capacity();
+      totalBytes += record.capacity();
+      if (type == PUT) {
+        index(key, new Location(activeId, offset, keyBytes.length, value.length));
+      } else {
+        unindex(key);
+      }
+      if (activeSize >= segmentBytes) {
+        active.close();
+        startSegment(nextId++);
+        scheduleCompaction = !compaction.isLocked() && totalBytes - liveBytes > liveBytes
+            && totalBytes - liveBytes >= segmentBytes;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (scheduleCompaction) {
+      COMPACTOR.execute(() -> {
+        if (compaction.tryLock()) {
+          try {
+            compactSegments();
+          } catch (IOException e) {
+            compactionFailure = e;
+          } catch (IllegalStateException e) {
+            // The store was closed before the compaction started.
+          } finally {
+            compaction.unlock();
+          }
+        }
+      });
+    }
+  }
+
+  private void index(String key, Location location) {
+    Location previous = index.put(key, location);
+    if (previous != null) {
+      liveBytes -= previous.recordLength();
+    }
+    liveBytes += location.recordLength();
+  }
+
+  private void unindex(String key) {
+    Location previous = index.remove(key);
+    if (previous != null) {
+      liveBytes -= previous.recordLength();
+    }
+  }
+
+  private void startSegment(long id) throws IOException {
+    Path file = segmentPath(id);
+    active = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    segments.put(id, FileChannel.open(file, StandardOpenOption.READ));
+    activeId = id;
+    activeSize = 0;
+  }
+
+  private String read(Location location) throws IOException {
+    return new String(readBytes(segments.get(location.segment), location),
+        StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(FileChannel channel, Location location) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(location.valueLength);
+    long position = location.offset + HEADER_BYTES + location.keyLength;
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Record is truncated in segment " + location.segment);
+      }
+    }
+    return buffer.array();
+  }
+
+  private static ByteBuffer record(byte type, byte[] key, byte[] value) {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + key.length + value.length);
+    buffer.putInt(checksum(type, key, value));
+    buffer.put(type);
+    buffer.putInt(key.length);
+    buffer.putInt(value.length);
+    buffer.put(key);
+    buffer.put(value);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static int checksum(byte type, byte[] key, byte[] value) {
+    CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(key);
+    crc.update(value);
+    return (int) crc.getValue();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private Path segmentPath(long id) {
+    return directory.resolve(String.format("segment-%06d.log", id));
+  }
+
+  private void throwCompactionFailure() throws IOException {
+    IOException failure = compactionFailure;
+    if (failure != null) {
+      compactionFailure = null;
+      throw new IOException("Background compaction of the data store failed.", failure);
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Store is closed.");
+    }
+  }
+}
@@ -0,0 +1,429 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses investment weights by mean-variance optimization over stored price history. Expected
+ * returns and the covariance matrix are estimated once, from the daily returns on the days every
+ * ticker traded, and annualized. Portfolios are long-only, fully invested and hold no ticker above
+ * the weight cap.
+ *
+ * <p>Each efficient portfolio minimizes the variance minus a multiple of the expected return. That
+ * problem is solved with an accelerated projected gradient method: every step moves against the
+ * gradient and projects back onto the capped simplex, which takes a linear-time search for a
+ * single shift of the weights. Steps cost one matrix-vector product, so hundreds of tickers are
+ * solved in milliseconds, and the solutions for nearby multiples start from each other. Target
+ * returns are found by regula falsi over the multiple. The maximum Sharpe ratio portfolio is the
+ * efficient portfolio whose multiple is twice its variance over its excess return, and that
+ * multiple is found by fixed-point iteration in a handful of solves.</p>
+ */
+public class MeanVarianceOptimizer implements MeanVarianceOptimizerInterface {
+
+  /**
+   * The number of trading days used to annualize daily returns and variances.
+   */
+  public static final int TRADING_DAYS_PER_YEAR = 252;
+
+  private static final int MAX_ITERATIONS = 20000;
+
+  private static final double TOLERANCE = 1e-10;
+
+  private static final int SEARCH_STEPS = 60;
+
+  private final String[] tickers;
+  private final double[] means;
+  private final double[] covariance;
+  private final double weightCap;
+  private final double stepSize;
+
+  /**
+   * Constructs an optimizer from the stored price series of the given tickers.
+   *
+   * @param tickers              The tickers that may be invested in.
+   * @param date                 The latest date of history to use.
+   * @param dataFreshnessManager The source of the price series.
+   * @param weightCap            The largest weight any single ticker may have.
+   * @return The optimizer.
+   * @throws IOException if the price series cannot be read.
+   */
+  public static MeanVarianceOptimizer fromHistory(Collection<String> tickers, LocalDate date,
+      DataFreshnessManagerInterface dataFreshnessManager, double weightCap) throws IOException {
+    return new MeanVarianceOptimizer(dataFreshnessManager.getPriceSeries(tickers, date),
+        weightCap);
+  }
+
+  /**
+   * Constructs an optimizer over the given history.
+   *
+   * @param history   The price series of every ticker that may be invested in.
+   * @param weightCap The largest weight any single ticker may have.
+   * @throws IllegalArgumentException if the cap is not between 0 and 1, the capped weights cannot
+   *                                  add up to 1, or the tickers have fewer than two common
+   *                                  trading days.
+   */
+  public MeanVarianceOptimizer(Map<String, PriceSeries> history, double weightCap) {
+    if (!(weightCap > 0 && weightCap <= 1)) {
+      throw new IllegalArgumentException("Weight cap must be between 0 and 1.");
+    }
+    if (history.size() * weightCap < 1 - 0.000001) {
+      throw new IllegalArgumentException("A weight cap of " + weightCap
+          + " cannot invest the whole amount in " + history.size() + " stocks.");
+    }
+    List<String> names = new ArrayList<>(history.keySet());
+    Collections.sort(names);
+    this.tickers = names.toArray(new String[0]);
+    this.weightCap = weightCap;
+
+    int count = tickers.length;
+    List<PriceSeries> series = new ArrayList<>(count);
+    for (String ticker : tickers) {
+      series.add(history.get(ticker));
+    }
+    TradingCalendar calendar = TradingCalendar.common(series);
+    int days = calendar.size() - 1;
+    if (days < 2) {
+      throw new IllegalArgumentException("Not enough history: " + calendar.size()
+          + " common trading days.");
+    }
+    double[] returns = new double[days * count];
+    this.means = new double[count];
+    for (int t = 0; t < count; t++) {
+      PriceSeries prices = series.get(t);
+      long previous = prices.closeUnits(prices.indexOf(calendar.epochDay(0)));
+      for (int day = 0; day < days; day++) {
+        long close = prices.closeUnits(prices.indexOf(calendar.epochDay(day + 1)));
+        double dailyReturn = (double) close / previous - 1;
+        returns[day * count + t] = dailyReturn;
+        means[t] += dailyReturn;
+        previous = close;
+      }
+      means[t] /= days;
+    }
+
+    this.covariance = new double[count * count];
+    double[] deviations = new double[count];
+    for (int day = 0; day < days; day++) {
+      for (int t = 0; t < count; t++) {
+        deviations[t] = returns[day * count + t] - means[t];
+      }
+      for (int i = 0; i < count; i++) {
+        double deviation = deviations[i];
+        int row = i * count;
+        for (int j = i; j < count; j++) {
+          covariance[row + j] += deviation * deviations[j];
+        }
+      }
+    }
+    double scale = (double) TRADING_DAYS_PER_YEAR / (days - 1);
+    for (int i = 0; i < count; i++) {
+      means[i] *= TRADING_DAYS_PER_YEAR;
+      for (int j = i; j < count; j++) {
+        covariance[i * count + j] *= scale;
+        covariance[j * count + i] = covariance[i * count + j];
+      }
+    }
+    double largestEigenvalue = largestEigenvalue();
+    this.stepSize = largestEigenvalue > 0 ? 1 / (2 * largestEigenvalue) : 1;
+  }
+
+  @Override
+  public FrontierPoint minimumVariance() {
+    return point(solve(0, equalWeights()));
+  }
+
+  @Override
+  public FrontierPoint maximumSharpe(double riskFreeRate) {
+    if (maximumReturn() <= riskFreeRate) {
+      throw new IllegalArgumentException("No portfolio is expected to return more than the "
+          + "risk-free rate.");
+    }
+    double[] weights = solve(0, equalWeights());
+    double multiple = 1;
+    for (int doubling = 0; expectedReturn(weights) <= riskFreeRate && doubling < 64;
+        doubling++) {
+      weights = solve(multiple, weights);
+      multiple *= 2;
+    }
+    for (int step = 0; step < SEARCH_STEPS; step++) {
+      double volatility = volatility(weights);
+      double next = 2 * volatility * volatility / (expectedReturn(weights) - riskFreeRate);
+      weights = solve(next, weights);
+      if (Math.abs(next - multiple) <= TOLERANCE * Math.max(next, 1)) {
+        break;
+      }
+      multiple = next;
+    }
+    return point(weights);
+  }
+
+  @Override
+  public FrontierPoint targetReturn(double expectedReturn) {
+    return point(solveForReturn(expectedReturn, new Solution(0, solve(0, equalWeights())))
+        .weights);
+  }
+
+  @Override
+  public List<FrontierPoint> efficientFrontier(int points) {
+    if (points < 2) {
+      throw new IllegalArgumentException("The frontier needs at least 2 points.");
+    }
+    Solution solution = new Solution(0, solve(0, equalWeights()));
+    double lowest = expectedReturn(solution.weights);
+    double highest = maximumReturn();
+    List<FrontierPoint> frontier = new ArrayList<>(points);
+    frontier.add(point(solution.weights));
+    for (int i = 1; i < points; i++) {
+      double target = lowest + (highest - lowest) * i / (points - 1);
+      solution = solveForReturn(Math.min(target, highest), solution);
+      frontier.add(point(solution.weights));
+    }
+    return frontier;
+  }
+
+  /**
+   * Finds the efficient weights whose expected return reaches the target, starting from an
+   * efficient solution with a lower return. The expected return grows with the multiple, so the
+   * multiple is bracketed by doubling and then found by regula falsi.
+   */
+  private Solution solveForReturn(double target, Solution from) {
+    double highest = maximumReturn();
+    if (target > highest + TOLERANCE) {
+      throw new IllegalArgumentException(String.format("A return of %.2f%% is not reachable; "
+          + "the most any portfolio is expected to return is %.2f%%.", target * 100,
+          highest * 100));
+    }
+    double lowReturn = expectedReturn(from.weights);
+    if (lowReturn >= target - TOLERANCE) {
+      return from;
+    }
+    Solution low = from;
+    Solution high = new Solution(Math.max(2 * from.multiple, 1), null);
+    high.weights = solve(high.multiple, from.weights);
+    double highReturn = expectedReturn(high.weights);
+    for (int doubling = 0; highReturn < target - TOLERANCE && doubling < 64; doubling++) {
+      low = high;
+      lowReturn = highReturn;
+      high = new Solution(2 * low.multiple, solve(2 * low.multiple, low.weights));
+      highReturn = expectedReturn(high.weights);
+    }
+    boolean lowMovedLast = false;
+    boolean highMovedLast = false;
+    for (int step = 0; step < SEARCH_STEPS && highReturn - target > TOLERANCE; step++) {
+      double lowGap = (target - lowReturn) * (highMovedLast ? 0.5 : 1);
+      double highGap = (highReturn - target) * (lowMovedLast ? 0.5 : 1);
+      double fraction = lowGap / (lowGap + highGap);
+      double multiple = low.multiple + fraction * (high.multiple - low.multiple);
+      if (!(multiple > low.multiple && multiple < high.multiple)) {
+        break;
+      }
+      Solution middle = new Solution(multiple, solve(multiple, low.weights));
+      double middleReturn = expectedReturn(middle.weights);
+      if (middleReturn >= target) {
+        high = middle;
+        highReturn = middleReturn;
+        highMovedLast = true;
+        lowMovedLast = false;
+      } else {
+        low = middle;
+        lowReturn = middleReturn;
+        lowMovedLast = true;
+        highMovedLast = false;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Minimizes the variance minus a multiple of the expected return over the capped simplex with
+   * an accelerated projected gradient method, starting from the given weights.
+   */
+  private double[] solve(double multiple, double[] start) {
+    int count = tickers.length;
+    double[] weights = start.clone();
+    double[] momentum = start.clone();
+    double[] next = new double[count];
+    double[] gradient = new double[count];
+    double t = 1;
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      multiply(momentum, gradient);
+      for (int i = 0; i < count; i++) {
+        next[i] = momentum[i] - stepSize * (2 * gradient[i] - multiple * means[i]);
+      }
+      project(next);
+      double change = 0;
+      for (int i = 0; i < count; i++) {
+        change = Math.max(change, Math.abs(next[i] - weights[i]));
+      }
+      double progress = 0;
+      for (int i = 0; i < count; i++) {
+        progress += (momentum[i] - next[i]) * (next[i] - weights[i]);
+      }
+      if (progress > 0) {
+        t = 1;
+      }
+      double nextT = (1 + Math.sqrt(1 + 4 * t * t)) / 2;
+      double beta = (t - 1) / nextT;
+      for (int i = 0; i < count; i++) {
+        momentum[i] = next[i] + beta * (next[i] - weights[i]);
+      }
+      double[] swap = weights;
+      weights = next;
+      next = swap;
+      t = nextT;
+      if (change < TOLERANCE) {
+        break;
+      }
+    }
+    return weights;
+  }
+
+  /**
+   * Replaces the weights with the closest weights that are between 0 and the cap and add up to 1.
+   * These are the weights shifted by a common amount and clipped, and the shift is found by
+   * bisection.
+   */
+  private void project(double[] weights) {
+    double low = Double.POSITIVE_INFINITY;
+    double high = Double.NEGATIVE_INFINITY;
+    for (double weight : weights) {
+      low = Math.min(low, weight);
+      high = Math.max(high, weight);
+    }
+    low -= weightCap;
+    for (int step = 0; step < 64 && high - low > 1e-15; step++) {
+      double shift = (low + high) / 2;
+      double sum = 0;
+      for (double weight : weights) {
+        sum += Math.min(Math.max(weight - shift, 0), weightCap);
+      }
+      if (sum > 1) {
+        low = shift;
+      } else {
+        high = shift;
+      }
+    }
+    double shift = (low + high) / 2;
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = Math.min(Math.max(weights[i] - shift, 0), weightCap);
+    }
+  }
+
+  /**
+   * Multiplies the covariance matrix by a vector. The matrix is symmetric, so the product is the
+   * sum of the rows of the nonzero entries, and the many weights that the constraints hold at 0
+   * cost nothing.
+   */
+  private void multiply(double[] vector, double[] result) {
+    int count = tickers.length;
+    Arrays.fill(result, 0);
+    for (int j = 0; j < count; j++) {
+      double value = vector[j];
+      if (value != 0) {
+        int row = j * count;
+        for (int i = 0; i < count; i++) {
+          result[i] += value * covariance[row + i];
+        }
+      }
+    }
+  }
+
+  /**
+   * Estimates the largest eigenvalue of the covariance matrix by power iteration. The estimate is
+   * raised slightly so that the gradient step stays stable.
+   */
+  private double largestEigenvalue() {
+    int count = tickers.length;
+    double[] vector = new double[count];
+    double[] product = new double[count];
+    Arrays.fill(vector, 1 / Math.sqrt(count));
+    double eigenvalue = 0;
+    for (int iteration = 0; iteration < 100; iteration++) {
+      multiply(vector, product);
+      double norm = 0;
+      for (double value : product) {
+        norm += value * value;
+      }
+      norm = Math.sqrt(norm);
+      if (norm == 0) {
+        return 0;
+      }
+      for (int i = 0; i < count; i++) {
+        vector[i] = product[i] / norm;
+      }
+      eigenvalue = norm;
+    }
+    return eigenvalue * 1.05;
+  }
+
+  /**
+   * Returns the highest expected return the cap allows, from filling the tickers with the highest
+   * expected returns up to the cap.
+   */
+  private double maximumReturn() {
+    double[] sorted = means.clone();
+    Arrays.sort(sorted);
+    double remaining = 1;
+    double total = 0;
+    for (int i = sorted.length - 1; i >= 0 && remaining > 0; i--) {
+      double weight = Math.min(weightCap, remaining);
+      total += weight * sorted[i];
+      remaining -= weight;
+    }
+    return total;
+  }
+
+  private double[] equalWeights() {
+    double[] weights = new double[tickers.length];
+    Arrays.fill(weights, 1.0 / tickers.length);
+    return weights;
+  }
+
+  private double expectedReturn(double[] weights) {
+    double total = 0;
+    for (int i = 0; i < weights.length; i++) {
+      total += weights[i] * means[i];
+    }
+    return total;
+  }
+
+  private double volatility(double[] weights) {
+    double[] product = new double[weights.length];
+    multiply(weights, product);
+    double variance = 0;
+    for (int i = 0; i < weights.length; i++) {
+      variance += weights[i] * product[i];
+    }
+    return Math.sqrt(Math.max(variance, 0));
+  }
+
+  private double sharpe(double[] weights, double riskFreeRate) {
+    double volatility = volatility(weights);
+    return volatility > 0 ? (expectedReturn(weights) - riskFreeRate) / volatility
+        : Double.NEGATIVE_INFINITY;
+  }
+
+  private FrontierPoint point(double[] weights) {
+    return new FrontierPoint(tickers, weights, expectedReturn(weights), volatility(weights));
+  }
+
+  /**
+   * Efficient weights together with the multiple of the expected return they were solved for.
+   */
+  private static final class Solution {
+
+    private final double multiple;
+    private double[] weights;
+
+    Solution(double multiple, double[] weights) {
+      this.multiple = multiple;
+      this.weights = weights;
+    }
+  }
+}
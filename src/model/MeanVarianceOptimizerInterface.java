@@ -0,0 +1,45 @@
+package model;
+
+import java.util.List;
+
+/**
+ * This interface specifies how investment weights are chosen from the history of a set of stocks.
+ * Every portfolio it returns is long-only, invests the whole amount and keeps each weight under
+ * the optimizer's cap, so its stock ratio can be passed straight to an investment strategy.
+ */
+public interface MeanVarianceOptimizerInterface {
+
+  /**
+   * Finds the portfolio with the lowest estimated volatility.
+   *
+   * @return The minimum variance portfolio.
+   */
+  public FrontierPoint minimumVariance();
+
+  /**
+   * Finds the portfolio with the highest estimated excess return per unit of volatility.
+   *
+   * @param riskFreeRate The annualized risk-free rate.
+   * @return The maximum Sharpe ratio portfolio.
+   */
+  public FrontierPoint maximumSharpe(double riskFreeRate);
+
+  /**
+   * Finds the portfolio with the lowest estimated volatility among those expected to return at
+   * least the target.
+   *
+   * @param expectedReturn The annualized target return.
+   * @return The efficient portfolio for the target.
+   * @throws IllegalArgumentException if no portfolio within the constraints reaches the target.
+   */
+  public FrontierPoint targetReturn(double expectedReturn);
+
+  /**
+   * Traces the efficient frontier from the minimum variance portfolio to the portfolio with the
+   * highest expected return, at evenly spaced target returns.
+   *
+   * @param points The number of portfolios to return, at least 2.
+   * @return The portfolios, from the lowest expected return to the highest.
+   */
+  public List<FrontierPoint> efficientFrontier(int points);
+}
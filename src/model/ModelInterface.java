@@ -36,4 +36,11 @@ public interface ModelInterface {
    * @throws IOException If there is an issue retrieving stock data.
    */
   public StockAnalysisInterface stockAnalysis(String ticker) throws IOException;
+
+  /**
+   * Closes the session of a user, releasing the portfolio manager shared by the user's requests.
+   *
+   * @param emailId The email ID of the user.
+   */
+  public void closeSession(String emailId);
 }
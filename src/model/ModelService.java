@@ -1,6 +1,8 @@
 package model;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 
 /**
  * Provides the concrete implementation of the {@link ModelInterface}, handling the creation and
@@ -10,34 +12,102 @@ import java.io.IOException;
  * managers for portfolios and users, linking data management capabilities with the rest of the
  * application.
  * </p>
+ * <p>
+ * Portfolio managers are kept in a session registry, so every request for the same user returns
+ * the same manager until the session is closed or stays idle for longer than the idle timeout. A
+ * manager that holds flexible portfolios is kept regardless, because those portfolios are only
+ * held in memory. A single user manager is shared by all callers.
+ * </p>
  */
 public class ModelService implements ModelInterface {
 
   /**
-   * This method instantiates and returns a {@link PortfolioManager} dedicated to handling portfolio
-   * operations associated with the specified email ID.
-   * </p>
+   * How long a user's portfolio manager is kept without being used, unless configured otherwise.
+   */
+  public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+  private final SessionRegistry<PortfolioManager> portfolioManagers;
+  private final KeyValueStoreInterface store;
+  private final UserStore userStore;
+  private UserManagerInterface userManager;
+
+  /**
+   * Constructs a model service whose sessions expire after the default idle timeout.
+   */
+  public ModelService() {
+    this(DEFAULT_IDLE_TIMEOUT, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructs a model service whose sessions expire after the given idle timeout.
+   *
+   * @param idleTimeout How long a user's portfolio manager is kept without being used.
+   * @param clock       The clock used to measure idle time.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   */
+  public ModelService(Duration idleTimeout, Clock clock) {
+    this.portfolioManagers = new SessionRegistry<>(idleTimeout, clock,
+        PortfolioManager::hasUnsavedPortfolios);
+    this.store = null;
+    this.userStore = UserStore.getInstance();
+  }
+
+  /**
+   * Constructs a model service that keeps users and saved portfolios in a key-value store instead
+   * of separate CSV files, and whose sessions expire after the given idle timeout.
+   *
+   * @param idleTimeout How long a user's portfolio manager is kept without being used.
+   * @param clock       The clock used to measure idle time.
+   * @param store       The key-value store holding users and portfolios.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   */
+  public ModelService(Duration idleTimeout, Clock clock, KeyValueStoreInterface store) {
+    this.portfolioManagers = new SessionRegistry<>(idleTimeout, clock,
+        PortfolioManager::hasUnsavedPortfolios);
+    this.store = store;
+    this.userStore = new UserStore(store);
+  }
+
+  /**
+   * This method returns the {@link PortfolioManager} of the user's session, dedicated to handling
+   * portfolio operations associated with the specified email ID. A new manager is created only if
+   * the user has no open session.
    *
-   * @param emailId The email ID for which the portfolio manager is created.
+   * @param emailId The email ID for which the portfolio manager is returned.
    * @return An instance of {@link PortfolioManagerInterface}.
    */
   @Override
   public PortfolioManagerInterface createPortfolioManager(String emailId) {
-    PortfolioManagerInterface portfolioManagerInterface = new PortfolioManager(emailId);
-    return portfolioManagerInterface;
+    if (store == null) {
+      return portfolioManagers.get(emailId, PortfolioManager::new);
+    }
+    return portfolioManagers.get(emailId,
+        id -> new PortfolioManager(UserManager.findUser(userStore, id), store));
   }
 
   /**
-   * This method instantiates and returns a {@link UserManager} dedicated to handling user account
-   * operations, providing access to user data.
-   * </p>
+   * This method returns the shared {@link UserManager} dedicated to handling user account
+   * operations, providing access to user data. The user data is read when it is first needed.
    *
    * @return An instance of {@link UserManagerInterface}.
    */
   @Override
-  public UserManagerInterface createUserManager() {
-    UserManagerInterface userManagerInterface = new UserManager();
-    return userManagerInterface;
+  public synchronized UserManagerInterface createUserManager() {
+    if (userManager == null) {
+      userManager = new UserManager(userStore);
+    }
+    return userManager;
+  }
+
+  /**
+   * Closes the session of a user, so that the next request for the user's portfolio manager reads
+   * the user's portfolios again. The session is kept if the user has flexible portfolios.
+   *
+   * @param emailId The email ID of the user.
+   */
+  @Override
+  public void closeSession(String emailId) {
+    portfolioManagers.close(emailId);
   }
 
   /**
@@ -0,0 +1,296 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Projects investment plans with a block bootstrap of historical daily returns. The daily returns
+ * of all tickers are taken from the days on which every ticker traded, so each resampled day keeps
+ * the tickers' co-movement, and they are drawn in blocks of consecutive days so that streaks and
+ * volatility clusters survive the resampling. Blocks wrap around the end of the history.
+ *
+ * <p>Paths are simulated in parallel on a fork-join pool. Each task owns a {@link SplittableRandom}
+ * split off in a fixed order before any task runs, so a projection with a given seed is the same
+ * however the tasks are scheduled. Returns, path values and results are held in primitive arrays
+ * allocated once per projection or per task, and simulating a path allocates nothing.</p>
+ */
+public class MonteCarloEngine implements MonteCarloEngineInterface {
+
+  /**
+   * The default number of consecutive days drawn in each block.
+   */
+  public static final int DEFAULT_BLOCK_DAYS = 20;
+
+  /**
+   * The number of trading days between checkpoints of the path bands, about a month.
+   */
+  public static final int CHECKPOINT_DAYS = 21;
+
+  private static final double[] DEFAULT_PERCENTILES = {5, 25, 50, 75, 95};
+
+  private static final int PATHS_PER_TASK = 256;
+
+  private final String[] tickers;
+  private final double[] returns;
+  private final int historyDays;
+  private final int blockDays;
+  private final long seed;
+  private final double[] percentiles;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an engine from the stored price series of the given tickers, with the default
+   * block length and a random seed.
+   *
+   * @param tickers              The tickers that plans may invest in.
+   * @param date                 The latest date of history to use.
+   * @param dataFreshnessManager The source of the price series.
+   * @return The engine.
+   * @throws IOException if the price series cannot be read.
+   */
+  public static MonteCarloEngine fromHistory(Collection<String> tickers, LocalDate date,
+      DataFreshnessManagerInterface dataFreshnessManager) throws IOException {
+    return new MonteCarloEngine(dataFreshnessManager.getPriceSeries(tickers, date),
+        DEFAULT_BLOCK_DAYS, new SplittableRandom().nextLong());
+  }
+
+  /**
+   * Constructs an engine over the given history that runs on the common fork-join pool.
+   *
+   * @param history   The price series of every ticker that plans may invest in.
+   * @param blockDays The number of consecutive days drawn in each block.
+   * @param seed      The seed of the random paths.
+   */
+  public MonteCarloEngine(Map<String, PriceSeries> history, int blockDays, long seed) {
+    this(history, blockDays, seed, DEFAULT_PERCENTILES, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs an engine over the given history.
+   *
+   * @param history     The price series of every ticker that plans may invest in.
+   * @param blockDays   The number of consecutive days drawn in each block.
+   * @param seed        The seed of the random paths.
+   * @param percentiles The percentiles to report, between 0 and 100.
+   * @param pool        The pool the paths are simulated on.
+   * @throws IllegalArgumentException if the block length is not positive or the history has
+   *                                  fewer common trading days than a block.
+   */
+  public MonteCarloEngine(Map<String, PriceSeries> history, int blockDays, long seed,
+      double[] percentiles, ForkJoinPool pool) {
+    if (blockDays <= 0) {
+      throw new IllegalArgumentException("Block length must be greater than 0.");
+    }
+    for (double percentile : percentiles) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+      }
+    }
+    List<String> names = new ArrayList<>(history.keySet());
+    Collections.sort(names);
+    this.tickers = names.toArray(new String[0]);
+    this.returns = alignedReturns(history);
+    this.historyDays = tickers.length == 0 ? 0 : returns.length / tickers.length;
+    if (historyDays < blockDays) {
+      throw new IllegalArgumentException("Not enough history: " + historyDays
+          + " common trading days for blocks of " + blockDays + ".");
+    }
+    this.blockDays = blockDays;
+    this.seed = seed;
+    this.percentiles = percentiles.clone();
+    this.pool = pool;
+  }
+
+  @Override
+  public ProjectionBands project(Map<String, Double> weights, double initialValue,
+      double contribution, int intervalDays, int horizonDays, int paths) {
+    if (horizonDays <= 0 || paths <= 0 || intervalDays <= 0) {
+      throw new IllegalArgumentException("Horizon, paths and interval must be greater than 0.");
+    }
+    if (initialValue < 0 || contribution < 0) {
+      throw new IllegalArgumentException("Amounts cannot be negative.");
+    }
+    double[] weightOf = new double[tickers.length];
+    double sum = 0;
+    for (Map.Entry<String, Double> entry : weights.entrySet()) {
+      int index = Arrays.binarySearch(tickers, entry.getKey());
+      if (index < 0) {
+        throw new IllegalArgumentException("No history for stock " + entry.getKey() + ".");
+      }
+      if (entry.getValue() < 0) {
+        throw new IllegalArgumentException("Weighted ratio cannot be negative!"
+            + "Please change the value for stock " + entry.getKey() + ".");
+      }
+      weightOf[index] = entry.getValue();
+      sum += entry.getValue();
+    }
+    if (Math.abs(sum - 1.0) > 0.000001) {
+      throw new IllegalArgumentException("The sum of the investment ratios must equal 1.");
+    }
+
+    int checkpoints = (horizonDays + CHECKPOINT_DAYS - 1) / CHECKPOINT_DAYS;
+    int[] checkpointDays = new int[checkpoints];
+    for (int c = 0; c < checkpoints; c++) {
+      checkpointDays[c] = Math.min((c + 1) * CHECKPOINT_DAYS, horizonDays);
+    }
+    double[] finals = new double[paths];
+    double[] pathValues = new double[checkpoints * paths];
+
+    int tasks = (paths + PATHS_PER_TASK - 1) / PATHS_PER_TASK;
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] randoms = new SplittableRandom[tasks];
+    for (int task = 0; task < tasks; task++) {
+      randoms[task] = root.split();
+    }
+    Plan plan = new Plan(weightOf, initialValue, contribution, intervalDays, horizonDays,
+        paths, finals, pathValues);
+    pool.invoke(new SimulateTasks(plan, randoms, 0, tasks));
+
+    Arrays.sort(finals);
+    double[][] bands = new double[percentiles.length][checkpoints];
+    for (int c = 0; c < checkpoints; c++) {
+      int from = c * paths;
+      Arrays.sort(pathValues, from, from + paths);
+      for (int p = 0; p < percentiles.length; p++) {
+        bands[p][c] = ProjectionBands.percentile(pathValues, from, from + paths, percentiles[p]);
+      }
+    }
+    double contributed = initialValue
+        + contribution * ((horizonDays - 1) / intervalDays);
+    return new ProjectionBands(percentiles.clone(), finals, checkpointDays, bands, contributed);
+  }
+
+  private void simulate(Plan plan, SplittableRandom random, int fromPath, int toPath) {
+    int count = tickers.length;
+    double[] values = new double[count];
+    for (int path = fromPath; path < toPath; path++) {
+      for (int t = 0; t < count; t++) {
+        values[t] = plan.initialValue * plan.weights[t];
+      }
+      int row = random.nextInt(historyDays);
+      int leftInBlock = blockDays;
+      int checkpoint = 0;
+      double total = 0;
+      for (int day = 1; day <= plan.horizonDays; day++) {
+        if (leftInBlock == 0) {
+          row = random.nextInt(historyDays);
+          leftInBlock = blockDays;
+        }
+        int offset = row * count;
+        total = 0;
+        boolean invest = day < plan.horizonDays && day % plan.intervalDays == 0;
+        for (int t = 0; t < count; t++) {
+          double value = values[t] * (1 + returns[offset + t]);
+          if (invest) {
+            value += plan.contribution * plan.weights[t];
+          }
+          values[t] = value;
+          total += value;
+        }
+        row = row + 1 == historyDays ? 0 : row + 1;
+        leftInBlock--;
+        if (day % CHECKPOINT_DAYS == 0 || day == plan.horizonDays) {
+          plan.pathValues[checkpoint * plan.paths + path] = total;
+          checkpoint++;
+        }
+      }
+      plan.finals[path] = total;
+    }
+  }
+
+  /**
+   * Computes the daily simple returns of every ticker between consecutive days on which all of
+   * them have a positive close, laid out day by day with one value per ticker.
+   */
+  private double[] alignedReturns(Map<String, PriceSeries> history) {
+    int count = tickers.length;
+    List<PriceSeries> series = new ArrayList<>(count);
+    for (String ticker : tickers) {
+      series.add(history.get(ticker));
+    }
+    TradingCalendar calendar = TradingCalendar.common(series);
+    if (calendar.size() < 2) {
+      return new double[0];
+    }
+    double[] aligned = new double[(calendar.size() - 1) * count];
+    for (int t = 0; t < count; t++) {
+      PriceSeries prices = series.get(t);
+      long previous = prices.closeUnits(prices.indexOf(calendar.epochDay(0)));
+      for (int row = 1; row < calendar.size(); row++) {
+        long close = prices.closeUnits(prices.indexOf(calendar.epochDay(row)));
+        aligned[(row - 1) * count + t] = (double) close / previous - 1;
+        previous = close;
+      }
+    }
+    return aligned;
+  }
+
+  /**
+   * The parameters of a projection and the arrays its tasks write their paths into.
+   */
+  private static final class Plan {
+
+    private final double[] weights;
+    private final double initialValue;
+    private final double contribution;
+    private final int intervalDays;
+    private final int horizonDays;
+    private final int paths;
+    private final double[] finals;
+    private final double[] pathValues;
+
+    Plan(double[] weights, double initialValue, double contribution, int intervalDays,
+        int horizonDays, int paths, double[] finals, double[] pathValues) {
+      this.weights = weights;
+      this.initialValue = initialValue;
+      this.contribution = contribution;
+      this.intervalDays = intervalDays;
+      this.horizonDays = horizonDays;
+      this.paths = paths;
+      this.finals = finals;
+      this.pathValues = pathValues;
+    }
+  }
+
+  /**
+   * Simulates a range of tasks, splitting it in halves until a single task of paths is left.
+   */
+  private final class SimulateTasks extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Plan plan;
+    private final SplittableRandom[] randoms;
+    private final int from;
+    private final int to;
+
+    SimulateTasks(Plan plan, SplittableRandom[] randoms, int from, int to) {
+      this.plan = plan;
+      this.randoms = randoms;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        int firstPath = from * PATHS_PER_TASK;
+        simulate(plan, randoms[from], firstPath,
+            Math.min(firstPath + PATHS_PER_TASK, plan.paths));
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new SimulateTasks(plan, randoms, from, middle),
+          new SimulateTasks(plan, randoms, middle, to));
+    }
+  }
+}
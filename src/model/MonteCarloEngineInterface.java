@@ -0,0 +1,26 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * This interface specifies how the future value of an investment plan is projected. A projection
+ * simulates many possible future price paths for the plan's tickers and summarises the outcomes
+ * as percentile bands.
+ */
+public interface MonteCarloEngineInterface {
+
+  /**
+   * Projects the value of a plan that starts with an initial investment and adds a fixed amount
+   * at regular intervals, split between the tickers by weight.
+   *
+   * @param weights           The share of every investment placed in each ticker.
+   * @param initialValue      The amount invested at the start.
+   * @param contribution      The amount invested at each interval after the start.
+   * @param intervalDays      The number of trading days between investments.
+   * @param horizonDays       The number of trading days to project.
+   * @param paths             The number of paths to simulate.
+   * @return The percentile bands of the simulated values.
+   */
+  public ProjectionBands project(Map<String, Double> weights, double initialValue,
+      double contribution, int intervalDays, int horizonDays, int paths);
+}
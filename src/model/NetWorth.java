@@ -0,0 +1,137 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The combined value of every portfolio a user holds over a range of dates. It keeps the daily
+ * value series of each portfolio, their daily sum, and a consolidated valuation on the last date of
+ * the range in which holdings of the same ticker across portfolios are added together. A ticker
+ * without a recent price on that date is left out of the consolidated valuation and listed as
+ * missing instead.
+ */
+public final class NetWorth {
+
+  private final ValueSeries total;
+  private final Map<String, ValueSeries> portfolioSeries;
+  private final Valuation tickerValuation;
+  private final List<String> missingTickers;
+
+  /**
+   * Constructs a net worth from the value series of each portfolio and the consolidated valuation.
+   * Every portfolio series must cover the same days.
+   *
+   * @param portfolioSeries The daily value series of each portfolio, keyed by portfolio name.
+   * @param tickerValuation The valuation of all holdings combined on the last date of the range.
+   * @param start           The first date of the range.
+   * @param end             The last date of the range.
+   */
+  public NetWorth(LinkedHashMap<String, ValueSeries> portfolioSeries, Valuation tickerValuation,
+      LocalDate start, LocalDate end) {
+    this(portfolioSeries, tickerValuation, Collections.emptyList(), start, end);
+  }
+
+  /**
+   * Constructs a net worth from the value series of each portfolio, the consolidated valuation and
+   * the tickers that could not be priced on the last date of the range.
+   *
+   * @param portfolioSeries The daily value series of each portfolio, keyed by portfolio name.
+   * @param tickerValuation The valuation of all priced holdings combined on the last date.
+   * @param missingTickers  The held tickers left out of the valuation for lack of a price.
+   * @param start           The first date of the range.
+   * @param end             The last date of the range.
+   */
+  public NetWorth(LinkedHashMap<String, ValueSeries> portfolioSeries, Valuation tickerValuation,
+      List<String> missingTickers, LocalDate start, LocalDate end) {
+    int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+    long[] epochDays = new long[days];
+    double[] values = new double[days];
+    for (int i = 0; i < days; i++) {
+      epochDays[i] = start.toEpochDay() + i;
+    }
+    for (ValueSeries series : portfolioSeries.values()) {
+      for (int i = 0; i < days; i++) {
+        values[i] += series.value(i);
+      }
+    }
+    this.total = new ValueSeries(epochDays, values);
+    this.portfolioSeries = Collections.unmodifiableMap(portfolioSeries);
+    this.tickerValuation = tickerValuation;
+    this.missingTickers = Collections.unmodifiableList(new ArrayList<>(missingTickers));
+  }
+
+  /**
+   * Returns the combined value of all portfolios on each day of the range.
+   *
+   * @return The daily net worth.
+   */
+  public ValueSeries getTotalSeries() {
+    return total;
+  }
+
+  /**
+   * Returns the combined value of all portfolios on the last date of the range.
+   *
+   * @return The net worth on the last date.
+   */
+  public double getTotal() {
+    return total.size() == 0 ? 0 : total.value(total.size() - 1);
+  }
+
+  /**
+   * Returns the daily value series of each portfolio.
+   *
+   * @return A map from portfolio name to its value series.
+   */
+  public Map<String, ValueSeries> getPortfolioSeries() {
+    return portfolioSeries;
+  }
+
+  /**
+   * Returns the value of each portfolio on the last date of the range.
+   *
+   * @return A map from portfolio name to its value.
+   */
+  public LinkedHashMap<String, Double> getPortfolioTotals() {
+    LinkedHashMap<String, Double> totals = new LinkedHashMap<>();
+    for (Map.Entry<String, ValueSeries> entry : portfolioSeries.entrySet()) {
+      ValueSeries series = entry.getValue();
+      totals.put(entry.getKey(), series.size() == 0 ? 0 : series.value(series.size() - 1));
+    }
+    return totals;
+  }
+
+  /**
+   * Returns the consolidated value of each ticker across all portfolios on the last date of the
+   * range.
+   *
+   * @return A map from ticker symbol to its combined value.
+   */
+  public LinkedHashMap<String, Double> getTickerTotals() {
+    return tickerValuation.getContributions();
+  }
+
+  /**
+   * Returns the consolidated valuation on the last date of the range, with the combined shares and
+   * price of every ticker.
+   *
+   * @return The consolidated valuation.
+   */
+  public Valuation getTickerValuation() {
+    return tickerValuation;
+  }
+
+  /**
+   * Returns the held tickers that had no recent price on the last date of the range and are
+   * therefore left out of the consolidated valuation.
+   *
+   * @return The missing ticker symbols, in alphabetical order.
+   */
+  public List<String> getMissingTickers() {
+    return missingTickers;
+  }
+}
@@ -0,0 +1,323 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable sorted map backed by a persistent AVL tree. Every update returns a new map that
+ * shares all untouched nodes with the old one, so keeping the previous version costs nothing and a
+ * copy of a map is just another reference to the same root.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class PersistentSortedMap<K extends Comparable<? super K>, V> {
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentSortedMap EMPTY = new PersistentSortedMap<>(null, 0);
+
+  private final Node<K, V> root;
+  private final int size;
+
+  /**
+   * A tree node. Nodes are never modified after construction and double as map entries.
+   */
+  private static final class Node<K, V> implements Map.Entry<K, V> {
+
+    private final K key;
+    private final V value;
+    private final Node<K, V> left;
+    private final Node<K, V> right;
+    private final int height;
+
+    private Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException("Persistent map entries cannot be modified.");
+    }
+  }
+
+  private PersistentSortedMap(Node<K, V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns the empty map.
+   *
+   * @param <K> The type of the keys.
+   * @param <V> The type of the values.
+   * @return A map with no entries.
+   */
+  @SuppressWarnings("unchecked")
+  public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+    return (PersistentSortedMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns the number of entries.
+   *
+   * @return The size of the map.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether the map has no entries.
+   *
+   * @return true if the map is empty.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the value stored under a key.
+   *
+   * @param key The key to look up.
+   * @return The value, or null if the key is not present.
+   */
+  public V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int compare = key.compareTo(node.key);
+      if (compare == 0) {
+        return node.value;
+      }
+      node = compare < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the entry with the greatest key less than or equal to the given key.
+   *
+   * @param key The key to search for.
+   * @return The floor entry, or null if every key is greater.
+   */
+  public Map.Entry<K, V> floorEntry(K key) {
+    Node<K, V> node = root;
+    Node<K, V> floor = null;
+    while (node != null) {
+      int compare = key.compareTo(node.key);
+      if (compare == 0) {
+        return node;
+      } else if (compare < 0) {
+        node = node.left;
+      } else {
+        floor = node;
+        node = node.right;
+      }
+    }
+    return floor;
+  }
+
+  /**
+   * Returns the greatest key less than or equal to the given key.
+   *
+   * @param key The key to search for.
+   * @return The floor key, or null if every key is greater.
+   */
+  public K floorKey(K key) {
+    Map.Entry<K, V> entry = floorEntry(key);
+    return entry == null ? null : entry.getKey();
+  }
+
+  /**
+   * Returns the entry with the smallest key.
+   *
+   * @return The first entry, or null if the map is empty.
+   */
+  public Map.Entry<K, V> firstEntry() {
+    Node<K, V> node = root;
+    while (node != null && node.left != null) {
+      node = node.left;
+    }
+    return node;
+  }
+
+  /**
+   * Returns the entry with the greatest key.
+   *
+   * @return The last entry, or null if the map is empty.
+   */
+  public Map.Entry<K, V> lastEntry() {
+    Node<K, V> node = root;
+    while (node != null && node.right != null) {
+      node = node.right;
+    }
+    return node;
+  }
+
+  /**
+   * Returns a map with a key set to a value. Only the nodes on the path to the key are copied.
+   *
+   * @param key   The key.
+   * @param value The value.
+   * @return The updated map; this map is not modified.
+   */
+  public PersistentSortedMap<K, V> put(K key, V value) {
+    boolean[] added = new boolean[1];
+    Node<K, V> newRoot = put(root, key, value, added);
+    return new PersistentSortedMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map in which every value stored under a key greater than the given key has been
+   * replaced by the result of a function. Only the replaced nodes and their ancestors are copied.
+   *
+   * @param key      The exclusive lower bound of the keys to update.
+   * @param function The function applied to each value.
+   * @return The updated map; this map is not modified.
+   */
+  public PersistentSortedMap<K, V> mapValuesAfter(K key, UnaryOperator<V> function) {
+    return new PersistentSortedMap<>(mapAfter(root, key, function), size);
+  }
+
+  /**
+   * Returns the entries with keys in a range, in ascending key order.
+   *
+   * @param from The inclusive lower bound, or null for no lower bound.
+   * @param to   The inclusive upper bound, or null for no upper bound.
+   * @return The entries in the range.
+   */
+  public Iterable<Map.Entry<K, V>> entries(K from, K to) {
+    return () -> new RangeIterator<>(root, from, to);
+  }
+
+  /**
+   * Returns all entries in ascending key order.
+   *
+   * @return The entries of the map.
+   */
+  public Iterable<Map.Entry<K, V>> entries() {
+    return entries(null, null);
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> put(Node<K, V> node, K key,
+      V value, boolean[] added) {
+    if (node == null) {
+      added[0] = true;
+      return new Node<>(key, value, null, null);
+    }
+    int compare = key.compareTo(node.key);
+    if (compare == 0) {
+      return new Node<>(key, value, node.left, node.right);
+    } else if (compare < 0) {
+      return balance(node.key, node.value, put(node.left, key, value, added), node.right);
+    } else {
+      return balance(node.key, node.value, node.left, put(node.right, key, value, added));
+    }
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> mapAfter(Node<K, V> node, K key,
+      UnaryOperator<V> function) {
+    if (node == null) {
+      return null;
+    }
+    if (key.compareTo(node.key) < 0) {
+      return new Node<>(node.key, function.apply(node.value), mapAfter(node.left, key, function),
+          mapAll(node.right, function));
+    }
+    Node<K, V> right = mapAfter(node.right, key, function);
+    return right == node.right ? node : new Node<>(node.key, node.value, node.left, right);
+  }
+
+  private static <K, V> Node<K, V> mapAll(Node<K, V> node, UnaryOperator<V> function) {
+    if (node == null) {
+      return null;
+    }
+    return new Node<>(node.key, function.apply(node.value), mapAll(node.left, function),
+        mapAll(node.right, function));
+  }
+
+  private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+    int difference = height(left) - height(right);
+    if (difference > 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.key, left.value, left.left,
+            new Node<>(key, value, left.right, right));
+      }
+      Node<K, V> pivot = left.right;
+      return new Node<>(pivot.key, pivot.value,
+          new Node<>(left.key, left.value, left.left, pivot.left),
+          new Node<>(key, value, pivot.right, right));
+    } else if (difference < -1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left),
+            right.right);
+      }
+      Node<K, V> pivot = right.left;
+      return new Node<>(pivot.key, pivot.value, new Node<>(key, value, left, pivot.left),
+          new Node<>(right.key, right.value, pivot.right, right.right));
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  /**
+   * Walks the tree in key order between two optional bounds using an explicit stack.
+   */
+  private static final class RangeIterator<K extends Comparable<? super K>, V>
+      implements Iterator<Map.Entry<K, V>> {
+
+    private final ArrayDeque<Node<K, V>> stack = new ArrayDeque<>();
+    private final K to;
+
+    private RangeIterator(Node<K, V> root, K from, K to) {
+      this.to = to;
+      Node<K, V> node = root;
+      while (node != null) {
+        if (from != null && node.key.compareTo(from) < 0) {
+          node = node.right;
+        } else {
+          stack.push(node);
+          node = node.left;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty() && (to == null || stack.peek().key.compareTo(to) <= 0);
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Node<K, V> node = stack.pop();
+      Node<K, V> next = node.right;
+      while (next != null) {
+        stack.push(next);
+        next = next.left;
+      }
+      return node;
+    }
+  }
+}
@@ -12,9 +12,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * This class represents a user's investment portfolio, containing stocks and their details. It also
@@ -25,6 +22,11 @@ public class Portfolio implements PortfolioInterface {
   private User user;
   private String portfolioName;
   private HashMap<String, ArrayList<String>> stockData;
+  private Holdings holdings;
+  private final ValuationEngineInterface valuationEngine = new ValuationEngine();
+  private final ValuationMemo valuationMemo = ValuationMemo.getInstance();
+  private final DataFreshnessManagerInterface dataFreshnessManager =
+      DataFreshnessManager.getInstance();
 
   /**
    * Constructs a Portfolio instance with specified user, name, and stock data.
@@ -52,23 +54,29 @@ public class Portfolio implements PortfolioInterface {
    */
   @Override
   public float totalValue(LocalDate date) throws IOException {
-    float totalValue = 0;
-    LocalDate currentDate = LocalDate.now();
-    HashMap<String, String> portfolioCompostion = getComposition(currentDate);
-    for (String ticker : portfolioCompostion.keySet()) {
-      float stockValue = 0;
-      float numShares = 0;
-      float tickerValue = 0;
-      tickerValue = this.getClosingValue(ticker, date);
-      numShares = Float.valueOf(portfolioCompostion.get(ticker));
-      if (tickerValue == 0.0) {
-        throw new IllegalArgumentException("No data found for the given date");
-      } else {
-        stockValue = tickerValue * numShares;
-        totalValue = totalValue + stockValue;
-      }
+    Holdings held = getHoldings(date);
+    Long memoized = valuationMemo.lookup(getMemoKey(), held, date);
+    if (memoized != null) {
+      return (float) FixedPoint.toDollars(memoized);
     }
-    return totalValue;
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    Map<String, PriceSeries> prices = loadPriceSeries(date);
+    Valuation valuation = valuationEngine.valuationOn(timeline, prices, date);
+    valuationMemo.record(getMemoKey(), held, date, valuation.totalUnits(), prices,
+        valuationEngine);
+    return (float) valuation.total();
+  }
+
+  /**
+   * Values the portfolio on a given date, keeping the value contributed by each holding.
+   *
+   * @param date The date of the valuation.
+   * @return The valuation of the portfolio on the given date.
+   * @throws IOException If there is an issue accessing stock data.
+   */
+  @Override
+  public Valuation getValuation(LocalDate date) throws IOException {
+    return valuationEngine.valuationOn(getHoldingsTimeline(), loadPriceSeries(date), date);
   }
 
   /**
@@ -86,6 +94,25 @@ public class Portfolio implements PortfolioInterface {
     return portfolioCompostion;
   }
 
+  /**
+   * Retrieves the shares held in the portfolio as a typed holdings view. The holdings of an
+   * immutable portfolio do not depend on the date, so they are parsed once and reused.
+   *
+   * @param date The date for which to retrieve the holdings.
+   * @return The holdings of the portfolio.
+   */
+  @Override
+  public Holdings getHoldings(LocalDate date) {
+    if (holdings == null) {
+      Holdings parsed = Holdings.empty();
+      for (String ticker : stockData.keySet()) {
+        parsed = parsed.plus(ticker, FixedPoint.parseMicroShares(stockData.get(ticker).get(0)));
+      }
+      holdings = parsed;
+    }
+    return holdings;
+  }
+
   /**
    * Gets the user who owns the portfolio.
    *
@@ -117,6 +144,24 @@ public class Portfolio implements PortfolioInterface {
   }
 
 
+  /**
+   * Returns the portfolio in the CSV format it is saved in: a header line followed by one line of
+   * ticker, number of shares and date of purchase per stock.
+   *
+   * @return The lines of the CSV file.
+   */
+  List<String> toCsvLines() {
+    HashMap<String, ArrayList<String>> composition = this.getStockData();
+    List<String> lines = new ArrayList<>();
+    lines.add("Ticker Symbol, Number of Shares, Date of Purchase");
+    for (String ticker : composition.keySet()) {
+      String line = ticker + "," + composition.get(ticker).get(0) + ","
+          + composition.get(ticker).get(1);
+      lines.add(line);
+    }
+    return lines;
+  }
+
   protected String exportPortfolio(String directory) {
     String message;
     try {
@@ -126,15 +171,7 @@ public class Portfolio implements PortfolioInterface {
         message = "Portfolio already exists!";
       } else {
         Files.createFile(filePath);
-        HashMap<String, ArrayList<String>> composition = this.getStockData();
-        List<String> lines = new ArrayList<>();
-        lines.add("Ticker Symbol, Number of Shares, Date of Purchase");
-        for (String ticker : composition.keySet()) {
-          String line = ticker + "," + composition.get(ticker).get(0) + ","
-              + composition.get(ticker).get(1);
-          lines.add(line);
-        }
-        Files.write(filePath, lines, StandardOpenOption.WRITE);
+        Files.write(filePath, toCsvLines(), StandardOpenOption.WRITE);
         message = "Portfolio successfully saved at " + filePath;
       }
     } catch (Exception e) {
@@ -153,6 +190,7 @@ public class Portfolio implements PortfolioInterface {
   public void getHistoricalData(String ticker) throws IOException {
     StockData data = new StockData(ticker);
     data.getHistoricalStockData();
+    dataFreshnessManager.invalidate(ticker);
   }
 
   /**
@@ -166,6 +204,7 @@ public class Portfolio implements PortfolioInterface {
   public void updateHistoricalData(String ticker, LocalDate date) throws IOException {
     StockData data = new StockData(ticker);
     data.updateHistoricalStockData(date);
+    dataFreshnessManager.invalidate(ticker);
   }
 
   /**
@@ -178,13 +217,12 @@ public class Portfolio implements PortfolioInterface {
    */
   @Override
   public float getClosingValue(String ticker, LocalDate date) throws IOException {
-    StockData data = new StockData(ticker);
-    return data.getStockClosingValue(date);
+    return (float) dataFreshnessManager.getPriceSeriesForTrade(ticker, date).closeOn(date);
   }
 
   /**
    * Generates a performance chart for the portfolio between two dates, showing the portfolio value
-   * over time.
+   * over time. Only trading days of the held stocks are charted.
    *
    * @param portfolioName The name of the portfolio.
    * @param startDate     The start date of the period to analyze.
@@ -195,49 +233,27 @@ public class Portfolio implements PortfolioInterface {
   @Override
   public String getPortfolioPerformance(String portfolioName,
       LocalDate startDate, LocalDate endDate) {
+    ValueSeries portfolioValues;
+    try {
+      portfolioValues = getValueSeries(startDate, endDate).onTradingDays(
+          dataFreshnessManager.getTradingCalendar(stockData.keySet(), endDate));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+
     final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
     StringBuilder chart = new StringBuilder();
-    TreeMap<LocalDate, Float> portfolioValues = new TreeMap<>();
-    float lastValue = 0;
-
-    for (LocalDate date = startDate; !date.isAfter(endDate);
-        date = date.plusDays(1)) {
-      HashMap<String, String> composition = getComposition(date);
-      float totalValue = 0;
-      boolean dataAvailable = false;
-
-      for (Map.Entry<String, String> entry : composition.entrySet()) {
-        String ticker = entry.getKey();
-        int shares = Integer.parseInt(entry.getValue());
-        try {
-          float closingValue = getClosingValue(ticker, date);
-          if (closingValue > 0) {
-            dataAvailable = true;
-          }
-          totalValue += closingValue * shares;
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-      lastValue = dataAvailable ? totalValue : lastValue;
-      portfolioValues.put(date, lastValue);
-    }
-    List<LocalDate> selectedDates = new ArrayList<>(portfolioValues.keySet());
     final int maxLines = 30;
-    int interval = (int) Math.ceil(selectedDates.size() / (double) maxLines);
-
-    List<LocalDate> datesForChart = IntStream.range(0,
-            selectedDates.size()).filter(i -> i % interval == 0)
-        .mapToObj(selectedDates::get).collect(Collectors.toList());
+    int interval = (int) Math.ceil(portfolioValues.size() / (double) maxLines);
 
-    float maxPortfolioValue = Collections.max(portfolioValues.values());
+    float maxPortfolioValue = (float) portfolioValues.maxValue();
     int scale = (int) Math.ceil(maxPortfolioValue / 50);
     scale = Math.max(1, scale);
 
-    for (LocalDate date : datesForChart) {
-      float value = portfolioValues.get(date);
+    for (int i = 0; i < portfolioValues.size(); i += interval) {
+      float value = (float) portfolioValues.value(i);
       int stars = (int) (value / scale);
-      chart.append(formatter.format(date)).append(": ")
+      chart.append(formatter.format(portfolioValues.date(i))).append(": ")
           .append(String.join("", Collections.nCopies(stars, "*")))
           .append("\n");
     }
@@ -245,4 +261,45 @@ public class Portfolio implements PortfolioInterface {
     chart.append("Scale: * = ").append(scale).append(" USD.\n");
     return chart.toString();
   }
+
+  /**
+   * Computes the value of the portfolio on every calendar day between two dates.
+   *
+   * @param startDate The first date of the series.
+   * @param endDate   The last date of the series.
+   * @return The daily value series of the portfolio.
+   * @throws IOException If there is an issue accessing stock data.
+   */
+  @Override
+  public ValueSeries getValueSeries(LocalDate startDate, LocalDate endDate) throws IOException {
+    PersistentSortedMap<LocalDate, Holdings> timeline = getHoldingsTimeline();
+    ValueSeries memoized = valuationMemo.lookupSeries(getMemoKey(), timeline, startDate, endDate);
+    if (memoized != null) {
+      return memoized;
+    }
+    Map<String, PriceSeries> prices = loadPriceSeries(endDate);
+    ValueSeries series = valuationEngine.valueSeries(timeline, prices, startDate, endDate);
+    valuationMemo.recordSeries(getMemoKey(), timeline, series, prices, valuationEngine);
+    return series;
+  }
+
+  private String getMemoKey() {
+    return user.getEmailId() + "/" + portfolioName;
+  }
+
+  /**
+   * Returns the holdings timeline of the portfolio. An immutable portfolio holds the same shares
+   * on every date, so the timeline has a single entry.
+   *
+   * @return The holdings timeline.
+   */
+  @Override
+  public PersistentSortedMap<LocalDate, Holdings> getHoldingsTimeline() {
+    return PersistentSortedMap.<LocalDate, Holdings>empty()
+        .put(LocalDate.MIN, getHoldings(LocalDate.MIN));
+  }
+
+  private Map<String, PriceSeries> loadPriceSeries(LocalDate date) throws IOException {
+    return dataFreshnessManager.getPriceSeries(stockData.keySet(), date);
+  }
 }
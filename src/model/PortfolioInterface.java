@@ -23,6 +23,16 @@ public interface PortfolioInterface {
    */
   public float totalValue(LocalDate date) throws IOException;
 
+  /**
+   * Values the portfolio on a given date, keeping the value contributed by each holding. The
+   * prices of all holdings are resolved concurrently.
+   *
+   * @param date The date of the valuation.
+   * @return The valuation of the portfolio on the given date.
+   * @throws IOException If there is an issue accessing stock data.
+   */
+  public Valuation getValuation(LocalDate date) throws IOException;
+
   /**
    * Retrieves the composition of the portfolio.
    *
@@ -30,6 +40,23 @@ public interface PortfolioInterface {
    */
   public HashMap<String, String> getComposition(LocalDate date);
 
+  /**
+   * Retrieves the shares held on a given date as a typed holdings view, without formatting the
+   * share counts as text.
+   *
+   * @param date The date for which to retrieve the holdings.
+   * @return The holdings on the given date.
+   */
+  public Holdings getHoldings(LocalDate date);
+
+  /**
+   * Returns the holdings change points of the portfolio. Each entry maps a date to the shares of
+   * every ticker held from that date until the next entry.
+   *
+   * @return The holdings timeline in date order.
+   */
+  public PersistentSortedMap<LocalDate, Holdings> getHoldingsTimeline();
+
   /**
    * Gets the user who owns the portfolio.
    *
@@ -91,5 +118,16 @@ public interface PortfolioInterface {
   public String getPortfolioPerformance(String portfolioName,
       LocalDate startDate, LocalDate endDate);
 
+  /**
+   * Computes the value of the portfolio on every calendar day between two dates. The series backs
+   * the performance chart and return metrics such as total return and maximum drawdown.
+   *
+   * @param startDate The first date of the series.
+   * @param endDate   The last date of the series.
+   * @return The daily value series of the portfolio.
+   * @throws IOException If there is an issue accessing stock data.
+   */
+  public ValueSeries getValueSeries(LocalDate startDate, LocalDate endDate) throws IOException;
+
 
 }
@@ -4,42 +4,102 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /**
  * This class represents the portfolio manager of a user. It creates portfolios for the user and
  * allows user to view the composition of a portfolio and offer more insights for the portfolio.
+ *
+ * <p>A manager can be shared by several threads. Changes to a portfolio hold the write lock of the
+ * portfolio's stripe, so they are applied one at a time, and reads of share counts and cost basis
+ * hold the read lock, so they never see a strategy half applied. Valuations take no lock and work
+ * on the snapshot of the portfolio's history current when they start.</p>
  */
 public class PortfolioManager implements PortfolioManagerInterface {
 
-  private User user;
+  private final User user;
 
-  private ArrayList<PortfolioInterface> userPortfolios;
+  private static final int MAX_CACHED_PORTFOLIOS = 32;
 
-  private ArrayList<FlexiblePortfolioInterface> userFlexiblePortfolios;
+  private static final int LOCK_STRIPES = 16;
 
-  private User getUser() {
-    return this.user;
-  }
+  private final PortfolioRegistry registry;
+
+  private final PortfolioManifest manifest;
+
+  private final KeyValueStoreInterface store;
+
+  private final StripedLock locks = new StripedLock(LOCK_STRIPES);
+
+  private final SoftLruCache<String, PortfolioInterface> portfolioCache =
+      new SoftLruCache<>(MAX_CACHED_PORTFOLIOS);
+
+  private final ValuationEngineInterface valuationEngine = new ValuationEngine();
+
+  private final DataFreshnessManagerInterface dataFreshnessManager =
+      DataFreshnessManager.getInstance();
+
+  private final StrategySchedulerInterface strategyScheduler = StrategyScheduler.getInstance();
 
   /**
-   * Initializes a new portfolio manager for a user identified by their email ID. Loads all existing
-   * portfolios for the user from storage.
+   * Initializes a new portfolio manager for a user identified by their email ID. The user's saved
+   * portfolios are listed from their manifest; each portfolio is read from storage the first time
+   * it is used.
    *
    * @param emailId The email ID of the user.
    */
   public PortfolioManager(String emailId) {
-    UserManagerInterface userManager = new UserManager();
-    User user1 = ((UserManager) userManager).getUser(emailId);
-    this.user = user1;
-    this.userPortfolios = this.getAllPortfolios();
-    this.userFlexiblePortfolios = new ArrayList<>();
+    this(UserManager.findUser(emailId));
+  }
+
+  /**
+   * Initializes a new portfolio manager for a user who has already been looked up. The user's
+   * periodic plans saved by an earlier run are scheduled again in the background.
+   *
+   * @param user The user whose portfolios are managed.
+   */
+  public PortfolioManager(User user) {
+    this.user = user;
+    this.registry = new PortfolioRegistry();
+    this.manifest = PortfolioManifest.load(user.getEmailId());
+    this.store = null;
+    for (PortfolioManifest.Entry entry : manifest.entries()) {
+      registry.addPortfolioName(entry.getName());
+    }
+    strategyScheduler.restoreSavedPlans(user, this::restorePlan);
+  }
+
+  /**
+   * Initializes a new portfolio manager that saves the user's portfolios in a key-value store
+   * instead of one CSV file per portfolio. Each portfolio is stored, in the same CSV format, under
+   * the key {@code portfolios/<email>/<name>}.
+   *
+   * @param user  The user whose portfolios are managed.
+   * @param store The key-value store holding the portfolios.
+   */
+  public PortfolioManager(User user, KeyValueStoreInterface store) {
+    this.user = user;
+    this.registry = new PortfolioRegistry();
+    this.manifest = null;
+    this.store = store;
+    String prefix = portfolioKey("");
+    for (String key : store.keys(prefix)) {
+      registry.addPortfolioName(key.substring(prefix.length()));
+    }
   }
 
   /**
@@ -48,7 +108,17 @@ public class PortfolioManager implements PortfolioManagerInterface {
    * @return The total count of portfolios.
    */
   public int getNumberOfPortfolios() {
-    return userPortfolios.size();
+    return registry.count(PortfolioRegistry.PortfolioType.IMMUTABLE);
+  }
+
+  /**
+   * Tells whether this manager holds portfolios that are not saved to storage. Flexible portfolios
+   * are only kept in memory, so they are lost if the manager is discarded.
+   *
+   * @return True if the user has at least one flexible portfolio.
+   */
+  public boolean hasUnsavedPortfolios() {
+    return registry.count(PortfolioRegistry.PortfolioType.FLEXIBLE) > 0;
   }
 
 
@@ -61,8 +131,14 @@ public class PortfolioManager implements PortfolioManagerInterface {
    */
   @Override
   public void createFlexiblePortfolio(String portfolioName) {
-    FlexiblePortfolioInterface flexiblePortfolio = new FlexiblePortfolio(user, portfolioName);
-    userFlexiblePortfolios.add(flexiblePortfolio);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = new FlexiblePortfolio(user, portfolioName);
+      registry.addFlexiblePortfolio(flexiblePortfolio);
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -75,8 +151,14 @@ public class PortfolioManager implements PortfolioManagerInterface {
   @Override
   public void buyPortfolioStock(String portfolioName, String ticker, double numberOfShares,
       LocalDate date) {
-    FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-    flexiblePortfolio.buy(ticker, numberOfShares, date);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      flexiblePortfolio.buy(ticker, numberOfShares, date);
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -89,8 +171,37 @@ public class PortfolioManager implements PortfolioManagerInterface {
   @Override
   public void sellPortfolioStock(String portfolioName, String ticker, double numberOfShares,
       LocalDate date) {
-    FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-    flexiblePortfolio.sell(ticker, numberOfShares, date);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      flexiblePortfolio.sell(ticker, numberOfShares, date);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Deposits cash into a flexible portfolio on a certain date. The cash counts towards the
+   * portfolio's value and the user's net worth from that date on.
+   *
+   * @param portfolioName The name of the flexible portfolio.
+   * @param amount        The amount deposited.
+   * @param date          The date of the deposit.
+   * @throws IllegalArgumentException if the portfolio is not flexible or the amount is invalid.
+   */
+  public void depositCash(String portfolioName, double amount, LocalDate date) {
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      if (flexiblePortfolio == null) {
+        throw new IllegalArgumentException("Not a flexible portfolio: " + portfolioName);
+      }
+      flexiblePortfolio.deposit(amount, date);
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -102,8 +213,14 @@ public class PortfolioManager implements PortfolioManagerInterface {
    */
   @Override
   public float getCostPortfolioBasis(String portfolioName, LocalDate date) {
-    FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-    return flexiblePortfolio.costBasis(portfolioName, date);
+    Lock lock = readLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      return flexiblePortfolio.costBasis(portfolioName, date);
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -119,13 +236,7 @@ public class PortfolioManager implements PortfolioManagerInterface {
   @Override
   public String getPortfolioPerformance(String portfolioName, LocalDate startDate,
       LocalDate endDate) {
-    if (isPortfolioMutable(portfolioName)) {
-      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-      return flexiblePortfolio.getPortfolioPerformance(portfolioName, startDate, endDate);
-    } else {
-      PortfolioInterface portfolio = getPortfolio(portfolioName);
-      return portfolio.getPortfolioPerformance(portfolioName, startDate, endDate);
-    }
+    return getPortfolio(portfolioName).getPortfolioPerformance(portfolioName, startDate, endDate);
   }
 
 
@@ -137,17 +248,96 @@ public class PortfolioManager implements PortfolioManagerInterface {
    */
   @Override
   public boolean isPortfolioMutable(String portfolioName) {
-    FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-    return flexiblePortfolio != null;
+    return registry.typeOf(portfolioName) == PortfolioRegistry.PortfolioType.FLEXIBLE;
+  }
+
+  @Override
+  public ValueSeries getPortfolioValueSeries(String portfolioName, LocalDate startDate,
+      LocalDate endDate) throws IOException {
+    return getPortfolio(portfolioName).getValueSeries(startDate, endDate);
+  }
+
+  @Override
+  public NetWorth getNetWorth(LocalDate date) throws IOException {
+    return getNetWorth(date, date);
+  }
+
+  @Override
+  public NetWorth getNetWorth(LocalDate startDate, LocalDate endDate) throws IOException {
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date should not be before the start date.");
+    }
+    List<String> names = registry.names();
+    Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+    LinkedHashMap<String, PersistentSortedMap<LocalDate, Holdings>> timelines =
+        new LinkedHashMap<>();
+    Set<String> tickers = new HashSet<>();
+    Holdings combined = Holdings.empty();
+    for (String name : names) {
+      PersistentSortedMap<LocalDate, Holdings> timeline = getPortfolio(name).getHoldingsTimeline();
+      timelines.put(name, timeline);
+      LocalDate first = timeline.floorKey(startDate);
+      for (Map.Entry<LocalDate, Holdings> entry : timeline.entries(
+          first == null ? startDate : first, endDate)) {
+        Holdings holdings = entry.getValue();
+        for (int i = 0; i < holdings.size(); i++) {
+          tickers.add(holdings.ticker(i));
+        }
+      }
+      Map.Entry<LocalDate, Holdings> last = timeline.floorEntry(endDate);
+      if (last != null) {
+        combined = combined.plus(last.getValue());
+      }
+    }
+
+    Map<String, PriceSeries> prices = dataFreshnessManager.getPriceSeries(tickers, endDate);
+    LinkedHashMap<String, ValueSeries> portfolioSeries = new LinkedHashMap<>();
+    for (Map.Entry<String, PersistentSortedMap<LocalDate, Holdings>> entry
+        : timelines.entrySet()) {
+      portfolioSeries.put(entry.getKey(),
+          valuationEngine.valueSeries(entry.getValue(), prices, startDate, endDate));
+    }
+    List<String> pricedTickers = new ArrayList<>();
+    List<Long> pricedShares = new ArrayList<>();
+    List<Long> closes = new ArrayList<>();
+    List<String> missingTickers = new ArrayList<>();
+    for (int i = 0; i < combined.size(); i++) {
+      String ticker = combined.ticker(i);
+      long close = valuationEngine.priceAsOf(prices.getOrDefault(ticker, PriceSeries.empty()),
+          endDate);
+      if (close == 0) {
+        missingTickers.add(ticker);
+      } else {
+        pricedTickers.add(ticker);
+        pricedShares.add(combined.microShares(i));
+        closes.add(close);
+      }
+    }
+    long[] microShares = new long[pricedTickers.size()];
+    long[] priceUnits = new long[pricedTickers.size()];
+    for (int i = 0; i < microShares.length; i++) {
+      microShares[i] = pricedShares.get(i);
+      priceUnits[i] = closes.get(i);
+    }
+    Valuation tickerValuation = new Valuation(endDate, pricedTickers.toArray(new String[0]),
+        microShares, priceUnits, combined.cashUnits());
+    Collections.sort(missingTickers);
+    return new NetWorth(portfolioSeries, tickerValuation, missingTickers, startDate, endDate);
   }
 
   @Override
   public void invest(String portfolioName, String strategyName, double amount,
       HashMap<String, Double> stockRatio, LocalDate date) {
-    FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-    if (strategyName.equalsIgnoreCase("dollarCostAveraging")) {
-      Strategy strategy = new DollarCostAveragingStrategy(flexiblePortfolio);
-      strategy.invest(amount, stockRatio, date);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      if (strategyName.equalsIgnoreCase("dollarCostAveraging")) {
+        Strategy strategy = new DollarCostAveragingStrategy(flexiblePortfolio);
+        strategy.invest(amount, stockRatio, date);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -155,11 +345,83 @@ public class PortfolioManager implements PortfolioManagerInterface {
   public void investPeriodically(String portfolioName, String strategyName, double amount,
       HashMap<String, Double> stockRatio, LocalDate startDate,
       LocalDate endDate, long intervalDays) {
-    FlexiblePortfolioInterface flexiblePortfolio = new FlexiblePortfolio(user, portfolioName);
-    userFlexiblePortfolios.add(flexiblePortfolio);
-    if (strategyName.equalsIgnoreCase("dollarCostAveraging")) {
-      Strategy strategy = new DollarCostAveragingStrategy(flexiblePortfolio);
-      strategy.investPeriodically(amount, stockRatio, startDate, endDate, intervalDays);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = registerFlexiblePortfolio(portfolioName);
+      if (strategyName.equalsIgnoreCase("dollarCostAveraging")) {
+        Strategy strategy = new DollarCostAveragingStrategy(flexiblePortfolio);
+        strategy.investPeriodically(amount, stockRatio, startDate, endDate, intervalDays);
+        if (endDate == null) {
+          Map.Entry<LocalDate, Holdings> last = flexiblePortfolio.getHoldingsTimeline()
+              .lastEntry();
+          strategyScheduler.schedule(flexiblePortfolio, strategyName, amount, stockRatio,
+              startDate, null, intervalDays, last == null ? null : last.getKey(),
+              trades -> buyScheduled(portfolioName, trades));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the flexible portfolio registered under a name, registering a new one if there is
+   * none. The registry lets a flexible portfolio take the place of an immutable one, so a name
+   * held by a saved immutable portfolio is refused here rather than hidden.
+   */
+  private FlexiblePortfolioInterface registerFlexiblePortfolio(String portfolioName) {
+    if (registry.typeOf(portfolioName) == PortfolioRegistry.PortfolioType.IMMUTABLE) {
+      throw new IllegalArgumentException("Portfolio already exists: " + portfolioName);
+    }
+    registry.addFlexiblePortfolio(new FlexiblePortfolio(user, portfolioName));
+    return getFlexiblePortfolio(portfolioName);
+  }
+
+  /**
+   * Buys installments of a scheduled plan into the portfolio currently registered under its name,
+   * holding the portfolio's write lock.
+   */
+  private void buyScheduled(String portfolioName, TradeBatch trades) {
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
+      if (flexiblePortfolio == null) {
+        throw new IllegalStateException("Portfolio not found: " + portfolioName);
+      }
+      flexiblePortfolio.buyAll(trades);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Schedules a plan saved by an earlier run again. Flexible portfolios are only kept in memory,
+   * so the installments the plan had bought up to its last one are bought again first, and the
+   * scheduler then continues from that installment.
+   */
+  private void restorePlan(SavedPlan plan) {
+    String portfolioName = plan.getPortfolioName();
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      FlexiblePortfolioInterface flexiblePortfolio = registerFlexiblePortfolio(portfolioName);
+      LocalDate last = plan.getLastInstallment();
+      if (last != null && flexiblePortfolio.getHoldingsTimeline().lastEntry() == null) {
+        Map<String, PriceSeries> prices =
+            dataFreshnessManager.getPriceSeries(plan.getStockRatio().keySet(), last);
+        flexiblePortfolio.buyAll(DollarCostAveragingSimulator.simulate(plan.getAmount(),
+            plan.getStockRatio(), plan.getStartDate(), last, plan.getIntervalDays(), prices));
+      }
+      strategyScheduler.schedule(flexiblePortfolio, plan.getStrategyName(), plan.getAmount(),
+          plan.getStockRatio(), plan.getStartDate(), plan.getEndDate(), plan.getIntervalDays(),
+          last, trades -> buyScheduled(portfolioName, trades));
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Could not restore the plan " + plan.getStrategyName() + " of "
+          + portfolioName + ": " + e.getMessage());
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -172,40 +434,54 @@ public class PortfolioManager implements PortfolioManagerInterface {
    */
   @Override
   public boolean portfolioExists(String portfolioName) {
-    ArrayList<PortfolioInterface> list1 = this.userPortfolios;
-    for (int i = 0; i < list1.size(); i++) {
-      if (list1.get(i).getPortfolioName().equalsIgnoreCase(portfolioName)) {
-        return true;
-      }
+    return registry.contains(portfolioName);
+  }
+
+  private PortfolioInterface getPortfolio(String portfolioName) {
+    PortfolioInterface portfolio = registry.get(portfolioName);
+    if (portfolio != null || registry.typeOf(portfolioName)
+        != PortfolioRegistry.PortfolioType.IMMUTABLE) {
+      return portfolio;
     }
-    ArrayList<FlexiblePortfolioInterface> list2 = this.userFlexiblePortfolios;
-    for (int i = 0; i < list2.size(); i++) {
-      if (list2.get(i).getPortfolioName().equalsIgnoreCase(portfolioName)) {
-        return true;
+    String key = PortfolioRegistry.normalize(portfolioName);
+    portfolio = portfolioCache.get(key);
+    if (portfolio == null) {
+      if (store != null) {
+        portfolio = loadStoredPortfolio(registry.nameOf(portfolioName));
+      } else {
+        PortfolioManifest.Entry entry = manifest.get(portfolioName);
+        portfolio = loadPortfolio(manifest.fileOf(entry), entry.getName());
       }
+      portfolioCache.put(key, portfolio);
     }
-    return false;
+    return portfolio;
   }
 
+  private String portfolioKey(String portfolioName) {
+    return "portfolios/" + user.getEmailId().toLowerCase(Locale.ROOT) + "/" + portfolioName;
+  }
 
-  private PortfolioInterface getPortfolio(String portfolioName) {
-    ArrayList<PortfolioInterface> list = this.userPortfolios;
-    for (int i = 0; i < list.size(); i++) {
-      if (list.get(i).getPortfolioName().equalsIgnoreCase(portfolioName)) {
-        return list.get(i);
-      }
+  private PortfolioInterface loadStoredPortfolio(String portfolioName) {
+    try {
+      String csv = store.get(portfolioKey(portfolioName));
+      return loadPortfolio(new BufferedReader(new StringReader(csv == null ? "" : csv)),
+          portfolioName);
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading the portfolio.");
+      return new Portfolio(this.user, portfolioName, new HashMap<String, ArrayList<String>>());
     }
-    return null;
   }
 
   private FlexiblePortfolioInterface getFlexiblePortfolio(String portfolioName) {
-    ArrayList<FlexiblePortfolioInterface> list = this.userFlexiblePortfolios;
-    for (int i = 0; i < list.size(); i++) {
-      if (list.get(i).getPortfolioName().equalsIgnoreCase(portfolioName)) {
-        return list.get(i);
-      }
-    }
-    return null;
+    return registry.getFlexible(portfolioName);
+  }
+
+  private Lock readLock(String portfolioName) {
+    return locks.forKey(PortfolioRegistry.normalize(portfolioName)).readLock();
+  }
+
+  private Lock writeLock(String portfolioName) {
+    return locks.forKey(PortfolioRegistry.normalize(portfolioName)).writeLock();
   }
 
   /**
@@ -219,16 +495,8 @@ public class PortfolioManager implements PortfolioManagerInterface {
   @Override
   public String getTotalPortfolioValue(String portfolioName,
       LocalDate date) throws IOException {
-    float totalValue = 0.0F;
-    if (isPortfolioMutable(portfolioName)) {
-      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-      totalValue = flexiblePortfolio.totalValue(date);
-      return "" + totalValue;
-    } else {
-      totalValue = this.getPortfolio(portfolioName).totalValue(date);
-      return "" + totalValue;
-    }
-
+    float totalValue = getPortfolio(portfolioName).totalValue(date);
+    return "" + totalValue;
   }
 
   /**
@@ -241,28 +509,45 @@ public class PortfolioManager implements PortfolioManagerInterface {
    */
   public String savePortfolio(String portfolioName, HashMap<String,
       ArrayList<String>> stockData) throws IOException {
-    PortfolioInterface portfolio = new Portfolio(this.user, portfolioName, stockData);
-    String message;
-    if (portfolioExists(portfolio.getPortfolioName())) {
-      message = "Portfolio already saved!";
-    } else {
-      String directory = "res/Data/Portfolios/";
-      File directoryFile = new File(directory);
-      if (!directoryFile.exists()) {
-        directoryFile.mkdirs();
-      }
-      String userPath = directory + portfolio.getUser().getEmailId() + "/";
-      Path userFolder = Paths.get(userPath);
-      if (Files.exists(userFolder)) {
-        ((Portfolio) portfolio).exportPortfolio(userPath);
+    Lock lock = writeLock(portfolioName);
+    lock.lock();
+    try {
+      PortfolioInterface portfolio = new Portfolio(this.user, portfolioName, stockData);
+      String message;
+      if (portfolioExists(portfolio.getPortfolioName())) {
+        message = "Portfolio already saved!";
+      } else if (store != null) {
+        store.put(portfolioKey(portfolioName),
+            String.join("\n", ((Portfolio) portfolio).toCsvLines()));
+        registry.addPortfolioName(portfolioName);
+        portfolioCache.put(PortfolioRegistry.normalize(portfolioName), portfolio);
+        return "Portfolio saved to system successfully!";
       } else {
-        Files.createDirectories(userFolder);
-        ((Portfolio) portfolio).exportPortfolio(userPath);
+        String directory = "res/Data/Portfolios/";
+        File directoryFile = new File(directory);
+        if (!directoryFile.exists()) {
+          directoryFile.mkdirs();
+        }
+        String userPath = directory + portfolio.getUser().getEmailId() + "/";
+        Path userFolder = Paths.get(userPath);
+        if (Files.exists(userFolder)) {
+          ((Portfolio) portfolio).exportPortfolio(userPath);
+        } else {
+          Files.createDirectories(userFolder);
+          ((Portfolio) portfolio).exportPortfolio(userPath);
+        }
+        message = "Portfolio saved to system successfully!";
+        if (manifest.record(userFolder.resolve(portfolioName + ".csv").toFile())) {
+          registry.addPortfolioName(portfolioName);
+          portfolioCache.put(PortfolioRegistry.normalize(portfolioName), portfolio);
+          return message;
+        }
       }
-      message = "Portfolio saved to system successfully!";
+      registry.addPortfolio(portfolio);
+      return message;
+    } finally {
+      lock.unlock();
     }
-    userPortfolios.add(portfolio);
-    return message;
   }
 
 
@@ -278,12 +563,12 @@ public class PortfolioManager implements PortfolioManagerInterface {
     HashMap<String, String> composition = new HashMap<>();
     HashMap<String, ArrayList<String>> portfolioCompostion =
         new HashMap<>();
-    if (isPortfolioMutable(portfolioName)) {
-      FlexiblePortfolioInterface flexiblePortfolio = getFlexiblePortfolio(portfolioName);
-      composition = flexiblePortfolio.getComposition(date);
-    } else {
-      PortfolioInterface portfolio = getPortfolio(portfolioName);
-      composition = portfolio.getComposition(date);
+    Lock lock = readLock(portfolioName);
+    lock.lock();
+    try {
+      composition = getPortfolio(portfolioName).getComposition(date);
+    } finally {
+      lock.unlock();
     }
     String tickerSymbol = "";
     String shares = "";
@@ -297,50 +582,43 @@ public class PortfolioManager implements PortfolioManagerInterface {
     return portfolioCompostion;
   }
 
-  private ArrayList<PortfolioInterface> getAllPortfolios() {
-    ArrayList<PortfolioInterface> portfolios = new ArrayList<PortfolioInterface>();
-    LocalDate currentDate = LocalDate.now();
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-    String dateString = currentDate.format(formatter);
+  private PortfolioInterface loadPortfolio(File file, String portfolioName) {
+    try {
+      return loadPortfolio(new BufferedReader(new FileReader(file)), portfolioName);
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading the CSV file.");
+      e.printStackTrace();
+      return new Portfolio(this.user, portfolioName, new HashMap<String, ArrayList<String>>());
+    }
+  }
+
+  private PortfolioInterface loadPortfolio(BufferedReader reader, String portfolioName) {
     String line;
-    String directoryPath = "res/Data/Portfolios/" + getUser().getEmailId();
-    File directory = new File(directoryPath);
-    if (directory.exists() && directory.isDirectory()) {
-      File[] files = directory.listFiles();
-      for (File file : files) {
-        if (file.isFile()) {
-          HashMap<String, ArrayList<String>> stockdata = new HashMap<String, ArrayList<String>>();
-          try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            int i = 0;
-            while ((line = br.readLine()) != null) {
-              String ticker = "";
-              ArrayList<String> stocks = new ArrayList<>();
-              if (!line.isEmpty() && i != 0) {
-                String[] values = line.split(",");
-                ticker = values[0];
-                stocks.add(values[1]);
-                stocks.add(values[2]);
-              }
-              if (!ticker.isEmpty()) {
-                stockdata.put(ticker, stocks);
-              }
-              i++;
-            }
-          } catch (IOException e) {
-            System.out.println("An error occurred while reading the CSV file.");
-            e.printStackTrace();
-
-          } catch (Exception e) {
-            System.out.println("An exception has occured in getAllUsers"
-                + e.getMessage());
-          }
-          Portfolio portfolio = new Portfolio(this.user,
-              file.getName().toString().replaceFirst("[.][^.]+$",
-                  ""), stockdata);
-          portfolios.add(portfolio);
+    HashMap<String, ArrayList<String>> stockdata = new HashMap<String, ArrayList<String>>();
+    try (BufferedReader br = reader) {
+      int i = 0;
+      while ((line = br.readLine()) != null) {
+        String ticker = "";
+        ArrayList<String> stocks = new ArrayList<>();
+        if (!line.isEmpty() && i != 0) {
+          String[] values = line.split(",");
+          ticker = values[0];
+          stocks.add(values[1]);
+          stocks.add(values[2]);
+        }
+        if (!ticker.isEmpty()) {
+          stockdata.put(ticker, stocks);
         }
+        i++;
       }
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading the CSV file.");
+      e.printStackTrace();
+
+    } catch (Exception e) {
+      System.out.println("An exception has occured in loadPortfolio"
+          + e.getMessage());
     }
-    return portfolios;
+    return new Portfolio(this.user, portfolioName, stockdata);
   }
 }
@@ -119,6 +119,42 @@ public interface PortfolioManagerInterface {
    */
   public boolean isPortfolioMutable(String portfolioName);
 
+  /**
+   * Computes the value of a portfolio on every calendar day between two dates.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param startDate     The first date of the series.
+   * @param endDate       The last date of the series.
+   * @return The daily value series of the portfolio.
+   * @throws IOException If there is an error reading stock data.
+   * @throws IllegalArgumentException if the end date is before the start date.
+   */
+  public ValueSeries getPortfolioValueSeries(String portfolioName, LocalDate startDate,
+      LocalDate endDate) throws IOException;
+
+  /**
+   * Values every portfolio of the user, immutable and flexible, on a given date. Holdings of the
+   * same ticker in different portfolios share one price series.
+   *
+   * @param date The date of the valuation.
+   * @return The value of each portfolio, of each ticker across portfolios, and their total.
+   * @throws IOException If there is an error reading stock data.
+   */
+  public NetWorth getNetWorth(LocalDate date) throws IOException;
+
+  /**
+   * Values every portfolio of the user, immutable and flexible, on each day of a date range. The
+   * price series of every ticker held in any portfolio is loaded once for the whole range.
+   *
+   * @param startDate The first date of the range.
+   * @param endDate   The last date of the range.
+   * @return The daily value of each portfolio and of all portfolios combined, and the value of each
+   *         ticker across portfolios on the last date.
+   * @throws IOException If there is an error reading stock data.
+   * @throws IllegalArgumentException if the end date is before the start date.
+   */
+  public NetWorth getNetWorth(LocalDate startDate, LocalDate endDate) throws IOException;
+
   /**
    * Invests a specified amount into a portfolio using a given investment strategy.
    * This method applies the investment immediately based on the specified stock ratios
@@ -148,7 +184,8 @@ public interface PortfolioManagerInterface {
    * @param stockRatio    A hashmap with stock symbols as keys and their corresponding
    *                      investment ratios as values.
    * @param startDate     The start date of the investment period.
-   * @param endDate       The end date of the investment period.
+   * @param endDate       The end date of the investment period, or null to keep investing
+   *                      as new market data arrives.
    * @param intervalDays  The number of days between each investment. This defines the frequency
    *                      of the investment over the specified period.
    */
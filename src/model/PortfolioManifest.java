@@ -0,0 +1,221 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A per-user index of saved portfolios. For every portfolio file it records the portfolio name,
+ * its type, the file name, the file size and the last modification time, so that a user's
+ * portfolios can be listed at login without opening any of the portfolio files.
+ *
+ * <p>The manifest is stored as a CSV file next to, not inside, the user's portfolio directory. It
+ * is rebuilt from a directory listing whenever it is missing or older than the directory, which
+ * happens if portfolio files are added or removed outside of the application.</p>
+ */
+public final class PortfolioManifest {
+
+  private static final String HEADER = "name,type,file,size,modified";
+
+  private final Path portfolioDirectory;
+  private final Path manifestPath;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+  /**
+   * A single portfolio listed in the manifest.
+   */
+  public static final class Entry {
+
+    private final String name;
+    private final PortfolioRegistry.PortfolioType type;
+    private final String fileName;
+    private final long size;
+    private final long lastModified;
+
+    private Entry(String name, PortfolioRegistry.PortfolioType type, String fileName, long size,
+        long lastModified) {
+      this.name = name;
+      this.type = type;
+      this.fileName = fileName;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns the name of the portfolio.
+     *
+     * @return The portfolio name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the type of the portfolio.
+     *
+     * @return The portfolio type.
+     */
+    public PortfolioRegistry.PortfolioType getType() {
+      return type;
+    }
+
+    /**
+     * Returns the name of the file holding the portfolio.
+     *
+     * @return The file name, relative to the user's portfolio directory.
+     */
+    public String getFileName() {
+      return fileName;
+    }
+
+    /**
+     * Returns the size of the portfolio file.
+     *
+     * @return The file size in bytes.
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * Returns the time the portfolio file was last modified.
+     *
+     * @return The modification time in milliseconds since the epoch.
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+  }
+
+  /**
+   * Loads the manifest of a user's portfolios, rebuilding it if it is missing or out of date.
+   *
+   * @param emailId The email ID of the user.
+   * @return The manifest of the user's portfolios.
+   */
+  public static PortfolioManifest load(String emailId) {
+    return new PortfolioManifest(Paths.get("res/Data/Portfolios", emailId),
+        Paths.get("res/Data/Manifests", emailId + ".csv"));
+  }
+
+  /**
+   * Constructs a manifest for a portfolio directory, reading it from or rebuilding it into the
+   * given manifest file.
+   *
+   * @param portfolioDirectory The directory holding the portfolio files.
+   * @param manifestPath       The manifest file.
+   */
+  public PortfolioManifest(Path portfolioDirectory, Path manifestPath) {
+    this.portfolioDirectory = portfolioDirectory;
+    this.manifestPath = manifestPath;
+    File directory = portfolioDirectory.toFile();
+    File manifest = manifestPath.toFile();
+    if (manifest.isFile() && (!directory.isDirectory()
+        || manifest.lastModified() >= directory.lastModified())) {
+      read();
+    } else {
+      rebuild();
+    }
+  }
+
+  private void read() {
+    try {
+      List<String> lines = Files.readAllLines(manifestPath);
+      for (int i = 1; i < lines.size(); i++) {
+        String[] values = lines.get(i).split(",");
+        if (values.length == 5) {
+          Entry entry = new Entry(values[0], PortfolioRegistry.PortfolioType.valueOf(values[1]),
+              values[2], Long.parseLong(values[3]), Long.parseLong(values[4]));
+          entries.put(PortfolioRegistry.normalize(entry.name), entry);
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      entries.clear();
+      rebuild();
+    }
+  }
+
+  private void rebuild() {
+    File[] files = portfolioDirectory.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isFile()) {
+          add(file);
+        }
+      }
+    }
+    write();
+  }
+
+  private void add(File file) {
+    String name = file.getName().replaceFirst("[.][^.]+$", "");
+    entries.put(PortfolioRegistry.normalize(name), new Entry(name,
+        PortfolioRegistry.PortfolioType.IMMUTABLE, file.getName(), file.length(),
+        file.lastModified()));
+  }
+
+  private void write() {
+    List<String> lines = new ArrayList<>(entries.size() + 1);
+    lines.add(HEADER);
+    for (Entry entry : entries.values()) {
+      lines.add(entry.name + "," + entry.type + "," + entry.fileName + "," + entry.size + ","
+          + entry.lastModified);
+    }
+    try {
+      Files.createDirectories(manifestPath.getParent());
+      Files.write(manifestPath, lines);
+    } catch (IOException e) {
+      System.out.println("An error occurred while writing the portfolio manifest.");
+    }
+  }
+
+  /**
+   * Returns every portfolio listed in the manifest.
+   *
+   * @return The manifest entries, in the order they were recorded.
+   */
+  public synchronized Collection<Entry> entries() {
+    return new ArrayList<>(entries.values());
+  }
+
+  /**
+   * Returns the manifest entry of a portfolio.
+   *
+   * @param portfolioName The name of the portfolio, in any case.
+   * @return The entry, or null if the portfolio is not listed.
+   */
+  public synchronized Entry get(String portfolioName) {
+    return entries.get(PortfolioRegistry.normalize(portfolioName));
+  }
+
+  /**
+   * Returns the file holding a listed portfolio.
+   *
+   * @param entry The manifest entry of the portfolio.
+   * @return The portfolio file.
+   */
+  public File fileOf(Entry entry) {
+    return portfolioDirectory.resolve(entry.fileName).toFile();
+  }
+
+  /**
+   * Records a newly saved portfolio file and writes the updated manifest.
+   *
+   * @param file The portfolio file.
+   * @return true if the file exists and was recorded.
+   */
+  public synchronized boolean record(File file) {
+    if (!file.isFile()) {
+      return false;
+    }
+    add(file);
+    write();
+    return true;
+  }
+}
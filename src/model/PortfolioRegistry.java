@@ -0,0 +1,188 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A registry of a user's portfolios keyed by normalised name. Immutable and flexible portfolios
+ * share one hash map, so looking a portfolio up by name, checking whether it exists and finding out
+ * whether it can be modified all take constant time regardless of how many portfolios are held.
+ * Immutable portfolios may be registered by name only, leaving their contents on disk until they
+ * are first needed. The registry is safe for concurrent use.
+ */
+public final class PortfolioRegistry {
+
+  /**
+   * The kinds of portfolio held in the registry.
+   */
+  public enum PortfolioType {
+    IMMUTABLE,
+    FLEXIBLE
+  }
+
+  /**
+   * A registered portfolio together with its type.
+   */
+  private static final class Entry {
+
+    private final String name;
+    private final PortfolioType type;
+    private final PortfolioInterface portfolio;
+
+    private Entry(String name, PortfolioType type, PortfolioInterface portfolio) {
+      this.name = name;
+      this.type = type;
+      this.portfolio = portfolio;
+    }
+  }
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicInteger immutableCount = new AtomicInteger();
+
+  /**
+   * Normalises a portfolio name for lookups, so that names differing only in case match.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return The normalised key.
+   */
+  public static String normalize(String portfolioName) {
+    return portfolioName.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Registers an immutable portfolio. A portfolio already registered under the same name is kept.
+   *
+   * @param portfolio The portfolio to register.
+   * @return true if the portfolio was registered, false if the name was already taken.
+   */
+  public boolean addPortfolio(PortfolioInterface portfolio) {
+    return addImmutable(portfolio.getPortfolioName(), portfolio);
+  }
+
+  /**
+   * Registers the name of an immutable portfolio whose contents have not been loaded. A portfolio
+   * already registered under the same name is kept.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return true if the name was registered, false if it was already taken.
+   */
+  public boolean addPortfolioName(String portfolioName) {
+    return addImmutable(portfolioName, null);
+  }
+
+  private boolean addImmutable(String portfolioName, PortfolioInterface portfolio) {
+    Entry entry = new Entry(portfolioName, PortfolioType.IMMUTABLE, portfolio);
+    if (entries.putIfAbsent(normalize(portfolioName), entry) != null) {
+      return false;
+    }
+    immutableCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Registers a flexible portfolio. A flexible portfolio takes the place of an immutable portfolio
+   * with the same name, but an existing flexible portfolio is kept.
+   *
+   * @param portfolio The portfolio to register.
+   * @return true if the portfolio was registered, false if the name was already taken.
+   */
+  public boolean addFlexiblePortfolio(FlexiblePortfolioInterface portfolio) {
+    AtomicBoolean added = new AtomicBoolean();
+    entries.compute(normalize(portfolio.getPortfolioName()), (key, existing) -> {
+      if (existing != null && existing.type == PortfolioType.FLEXIBLE) {
+        return existing;
+      }
+      if (existing != null) {
+        immutableCount.decrementAndGet();
+      }
+      added.set(true);
+      return new Entry(portfolio.getPortfolioName(), PortfolioType.FLEXIBLE, portfolio);
+    });
+    return added.get();
+  }
+
+  /**
+   * Checks whether a portfolio with the given name is registered.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return true if the portfolio exists.
+   */
+  public boolean contains(String portfolioName) {
+    return entries.containsKey(normalize(portfolioName));
+  }
+
+  /**
+   * Returns the type of the portfolio with the given name.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return The type of the portfolio, or null if there is no such portfolio.
+   */
+  public PortfolioType typeOf(String portfolioName) {
+    Entry entry = entries.get(normalize(portfolioName));
+    return entry == null ? null : entry.type;
+  }
+
+  /**
+   * Returns the name under which a portfolio was registered, in its original case.
+   *
+   * @param portfolioName The name of the portfolio in any case.
+   * @return The registered name, or null if there is no such portfolio.
+   */
+  public String nameOf(String portfolioName) {
+    Entry entry = entries.get(normalize(portfolioName));
+    return entry == null ? null : entry.name;
+  }
+
+  /**
+   * Returns the portfolio with the given name, whatever its type.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return The portfolio, or null if there is no such portfolio or it was registered by name only.
+   */
+  public PortfolioInterface get(String portfolioName) {
+    Entry entry = entries.get(normalize(portfolioName));
+    return entry == null ? null : entry.portfolio;
+  }
+
+  /**
+   * Returns the flexible portfolio with the given name.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return The portfolio, or null if there is no flexible portfolio with that name.
+   */
+  public FlexiblePortfolioInterface getFlexible(String portfolioName) {
+    Entry entry = entries.get(normalize(portfolioName));
+    if (entry == null || entry.type != PortfolioType.FLEXIBLE) {
+      return null;
+    }
+    return (FlexiblePortfolioInterface) entry.portfolio;
+  }
+
+  /**
+   * Returns the number of registered portfolios of a given type.
+   *
+   * @param type The type of portfolio to count.
+   * @return The number of portfolios of that type.
+   */
+  public int count(PortfolioType type) {
+    int immutable = immutableCount.get();
+    return type == PortfolioType.IMMUTABLE ? immutable : entries.size() - immutable;
+  }
+
+  /**
+   * Returns the names of every registered portfolio.
+   *
+   * @return The portfolio names in their original case, in no particular order.
+   */
+  public List<String> names() {
+    List<String> names = new ArrayList<>(entries.size());
+    for (Entry entry : entries.values()) {
+      names.add(entry.name);
+    }
+    return names;
+  }
+}
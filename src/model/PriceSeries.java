@@ -0,0 +1,195 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * An immutable, date-ascending series of daily closing prices for a single ticker. Dates are held
+ * as epoch days and prices as fixed-point price units (see {@link FixedPoint}) in primitive arrays,
+ * so that valuation code can walk or binary search the series without parsing or boxing.
+ */
+public final class PriceSeries {
+
+  private static final PriceSeries EMPTY = new PriceSeries(new long[0], new long[0]);
+
+  private final long[] epochDays;
+  private final long[] closes;
+
+  /**
+   * Constructs a price series from parallel arrays of epoch days and closing prices in price units.
+   * The days must be strictly ascending.
+   *
+   * @param epochDays The trading days of the series as epoch days, in ascending order.
+   * @param closes    The closing price for each trading day, in price units.
+   * @throws IllegalArgumentException if the arrays differ in length or the days are not ascending.
+   */
+  public PriceSeries(long[] epochDays, long[] closes) {
+    if (epochDays.length != closes.length) {
+      throw new IllegalArgumentException("Dates and closing values must have the same length.");
+    }
+    for (int i = 1; i < epochDays.length; i++) {
+      if (epochDays[i] <= epochDays[i - 1]) {
+        throw new IllegalArgumentException("Price series dates must be strictly ascending.");
+      }
+    }
+    this.epochDays = epochDays;
+    this.closes = closes;
+  }
+
+  /**
+   * Constructs a price series from parallel arrays of epoch days and closing prices in dollars.
+   *
+   * @param epochDays The trading days of the series as epoch days, in ascending order.
+   * @param closes    The closing price for each trading day, in dollars.
+   * @throws IllegalArgumentException if the arrays differ in length or the days are not ascending.
+   */
+  public PriceSeries(long[] epochDays, double[] closes) {
+    this(epochDays, toPriceUnits(closes));
+  }
+
+  private static long[] toPriceUnits(double[] closes) {
+    long[] units = new long[closes.length];
+    for (int i = 0; i < closes.length; i++) {
+      units[i] = FixedPoint.toPriceUnits(closes[i]);
+    }
+    return units;
+  }
+
+  /**
+   * Returns a series with no trading days.
+   *
+   * @return The empty price series.
+   */
+  public static PriceSeries empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the number of trading days in the series.
+   *
+   * @return The size of the series.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Checks whether the series has no trading days.
+   *
+   * @return true if the series is empty.
+   */
+  public boolean isEmpty() {
+    return epochDays.length == 0;
+  }
+
+  /**
+   * Returns the trading day at a position in the series.
+   *
+   * @param index The position in the series.
+   * @return The trading day as an epoch day.
+   */
+  public long epochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Returns the closing price at a position in the series.
+   *
+   * @param index The position in the series.
+   * @return The closing price.
+   */
+  public double close(int index) {
+    return FixedPoint.toDollars(closes[index]);
+  }
+
+  /**
+   * Returns the closing price at a position in the series in price units.
+   *
+   * @param index The position in the series.
+   * @return The closing price in price units.
+   */
+  public long closeUnits(int index) {
+    return closes[index];
+  }
+
+  /**
+   * Finds the position of a trading day in the series.
+   *
+   * @param epochDay The day to look up, as an epoch day.
+   * @return The position of the day, or -1 if there is no bar on that day.
+   */
+  public int indexOf(long epochDay) {
+    int index = Arrays.binarySearch(epochDays, epochDay);
+    return index >= 0 ? index : -1;
+  }
+
+  /**
+   * Finds the position of the last trading day on or before a given day.
+   *
+   * @param epochDay The day to look up, as an epoch day.
+   * @return The position of the floor day, or -1 if the series starts after the given day.
+   */
+  public int floorIndex(long epochDay) {
+    int index = Arrays.binarySearch(epochDays, epochDay);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /**
+   * Returns the closing price of the last bar on or before a date, provided that bar is no more
+   * than a given number of days old. Weekends and holidays therefore resolve to the previous
+   * trading day without probing the stored data.
+   *
+   * @param date             The date to look up.
+   * @param maxStalenessDays The largest accepted gap in days between the bar and the date.
+   * @return The closing price in price units, or 0 if there is no recent enough bar.
+   */
+  public long closeUnitsAsOf(LocalDate date, int maxStalenessDays) {
+    long epochDay = date.toEpochDay();
+    int index = floorIndex(epochDay);
+    if (index < 0 || epochDay - epochDays[index] > maxStalenessDays) {
+      return 0;
+    }
+    return closes[index];
+  }
+
+  /**
+   * Finds the first day on which a revised series disagrees with this one. Bars the revised series
+   * adds after the last day of this series are not corrections and are ignored.
+   *
+   * @param revised The revised series of the same ticker.
+   * @return The first corrected day as an epoch day, or Long.MAX_VALUE if nothing was corrected.
+   */
+  public long firstCorrectedDay(PriceSeries revised) {
+    int i = 0;
+    while (i < epochDays.length && i < revised.epochDays.length
+        && epochDays[i] == revised.epochDays[i] && closes[i] == revised.closes[i]) {
+      i++;
+    }
+    if (i == epochDays.length) {
+      return Long.MAX_VALUE;
+    }
+    return i < revised.epochDays.length ? Math.min(epochDays[i], revised.epochDays[i])
+        : epochDays[i];
+  }
+
+  /**
+   * Returns the closing price on a given date.
+   *
+   * @param date The date to look up.
+   * @return The closing price, or 0 if there is no bar on that date.
+   */
+  public double closeOn(LocalDate date) {
+    return FixedPoint.toDollars(closeUnitsOn(date));
+  }
+
+  /**
+   * Returns the closing price on a given date in price units.
+   *
+   * @param date The date to look up.
+   * @return The closing price in price units, or 0 if there is no bar on that date.
+   */
+  public long closeUnitsOn(LocalDate date) {
+    int index = indexOf(date.toEpochDay());
+    return index >= 0 ? closes[index] : 0;
+  }
+}
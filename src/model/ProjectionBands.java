@@ -0,0 +1,163 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The percentile bands of a Monte Carlo projection. For each requested percentile there is the
+ * final value and a band following the value of the portfolio along the simulated paths, sampled
+ * at regular checkpoints measured in trading days from the start of the projection.
+ */
+public final class ProjectionBands {
+
+  private final double[] percentiles;
+  private final double[] sortedFinalValues;
+  private final int[] checkpointDays;
+  private final double[][] bands;
+  private final double totalContributed;
+
+  /**
+   * Constructs the bands of a projection.
+   *
+   * @param percentiles       The percentiles of the bands, between 0 and 100.
+   * @param sortedFinalValues The final value of every path, in ascending order.
+   * @param checkpointDays    The trading day of each checkpoint of the bands.
+   * @param bands             For each percentile, the value at each checkpoint.
+   * @param totalContributed  The total amount invested along every path.
+   */
+  ProjectionBands(double[] percentiles, double[] sortedFinalValues, int[] checkpointDays,
+      double[][] bands, double totalContributed) {
+    this.percentiles = percentiles;
+    this.sortedFinalValues = sortedFinalValues;
+    this.checkpointDays = checkpointDays;
+    this.bands = bands;
+    this.totalContributed = totalContributed;
+  }
+
+  /**
+   * Returns the percentiles the bands were computed for.
+   *
+   * @return The percentiles, between 0 and 100.
+   */
+  public double[] getPercentiles() {
+    return percentiles.clone();
+  }
+
+  /**
+   * Returns the number of simulated paths.
+   *
+   * @return The number of paths.
+   */
+  public int getPathCount() {
+    return sortedFinalValues.length;
+  }
+
+  /**
+   * Returns a percentile of the final value over all paths, interpolating between paths.
+   *
+   * @param percentile The percentile, between 0 and 100.
+   * @return The final value at that percentile.
+   * @throws IllegalArgumentException if the percentile is out of range.
+   */
+  public double finalValue(double percentile) {
+    return percentile(sortedFinalValues, 0, sortedFinalValues.length, percentile);
+  }
+
+  /**
+   * Returns the mean final value over all paths.
+   *
+   * @return The mean final value.
+   */
+  public double meanFinalValue() {
+    double sum = 0;
+    for (double value : sortedFinalValues) {
+      sum += value;
+    }
+    return sum / sortedFinalValues.length;
+  }
+
+  /**
+   * Returns the total amount invested along every path, including the initial value.
+   *
+   * @return The amount invested.
+   */
+  public double getTotalContributed() {
+    return totalContributed;
+  }
+
+  /**
+   * Returns the number of checkpoints of the path bands.
+   *
+   * @return The number of checkpoints.
+   */
+  public int checkpointCount() {
+    return checkpointDays.length;
+  }
+
+  /**
+   * Returns the trading day of a checkpoint, counted from the start of the projection.
+   *
+   * @param checkpoint The index of the checkpoint.
+   * @return The number of trading days simulated by the checkpoint.
+   */
+  public int checkpointDay(int checkpoint) {
+    return checkpointDays[checkpoint];
+  }
+
+  /**
+   * Returns the band of one of the percentiles along the paths.
+   *
+   * @param index The position of the percentile in {@link #getPercentiles()}.
+   * @return The value of the percentile at each checkpoint.
+   */
+  public double[] band(int index) {
+    return bands[index].clone();
+  }
+
+  /**
+   * Computes a percentile of a sorted range by linear interpolation between the closest ranks.
+   *
+   * @param sorted     The array holding the sorted range.
+   * @param from       The first index of the range.
+   * @param to         The index after the last of the range.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The value at the percentile.
+   */
+  static double percentile(double[] sorted, int from, int to, double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    }
+    double rank = percentile / 100 * (to - from - 1);
+    int lower = (int) Math.floor(rank);
+    int upper = Math.min(lower + 1, to - from - 1);
+    double weight = rank - lower;
+    return sorted[from + lower] * (1 - weight) + sorted[from + upper] * weight;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("Final value percentiles:");
+    for (double percentile : percentiles) {
+      builder.append(String.format(" p%s=%.2f", percentile, finalValue(percentile)));
+    }
+    return builder.append(String.format(" (invested %.2f over %d paths)", totalContributed,
+        sortedFinalValues.length)).toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof ProjectionBands)) {
+      return false;
+    }
+    ProjectionBands that = (ProjectionBands) other;
+    return Arrays.equals(percentiles, that.percentiles)
+        && Arrays.equals(sortedFinalValues, that.sortedFinalValues)
+        && Arrays.equals(checkpointDays, that.checkpointDays)
+        && Arrays.deepEquals(bands, that.bands)
+        && totalContributed == that.totalContributed;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(sortedFinalValues);
+  }
+}
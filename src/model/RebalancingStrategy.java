@@ -0,0 +1,265 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class implements a rebalancing strategy for a flexible portfolio. The strategy holds a set
+ * of target weights and trades the portfolio back to them, selling what has grown overweight and
+ * buying what has fallen behind. Periodic investments rebalance on every scheduled investment and,
+ * between them, whenever the weight of any position drifts from its target by more than the drift
+ * threshold.
+ *
+ * <p>Drift is tracked incrementally: the value of each position and the total are kept up to date
+ * as each day's prices arrive, so checking the weights costs the same every day however long the
+ * simulation has run, and a multi-decade daily simulation is linear in the number of days. Trades
+ * are only made on days on which every target ticker has a price.</p>
+ */
+public class RebalancingStrategy implements Strategy {
+
+  /**
+   * The default largest difference between a position's weight and its target weight.
+   */
+  public static final double DEFAULT_DRIFT_THRESHOLD = 0.05;
+
+  private final FlexiblePortfolioInterface flexiblePortfolioInterface;
+  private final DataFreshnessManagerInterface dataFreshnessManager;
+  private final double driftThreshold;
+
+  /**
+   * Constructs a rebalancing strategy with the default drift threshold.
+   *
+   * @param flexiblePortfolioInterface The portfolio to rebalance.
+   */
+  public RebalancingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface) {
+    this(flexiblePortfolioInterface, DEFAULT_DRIFT_THRESHOLD);
+  }
+
+  /**
+   * Constructs a rebalancing strategy with the given drift threshold.
+   *
+   * @param flexiblePortfolioInterface The portfolio to rebalance.
+   * @param driftThreshold             The largest difference between a position's weight and its
+   *                                   target weight before the portfolio is rebalanced, as a
+   *                                   fraction. Use {@code Double.POSITIVE_INFINITY} to rebalance
+   *                                   only on scheduled investments.
+   */
+  public RebalancingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                             double driftThreshold) {
+    this(flexiblePortfolioInterface, DataFreshnessManager.getInstance(), driftThreshold);
+  }
+
+  /**
+   * Constructs a rebalancing strategy with the default drift threshold and the given source of
+   * prices.
+   *
+   * @param flexiblePortfolioInterface The portfolio to rebalance.
+   * @param dataFreshnessManager       The source of the price series.
+   */
+  public RebalancingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                             DataFreshnessManagerInterface dataFreshnessManager) {
+    this(flexiblePortfolioInterface, dataFreshnessManager, DEFAULT_DRIFT_THRESHOLD);
+  }
+
+  /**
+   * Constructs a rebalancing strategy with the given drift threshold and source of prices.
+   *
+   * @param flexiblePortfolioInterface The portfolio to rebalance.
+   * @param dataFreshnessManager       The source of the price series.
+   * @param driftThreshold             The largest difference between a position's weight and its
+   *                                   target weight before the portfolio is rebalanced.
+   * @throws IllegalArgumentException if the threshold is not positive.
+   */
+  public RebalancingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                             DataFreshnessManagerInterface dataFreshnessManager,
+                             double driftThreshold) {
+    if (!(driftThreshold > 0)) {
+      throw new IllegalArgumentException("Drift threshold must be greater than 0.");
+    }
+    this.flexiblePortfolioInterface = flexiblePortfolioInterface;
+    this.dataFreshnessManager = dataFreshnessManager;
+    this.driftThreshold = driftThreshold;
+  }
+
+  /**
+   * Invests an amount and trades the target tickers back to their weights on a single date.
+   *
+   * @param amount     The amount of new money to invest, which may be zero to only rebalance.
+   * @param stockRatio The target weight of each ticker.
+   * @param date       The date on which to trade.
+   * @throws IllegalArgumentException if the date is in the future, the weights are invalid or a
+   *                                  ticker has no price on the date.
+   */
+  @Override
+  public void invest(double amount, HashMap<String, Double> stockRatio, LocalDate date) {
+    StrategySupport.checkTradeDate(date);
+    StrategySupport.checkWeights(amount, stockRatio);
+    Map<String, PriceSeries> prices =
+        StrategySupport.loadPrices(dataFreshnessManager, stockRatio, date);
+    Book book = new Book(stockRatio, flexiblePortfolioInterface.getHoldings(date));
+    long[] closes = StrategySupport.closesOn(book.tickers, prices, date);
+    for (int t = 0; t < book.size(); t++) {
+      book.price(t, closes[t]);
+    }
+    Trades trades = new Trades();
+    book.rebalance(FixedPoint.toPriceUnits(amount), date.toEpochDay(), trades);
+    trades.applyTo(flexiblePortfolioInterface, book.tickers);
+  }
+
+  /**
+   * Invests an amount at regular intervals, rebalancing to the target weights on each investment
+   * and whenever a position drifts past the threshold in between. Each investment is made on the
+   * first day on or after its scheduled date on which every target ticker has a price, and the
+   * next one is scheduled the interval after it.
+   *
+   * @param amount       The amount of money to invest in each interval.
+   * @param stockRatio   The target weight of each ticker.
+   * @param startDate    The start date for the periodic investment.
+   * @param endDate      The end date for the periodic investment.
+   * @param intervalDays The number of days between each investment.
+   * @throws IllegalArgumentException if the dates, interval or weights are invalid.
+   */
+  @Override
+  public void investPeriodically(double amount, HashMap<String, Double> stockRatio,
+                                 LocalDate startDate, LocalDate endDate, long intervalDays) {
+    endDate = StrategySupport.checkPeriod(startDate, endDate, intervalDays);
+    StrategySupport.checkIntervalFits(startDate, endDate, intervalDays);
+    StrategySupport.checkWeights(amount, stockRatio);
+
+    Map<String, PriceSeries> prices =
+        StrategySupport.loadPrices(dataFreshnessManager, stockRatio, endDate);
+    Book book = new Book(stockRatio, flexiblePortfolioInterface.getHoldings(startDate));
+    StrategySupport.PriceSweep sweep =
+        new StrategySupport.PriceSweep(book.tickers, prices, startDate, endDate);
+
+    long contribution = FixedPoint.toPriceUnits(amount);
+    long nextInvestment = startDate.toEpochDay();
+    Trades trades = new Trades();
+    while (sweep.next()) {
+      for (int t = 0; t < book.size(); t++) {
+        if (sweep.close(t) > 0) {
+          book.price(t, sweep.close(t));
+        }
+      }
+      if (!sweep.allPriced()) {
+        continue;
+      }
+      long day = sweep.day();
+      if (day >= nextInvestment) {
+        book.rebalance(contribution, day, trades);
+        nextInvestment = day + intervalDays;
+      } else if (book.drifted(driftThreshold)) {
+        book.rebalance(0, day, trades);
+      }
+    }
+    trades.applyTo(flexiblePortfolioInterface, book.tickers);
+  }
+
+  /**
+   * The positions in the target tickers with their latest prices and values. Updating a price
+   * adjusts the position's value and the running total by the change alone.
+   */
+  private static final class Book {
+
+    private final String[] tickers;
+    private final double[] targets;
+    private final long[] microShares;
+    private final long[] closes;
+    private final long[] values;
+    private long total;
+
+    Book(Map<String, Double> stockRatio, Holdings holdings) {
+      tickers = StrategySupport.sortedTickers(stockRatio);
+      int size = tickers.length;
+      targets = new double[size];
+      microShares = new long[size];
+      closes = new long[size];
+      values = new long[size];
+      for (int t = 0; t < size; t++) {
+        targets[t] = stockRatio.get(tickers[t]);
+        microShares[t] = holdings.microSharesOf(tickers[t]);
+      }
+    }
+
+    int size() {
+      return tickers.length;
+    }
+
+    void price(int t, long close) {
+      closes[t] = close;
+      long value = FixedPoint.value(microShares[t], close);
+      total += value - values[t];
+      values[t] = value;
+    }
+
+    boolean drifted(double threshold) {
+      if (total <= 0) {
+        return false;
+      }
+      for (int t = 0; t < tickers.length; t++) {
+        if (Math.abs(values[t] - targets[t] * total) > threshold * total) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void rebalance(long contribution, long day, Trades trades) {
+      double investable = total + contribution;
+      long[] deltas = new long[tickers.length];
+      for (int t = 0; t < tickers.length; t++) {
+        long target = FixedPoint.toMicroShares(targets[t] * investable / closes[t]);
+        deltas[t] = target - microShares[t];
+        microShares[t] = target;
+        price(t, closes[t]);
+      }
+      for (int t = 0; t < tickers.length; t++) {
+        if (deltas[t] < 0) {
+          trades.add(day, t, deltas[t]);
+        }
+      }
+      for (int t = 0; t < tickers.length; t++) {
+        if (deltas[t] > 0) {
+          trades.add(day, t, deltas[t]);
+        }
+      }
+    }
+  }
+
+  /**
+   * The trades of a simulation in the order they are made, held in growable primitive arrays.
+   * Sales are recorded with a negative number of shares.
+   */
+  private static final class Trades {
+
+    private long[] epochDays = new long[16];
+    private int[] tickers = new int[16];
+    private long[] microShares = new long[16];
+    private int size;
+
+    void add(long epochDay, int ticker, long shares) {
+      if (size == epochDays.length) {
+        epochDays = Arrays.copyOf(epochDays, size * 2);
+        tickers = Arrays.copyOf(tickers, size * 2);
+        microShares = Arrays.copyOf(microShares, size * 2);
+      }
+      epochDays[size] = epochDay;
+      tickers[size] = ticker;
+      microShares[size] = shares;
+      size++;
+    }
+
+    void applyTo(FlexiblePortfolioInterface portfolio, String[] names) {
+      for (int i = 0; i < size; i++) {
+        LocalDate date = LocalDate.ofEpochDay(epochDays[i]);
+        if (microShares[i] > 0) {
+          portfolio.buy(names[tickers[i]], FixedPoint.toShares(microShares[i]), date);
+        } else {
+          portfolio.sell(names[tickers[i]], FixedPoint.toShares(-microShares[i]), date);
+        }
+      }
+    }
+  }
+}
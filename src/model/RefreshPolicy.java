@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Policies that decide when the locally stored data of a ticker is refreshed from the remote data
+ * source by the {@link DataFreshnessManager}.
+ */
+public enum RefreshPolicy {
+
+  /**
+   * Refresh each ticker the first time it is read after the application starts.
+   */
+  ONCE_PER_SESSION,
+
+  /**
+   * Refresh a ticker whenever its last refresh is older than the configured time to live.
+   */
+  TTL,
+
+  /**
+   * Refresh a ticker only when a date after its last stored bar is requested, and at most once per
+   * time to live.
+   */
+  BEYOND_LAST_BAR,
+
+  /**
+   * Never refresh automatically; data is only fetched when it is missing or explicitly requested.
+   */
+  MANUAL
+}
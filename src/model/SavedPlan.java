@@ -0,0 +1,120 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A periodic investment plan that an earlier run scheduled and saved: the parameters of the saved
+ * strategy and the date of the last installment the plan had bought.
+ */
+public final class SavedPlan {
+
+  private final String strategyName;
+  private final String portfolioName;
+  private final double amount;
+  private final Map<String, Double> stockRatio;
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+  private final long intervalDays;
+  private final LocalDate lastInstallment;
+
+  /**
+   * Constructs a saved plan.
+   *
+   * @param strategyName    The name of the saved strategy.
+   * @param portfolioName   The name of the portfolio the installments are bought into.
+   * @param amount          The amount invested on each scheduled date.
+   * @param stockRatio      The share of the amount invested in each ticker.
+   * @param startDate       The first scheduled date.
+   * @param endDate         The last date on which an installment may be scheduled, or null if
+   *                        the plan has no end.
+   * @param intervalDays    The number of days between an installment and the next scheduled date.
+   * @param lastInstallment The date of the last installment bought, or null if none was bought.
+   */
+  SavedPlan(String strategyName, String portfolioName, double amount,
+      Map<String, Double> stockRatio, LocalDate startDate, LocalDate endDate, long intervalDays,
+      LocalDate lastInstallment) {
+    this.strategyName = strategyName;
+    this.portfolioName = portfolioName;
+    this.amount = amount;
+    this.stockRatio = Collections.unmodifiableMap(new HashMap<>(stockRatio));
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.intervalDays = intervalDays;
+    this.lastInstallment = lastInstallment;
+  }
+
+  /**
+   * Returns the name of the saved strategy.
+   *
+   * @return The strategy name.
+   */
+  public String getStrategyName() {
+    return strategyName;
+  }
+
+  /**
+   * Returns the name of the portfolio the installments are bought into.
+   *
+   * @return The portfolio name.
+   */
+  public String getPortfolioName() {
+    return portfolioName;
+  }
+
+  /**
+   * Returns the amount invested on each scheduled date.
+   *
+   * @return The amount.
+   */
+  public double getAmount() {
+    return amount;
+  }
+
+  /**
+   * Returns the share of the amount invested in each ticker.
+   *
+   * @return An unmodifiable map of ticker symbols to weights.
+   */
+  public Map<String, Double> getStockRatio() {
+    return stockRatio;
+  }
+
+  /**
+   * Returns the first scheduled date.
+   *
+   * @return The start date.
+   */
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Returns the last date on which an installment may be scheduled.
+   *
+   * @return The end date, or null if the plan has no end.
+   */
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Returns the number of days between an installment and the next scheduled date.
+   *
+   * @return The interval in days.
+   */
+  public long getIntervalDays() {
+    return intervalDays;
+  }
+
+  /**
+   * Returns the date of the last installment the plan had bought.
+   *
+   * @return The date, or null if the plan had bought nothing.
+   */
+  public LocalDate getLastInstallment() {
+    return lastInstallment;
+  }
+}
@@ -0,0 +1,134 @@
+package model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Shares one instance of a per-user object between every caller that asks for the same user, for
+ * as long as the user stays active. An entry that has not been asked for within the idle timeout
+ * expires and is rebuilt on the next request; an entry can also be closed explicitly, for example
+ * when the user logs out. Keys are email IDs and are compared without regard to case.
+ *
+ * <p>An entry whose object is pinned, for example because it holds changes that exist only in
+ * memory, is never expired or closed, since rebuilding it would lose those changes. It is released
+ * once the object is no longer pinned.</p>
+ *
+ * @param <V> The type of the shared objects.
+ */
+public final class SessionRegistry<V> {
+
+  private final ConcurrentHashMap<String, Session<V>> sessions = new ConcurrentHashMap<>();
+  private final long idleMillis;
+  private final Clock clock;
+  private final Predicate<? super V> pinned;
+  private volatile long nextSweep;
+
+  private static final class Session<V> {
+
+    private final V value;
+    private volatile long lastAccess;
+
+    private Session(V value, long lastAccess) {
+      this.value = value;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  /**
+   * Constructs a registry whose entries expire after the given idle time.
+   *
+   * @param idleTimeout How long an entry is kept without being asked for.
+   * @param clock       The clock used to measure idle time.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   */
+  public SessionRegistry(Duration idleTimeout, Clock clock) {
+    this(idleTimeout, clock, value -> false);
+  }
+
+  /**
+   * Constructs a registry whose entries expire after the given idle time unless they are pinned.
+   *
+   * @param idleTimeout How long an entry is kept without being asked for.
+   * @param clock       The clock used to measure idle time.
+   * @param pinned      Tells whether an object must be kept, however long it has been idle.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   */
+  public SessionRegistry(Duration idleTimeout, Clock clock, Predicate<? super V> pinned) {
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("Idle timeout must be positive.");
+    }
+    this.idleMillis = idleTimeout.toMillis();
+    this.clock = clock;
+    this.pinned = pinned;
+    this.nextSweep = clock.millis() + idleMillis;
+  }
+
+  /**
+   * Returns the shared object of a user, creating it if the user has no live entry.
+   *
+   * @param emailId The email ID of the user.
+   * @param factory Creates the object for the user when needed.
+   * @return The shared object of the user.
+   */
+  public V get(String emailId, Function<String, V> factory) {
+    long now = clock.millis();
+    if (now >= nextSweep) {
+      sweep(now);
+    }
+    Session<V> session = sessions.compute(key(emailId), (key, existing) ->
+        existing == null || isExpired(existing, now) && isReleasable(existing)
+            ? new Session<>(factory.apply(emailId), now) : existing);
+    session.lastAccess = now;
+    return session.value;
+  }
+
+  /**
+   * Closes the entry of a user, so that the next request creates a new object. A pinned entry is
+   * kept.
+   *
+   * @param emailId The email ID of the user.
+   * @return true if the user had an entry and it was closed.
+   */
+  public boolean close(String emailId) {
+    String key = key(emailId);
+    Session<V> session = sessions.get(key);
+    return session != null && isReleasable(session) && sessions.remove(key, session);
+  }
+
+  /**
+   * Closes every entry that is not pinned.
+   */
+  public void closeAll() {
+    sessions.values().removeIf(this::isReleasable);
+  }
+
+  /**
+   * Returns the number of entries, including expired entries that have not been swept yet.
+   *
+   * @return The number of entries.
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+  private boolean isExpired(Session<V> session, long now) {
+    return now - session.lastAccess >= idleMillis;
+  }
+
+  private boolean isReleasable(Session<V> session) {
+    return !pinned.test(session.value);
+  }
+
+  private void sweep(long now) {
+    nextSweep = now + idleMillis;
+    sessions.values().removeIf(session -> isExpired(session, now) && isReleasable(session));
+  }
+
+  private static String key(String emailId) {
+    return emailId.toLowerCase(Locale.ROOT);
+  }
+}
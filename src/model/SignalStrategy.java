@@ -0,0 +1,163 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a strategy that trades a portfolio's tickers on the Buy and Sell signals of
+ * two crossing moving averages, the same signals {@link StockAnalysis#getMovingCrossoversDays}
+ * reports. On a Buy signal the ticker's share of the amount is invested at the day's close; on a
+ * Sell signal a fraction of the position held is sold. After a trade, further signals for the same
+ * ticker are ignored until the cool-down interval has passed, which keeps the strategy from being
+ * whipsawed by averages that cross back and forth.
+ *
+ * <p>The signals of each ticker come from a single pass over its price series, and the trades are
+ * simulated on share counts before any is placed, so a backtest over many tickers and years costs
+ * time linear in the number of bars.</p>
+ */
+public class SignalStrategy implements Strategy {
+
+  /**
+   * The default number of bars in the shorter moving average.
+   */
+  public static final int DEFAULT_SHORT_DAYS = 50;
+
+  /**
+   * The default number of bars in the longer moving average.
+   */
+  public static final int DEFAULT_LONG_DAYS = 200;
+
+  private final FlexiblePortfolioInterface flexiblePortfolioInterface;
+  private final DataFreshnessManagerInterface dataFreshnessManager;
+  private final int shortDays;
+  private final int longDays;
+  private final double sellFraction;
+
+  /**
+   * Constructs a signal strategy on the default moving averages that sells the whole position on
+   * a Sell signal.
+   *
+   * @param flexiblePortfolioInterface The portfolio to trade.
+   */
+  public SignalStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface) {
+    this(flexiblePortfolioInterface, DataFreshnessManager.getInstance(), DEFAULT_SHORT_DAYS,
+        DEFAULT_LONG_DAYS, 1);
+  }
+
+  /**
+   * Constructs a signal strategy.
+   *
+   * @param flexiblePortfolioInterface The portfolio to trade.
+   * @param dataFreshnessManager       The source of the price series.
+   * @param shortDays                  The number of bars in the shorter moving average.
+   * @param longDays                   The number of bars in the longer moving average.
+   * @param sellFraction               The fraction of a position sold on a Sell signal.
+   * @throws IllegalArgumentException if the periods are not positive or not in order, or the
+   *                                  fraction is not above 0 and at most 1.
+   */
+  public SignalStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                        DataFreshnessManagerInterface dataFreshnessManager, int shortDays,
+                        int longDays, double sellFraction) {
+    if (shortDays <= 0 || longDays <= 0) {
+      throw new IllegalArgumentException("Moving average periods must be positive.");
+    }
+    if (shortDays >= longDays) {
+      throw new IllegalArgumentException(
+          "The shorter moving average period 'x' must be less than the longer period 'y'.");
+    }
+    if (!(sellFraction > 0 && sellFraction <= 1)) {
+      throw new IllegalArgumentException("Sell fraction must be greater than 0 and at most 1.");
+    }
+    this.flexiblePortfolioInterface = flexiblePortfolioInterface;
+    this.dataFreshnessManager = dataFreshnessManager;
+    this.shortDays = shortDays;
+    this.longDays = longDays;
+    this.sellFraction = sellFraction;
+  }
+
+  /**
+   * Trades the tickers that have a signal on a single date: the ticker's share of the amount is
+   * invested on a Buy signal and part of the position is sold on a Sell signal.
+   *
+   * @param amount     The amount to split between the tickers with a Buy signal.
+   * @param stockRatio The share of the amount for each ticker.
+   * @param date       The date on which to trade.
+   * @throws IllegalArgumentException if the date is in the future or the ratios are invalid.
+   */
+  @Override
+  public void invest(double amount, HashMap<String, Double> stockRatio, LocalDate date) {
+    StrategySupport.checkTradeDate(date);
+    trade(amount, stockRatio, date, date, 1);
+  }
+
+  /**
+   * Trades every signal between two dates. Each ticker trades at most once per interval.
+   *
+   * @param amount       The amount invested in a ticker's share on each Buy signal.
+   * @param stockRatio   The share of the amount for each ticker.
+   * @param startDate    The first date on which to trade.
+   * @param endDate      The last date on which to trade.
+   * @param intervalDays The least number of days between two trades of the same ticker.
+   * @throws IllegalArgumentException if the dates, interval or ratios are invalid.
+   */
+  @Override
+  public void investPeriodically(double amount, HashMap<String, Double> stockRatio,
+                                 LocalDate startDate, LocalDate endDate, long intervalDays) {
+    endDate = StrategySupport.checkPeriod(startDate, endDate, intervalDays);
+    trade(amount, stockRatio, startDate, endDate, intervalDays);
+  }
+
+  private void trade(double amount, Map<String, Double> stockRatio, LocalDate startDate,
+                     LocalDate endDate, long intervalDays) {
+    StrategySupport.checkWeights(amount, stockRatio);
+    Map<String, PriceSeries> prices =
+        StrategySupport.loadPrices(dataFreshnessManager, stockRatio, endDate);
+    Holdings holdings = flexiblePortfolioInterface.getHoldings(startDate);
+    List<String> tickers = new ArrayList<>(stockRatio.keySet());
+    List<long[]> trades = new ArrayList<>();
+    for (int t = 0; t < tickers.size(); t++) {
+      String ticker = tickers.get(t);
+      PriceSeries series = prices.getOrDefault(ticker, PriceSeries.empty());
+      int before = series.floorIndex(startDate.toEpochDay() - 1);
+      CrossoverSignals signals = CrossoverSignals.movingAverages(series, shortDays, longDays,
+          before >= 0 ? series.epochDay(before) : startDate.toEpochDay(), endDate.toEpochDay());
+      double investment = amount * stockRatio.get(ticker);
+      long position = holdings.microSharesOf(ticker);
+      long nextTrade = Long.MIN_VALUE;
+      for (int i = 0; i < signals.size(); i++) {
+        long day = signals.epochDay(i);
+        if (day < nextTrade) {
+          continue;
+        }
+        long shares;
+        if (signals.isBuy(i)) {
+          double close = series.close(series.indexOf(day));
+          shares = close > 0 ? FixedPoint.toMicroShares(investment / close) : 0;
+        } else {
+          shares = -Math.min(position, Math.round(position * sellFraction));
+        }
+        if (shares != 0) {
+          trades.add(new long[]{day, t, shares});
+          position += shares;
+          nextTrade = day + intervalDays;
+        }
+      }
+    }
+
+    long[][] ordered = trades.toArray(new long[0][]);
+    Arrays.sort(ordered, (first, second) -> Long.compare(first[0], second[0]));
+    for (long[] trade : ordered) {
+      LocalDate date = LocalDate.ofEpochDay(trade[0]);
+      String ticker = tickers.get((int) trade[1]);
+      if (trade[2] > 0) {
+        flexiblePortfolioInterface.buy(ticker, FixedPoint.toShares(trade[2]), date);
+      } else {
+        flexiblePortfolioInterface.sell(ticker, FixedPoint.toShares(-trade[2]), date);
+      }
+    }
+  }
+}
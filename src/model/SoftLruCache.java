@@ -0,0 +1,84 @@
+package model;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small least-recently-used cache for values that can be rebuilt on demand. The cache holds at
+ * most a fixed number of entries, and each value is softly referenced so that the garbage collector
+ * may also drop it under memory pressure. A cleared or evicted value is simply reported as missing.
+ * All operations are synchronized, so the cache can be shared between threads.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+public final class SoftLruCache<K, V> {
+
+  private final LinkedHashMap<K, SoftReference<V>> entries;
+
+  /**
+   * Constructs a cache holding at most the given number of entries.
+   *
+   * @param maxEntries The largest number of entries kept before the least recently used is evicted.
+   * @throws IllegalArgumentException if the bound is not positive.
+   */
+  public SoftLruCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive.");
+    }
+    this.entries = new LinkedHashMap<K, SoftReference<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, SoftReference<V>> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns a cached value and marks it as recently used.
+   *
+   * @param key The key of the value.
+   * @return The value, or null if it was never cached, has been evicted or has been collected.
+   */
+  public synchronized V get(K key) {
+    SoftReference<V> reference = entries.get(key);
+    if (reference == null) {
+      return null;
+    }
+    V value = reference.get();
+    if (value == null) {
+      entries.remove(key);
+    }
+    return value;
+  }
+
+  /**
+   * Caches a value, evicting the least recently used entry if the cache is full.
+   *
+   * @param key   The key of the value.
+   * @param value The value to cache.
+   */
+  public synchronized void put(K key, V value) {
+    entries.put(key, new SoftReference<>(value));
+  }
+
+  /**
+   * Removes a value from the cache.
+   *
+   * @param key The key of the value.
+   */
+  public synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Returns the number of entries currently held, including any whose values have been collected
+   * but not yet noticed.
+   *
+   * @return The number of entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+}
@@ -175,7 +175,9 @@ public class StockAnalysis implements StockAnalysisInterface {
   }
 
   /**
-   * Identifies days when two moving averages of a stock crosses over between two dates.
+   * Identifies days when two moving averages of a stock crosses over between two dates. The
+   * signals are found in a single pass over the stock's price series; days without enough earlier
+   * data for the longer average have no signal.
    *
    * @param startDate The start date of the period for analysis.
    * @param endDate   The end date of the period for analysis.
@@ -204,33 +206,8 @@ public class StockAnalysis implements StockAnalysisInterface {
           "The shorter moving average period 'x' must be less than the longer period 'y'.");
     }
 
-    HashMap<LocalDate, String> crossoverDays = new HashMap<>();
-    HashMap<LocalDate, Float> closingValues = data.getStockClosingValues(startDate, endDate);
-
-    List<LocalDate> sortedDates = new ArrayList<>(closingValues.keySet());
-    Collections.sort(sortedDates);
-
-    Float previousXDayMA = null;
-    Float previousYDayMA = null;
-
-    for (int i = 0; i < sortedDates.size(); i++) {
-      LocalDate currentDate = sortedDates.get(i);
-      float currentXDayMA = getMovingAverage(currentDate, x);
-      float currentYDayMA = getMovingAverage(currentDate, y);
-
-      if (previousXDayMA != null && previousYDayMA != null) {
-        if (previousXDayMA < previousYDayMA && currentXDayMA > currentYDayMA) {
-          crossoverDays.put(currentDate, "Buy");
-        } else if (previousXDayMA > previousYDayMA && currentXDayMA < currentYDayMA) {
-          crossoverDays.put(currentDate, "Sell");
-        }
-      }
-
-      previousXDayMA = currentXDayMA;
-      previousYDayMA = currentYDayMA;
-    }
-
-    return crossoverDays;
+    return CrossoverSignals.movingAverages(data.getPriceSeries(), x, y, startDate.toEpochDay(),
+        endDate.toEpochDay()).toMap();
   }
 
 
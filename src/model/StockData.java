@@ -14,6 +14,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -267,4 +269,43 @@ public class StockData implements StockDataInterface {
 
     return closingValues;
   }
+
+  /**
+   * Reads every stored closing value of the stock into a date-ascending price series. The stored
+   * file lists the most recent day first, so the rows are reversed while they are collected.
+   *
+   * @return The price series of the stock, empty if no data is stored.
+   * @throws IOException If there is an error reading the data.
+   */
+  @Override
+  public PriceSeries getPriceSeries() throws IOException {
+    String fileName = "res/Data/HistoricalData/" + ticker + ".csv";
+    if (!Files.exists(Paths.get(fileName))) {
+      return PriceSeries.empty();
+    }
+    ArrayList<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+      String line;
+      reader.readLine();
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          lines.add(line);
+        }
+      }
+    }
+    long[] epochDays = new long[lines.size()];
+    long[] closes = new long[lines.size()];
+    int count = 0;
+    for (int i = lines.size() - 1; i >= 0; i--) {
+      String[] data = lines.get(i).split(",");
+      long epochDay = LocalDate.parse(data[0]).toEpochDay();
+      if (count > 0 && epochDay <= epochDays[count - 1]) {
+        continue;
+      }
+      epochDays[count] = epochDay;
+      closes[count] = FixedPoint.parsePriceUnits(data[1]);
+      count++;
+    }
+    return new PriceSeries(Arrays.copyOf(epochDays, count), Arrays.copyOf(closes, count));
+  }
 }
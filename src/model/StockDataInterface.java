@@ -64,4 +64,12 @@ public interface StockDataInterface {
   public HashMap<LocalDate, Float> getStockClosingValues(LocalDate startDate, LocalDate endDate)
       throws IOException;
 
+  /**
+   * Reads every stored closing value of the stock into a date-ascending price series.
+   *
+   * @return The price series of the stock, empty if no data is stored.
+   * @throws IOException If there is an error in reading the data.
+   */
+  public PriceSeries getPriceSeries() throws IOException;
+
 }
@@ -0,0 +1,466 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Keeps saved dollar-cost averaging plans current as market data arrives. Every plan keeps the day
+ * its schedule continues from, so bringing it up to date simulates only the installments scheduled
+ * since its last one, over the bars stored after that day, and buys them as one batch. Plans are
+ * indexed by ticker, and a refresh of a ticker only visits the plans that invest in it. Keeping
+ * many plans current therefore costs work proportional to the new installments rather than a
+ * replay of every plan from its start.
+ *
+ * <p>Plans may be brought up to date from several threads. Each plan is advanced by one thread at
+ * a time, and its installments are handed to the plan's buyer as a single batch, so readers of the
+ * portfolio never see half of an installment. The buyer is never called while the plan is locked,
+ * and plans affected by a refresh of the shared data are advanced on the scheduler's own thread
+ * rather than on the thread that fetched the data, which may be in the middle of another trade.</p>
+ *
+ * <p>A scheduler given a strategy directory records the progress of each plan in
+ * {@code <directory>/<strategy>/<email>/<portfolio>.last}, in a folder of the owner next to the
+ * strategy's saved CSV file. The file holds the owner's email ID and the date of the last
+ * installment, so a later run can list the plans of a user with {@link #savedPlans(User)} and
+ * schedule them again. {@link #restoreSavedPlans(User, Consumer)} does this on the scheduler's
+ * thread, since buying the missed installments may have to fetch prices.</p>
+ */
+public class StrategyScheduler implements StrategySchedulerInterface {
+
+  private static final StrategyScheduler INSTANCE = createInstance();
+
+  private final DataFreshnessManagerInterface dataFreshnessManager;
+  private final Clock clock;
+  private final Path strategyDirectory;
+  private final ConcurrentHashMap<String, Plan> plans = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Set<Plan>> plansByTicker = new ConcurrentHashMap<>();
+  private ExecutorService worker;
+
+  /**
+   * Constructs a scheduler that reads prices from the given source and takes today's date from
+   * the system clock.
+   *
+   * @param dataFreshnessManager The source of the price series.
+   */
+  public StrategyScheduler(DataFreshnessManagerInterface dataFreshnessManager) {
+    this(dataFreshnessManager, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructs a scheduler that reads prices from the given source and takes today's date from
+   * the given clock.
+   *
+   * @param dataFreshnessManager The source of the price series.
+   * @param clock                The clock that decides which installments are due.
+   */
+  public StrategyScheduler(DataFreshnessManagerInterface dataFreshnessManager, Clock clock) {
+    this(dataFreshnessManager, clock, null);
+  }
+
+  /**
+   * Constructs a scheduler that records the progress of its plans next to the saved strategies.
+   *
+   * @param dataFreshnessManager The source of the price series.
+   * @param clock                The clock that decides which installments are due.
+   * @param strategyDirectory    The directory holding one folder of saved CSV files per strategy,
+   *                             or null if progress is not recorded.
+   */
+  public StrategyScheduler(DataFreshnessManagerInterface dataFreshnessManager, Clock clock,
+      Path strategyDirectory) {
+    this.dataFreshnessManager = dataFreshnessManager;
+    this.clock = clock;
+    this.strategyDirectory = strategyDirectory;
+  }
+
+  /**
+   * Returns the scheduler shared by all portfolios of the application. It is told about every
+   * refresh of the shared {@link DataFreshnessManager} through {@link #submitRefresh(String)}.
+   *
+   * @return The shared scheduler.
+   */
+  public static StrategyScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  private static StrategyScheduler createInstance() {
+    DataFreshnessManager dataFreshnessManager = DataFreshnessManager.getInstance();
+    StrategyScheduler scheduler = new StrategyScheduler(dataFreshnessManager,
+        Clock.systemDefaultZone(), Paths.get("res/Data/Strategy"));
+    dataFreshnessManager.addRefreshListener(scheduler::submitRefresh);
+    return scheduler;
+  }
+
+  @Override
+  public int schedule(PortfolioInterface portfolio, String strategyName, double amount,
+      Map<String, Double> stockRatio, LocalDate startDate, LocalDate endDate, long intervalDays,
+      LocalDate lastInstallment, Consumer<TradeBatch> buyer) {
+    if (startDate == null) {
+      throw new IllegalArgumentException("Invalid start date.");
+    }
+    if (endDate != null && startDate.isAfter(endDate)) {
+      throw new IllegalArgumentException("Start date cannot be after end date.");
+    }
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("Interval days must be greater than 0.");
+    }
+    double sum = 0.0;
+    for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
+      if (entry.getValue() < 0.00) {
+        throw new IllegalArgumentException("Weighted ratio cannot be negative!"
+            + "Please change the value for stock " + entry.getKey() + ".");
+      }
+      sum += entry.getValue();
+    }
+    if (Math.abs(sum - 1.0) > 0.000001) {
+      throw new IllegalArgumentException("The sum of the investment ratios must equal 1.");
+    }
+
+    long nextDay = lastInstallment == null ? startDate.toEpochDay()
+        : Math.max(startDate.toEpochDay(), lastInstallment.toEpochDay() + intervalDays);
+    String key = keyOf(portfolio, strategyName);
+    Plan plan = new Plan(key, portfolio.getUser().getEmailId(), portfolio.getPortfolioName(),
+        strategyName, buyer, amount, stockRatio,
+        endDate == null ? Long.MAX_VALUE : endDate.toEpochDay(), intervalDays, nextDay,
+        lastInstallment == null ? Long.MIN_VALUE : lastInstallment.toEpochDay());
+    try {
+      record(plan);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    Plan replaced = plans.put(key, plan);
+    if (replaced != null) {
+      unindex(replaced);
+    }
+    for (String ticker : plan.tickers) {
+      plansByTicker.compute(ticker, (t, indexed) -> {
+        Set<Plan> updated = indexed == null ? ConcurrentHashMap.newKeySet() : indexed;
+        updated.add(plan);
+        return updated;
+      });
+    }
+    try {
+      return advance(plan);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void cancel(PortfolioInterface portfolio, String strategyName) {
+    Plan plan = plans.remove(keyOf(portfolio, strategyName));
+    if (plan != null) {
+      unindex(plan);
+      forget(plan);
+    }
+  }
+
+  @Override
+  public int onRefresh(String ticker) {
+    Set<Plan> affected = plansByTicker.get(ticker);
+    return affected == null ? 0 : advanceAll(new ArrayList<>(affected));
+  }
+
+  /**
+   * Brings the plans investing in a refreshed ticker up to date on the scheduler's own thread and
+   * returns without waiting. The thread that refreshed the data may hold the lock of a portfolio
+   * it is trading in, so it must not buy into other portfolios itself.
+   *
+   * @param ticker The ticker symbol of the refreshed stock.
+   * @return The number of installments bought, once the plans have been advanced.
+   */
+  public Future<Integer> submitRefresh(String ticker) {
+    return getWorker().submit(() -> onRefresh(ticker));
+  }
+
+  @Override
+  public int runDue() {
+    return advanceAll(new ArrayList<>(plans.values()));
+  }
+
+  @Override
+  public LocalDate getLastInstallment(PortfolioInterface portfolio, String strategyName) {
+    Plan plan = plans.get(keyOf(portfolio, strategyName));
+    if (plan == null) {
+      return null;
+    }
+    long lastDay = plan.lastDay;
+    return lastDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(lastDay);
+  }
+
+  @Override
+  public List<SavedPlan> savedPlans(User user) {
+    List<SavedPlan> saved = new ArrayList<>();
+    if (strategyDirectory == null || !Files.isDirectory(strategyDirectory)) {
+      return saved;
+    }
+    String owner = ownerOf(user.getEmailId());
+    try (DirectoryStream<Path> strategies = Files.newDirectoryStream(strategyDirectory,
+        Files::isDirectory)) {
+      for (Path strategy : strategies) {
+        Path folder = strategy.resolve(owner);
+        if (!Files.isDirectory(folder)) {
+          continue;
+        }
+        try (DirectoryStream<Path> cursors = Files.newDirectoryStream(folder, "*.last")) {
+          for (Path cursor : cursors) {
+            try {
+              SavedPlan plan = readPlan(strategy, cursor);
+              if (plan != null) {
+                saved.add(plan);
+              }
+            } catch (IOException | RuntimeException e) {
+              System.err.println("Could not read the saved plan " + cursor + ": "
+                  + e.getMessage());
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("Could not list the saved plans: " + e.getMessage());
+    }
+    return saved;
+  }
+
+  @Override
+  public Future<?> restoreSavedPlans(User user, Consumer<SavedPlan> restorer) {
+    return getWorker().submit(() -> {
+      for (SavedPlan plan : savedPlans(user)) {
+        restorer.accept(plan);
+      }
+    });
+  }
+
+  private int advanceAll(List<Plan> due) {
+    int installments = 0;
+    for (Plan plan : due) {
+      try {
+        installments += advance(plan);
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Scheduled investment failed for " + plan.key + ": "
+            + e.getMessage());
+      }
+    }
+    return installments;
+  }
+
+  /**
+   * Advances a plan, or asks the thread already advancing it to go round once more. Only one
+   * thread advances a plan at a time, and the plan's lock is held just long enough to decide
+   * which thread that is.
+   */
+  private int advance(Plan plan) throws IOException {
+    synchronized (plan) {
+      if (plan.advancing) {
+        plan.advanceAgain = true;
+        return 0;
+      }
+      plan.advancing = true;
+    }
+    int installments = 0;
+    boolean again;
+    do {
+      try {
+        installments += advanceOnce(plan);
+      } catch (IOException | RuntimeException e) {
+        synchronized (plan) {
+          plan.advancing = false;
+          plan.advanceAgain = false;
+        }
+        throw e;
+      }
+      synchronized (plan) {
+        again = plan.advanceAgain;
+        plan.advanceAgain = false;
+        plan.advancing = again;
+      }
+    } while (again);
+    return installments;
+  }
+
+  /**
+   * Buys the installments of a plan scheduled from its next day up to today or its end date, and
+   * moves the plan on to the day its schedule continues from. A plan whose schedule has passed its
+   * end date is removed, and a plan that has been cancelled or replaced buys nothing.
+   */
+  private int advanceOnce(Plan plan) throws IOException {
+    LocalDate today = LocalDate.now(clock);
+    long upTo = Math.min(plan.endDay, today.toEpochDay());
+    if (plan.nextDay > upTo || plans.get(plan.key) != plan) {
+      return 0;
+    }
+    Map<String, PriceSeries> prices = dataFreshnessManager.getPriceSeries(plan.tickers, today);
+    DollarCostAveragingSimulator.Schedule schedule = DollarCostAveragingSimulator.schedule(
+        plan.amount, plan.stockRatio, plan.nextDay, upTo, plan.intervalDays, prices);
+    TradeBatch trades = schedule.trades;
+    if (!trades.isEmpty()) {
+      plan.buyer.accept(trades);
+      plan.lastDay = trades.epochDay(trades.size() - 1);
+    }
+    plan.nextDay = schedule.nextDay;
+    if (plan.nextDay > plan.endDay && plans.remove(plan.key, plan)) {
+      unindex(plan);
+      forget(plan);
+    } else if (!trades.isEmpty()) {
+      record(plan);
+    }
+    return schedule.installments;
+  }
+
+  private void unindex(Plan plan) {
+    for (String ticker : plan.tickers) {
+      plansByTicker.computeIfPresent(ticker, (t, indexed) -> {
+        indexed.remove(plan);
+        return indexed.isEmpty() ? null : indexed;
+      });
+    }
+  }
+
+  private synchronized ExecutorService getWorker() {
+    if (worker == null) {
+      worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "strategy-scheduler");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return worker;
+  }
+
+  private Path cursorOf(Plan plan) {
+    return strategyDirectory.resolve(plan.strategyName).resolve(ownerOf(plan.emailId))
+        .resolve(plan.portfolioName + ".last");
+  }
+
+  /**
+   * Writes the owner and last installment of a plan next to its saved strategy.
+   */
+  private void record(Plan plan) throws IOException {
+    if (strategyDirectory == null) {
+      return;
+    }
+    Path cursor = cursorOf(plan);
+    Files.createDirectories(cursor.getParent());
+    String lastInstallment = plan.lastDay == Long.MIN_VALUE ? ""
+        : LocalDate.ofEpochDay(plan.lastDay).toString();
+    Files.write(cursor, ("emailId,lastInstallment\n" + plan.emailId + "," + lastInstallment)
+        .getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void forget(Plan plan) {
+    if (strategyDirectory == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(cursorOf(plan));
+    } catch (IOException e) {
+      System.err.println("Could not remove the saved plan " + plan.key + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads a plan from its progress file and the strategy CSV saved in the strategy's folder, or
+   * returns null if the strategy is no longer saved.
+   */
+  private static SavedPlan readPlan(Path strategy, Path cursor) throws IOException {
+    List<String> progress = Files.readAllLines(cursor, StandardCharsets.UTF_8);
+    if (progress.size() < 2) {
+      return null;
+    }
+    String[] owner = progress.get(1).split(",", -1);
+    String fileName = cursor.getFileName().toString();
+    String portfolioName = fileName.substring(0, fileName.length() - ".last".length());
+    Path csv = strategy.resolve(portfolioName + ".csv");
+    if (!Files.exists(csv)) {
+      return null;
+    }
+    List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+    if (lines.size() < 2) {
+      return null;
+    }
+    String[] data = lines.get(1).split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+    Map<String, Double> stockRatio = new HashMap<>();
+    for (String entry : data[1].replace("\"", "").split(";")) {
+      String[] keyValue = entry.split(":");
+      stockRatio.put(keyValue[0], Double.parseDouble(keyValue[1]));
+    }
+    return new SavedPlan(strategy.getFileName().toString(), portfolioName,
+        Double.parseDouble(data[0]), stockRatio, LocalDate.parse(data[2]),
+        data[3].isEmpty() ? null : LocalDate.parse(data[3]), Long.parseLong(data[4]),
+        owner.length < 2 || owner[1].isEmpty() ? null : LocalDate.parse(owner[1]));
+  }
+
+  private static String ownerOf(String emailId) {
+    return emailId.toLowerCase(Locale.ROOT);
+  }
+
+  private static String keyOf(PortfolioInterface portfolio, String strategyName) {
+    return ownerOf(portfolio.getUser().getEmailId()) + "/"
+        + PortfolioRegistry.normalize(portfolio.getPortfolioName()) + "/"
+        + strategyName.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A scheduled plan and the day its schedule continues from. The plan does not hold the portfolio
+   * itself; its installments are handed to a buyer, which finds the portfolio when they are due.
+   * The days are only changed by the thread advancing the plan; the plan's lock guards the flags
+   * that decide which thread that is.
+   */
+  private static final class Plan {
+
+    private final String key;
+    private final String emailId;
+    private final String portfolioName;
+    private final String strategyName;
+    private final Consumer<TradeBatch> buyer;
+    private final double amount;
+    private final Map<String, Double> stockRatio;
+    private final List<String> tickers;
+    private final long endDay;
+    private final long intervalDays;
+    private volatile long nextDay;
+    private volatile long lastDay;
+    private boolean advancing;
+    private boolean advanceAgain;
+
+    Plan(String key, String emailId, String portfolioName, String strategyName,
+        Consumer<TradeBatch> buyer, double amount, Map<String, Double> stockRatio, long endDay,
+        long intervalDays, long nextDay, long lastDay) {
+      this.key = key;
+      this.emailId = emailId;
+      this.portfolioName = portfolioName;
+      this.strategyName = strategyName;
+      this.buyer = buyer;
+      this.amount = amount;
+      this.stockRatio = Collections.unmodifiableMap(new HashMap<>(stockRatio));
+      List<String> invested = new ArrayList<>();
+      for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
+        if (entry.getValue() > 0) {
+          invested.add(entry.getKey());
+        }
+      }
+      Collections.sort(invested);
+      this.tickers = Collections.unmodifiableList(invested);
+      this.endDay = endDay;
+      this.intervalDays = intervalDays;
+      this.nextDay = nextDay;
+      this.lastDay = lastDay;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This interface specifies how saved periodic investment plans are kept current. Each plan
+ * remembers its last executed installment, and when new market data is stored only the
+ * installments that have become due since then are bought, so plans without an end date keep
+ * investing for as long as they are scheduled.
+ */
+public interface StrategySchedulerInterface {
+
+  /**
+   * Schedules a dollar-cost averaging plan for a portfolio and buys every installment that is
+   * already due. A plan scheduled again for the same portfolio and strategy replaces the old one.
+   * The installments are handed to the buyer rather than to the portfolio, so that the owner of
+   * the portfolio can find its current instance and lock it while they are bought.
+   *
+   * @param portfolio       The portfolio the installments are bought into.
+   * @param strategyName    The name of the saved strategy.
+   * @param amount          The amount invested on each scheduled date.
+   * @param stockRatio      The share of the amount invested in each ticker.
+   * @param startDate       The first scheduled date.
+   * @param endDate         The last date on which an installment may be scheduled, or null if
+   *                        the plan has no end.
+   * @param intervalDays    The number of days between an installment and the next scheduled date.
+   * @param lastInstallment The date of the last installment already bought, or null if none has
+   *                        been bought yet.
+   * @param buyer           Buys a batch of installments into the portfolio.
+   * @return The number of installments bought.
+   * @throws IllegalArgumentException if the plan is invalid.
+   */
+  public int schedule(PortfolioInterface portfolio, String strategyName, double amount,
+      Map<String, Double> stockRatio, LocalDate startDate, LocalDate endDate, long intervalDays,
+      LocalDate lastInstallment, Consumer<TradeBatch> buyer);
+
+  /**
+   * Stops a scheduled plan. Installments already bought are kept.
+   *
+   * @param portfolio    The portfolio of the plan.
+   * @param strategyName The name of the saved strategy.
+   */
+  public void cancel(PortfolioInterface portfolio, String strategyName);
+
+  /**
+   * Buys the installments that have become due for every plan investing in a ticker whose data
+   * has just been refreshed.
+   *
+   * @param ticker The ticker symbol of the refreshed stock.
+   * @return The number of installments bought.
+   */
+  public int onRefresh(String ticker);
+
+  /**
+   * Buys the installments that have become due for every scheduled plan.
+   *
+   * @return The number of installments bought.
+   */
+  public int runDue();
+
+  /**
+   * Returns the date of the last installment bought by a plan.
+   *
+   * @param portfolio    The portfolio of the plan.
+   * @param strategyName The name of the saved strategy.
+   * @return The date, or null if the plan is not scheduled or has bought nothing yet.
+   */
+  public LocalDate getLastInstallment(PortfolioInterface portfolio, String strategyName);
+
+  /**
+   * Returns the plans of a user that an earlier run scheduled and that have not been cancelled or
+   * finished, so that they can be scheduled again.
+   *
+   * @param user The user whose plans are listed.
+   * @return The saved plans, in no particular order.
+   */
+  public List<SavedPlan> savedPlans(User user);
+
+  /**
+   * Lists the saved plans of a user and hands each of them to a restorer in the background, so
+   * that logging in does not wait for the plans to be read and bought again.
+   *
+   * @param user     The user whose plans are restored.
+   * @param restorer Schedules a saved plan again.
+   * @return A future that completes once every plan has been handed to the restorer.
+   */
+  public Future<?> restoreSavedPlans(User user, Consumer<SavedPlan> restorer);
+}
@@ -0,0 +1,243 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The checks and price handling shared by the strategies that trade a portfolio towards target
+ * weights: validating the weights and dates they are given, loading the prices of the target
+ * tickers, and walking the days on which any of those tickers has a bar.
+ */
+final class StrategySupport {
+
+  private StrategySupport() {
+  }
+
+  /**
+   * Checks that a single trade date is not in the future.
+   *
+   * @param date The date of the trade.
+   * @throws IllegalArgumentException if the date is in the future.
+   */
+  static void checkTradeDate(LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid date. Try earlier Date");
+    }
+  }
+
+  /**
+   * Checks the dates and interval of a periodic investment.
+   *
+   * @param startDate    The start date for the periodic investment.
+   * @param endDate      The end date for the periodic investment, or null for today.
+   * @param intervalDays The number of days between each investment.
+   * @return The end date, with null replaced by today.
+   * @throws IllegalArgumentException if the dates or interval are invalid.
+   */
+  static LocalDate checkPeriod(LocalDate startDate, LocalDate endDate, long intervalDays) {
+    if (endDate == null) {
+      endDate = LocalDate.now();
+    }
+    if (startDate == null) {
+      throw new IllegalArgumentException("Invalid start date.");
+    }
+    if (startDate.isAfter(endDate)) {
+      throw new IllegalArgumentException("Start date cannot be after end date.");
+    }
+    if (endDate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Can't invest on this date. Try earlier Date");
+    }
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("Interval days must be greater than 0.");
+    }
+    return endDate;
+  }
+
+  /**
+   * Checks that at least one interval fits between two dates.
+   *
+   * @param startDate    The start date for the periodic investment.
+   * @param endDate      The end date for the periodic investment.
+   * @param intervalDays The number of days between each investment.
+   * @throws IllegalArgumentException if the interval is longer than the period.
+   */
+  static void checkIntervalFits(LocalDate startDate, LocalDate endDate, long intervalDays) {
+    if (intervalDays > ChronoUnit.DAYS.between(startDate, endDate)) {
+      throw new IllegalArgumentException("Interval days cannot be more than the difference"
+              + " between start date and end date.");
+    }
+  }
+
+  /**
+   * Checks an amount and the weights it is split by.
+   *
+   * @param amount     The amount to invest.
+   * @param stockRatio The weight of each ticker.
+   * @throws IllegalArgumentException if the amount or a weight is negative or the weights do not
+   *                                  add up to 1.
+   */
+  static void checkWeights(double amount, Map<String, Double> stockRatio) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Amount cannot be negative.");
+    }
+    double sum = 0.0;
+    for (Map.Entry<String, Double> entry : stockRatio.entrySet()) {
+      if (entry.getValue() < 0.00) {
+        throw new IllegalArgumentException("Weighted ratio cannot be negative!"
+                + "Please change the value for stock " + entry.getKey() + ".");
+      }
+      sum += entry.getValue();
+    }
+    if (Math.abs(sum - 1.0) > 0.000001) {
+      throw new IllegalArgumentException("The sum of the investment ratios must equal 1.");
+    }
+  }
+
+  /**
+   * Returns the tickers of the weights in case-insensitive order, which is the order the
+   * strategies keep their positions in.
+   *
+   * @param stockRatio The weight of each ticker.
+   * @return The sorted tickers.
+   */
+  static String[] sortedTickers(Map<String, Double> stockRatio) {
+    List<String> sorted = new ArrayList<>(stockRatio.keySet());
+    sorted.sort(String.CASE_INSENSITIVE_ORDER);
+    return sorted.toArray(new String[0]);
+  }
+
+  /**
+   * Loads the price series of the weighted tickers.
+   *
+   * @param dataFreshnessManager The source of the price series.
+   * @param stockRatio           The weight of each ticker.
+   * @param date                 The latest date the prices are needed for.
+   * @return The price series of each ticker.
+   */
+  static Map<String, PriceSeries> loadPrices(DataFreshnessManagerInterface dataFreshnessManager,
+      Map<String, Double> stockRatio, LocalDate date) {
+    try {
+      return dataFreshnessManager.getPriceSeries(stockRatio.keySet(), date);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the closing price of every ticker on a date.
+   *
+   * @param tickers The tickers.
+   * @param prices  The price series of each ticker.
+   * @param date    The date.
+   * @return The closing prices in price units, in the order of the tickers.
+   * @throws IllegalArgumentException if a ticker has no price on the date.
+   */
+  static long[] closesOn(String[] tickers, Map<String, PriceSeries> prices, LocalDate date) {
+    long[] closes = new long[tickers.length];
+    for (int t = 0; t < tickers.length; t++) {
+      closes[t] = prices.getOrDefault(tickers[t], PriceSeries.empty()).closeUnitsOn(date);
+      if (closes[t] <= 0) {
+        throw new IllegalArgumentException("Cannot invest on this date,"
+                + " please try again on another date.");
+      }
+    }
+    return closes;
+  }
+
+  /**
+   * Walks, in date order, the days between two dates on which any of a set of tickers has a bar.
+   * Each series is read through a cursor that only moves forward, so a walk over many years is
+   * linear in the number of bars.
+   */
+  static final class PriceSweep {
+
+    private final PriceSeries[] series;
+    private final int[] cursors;
+    private final long[] closes;
+    private final long endDay;
+    private long day;
+    private boolean allPriced;
+
+    /**
+     * Starts a walk over the days from the start date to the end date.
+     *
+     * @param tickers   The tickers, in the order their prices are reported.
+     * @param prices    The price series of each ticker.
+     * @param startDate The first date of the walk.
+     * @param endDate   The last date of the walk.
+     */
+    PriceSweep(String[] tickers, Map<String, PriceSeries> prices, LocalDate startDate,
+        LocalDate endDate) {
+      series = new PriceSeries[tickers.length];
+      cursors = new int[tickers.length];
+      closes = new long[tickers.length];
+      for (int t = 0; t < tickers.length; t++) {
+        series[t] = prices.getOrDefault(tickers[t], PriceSeries.empty());
+        cursors[t] = series[t].floorIndex(startDate.toEpochDay() - 1) + 1;
+      }
+      endDay = endDate.toEpochDay();
+    }
+
+    /**
+     * Moves to the next day on which any ticker has a bar.
+     *
+     * @return true if there is such a day up to the end date.
+     */
+    boolean next() {
+      long next = Long.MAX_VALUE;
+      for (int t = 0; t < series.length; t++) {
+        if (cursors[t] < series[t].size()) {
+          next = Math.min(next, series[t].epochDay(cursors[t]));
+        }
+      }
+      if (next > endDay) {
+        return false;
+      }
+      day = next;
+      allPriced = true;
+      for (int t = 0; t < series.length; t++) {
+        int cursor = cursors[t];
+        if (cursor < series[t].size() && series[t].epochDay(cursor) == day) {
+          closes[t] = Math.max(series[t].closeUnits(cursor), 0);
+          cursors[t] = cursor + 1;
+        } else {
+          closes[t] = 0;
+        }
+        allPriced &= closes[t] > 0;
+      }
+      return true;
+    }
+
+    /**
+     * Returns the current day.
+     *
+     * @return The current day, as an epoch day.
+     */
+    long day() {
+      return day;
+    }
+
+    /**
+     * Returns the closing price of a ticker on the current day.
+     *
+     * @param t The index of the ticker.
+     * @return The closing price in price units, or 0 if the ticker has no price on the day.
+     */
+    long close(int t) {
+      return closes[t];
+    }
+
+    /**
+     * Tells whether every ticker has a price on the current day.
+     *
+     * @return true if every ticker is priced.
+     */
+    boolean allPriced() {
+      return allPriced;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package model;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed set of read/write locks shared out by key. Each key always maps to the same lock, so
+ * operations on one portfolio are ordered against each other while operations on portfolios that
+ * fall on different stripes never contend. The number of locks stays fixed however many keys are
+ * used.
+ */
+public final class StripedLock {
+
+  private final ReadWriteLock[] stripes;
+
+  /**
+   * Constructs a striped lock with at least the given number of stripes, rounded up to a power of
+   * two.
+   *
+   * @param stripes The minimum number of stripes.
+   * @throws IllegalArgumentException if the number of stripes is not positive.
+   */
+  public StripedLock(int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Number of stripes must be positive.");
+    }
+    int size = Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new ReadWriteLock[Math.max(1, size)];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  /**
+   * Returns the lock guarding a key.
+   *
+   * @param key The key, such as a normalised portfolio name.
+   * @return The read/write lock of the key's stripe.
+   */
+  public ReadWriteLock forKey(String key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return stripes[hash & (stripes.length - 1)];
+  }
+}
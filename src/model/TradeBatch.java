@@ -0,0 +1,110 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * An immutable, date-ascending batch of purchases to be applied to a flexible portfolio together.
+ * Each lot is a trading day, a ticker and a positive number of shares, held in parallel primitive
+ * arrays so that long schedules can be built and applied without creating an object per lot.
+ */
+public final class TradeBatch {
+
+  private static final TradeBatch EMPTY = new TradeBatch(new long[0], new String[0], new long[0]);
+
+  private final long[] epochDays;
+  private final String[] tickers;
+  private final long[] microShares;
+
+  /**
+   * Constructs a batch from parallel arrays of trading days, tickers and share counts.
+   *
+   * @param epochDays   The day of each lot as an epoch day, in ascending order.
+   * @param tickers     The ticker of each lot.
+   * @param microShares The number of shares of each lot, in millionths of a share.
+   * @throws IllegalArgumentException if the arrays differ in length, the days are not ascending or
+   *                                  a lot has no shares.
+   */
+  public TradeBatch(long[] epochDays, String[] tickers, long[] microShares) {
+    if (epochDays.length != tickers.length || epochDays.length != microShares.length) {
+      throw new IllegalArgumentException("Dates, tickers and shares must have the same length.");
+    }
+    for (int i = 0; i < epochDays.length; i++) {
+      if (i > 0 && epochDays[i] < epochDays[i - 1]) {
+        throw new IllegalArgumentException("Trade dates must be ascending.");
+      }
+      if (microShares[i] <= 0) {
+        throw new IllegalArgumentException("Invalid number of shares");
+      }
+    }
+    this.epochDays = epochDays;
+    this.tickers = tickers;
+    this.microShares = microShares;
+  }
+
+  /**
+   * Returns a batch with no lots.
+   *
+   * @return The empty batch.
+   */
+  public static TradeBatch empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the number of lots in the batch.
+   *
+   * @return The size of the batch.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Checks whether the batch has no lots.
+   *
+   * @return true if the batch is empty.
+   */
+  public boolean isEmpty() {
+    return epochDays.length == 0;
+  }
+
+  /**
+   * Returns the day of a lot as an epoch day.
+   *
+   * @param index The index of the lot.
+   * @return The epoch day of the lot.
+   */
+  public long epochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Returns the day of a lot.
+   *
+   * @param index The index of the lot.
+   * @return The date of the lot.
+   */
+  public LocalDate date(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]);
+  }
+
+  /**
+   * Returns the ticker of a lot.
+   *
+   * @param index The index of the lot.
+   * @return The ticker symbol.
+   */
+  public String ticker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * Returns the number of shares of a lot.
+   *
+   * @param index The index of the lot.
+   * @return The number of shares, in millionths of a share.
+   */
+  public long microShares(int index) {
+    return microShares[index];
+  }
+}
@@ -0,0 +1,279 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable index of trading days. Besides the sorted trading days, the calendar keeps, for
+ * every calendar day between the first and the last trading day, the number of trading days up to
+ * and including it. Finding the next or previous trading day of any date and counting the trading
+ * days between two dates are therefore array lookups that take constant time, and callers never
+ * need to probe dates that turn out not to be trading days.
+ */
+public final class TradingCalendar {
+
+  private static final TradingCalendar EMPTY = new TradingCalendar(new long[0]);
+
+  private final long[] days;
+  private final long firstDay;
+  private final int[] ranks;
+
+  private TradingCalendar(long[] days) {
+    this.days = days;
+    this.firstDay = days.length == 0 ? 0 : days[0];
+    this.ranks = new int[days.length == 0 ? 0 : (int) (days[days.length - 1] - firstDay) + 1];
+    int rank = 0;
+    for (int offset = 0; offset < ranks.length; offset++) {
+      if (days[rank] == firstDay + offset) {
+        rank++;
+      }
+      ranks[offset] = rank;
+    }
+  }
+
+  /**
+   * Returns a calendar with no trading days.
+   *
+   * @return The empty calendar.
+   */
+  public static TradingCalendar empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builds a calendar from trading days given as epoch days, in any order and with repeats.
+   *
+   * @param epochDays The trading days.
+   * @return The calendar.
+   */
+  public static TradingCalendar of(long[] epochDays) {
+    long[] sorted = epochDays.clone();
+    Arrays.sort(sorted);
+    int size = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (size == 0 || sorted[i] != sorted[size - 1]) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return size == 0 ? EMPTY : new TradingCalendar(Arrays.copyOf(sorted, size));
+  }
+
+  /**
+   * Builds a calendar of every day on which at least one of the series has a bar.
+   *
+   * @param series The price series.
+   * @return The calendar.
+   */
+  public static TradingCalendar union(Collection<PriceSeries> series) {
+    int total = 0;
+    for (PriceSeries prices : series) {
+      total += prices.size();
+    }
+    long[] epochDays = new long[total];
+    int size = 0;
+    for (PriceSeries prices : series) {
+      for (int i = 0; i < prices.size(); i++) {
+        epochDays[size++] = prices.epochDay(i);
+      }
+    }
+    return of(epochDays);
+  }
+
+  /**
+   * Builds a calendar of the days on which every one of the series has a bar with a positive
+   * closing price.
+   *
+   * @param series The price series.
+   * @return The calendar, empty if there are no series.
+   */
+  public static TradingCalendar common(Collection<PriceSeries> series) {
+    return common(series, Long.MIN_VALUE);
+  }
+
+  /**
+   * Builds a calendar of the days, on or after a given day, on which every one of the series has a
+   * bar with a positive closing price. The earlier bars are skipped with a binary search, so the
+   * work depends on the number of bars after the day rather than on the length of the series.
+   *
+   * @param series   The price series.
+   * @param epochDay The first day to include, as an epoch day.
+   * @return The calendar, empty if there are no series.
+   */
+  public static TradingCalendar common(Collection<PriceSeries> series, long epochDay) {
+    if (series.isEmpty()) {
+      return EMPTY;
+    }
+    PriceSeries[] all = series.toArray(new PriceSeries[0]);
+    int[] cursors = new int[all.length];
+    for (int t = 0; t < all.length; t++) {
+      cursors[t] = epochDay == Long.MIN_VALUE ? 0 : all[t].floorIndex(epochDay - 1) + 1;
+    }
+    long[] epochDays = new long[all[0].size() - cursors[0]];
+    int size = 0;
+    long day = epochDay;
+    while (true) {
+      boolean common = true;
+      for (int t = 0; t < all.length; t++) {
+        PriceSeries prices = all[t];
+        int cursor = cursors[t];
+        while (cursor < prices.size()
+            && (prices.epochDay(cursor) < day || prices.closeUnits(cursor) <= 0)) {
+          cursor++;
+        }
+        cursors[t] = cursor;
+        if (cursor == prices.size()) {
+          return size == 0 ? EMPTY : new TradingCalendar(Arrays.copyOf(epochDays, size));
+        }
+        if (prices.epochDay(cursor) > day) {
+          day = prices.epochDay(cursor);
+          common = false;
+        }
+      }
+      if (common) {
+        epochDays[size++] = day;
+        day++;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of trading days.
+   *
+   * @return The size of the calendar.
+   */
+  public int size() {
+    return days.length;
+  }
+
+  /**
+   * Checks whether the calendar has no trading days.
+   *
+   * @return true if the calendar is empty.
+   */
+  public boolean isEmpty() {
+    return days.length == 0;
+  }
+
+  /**
+   * Returns a trading day as an epoch day.
+   *
+   * @param index The position of the trading day.
+   * @return The epoch day.
+   */
+  public long epochDay(int index) {
+    return days[index];
+  }
+
+  /**
+   * Returns a trading day.
+   *
+   * @param index The position of the trading day.
+   * @return The date.
+   */
+  public LocalDate date(int index) {
+    return LocalDate.ofEpochDay(days[index]);
+  }
+
+  /**
+   * Checks whether a date is a trading day.
+   *
+   * @param date The date.
+   * @return true if the date is in the calendar.
+   */
+  public boolean isTradingDay(LocalDate date) {
+    return isTradingDay(date.toEpochDay());
+  }
+
+  /**
+   * Checks whether a day is a trading day.
+   *
+   * @param epochDay The day, as an epoch day.
+   * @return true if the day is in the calendar.
+   */
+  public boolean isTradingDay(long epochDay) {
+    int floor = floorIndex(epochDay);
+    return floor >= 0 && days[floor] == epochDay;
+  }
+
+  /**
+   * Returns the position of the last trading day on or before a day.
+   *
+   * @param epochDay The day, as an epoch day.
+   * @return The position, or -1 if every trading day is after the day.
+   */
+  public int floorIndex(long epochDay) {
+    if (days.length == 0 || epochDay < firstDay) {
+      return -1;
+    }
+    long offset = epochDay - firstDay;
+    return offset >= ranks.length ? days.length - 1 : ranks[(int) offset] - 1;
+  }
+
+  /**
+   * Returns the position of the first trading day on or after a day.
+   *
+   * @param epochDay The day, as an epoch day.
+   * @return The position, or the size of the calendar if every trading day is before the day.
+   */
+  public int ceilingIndex(long epochDay) {
+    int floor = floorIndex(epochDay);
+    return floor >= 0 && days[floor] == epochDay ? floor : floor + 1;
+  }
+
+  /**
+   * Returns the first trading day on or after a date.
+   *
+   * @param date The date.
+   * @return The trading day, or null if there is none.
+   */
+  public LocalDate onOrAfter(LocalDate date) {
+    int index = ceilingIndex(date.toEpochDay());
+    return index < days.length ? date(index) : null;
+  }
+
+  /**
+   * Returns the last trading day on or before a date.
+   *
+   * @param date The date.
+   * @return The trading day, or null if there is none.
+   */
+  public LocalDate onOrBefore(LocalDate date) {
+    int index = floorIndex(date.toEpochDay());
+    return index >= 0 ? date(index) : null;
+  }
+
+  /**
+   * Returns the first trading day after a date.
+   *
+   * @param date The date.
+   * @return The next trading day, or null if there is none.
+   */
+  public LocalDate next(LocalDate date) {
+    int index = floorIndex(date.toEpochDay()) + 1;
+    return index < days.length ? date(index) : null;
+  }
+
+  /**
+   * Returns the last trading day before a date.
+   *
+   * @param date The date.
+   * @return The previous trading day, or null if there is none.
+   */
+  public LocalDate previous(LocalDate date) {
+    int index = ceilingIndex(date.toEpochDay()) - 1;
+    return index >= 0 ? date(index) : null;
+  }
+
+  /**
+   * Counts the trading days between two dates, both included.
+   *
+   * @param start The first date.
+   * @param end   The last date.
+   * @return The number of trading days, 0 if the end is before the start.
+   */
+  public int tradingDaysBetween(LocalDate start, LocalDate end) {
+    int count = floorIndex(end.toEpochDay()) - ceilingIndex(start.toEpochDay()) + 1;
+    return Math.max(count, 0);
+  }
+}
@@ -1,10 +1,5 @@
 package model;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -12,12 +7,13 @@ import java.util.ArrayList;
  * <p>
  * This class is responsible for interacting with the user data stored in a CSV file, allowing for
  * the creation of new user entries, retrieval of existing user data, and checking for the existence
- * of users based on their email ID.
+ * of users based on their email ID. The file is accessed through the shared {@link UserStore},
+ * which keeps every user indexed by email ID.
  * </p>
  */
 public class UserManager implements UserManagerInterface {
 
-  private ArrayList<User> users;
+  private final UserStore users;
 
   protected User getUser(String emailId) {
     ArrayList<String> userData = getExistingUserData(emailId);
@@ -26,34 +22,46 @@ public class UserManager implements UserManagerInterface {
   }
 
   /**
-   * Constructs a UserManager, loading all users from storage upon initialization.
+   * Looks up a single user in storage.
+   *
+   * @param emailId The email ID of the user.
+   * @return The user.
+   * @throws IllegalArgumentException if there is no user with that email ID.
    */
-  public UserManager() {
-    users = this.getAllUsers();
+  static User findUser(String emailId) {
+    return findUser(UserStore.getInstance(), emailId);
   }
 
-  private ArrayList<User> getAllUsers() {
-    ArrayList<User> userData = new ArrayList<User>();
-    if (getNumberOfUsers() != 0) {
-      String line;
-      String filePath = "res/Data/UserData/UserData.csv";
-      try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-        while ((line = br.readLine()) != null) {
-          if (!line.isEmpty()) {
-            String[] values = line.split(",");
-            User user = new User(values[1], values[2], values[0]);
-            userData.add(user);
-          }
-        }
-      } catch (IOException e) {
-        System.out.println("An error occurred while reading the CSV file.");
-        e.printStackTrace();
-
-      } catch (Exception e) {
-        System.out.println("An exception has occurred in getAllUsers" + e.getMessage());
-      }
+  /**
+   * Looks up a single user in the given user store.
+   *
+   * @param users   The store holding the users.
+   * @param emailId The email ID of the user.
+   * @return The user.
+   * @throws IllegalArgumentException if there is no user with that email ID.
+   */
+  static User findUser(UserStore users, String emailId) {
+    User user = users.find(emailId);
+    if (user == null) {
+      throw new IllegalArgumentException("User not found: " + emailId);
     }
-    return userData;
+    return user;
+  }
+
+  /**
+   * Constructs a UserManager backed by the shared user store.
+   */
+  public UserManager() {
+    this(UserStore.getInstance());
+  }
+
+  /**
+   * Constructs a UserManager backed by the given user store.
+   *
+   * @param users The store holding the users.
+   */
+  public UserManager(UserStore users) {
+    this.users = users;
   }
 
   /**
@@ -63,45 +71,27 @@ public class UserManager implements UserManagerInterface {
    */
   @Override
   public int getNumberOfUsers() {
-    String filePath = "res/Data/UserData/UserData.csv";
-    File file = new File(filePath);
-    int userCount = 0;
-    if (!file.exists()) {
-      return userCount;
-    }
-    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-      String line;
-      reader.readLine();
-      while ((line = reader.readLine()) != null) {
-        if (!line.trim().isEmpty()) {
-          userCount++;
-        }
-      }
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-    return userCount;
+    return users.size();
   }
 
 
   /**
    * Retrieves the existing user data for a specific email ID.
    * <p>
-   * This method searches through the users list for a match on the email ID and returns an
-   * ArrayList containing the user's first name, last name, and email ID.
+   * This method looks up the user by email ID and returns an ArrayList containing the user's first
+   * name, last name, and email ID.
    * </p>
    *
    * @param emailId The email ID of the user whose data is to be retrieved.
-   * @return An ArrayList of strings containing the user's data.
+   * @return An ArrayList of strings containing the user's data, empty if the user does not exist.
    */
   public ArrayList<String> getExistingUserData(String emailId) {
     ArrayList<String> existingUserData = new ArrayList<String>();
-    for (User user : users) {
-      if (user.getEmailId().equalsIgnoreCase(emailId)) {
-        existingUserData.add(user.getFirstName());
-        existingUserData.add(user.getLastName());
-        existingUserData.add(user.getEmailId());
-      }
+    User user = users.find(emailId);
+    if (user != null) {
+      existingUserData.add(user.getFirstName());
+      existingUserData.add(user.getLastName());
+      existingUserData.add(user.getEmailId());
     }
     return existingUserData;
   }
@@ -115,27 +105,7 @@ public class UserManager implements UserManagerInterface {
    */
   @Override
   public void saveUserData(String firstName, String lastName, String emailID) {
-    User user = new User(firstName, lastName, emailID);
-    String filePath = "res/Data/UserData/UserData.csv";
-    File csvFile = new File(filePath);
-    boolean appendData = csvFile.exists() && csvFile.isFile() && csvFile.length() > 0;
-
-    if (!csvFile.getParentFile().exists()) {
-      csvFile.getParentFile().mkdirs();
-    }
-
-    try (FileWriter writer = new FileWriter(csvFile, appendData)) {
-      if (!appendData) {
-        writer.append("EmailID,FirstName,LastName\n");
-      }
-      writer.append(user.getEmailId()).append(",")
-          .append(user.getFirstName()).append(",").append(user.getLastName())
-          .append("\n");
-    } catch (IOException e) {
-      System.out.println("An error occurred while appending to the CSV file.");
-      e.printStackTrace();
-    }
-    this.users.add(user);
+    users.put(new User(firstName, lastName, emailID));
   }
 
   /**
@@ -146,13 +116,7 @@ public class UserManager implements UserManagerInterface {
    */
   @Override
   public boolean isExistingUser(String emailId) {
-    boolean exists = false;
-    for (User user : users) {
-      if (user.getEmailId().equalsIgnoreCase(emailId)) {
-        return true;
-      }
-    }
-    return exists;
+    return users.contains(emailId);
   }
 
 
@@ -0,0 +1,281 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the users of the application in an append-only CSV log with an in-memory index keyed by
+ * normalised email ID, so that looking up, counting and adding users take constant time however
+ * many users there are.
+ *
+ * <p>The log keeps the format of the original user file: a header line followed by one
+ * {@code email,firstName,lastName} line per saved user. When an email ID is saved more than once
+ * the latest line wins. Lines written by concurrent callers are grouped into a single append, and
+ * the log is compacted to one line per user once superseded lines outnumber live ones. If the file
+ * is changed by another program, the index is rebuilt on the next access. A rebuilt index is
+ * filled in full before it replaces the old one, so lookups running meanwhile still see every
+ * user.</p>
+ *
+ * <p>A store can instead keep its users in a {@link KeyValueStoreInterface}, one value per user
+ * under the key {@code users/<email>}. The key-value store then takes care of batching and
+ * compaction.</p>
+ */
+public final class UserStore {
+
+  private static final String HEADER = "EmailID,FirstName,LastName";
+  private static final int MIN_COMPACTION_LINES = 1024;
+
+  private static final UserStore INSTANCE =
+      new UserStore(Paths.get("res/Data/UserData/UserData.csv"));
+
+  private static final String KEY_PREFIX = "users/";
+
+  private final Path file;
+  private final KeyValueStoreInterface store;
+  private volatile ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+  private final List<User> pending = new ArrayList<>();
+  private final Object writeLock = new Object();
+  private volatile long knownLength = -1;
+  private int logLines;
+
+  /**
+   * Constructs a store backed by the given log file. The file is read when the store is first
+   * used.
+   *
+   * @param file The user log file.
+   */
+  public UserStore(Path file) {
+    this.file = file;
+    this.store = null;
+  }
+
+  /**
+   * Constructs a user store kept in a key-value store. The users are read when the store is first
+   * used.
+   *
+   * @param store The key-value store holding the users.
+   */
+  public UserStore(KeyValueStoreInterface store) {
+    this.file = null;
+    this.store = store;
+  }
+
+  /**
+   * Returns the store shared by all user managers of the application.
+   *
+   * @return The shared user store.
+   */
+  public static UserStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Looks up a user by email ID, ignoring case and surrounding spaces.
+   *
+   * @param emailId The email ID of the user.
+   * @return The user, or null if there is no user with that email ID.
+   */
+  public User find(String emailId) {
+    ensureCurrent();
+    return users.get(normalize(emailId));
+  }
+
+  /**
+   * Checks whether a user with the email ID exists.
+   *
+   * @param emailId The email ID of the user.
+   * @return true if the user exists.
+   */
+  public boolean contains(String emailId) {
+    return find(emailId) != null;
+  }
+
+  /**
+   * Returns the number of distinct users.
+   *
+   * @return The number of users.
+   */
+  public int size() {
+    ensureCurrent();
+    return users.size();
+  }
+
+  /**
+   * Saves a user, replacing any user with the same email ID. The call returns once the user has
+   * been appended to the log.
+   *
+   * @param user The user to save.
+   */
+  public void put(User user) {
+    ensureCurrent();
+    synchronized (pending) {
+      pending.add(user);
+    }
+    synchronized (writeLock) {
+      List<User> batch;
+      synchronized (pending) {
+        batch = new ArrayList<>(pending);
+        pending.clear();
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      for (User saved : batch) {
+        users.put(normalize(saved.getEmailId()), saved);
+      }
+      if (store != null) {
+        write(batch);
+        return;
+      }
+      append(batch);
+      if (logLines >= MIN_COMPACTION_LINES && logLines > 2 * users.size()) {
+        compact();
+      }
+    }
+  }
+
+  /**
+   * Rewrites the log with a single line per user, dropping superseded lines.
+   */
+  public void compact() {
+    if (store != null) {
+      return;
+    }
+    synchronized (writeLock) {
+      List<String> lines = new ArrayList<>(users.size() + 1);
+      lines.add(HEADER);
+      for (User user : users.values()) {
+        lines.add(line(user));
+      }
+      Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+      try {
+        createParent();
+        Files.write(temporary, lines);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        logLines = users.size();
+        knownLength = Files.size(file);
+      } catch (IOException e) {
+        System.out.println("An error occurred while compacting the user data.");
+      }
+    }
+  }
+
+  private void ensureCurrent() {
+    if (store != null ? knownLength < 0 : currentLength() != knownLength) {
+      synchronized (writeLock) {
+        long length = store != null ? 0 : currentLength();
+        if (length != knownLength) {
+          load(length);
+        }
+      }
+    }
+  }
+
+  private long currentLength() {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private void load(long length) {
+    ConcurrentHashMap<String, User> loaded = new ConcurrentHashMap<>();
+    logLines = 0;
+    if (store != null) {
+      loadFromStore(loaded);
+    } else {
+      loadFromFile(loaded);
+    }
+    users = loaded;
+    knownLength = length;
+  }
+
+  private void loadFromFile(ConcurrentHashMap<String, User> loaded) {
+    try (BufferedReader reader = Files.newBufferedReader(file)) {
+      String line = reader.readLine();
+      while ((line = reader.readLine()) != null) {
+        String[] values = line.split(",");
+        if (values.length >= 3) {
+          loaded.put(normalize(values[0]), new User(values[1], values[2], values[0]));
+          logLines++;
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // No users have been saved yet.
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading the user data.");
+    }
+  }
+
+  private void loadFromStore(ConcurrentHashMap<String, User> loaded) {
+    try {
+      for (String key : store.keys(KEY_PREFIX)) {
+        String[] values = store.get(key).split(",");
+        if (values.length >= 3) {
+          loaded.put(normalize(values[0]), new User(values[1], values[2], values[0]));
+        }
+      }
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading the user data.");
+    }
+  }
+
+  private void write(List<User> batch) {
+    try {
+      for (User user : batch) {
+        store.put(KEY_PREFIX + normalize(user.getEmailId()), line(user));
+      }
+    } catch (IOException e) {
+      System.out.println("An error occurred while writing the user data.");
+    }
+  }
+
+  private void append(List<User> batch) {
+    try {
+      createParent();
+      boolean exists = Files.exists(file) && Files.size(file) > 0;
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND)) {
+        if (!exists) {
+          writer.write(HEADER);
+          writer.newLine();
+        }
+        for (User user : batch) {
+          writer.write(line(user));
+          writer.newLine();
+        }
+      }
+      logLines += batch.size();
+      knownLength = Files.size(file);
+    } catch (IOException e) {
+      System.out.println("An error occurred while appending to the user data.");
+    }
+  }
+
+  private void createParent() throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+  }
+
+  private static String line(User user) {
+    return user.getEmailId() + "," + user.getFirstName() + "," + user.getLastName();
+  }
+
+  private static String normalize(String emailId) {
+    return emailId.trim().toLowerCase(Locale.ROOT);
+  }
+}
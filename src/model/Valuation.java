@@ -0,0 +1,180 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+
+/**
+ * The value of a set of holdings on a single date, broken down by holding. For every ticker it
+ * keeps the shares held, the resolved price and the resulting value, all in fixed-point units (see
+ * {@link FixedPoint}), and the exact total of those values and any cash held.
+ */
+public final class Valuation {
+
+  private final LocalDate date;
+  private final String[] tickers;
+  private final long[] microShares;
+  private final long[] priceUnits;
+  private final long[] valueUnits;
+  private final long cashUnits;
+  private final long totalUnits;
+
+  /**
+   * Constructs a valuation from parallel arrays describing each holding.
+   *
+   * @param date        The date of the valuation.
+   * @param tickers     The ticker symbol of each holding.
+   * @param microShares The shares of each holding, in micro-shares.
+   * @param priceUnits  The price used for each holding, in price units.
+   * @throws IllegalArgumentException if the arrays differ in length.
+   */
+  public Valuation(LocalDate date, String[] tickers, long[] microShares, long[] priceUnits) {
+    this(date, tickers, microShares, priceUnits, 0);
+  }
+
+  /**
+   * Constructs a valuation from parallel arrays describing each holding and a cash balance.
+   *
+   * @param date        The date of the valuation.
+   * @param tickers     The ticker symbol of each holding.
+   * @param microShares The shares of each holding, in micro-shares.
+   * @param priceUnits  The price used for each holding, in price units.
+   * @param cashUnits   The cash held, in price units.
+   * @throws IllegalArgumentException if the arrays differ in length.
+   */
+  public Valuation(LocalDate date, String[] tickers, long[] microShares, long[] priceUnits,
+      long cashUnits) {
+    if (tickers.length != microShares.length || tickers.length != priceUnits.length) {
+      throw new IllegalArgumentException("Holdings and prices must have the same length.");
+    }
+    this.date = date;
+    this.tickers = tickers;
+    this.microShares = microShares;
+    this.priceUnits = priceUnits;
+    this.valueUnits = new long[tickers.length];
+    this.cashUnits = cashUnits;
+    long total = cashUnits;
+    for (int i = 0; i < tickers.length; i++) {
+      valueUnits[i] = FixedPoint.value(microShares[i], priceUnits[i]);
+      total += valueUnits[i];
+    }
+    this.totalUnits = total;
+  }
+
+  /**
+   * Returns a valuation of no holdings.
+   *
+   * @param date The date of the valuation.
+   * @return A valuation with a total of zero.
+   */
+  public static Valuation empty(LocalDate date) {
+    return new Valuation(date, new String[0], new long[0], new long[0]);
+  }
+
+  /**
+   * Returns the date of the valuation.
+   *
+   * @return The valuation date.
+   */
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Returns the number of holdings valued.
+   *
+   * @return The number of holdings.
+   */
+  public int size() {
+    return tickers.length;
+  }
+
+  /**
+   * Returns the ticker of a holding.
+   *
+   * @param index The position of the holding.
+   * @return The ticker symbol.
+   */
+  public String ticker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * Returns the shares of a holding.
+   *
+   * @param index The position of the holding.
+   * @return The number of shares.
+   */
+  public double shares(int index) {
+    return FixedPoint.toShares(microShares[index]);
+  }
+
+  /**
+   * Returns the price used to value a holding.
+   *
+   * @param index The position of the holding.
+   * @return The price per share.
+   */
+  public double price(int index) {
+    return FixedPoint.toDollars(priceUnits[index]);
+  }
+
+  /**
+   * Returns the value of a holding.
+   *
+   * @param index The position of the holding.
+   * @return The value of the holding.
+   */
+  public double value(int index) {
+    return FixedPoint.toDollars(valueUnits[index]);
+  }
+
+  /**
+   * Returns the value of a holding in price units.
+   *
+   * @param index The position of the holding.
+   * @return The value of the holding in price units.
+   */
+  public long valueUnits(int index) {
+    return valueUnits[index];
+  }
+
+  /**
+   * Returns the cash held.
+   *
+   * @return The cash balance.
+   */
+  public double cash() {
+    return FixedPoint.toDollars(cashUnits);
+  }
+
+  /**
+   * Returns the total value of all holdings and cash.
+   *
+   * @return The total value.
+   */
+  public double total() {
+    return FixedPoint.toDollars(totalUnits);
+  }
+
+  /**
+   * Returns the total value of all holdings and cash in price units.
+   *
+   * @return The total value in price units.
+   */
+  public long totalUnits() {
+    return totalUnits;
+  }
+
+  /**
+   * Returns the value contributed by each holding.
+   *
+   * @return A map from ticker symbol to value, in ticker order.
+   */
+  public LinkedHashMap<String, Double> getContributions() {
+    LinkedHashMap<String, Double> contributions = new LinkedHashMap<>();
+    for (int i = 0; i < tickers.length; i++) {
+      contributions.put(tickers[i], value(i));
+    }
+    return contributions;
+  }
+}
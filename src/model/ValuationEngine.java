@@ -0,0 +1,155 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Values a holdings timeline against per-ticker price series. The daily series is produced by a
+ * single merge-join that advances through the holdings change points and every ticker's price
+ * array in step with the calendar, so each price bar and each change point is visited once. The
+ * cash balance travels with the holdings at every change point, so it is added without a second
+ * pass. Sums are accumulated exactly in fixed-point price units.
+ *
+ * <p>Prices are resolved as of the date: a weekend or holiday uses the last bar before it, as long
+ * as that bar is no older than the configured staleness limit.</p>
+ */
+public class ValuationEngine implements ValuationEngineInterface {
+
+  /**
+   * The default largest gap in days between a bar and the date it is used to price, which covers
+   * weekends and the longest market holidays.
+   */
+  public static final int DEFAULT_MAX_STALENESS_DAYS = 5;
+
+  private final int maxStalenessDays;
+
+  /**
+   * Constructs a valuation engine with the default staleness limit.
+   */
+  public ValuationEngine() {
+    this(DEFAULT_MAX_STALENESS_DAYS);
+  }
+
+  /**
+   * Constructs a valuation engine with the given staleness limit.
+   *
+   * @param maxStalenessDays The largest accepted gap in days between a bar and the priced date.
+   */
+  public ValuationEngine(int maxStalenessDays) {
+    if (maxStalenessDays < 0) {
+      throw new IllegalArgumentException("Staleness limit cannot be negative.");
+    }
+    this.maxStalenessDays = maxStalenessDays;
+  }
+
+  @Override
+  public ValueSeries valueSeries(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate start, LocalDate end) {
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("End date should not be before the start date.");
+    }
+    int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+    long[] epochDays = new long[days];
+    double[] values = new double[days];
+
+    LocalDate first = holdings.floorKey(start);
+    Iterable<Map.Entry<LocalDate, Holdings>> changes =
+        holdings.entries(first == null ? start : first, end);
+
+    Map<String, Integer> tickerIds = new HashMap<>();
+    for (Map.Entry<LocalDate, Holdings> change : changes) {
+      Holdings held = change.getValue();
+      for (int k = 0; k < held.size(); k++) {
+        tickerIds.putIfAbsent(held.ticker(k), tickerIds.size());
+      }
+    }
+    PriceSeries[] series = new PriceSeries[tickerIds.size()];
+    for (Map.Entry<String, Integer> entry : tickerIds.entrySet()) {
+      series[entry.getValue()] = prices.getOrDefault(entry.getKey(), PriceSeries.empty());
+    }
+    int[] cursors = new int[series.length];
+
+    Holdings current = Holdings.empty();
+    int[] heldIds = new int[0];
+    Iterator<Map.Entry<LocalDate, Holdings>> changePoints = changes.iterator();
+    Map.Entry<LocalDate, Holdings> nextChange =
+        changePoints.hasNext() ? changePoints.next() : null;
+    double lastValue = 0;
+
+    for (int i = 0; i < days; i++) {
+      long day = start.toEpochDay() + i;
+      while (nextChange != null && nextChange.getKey().toEpochDay() <= day) {
+        current = nextChange.getValue();
+        heldIds = new int[current.size()];
+        for (int k = 0; k < current.size(); k++) {
+          heldIds[k] = tickerIds.get(current.ticker(k));
+        }
+        nextChange = changePoints.hasNext() ? changePoints.next() : null;
+      }
+
+      long total = current.cashUnits();
+      boolean dataAvailable = false;
+      for (int k = 0; k < heldIds.length; k++) {
+        int id = heldIds[k];
+        PriceSeries tickerPrices = series[id];
+        int cursor = cursors[id];
+        while (cursor < tickerPrices.size() && tickerPrices.epochDay(cursor) <= day) {
+          cursor++;
+        }
+        cursors[id] = cursor;
+        int floor = cursor - 1;
+        if (floor >= 0 && day - tickerPrices.epochDay(floor) <= maxStalenessDays) {
+          long close = tickerPrices.closeUnits(floor);
+          if (close > 0) {
+            dataAvailable = true;
+          }
+          total += FixedPoint.value(current.microShares(k), close);
+        }
+      }
+      if (heldIds.length == 0) {
+        lastValue = FixedPoint.toDollars(total);
+      } else if (dataAvailable) {
+        lastValue = FixedPoint.toDollars(total);
+      }
+      epochDays[i] = day;
+      values[i] = lastValue;
+    }
+    return new ValueSeries(epochDays, values);
+  }
+
+  @Override
+  public double valueOn(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate date) {
+    return valuationOn(holdings, prices, date).total();
+  }
+
+  @Override
+  public Valuation valuationOn(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate date) {
+    Map.Entry<LocalDate, Holdings> entry = holdings.floorEntry(date);
+    if (entry == null) {
+      return Valuation.empty(date);
+    }
+    Holdings held = entry.getValue();
+    String[] tickers = new String[held.size()];
+    long[] microShares = new long[held.size()];
+    long[] closes = new long[held.size()];
+    for (int k = 0; k < held.size(); k++) {
+      long close = priceAsOf(prices.getOrDefault(held.ticker(k), PriceSeries.empty()), date);
+      if (close == 0) {
+        throw new IllegalArgumentException("No data found for the given date");
+      }
+      tickers[k] = held.ticker(k);
+      microShares[k] = held.microShares(k);
+      closes[k] = close;
+    }
+    return new Valuation(date, tickers, microShares, closes, held.cashUnits());
+  }
+
+  @Override
+  public long priceAsOf(PriceSeries series, LocalDate date) {
+    return series.closeUnitsAsOf(date, maxStalenessDays);
+  }
+}
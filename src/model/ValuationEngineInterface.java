@@ -0,0 +1,66 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * This interface specifies how portfolio values are computed from a holdings timeline and the
+ * price series of the held tickers. Implementations value a single date or produce a dense daily
+ * value series for a date range.
+ */
+public interface ValuationEngineInterface {
+
+  /**
+   * Computes a dense daily value series for a range of dates. Each ticker is priced at its last bar
+   * on or before the day, within the engine's staleness limit; days on which no held ticker has a
+   * recent enough bar carry the previous day's value forward.
+   *
+   * @param holdings The holdings timeline, mapping each change date to the shares held from then
+   *                 on.
+   * @param prices   The price series of every ticker that appears in the timeline.
+   * @param start    The first date of the series.
+   * @param end      The last date of the series.
+   * @return The value of the holdings on each calendar day from start to end.
+   * @throws IllegalArgumentException if the end date is before the start date.
+   */
+  public ValueSeries valueSeries(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate start, LocalDate end);
+
+  /**
+   * Computes the value of the holdings on a single date, pricing each ticker at its last bar on or
+   * before the date within the engine's staleness limit.
+   *
+   * @param holdings The holdings timeline, mapping each change date to the shares held from then
+   *                 on.
+   * @param prices   The price series of every ticker that appears in the timeline.
+   * @param date     The date of the valuation.
+   * @return The value of the holdings on the given date.
+   * @throws IllegalArgumentException if a held ticker has no bar on or shortly before the date.
+   */
+  public double valueOn(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate date);
+
+  /**
+   * Values the holdings on a single date, keeping the contribution of every holding. Each ticker is
+   * priced as in {@link #valueOn}.
+   *
+   * @param holdings The holdings timeline, mapping each change date to the shares held from then
+   *                 on.
+   * @param prices   The price series of every ticker that appears in the timeline.
+   * @param date     The date of the valuation.
+   * @return The valuation of the holdings on the given date.
+   * @throws IllegalArgumentException if a held ticker has no bar on or shortly before the date.
+   */
+  public Valuation valuationOn(PersistentSortedMap<LocalDate, Holdings> holdings,
+      Map<String, PriceSeries> prices, LocalDate date);
+
+  /**
+   * Resolves the price of a ticker on a date to its last bar on or before that date, within the
+   * engine's staleness limit.
+   *
+   * @param series The price series of the ticker.
+   * @param date   The date to price.
+   * @return The price in price units, or 0 if there is no recent enough bar.
+   */
+  public long priceAsOf(PriceSeries series, LocalDate date);
+}
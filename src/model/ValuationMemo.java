@@ -0,0 +1,380 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent memo of finalized historical portfolio values. Each value is keyed by the portfolio,
+ * a fingerprint of the holdings in effect on the date and the date itself, so a back-dated trade
+ * that changes the holdings on a date simply stops matching the old entries for it. Each entry also
+ * keeps the tickers it holds, so a correction to the stored prices of a ticker drops only the
+ * entries holding that ticker from the corrected day on.
+ *
+ * <p>Only finalized values are memoized: the date must be in the past, every held ticker must have
+ * a bar on or after the date, and every held ticker must be priced. New entries are appended to a
+ * single log file, which is replayed when the memo is first used. The log is rewritten with only
+ * the remaining entries after an invalidation, and after a replay that found superseded or
+ * unreadable lines, so it does not keep growing with entries that no longer count.</p>
+ *
+ * <p>Lookups and records may run on many threads at once; only the first load of the log and the
+ * writes to it are serialized.</p>
+ */
+public class ValuationMemo {
+
+  private static final ValuationMemo INSTANCE =
+      new ValuationMemo(Paths.get("res/Data/Memo/valuations.csv"), Clock.systemDefaultZone());
+
+  private final Path file;
+  private final Clock clock;
+  private final Object log = new Object();
+  private volatile ConcurrentHashMap<Key, Entry> values;
+
+  /**
+   * The portfolio, holdings fingerprint and day a memoized value belongs to.
+   */
+  private static final class Key {
+
+    private final String portfolioKey;
+    private final long fingerprint;
+    private final long epochDay;
+
+    private Key(String portfolioKey, long fingerprint, long epochDay) {
+      this.portfolioKey = portfolioKey;
+      this.fingerprint = fingerprint;
+      this.epochDay = epochDay;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return fingerprint == key.fingerprint && epochDay == key.epochDay
+          && portfolioKey.equals(key.portfolioKey);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = portfolioKey.hashCode();
+      hash = 31 * hash + Long.hashCode(fingerprint);
+      return 31 * hash + Long.hashCode(epochDay);
+    }
+
+    private String toLine(Entry entry) {
+      return "V," + portfolioKey + "," + Long.toHexString(fingerprint) + "," + epochDay + ","
+          + entry.valueUnits + "," + String.join(";", entry.tickers);
+    }
+  }
+
+  /**
+   * A memoized value and the tickers of the holdings it was computed for.
+   */
+  private static final class Entry {
+
+    private final long valueUnits;
+    private final String[] tickers;
+
+    private Entry(long valueUnits, String[] tickers) {
+      this.valueUnits = valueUnits;
+      this.tickers = tickers;
+    }
+
+    private boolean holds(String ticker) {
+      for (String held : tickers) {
+        if (held.equalsIgnoreCase(ticker)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Constructs a memo backed by the given log file.
+   *
+   * @param file  The file the memo is read from and appended to.
+   * @param clock The clock that decides which dates are in the past.
+   */
+  public ValuationMemo(Path file, Clock clock) {
+    this.file = file;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the memo shared by all portfolios of the application.
+   *
+   * @return The shared valuation memo.
+   */
+  public static ValuationMemo getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Looks up the memoized value of holdings on a date. Holdings with no positions and no cash are
+   * worth zero and are always found.
+   *
+   * @param portfolioKey The key of the portfolio.
+   * @param holdings     The holdings in effect on the date.
+   * @param date         The date of the valuation.
+   * @return The value in price units, or null if it has not been memoized.
+   */
+  public Long lookup(String portfolioKey, Holdings holdings, LocalDate date) {
+    return lookup(values(), portfolioKey, holdings, date.toEpochDay());
+  }
+
+  /**
+   * Looks up the memoized value of a portfolio on every day of a range.
+   *
+   * @param portfolioKey The key of the portfolio.
+   * @param timeline     The holdings timeline of the portfolio.
+   * @param start        The first date of the range.
+   * @param end          The last date of the range.
+   * @return The daily value series, or null if any day of the range has not been memoized.
+   */
+  public ValueSeries lookupSeries(String portfolioKey,
+      PersistentSortedMap<LocalDate, Holdings> timeline, LocalDate start, LocalDate end) {
+    Map<Key, Entry> memo = values();
+    int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+    long[] epochDays = new long[days];
+    double[] series = new double[days];
+    for (int i = 0; i < days; i++) {
+      LocalDate date = start.plusDays(i);
+      Long value = lookup(memo, portfolioKey, holdingsOn(timeline, date), date.toEpochDay());
+      if (value == null) {
+        return null;
+      }
+      epochDays[i] = date.toEpochDay();
+      series[i] = FixedPoint.toDollars(value);
+    }
+    return new ValueSeries(epochDays, series);
+  }
+
+  /**
+   * Memoizes the value of holdings on a date if that value is final.
+   *
+   * @param portfolioKey The key of the portfolio.
+   * @param holdings     The holdings in effect on the date.
+   * @param date         The date of the valuation.
+   * @param valueUnits   The value in price units.
+   * @param prices       The price series used for the valuation.
+   * @param engine       The engine that resolved the prices.
+   */
+  public void record(String portfolioKey, Holdings holdings, LocalDate date,
+      long valueUnits, Map<String, PriceSeries> prices, ValuationEngineInterface engine) {
+    List<String> lines = new ArrayList<>(1);
+    put(portfolioKey, holdings, date, valueUnits, prices, engine, lines);
+    append(lines);
+  }
+
+  /**
+   * Memoizes every final value of a daily value series.
+   *
+   * @param portfolioKey The key of the portfolio.
+   * @param timeline     The holdings timeline the series was computed from.
+   * @param series       The daily value series.
+   * @param prices       The price series used for the valuation.
+   * @param engine       The engine that resolved the prices.
+   */
+  public void recordSeries(String portfolioKey,
+      PersistentSortedMap<LocalDate, Holdings> timeline, ValueSeries series,
+      Map<String, PriceSeries> prices, ValuationEngineInterface engine) {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < series.size(); i++) {
+      LocalDate date = series.date(i);
+      put(portfolioKey, holdingsOn(timeline, date), date,
+          FixedPoint.toPriceUnits(series.value(i)), prices, engine, lines);
+    }
+    append(lines);
+  }
+
+  /**
+   * Drops the memoized values of holdings that include a ticker from a day on, after the stored
+   * prices of that ticker were corrected, and rewrites the log without them.
+   *
+   * @param ticker The ticker whose prices changed.
+   * @param from   The first corrected day.
+   */
+  public void invalidateFrom(String ticker, LocalDate from) {
+    long fromDay = from.toEpochDay();
+    Map<Key, Entry> memo = values();
+    synchronized (log) {
+      if (memo.entrySet().removeIf(entry -> entry.getKey().epochDay >= fromDay
+          && entry.getValue().holds(ticker))) {
+        compact(memo);
+      }
+    }
+  }
+
+  private static Long lookup(Map<Key, Entry> memo, String portfolioKey, Holdings holdings,
+      long epochDay) {
+    if (holdings.isEmpty() && holdings.cashUnits() == 0) {
+      return 0L;
+    }
+    Entry entry = memo.get(new Key(portfolioKey, holdings.fingerprint(), epochDay));
+    return entry == null ? null : entry.valueUnits;
+  }
+
+  private void put(String portfolioKey, Holdings holdings, LocalDate date, long valueUnits,
+      Map<String, PriceSeries> prices, ValuationEngineInterface engine, List<String> lines) {
+    if ((holdings.isEmpty() && holdings.cashUnits() == 0)
+        || !isFinal(holdings, date, prices, engine)) {
+      return;
+    }
+    Key key = new Key(portfolioKey, holdings.fingerprint(), date.toEpochDay());
+    String[] tickers = new String[holdings.size()];
+    for (int i = 0; i < tickers.length; i++) {
+      tickers[i] = holdings.ticker(i);
+    }
+    Entry entry = new Entry(valueUnits, tickers);
+    if (values().putIfAbsent(key, entry) == null) {
+      lines.add(key.toLine(entry));
+    }
+  }
+
+  private boolean isFinal(Holdings holdings, LocalDate date, Map<String, PriceSeries> prices,
+      ValuationEngineInterface engine) {
+    if (!date.isBefore(LocalDate.now(clock))) {
+      return false;
+    }
+    for (int i = 0; i < holdings.size(); i++) {
+      PriceSeries series = prices.getOrDefault(holdings.ticker(i), PriceSeries.empty());
+      if (series.isEmpty() || series.epochDay(series.size() - 1) < date.toEpochDay()
+          || engine.priceAsOf(series, date) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Holdings holdingsOn(PersistentSortedMap<LocalDate, Holdings> timeline,
+      LocalDate date) {
+    Map.Entry<LocalDate, Holdings> entry = timeline.floorEntry(date);
+    return entry == null ? Holdings.empty() : entry.getValue();
+  }
+
+  private ConcurrentHashMap<Key, Entry> values() {
+    ConcurrentHashMap<Key, Entry> loaded = values;
+    if (loaded == null) {
+      synchronized (log) {
+        loaded = values;
+        if (loaded == null) {
+          loaded = new ConcurrentHashMap<>();
+          if (replay(loaded)) {
+            compact(loaded);
+          }
+          values = loaded;
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Reads the log into the map, skipping lines that cannot be read. Returns true if the log holds
+   * lines that no longer count, so that it is worth rewriting.
+   */
+  private boolean replay(Map<Key, Entry> memo) {
+    if (!Files.exists(file)) {
+      return false;
+    }
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file);
+    } catch (IOException e) {
+      System.err.println("An error occurred while reading the valuation memo: " + e.getMessage());
+      return false;
+    }
+    int unreadable = 0;
+    boolean superseded = false;
+    for (String line : lines) {
+      try {
+        if (line.startsWith("V,")) {
+          int tickersAt = line.lastIndexOf(',');
+          int valueAt = line.lastIndexOf(',', tickersAt - 1);
+          int dayAt = line.lastIndexOf(',', valueAt - 1);
+          int fingerprintAt = line.lastIndexOf(',', dayAt - 1);
+          if (fingerprintAt < 2) {
+            unreadable++;
+            continue;
+          }
+          Key key = new Key(line.substring(2, fingerprintAt),
+              Long.parseUnsignedLong(line.substring(fingerprintAt + 1, dayAt), 16),
+              Long.parseLong(line.substring(dayAt + 1, valueAt)));
+          String tickers = line.substring(tickersAt + 1);
+          Entry entry = new Entry(Long.parseLong(line.substring(valueAt + 1, tickersAt)),
+              tickers.isEmpty() ? new String[0] : tickers.split(";"));
+          superseded |= memo.put(key, entry) != null;
+        } else if (line.startsWith("I,")) {
+          String[] fields = line.split(",");
+          long fromDay = Long.parseLong(fields[fields.length - 1]);
+          String ticker = fields[1];
+          memo.entrySet().removeIf(entry -> entry.getKey().epochDay >= fromDay
+              && entry.getValue().holds(ticker));
+          superseded = true;
+        } else if (!line.isEmpty()) {
+          unreadable++;
+        }
+      } catch (NumberFormatException e) {
+        unreadable++;
+      }
+    }
+    if (unreadable > 0) {
+      System.err.println("Skipped " + unreadable + " unreadable lines of the valuation memo.");
+    }
+    return superseded || unreadable > 0;
+  }
+
+  /**
+   * Rewrites the log with the given entries. The caller holds the log lock.
+   */
+  private void compact(Map<Key, Entry> memo) {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(temporary)) {
+        for (Map.Entry<Key, Entry> entry : memo.entrySet()) {
+          writer.write(entry.getKey().toLine(entry.getValue()));
+          writer.newLine();
+        }
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.err.println("An error occurred while compacting the valuation memo: "
+          + e.getMessage());
+    }
+  }
+
+  private void append(List<String> lines) {
+    if (lines.isEmpty()) {
+      return;
+    }
+    synchronized (log) {
+      try {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+          for (String line : lines) {
+            writer.write(line);
+            writer.newLine();
+          }
+        }
+      } catch (IOException e) {
+        System.err.println("An error occurred while writing the valuation memo: "
+            + e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class implements a value-averaging strategy for a flexible portfolio. Instead of investing
+ * a fixed amount, each investment trades whatever is needed for the target tickers to be worth a
+ * target value that rises by the amount every interval, and optionally compounds by a growth rate.
+ * When prices have fallen more is bought, and when they have risen past the target the excess is
+ * sold.
+ *
+ * <p>Trades settle through the portfolio's cash: sale proceeds stay in the portfolio as idle cash
+ * and pay for later purchases, and only the shortfall is contributed as a new deposit. The cash is
+ * kept in the holdings history next to the shares, so valuing the portfolio still takes a single
+ * pass.</p>
+ *
+ * <p>Each investment is made on the first day on or after its scheduled date on which every
+ * target ticker has a price, and the next one is scheduled the interval after it. Positions and
+ * cash are simulated in fixed-point units and the resulting ledger entries are applied in date
+ * order, so a long simulation is linear in the number of days.</p>
+ */
+public class ValueAveragingStrategy implements Strategy {
+
+  private final FlexiblePortfolioInterface flexiblePortfolioInterface;
+  private final DataFreshnessManagerInterface dataFreshnessManager;
+  private final double growthRate;
+
+  /**
+   * Constructs a value-averaging strategy whose target rises by the amount alone.
+   *
+   * @param flexiblePortfolioInterface The portfolio to invest in.
+   */
+  public ValueAveragingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface) {
+    this(flexiblePortfolioInterface, DataFreshnessManager.getInstance(), 0);
+  }
+
+  /**
+   * Constructs a value-averaging strategy whose target rises by the amount alone, with the given
+   * source of prices.
+   *
+   * @param flexiblePortfolioInterface The portfolio to invest in.
+   * @param dataFreshnessManager       The source of the price series.
+   */
+  public ValueAveragingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                                DataFreshnessManagerInterface dataFreshnessManager) {
+    this(flexiblePortfolioInterface, dataFreshnessManager, 0);
+  }
+
+  /**
+   * Constructs a value-averaging strategy.
+   *
+   * @param flexiblePortfolioInterface The portfolio to invest in.
+   * @param dataFreshnessManager       The source of the price series.
+   * @param growthRate                 The rate by which the target value grows each interval
+   *                                   before the amount is added, as a fraction.
+   * @throws IllegalArgumentException if the growth rate is negative.
+   */
+  public ValueAveragingStrategy(FlexiblePortfolioInterface flexiblePortfolioInterface,
+                                DataFreshnessManagerInterface dataFreshnessManager,
+                                double growthRate) {
+    if (!(growthRate >= 0)) {
+      throw new IllegalArgumentException("Growth rate cannot be negative.");
+    }
+    this.flexiblePortfolioInterface = flexiblePortfolioInterface;
+    this.dataFreshnessManager = dataFreshnessManager;
+    this.growthRate = growthRate;
+  }
+
+  /**
+   * Raises the value of the target tickers by an amount on a single date, trading each to its
+   * share of the new total. Purchases are paid from the portfolio's cash first.
+   *
+   * @param amount     The amount by which to raise the value of the target tickers.
+   * @param stockRatio The target weight of each ticker.
+   * @param date       The date on which to trade.
+   * @throws IllegalArgumentException if the date is in the future, the weights are invalid or a
+   *                                  ticker has no price on the date.
+   */
+  @Override
+  public void invest(double amount, HashMap<String, Double> stockRatio, LocalDate date) {
+    StrategySupport.checkTradeDate(date);
+    StrategySupport.checkWeights(amount, stockRatio);
+    Map<String, PriceSeries> prices =
+        StrategySupport.loadPrices(dataFreshnessManager, stockRatio, date);
+    Book book = new Book(stockRatio, flexiblePortfolioInterface.getHoldings(date));
+    System.arraycopy(StrategySupport.closesOn(book.tickers, prices, date), 0, book.closes, 0,
+        book.size());
+    Ledger ledger = new Ledger();
+    book.trade(book.value() + FixedPoint.toPriceUnits(amount), date.toEpochDay(), ledger);
+    ledger.applyTo(flexiblePortfolioInterface, book.tickers);
+  }
+
+  /**
+   * Invests at regular intervals so that the target tickers are worth their value at the first
+   * investment plus the amount for every investment made, compounded by the growth rate.
+   *
+   * @param amount       The amount by which the target value rises each interval.
+   * @param stockRatio   The target weight of each ticker.
+   * @param startDate    The start date for the periodic investment.
+   * @param endDate      The end date for the periodic investment.
+   * @param intervalDays The number of days between each investment.
+   * @throws IllegalArgumentException if the dates, interval or weights are invalid.
+   */
+  @Override
+  public void investPeriodically(double amount, HashMap<String, Double> stockRatio,
+                                 LocalDate startDate, LocalDate endDate, long intervalDays) {
+    endDate = StrategySupport.checkPeriod(startDate, endDate, intervalDays);
+    StrategySupport.checkIntervalFits(startDate, endDate, intervalDays);
+    StrategySupport.checkWeights(amount, stockRatio);
+
+    Map<String, PriceSeries> prices =
+        StrategySupport.loadPrices(dataFreshnessManager, stockRatio, endDate);
+    Book book = new Book(stockRatio, flexiblePortfolioInterface.getHoldings(startDate));
+    StrategySupport.PriceSweep sweep =
+        new StrategySupport.PriceSweep(book.tickers, prices, startDate, endDate);
+
+    double contribution = FixedPoint.toPriceUnits(amount);
+    double target = Double.NaN;
+    long nextInvestment = startDate.toEpochDay();
+    Ledger ledger = new Ledger();
+    while (sweep.next()) {
+      for (int t = 0; t < book.size(); t++) {
+        if (sweep.close(t) > 0) {
+          book.closes[t] = sweep.close(t);
+        }
+      }
+      long day = sweep.day();
+      if (!sweep.allPriced() || day < nextInvestment) {
+        continue;
+      }
+      target = Double.isNaN(target) ? book.value() + contribution
+              : target * (1 + growthRate) + contribution;
+      book.trade(target, day, ledger);
+      nextInvestment = day + intervalDays;
+    }
+    ledger.applyTo(flexiblePortfolioInterface, book.tickers);
+  }
+
+  /**
+   * The positions in the target tickers, their latest prices and the cash held, all in
+   * fixed-point units.
+   */
+  private static final class Book {
+
+    private final String[] tickers;
+    private final double[] targets;
+    private final long[] microShares;
+    private final long[] closes;
+    private long cash;
+
+    Book(Map<String, Double> stockRatio, Holdings holdings) {
+      tickers = StrategySupport.sortedTickers(stockRatio);
+      int size = tickers.length;
+      targets = new double[size];
+      microShares = new long[size];
+      closes = new long[size];
+      for (int t = 0; t < size; t++) {
+        targets[t] = stockRatio.get(tickers[t]);
+        microShares[t] = holdings.microSharesOf(tickers[t]);
+      }
+      cash = holdings.cashUnits();
+    }
+
+    int size() {
+      return tickers.length;
+    }
+
+    long value() {
+      long total = 0;
+      for (int t = 0; t < tickers.length; t++) {
+        total += FixedPoint.value(microShares[t], closes[t]);
+      }
+      return total;
+    }
+
+    /**
+     * Trades every position to its weight of the target value. Sales are made first and their
+     * proceeds kept as cash; any cash still missing for the purchases is deposited.
+     */
+    void trade(double target, long day, Ledger ledger) {
+      long[] deltas = new long[tickers.length];
+      long cost = 0;
+      for (int t = 0; t < tickers.length; t++) {
+        double gap = targets[t] * target - FixedPoint.value(microShares[t], closes[t]);
+        deltas[t] = Math.max(FixedPoint.toMicroShares(gap / closes[t]), -microShares[t]);
+        if (deltas[t] < 0) {
+          long proceeds = FixedPoint.value(-deltas[t], closes[t]);
+          ledger.add(day, t, deltas[t], proceeds);
+          microShares[t] += deltas[t];
+          cash += proceeds;
+        } else if (deltas[t] > 0) {
+          cost += FixedPoint.value(deltas[t], closes[t]);
+        }
+      }
+      if (cost > cash) {
+        ledger.add(day, -1, 0, cost - cash);
+        cash = cost;
+      }
+      for (int t = 0; t < tickers.length; t++) {
+        if (deltas[t] > 0) {
+          long price = FixedPoint.value(deltas[t], closes[t]);
+          ledger.add(day, t, deltas[t], price);
+          microShares[t] += deltas[t];
+          cash -= price;
+        }
+      }
+    }
+  }
+
+  /**
+   * The entries of a simulation in the order they are made, held in growable primitive arrays.
+   * Each entry is a deposit, marked by a ticker of -1, a sale with a negative number of shares or
+   * a purchase, with the cash that changes hands.
+   */
+  private static final class Ledger {
+
+    private long[] epochDays = new long[16];
+    private int[] tickers = new int[16];
+    private long[] microShares = new long[16];
+    private long[] cash = new long[16];
+    private int size;
+
+    void add(long epochDay, int ticker, long shares, long cashUnits) {
+      if (size == epochDays.length) {
+        epochDays = Arrays.copyOf(epochDays, size * 2);
+        tickers = Arrays.copyOf(tickers, size * 2);
+        microShares = Arrays.copyOf(microShares, size * 2);
+        cash = Arrays.copyOf(cash, size * 2);
+      }
+      epochDays[size] = epochDay;
+      tickers[size] = ticker;
+      microShares[size] = shares;
+      cash[size] = cashUnits;
+      size++;
+    }
+
+    void applyTo(FlexiblePortfolioInterface portfolio, String[] names) {
+      for (int i = 0; i < size; i++) {
+        LocalDate date = LocalDate.ofEpochDay(epochDays[i]);
+        double amount = FixedPoint.toDollars(cash[i]);
+        if (tickers[i] < 0) {
+          portfolio.deposit(amount, date);
+        } else if (microShares[i] > 0) {
+          portfolio.buyWithCash(names[tickers[i]], FixedPoint.toShares(microShares[i]), amount,
+                  date);
+        } else {
+          portfolio.sellForCash(names[tickers[i]], FixedPoint.toShares(-microShares[i]), amount,
+                  date);
+        }
+      }
+    }
+  }
+}
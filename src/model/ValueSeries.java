@@ -0,0 +1,134 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A dense, date-ascending series of portfolio values with one entry per calendar day. Produced by
+ * the {@link ValuationEngine} and read by valuation, performance charts and return metrics.
+ */
+public final class ValueSeries {
+
+  private final long[] epochDays;
+  private final double[] values;
+
+  /**
+   * Constructs a value series from parallel arrays of epoch days and values.
+   *
+   * @param epochDays The days of the series as epoch days, in ascending order.
+   * @param values    The portfolio value on each day.
+   */
+  public ValueSeries(long[] epochDays, double[] values) {
+    if (epochDays.length != values.length) {
+      throw new IllegalArgumentException("Dates and values must have the same length.");
+    }
+    this.epochDays = epochDays;
+    this.values = values;
+  }
+
+  /**
+   * Returns the number of days in the series.
+   *
+   * @return The size of the series.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Returns the day at a position in the series.
+   *
+   * @param index The position in the series.
+   * @return The day as an epoch day.
+   */
+  public long epochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Returns the day at a position in the series as a date.
+   *
+   * @param index The position in the series.
+   * @return The date.
+   */
+  public LocalDate date(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]);
+  }
+
+  /**
+   * Returns the value at a position in the series.
+   *
+   * @param index The position in the series.
+   * @return The portfolio value.
+   */
+  public double value(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the part of the series that falls on trading days, dropping weekends and holidays.
+   *
+   * @param calendar The trading calendar.
+   * @return The values on trading days, or this series if none of its days are trading days.
+   */
+  public ValueSeries onTradingDays(TradingCalendar calendar) {
+    long[] tradingDays = new long[epochDays.length];
+    double[] tradingValues = new double[values.length];
+    int size = 0;
+    for (int i = 0; i < epochDays.length; i++) {
+      if (calendar.isTradingDay(epochDays[i])) {
+        tradingDays[size] = epochDays[i];
+        tradingValues[size] = values[i];
+        size++;
+      }
+    }
+    if (size == 0) {
+      return this;
+    }
+    return new ValueSeries(Arrays.copyOf(tradingDays, size), Arrays.copyOf(tradingValues, size));
+  }
+
+  /**
+   * Returns the largest value in the series.
+   *
+   * @return The maximum value, or 0 if the series is empty.
+   */
+  public double maxValue() {
+    double max = 0;
+    for (double value : values) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+
+  /**
+   * Returns the simple return from the first non-zero value to the last value of the series.
+   *
+   * @return The total return as a fraction, or 0 if the portfolio never held any value.
+   */
+  public double totalReturn() {
+    for (double value : values) {
+      if (value > 0) {
+        return values[values.length - 1] / value - 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the largest peak-to-trough decline of the series.
+   *
+   * @return The maximum drawdown as a non-negative fraction of the peak.
+   */
+  public double maxDrawdown() {
+    double peak = 0;
+    double drawdown = 0;
+    for (double value : values) {
+      peak = Math.max(peak, value);
+      if (peak > 0) {
+        drawdown = Math.max(drawdown, (peak - value) / peak);
+      }
+    }
+    return drawdown;
+  }
+}
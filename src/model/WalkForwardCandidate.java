@@ -0,0 +1,85 @@
+package model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * One set of strategy parameters that a walk-forward run may choose for a window: the strategy,
+ * already configured by its factory, the weights of the tickers and the interval between
+ * investments. Candidates are immutable and compared by identity, so the same candidate object
+ * should be passed to every run that is meant to share cached results.
+ */
+public final class WalkForwardCandidate {
+
+  private final String name;
+  private final BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+      strategyFactory;
+  private final Map<String, Double> stockRatio;
+  private final long intervalDays;
+
+  /**
+   * Constructs a candidate.
+   *
+   * @param name            A short name for the candidate, used when reporting the choices.
+   * @param strategyFactory Builds the strategy for a simulated portfolio and price source, for
+   *                        example {@code (p, s) -> new SignalStrategy(p, s, 20, 50, 1)}.
+   * @param stockRatio      The share of the amount invested in each ticker.
+   * @param intervalDays    The number of days between investments.
+   * @throws IllegalArgumentException if the interval is not positive.
+   */
+  public WalkForwardCandidate(String name,
+      BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+          strategyFactory, Map<String, Double> stockRatio, long intervalDays) {
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("Interval days must be greater than 0.");
+    }
+    this.name = name;
+    this.strategyFactory = strategyFactory;
+    this.stockRatio = Collections.unmodifiableMap(new HashMap<>(stockRatio));
+    this.intervalDays = intervalDays;
+  }
+
+  /**
+   * Returns the name of the candidate.
+   *
+   * @return The name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the factory that builds the candidate's strategy.
+   *
+   * @return The strategy factory.
+   */
+  public BiFunction<FlexiblePortfolioInterface, DataFreshnessManagerInterface, Strategy>
+      getStrategyFactory() {
+    return strategyFactory;
+  }
+
+  /**
+   * Returns the share of the amount invested in each ticker.
+   *
+   * @return An unmodifiable map of ticker symbols to weights.
+   */
+  public Map<String, Double> getStockRatio() {
+    return stockRatio;
+  }
+
+  /**
+   * Returns the number of days between investments.
+   *
+   * @return The interval in days.
+   */
+  public long getIntervalDays() {
+    return intervalDays;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates strategies walk-forward over a fixed set of price series. On each training window every
+ * candidate is backtested with a {@link BacktestEngine}, the one with the best return is chosen,
+ * and it is then backtested on the out-of-sample window that follows.
+ *
+ * <p>The backtest of a candidate over a window depends only on the candidate, the amount and the
+ * window bounds, so results are cached under those keys and shared by every window and run of this
+ * runner. Overlapping runs, and an out-of-sample window that is also a later training window, reuse
+ * the earlier backtest instead of replaying the strategy. Windows do not depend on each other and
+ * run in parallel on a fork-join pool.</p>
+ */
+public class WalkForwardRunner implements WalkForwardRunnerInterface {
+
+  /**
+   * The default largest number of window backtests kept in the cache.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 4096;
+
+  private final Map<String, PriceSeries> prices;
+  private final ForkJoinPool pool;
+  private final SoftLruCache<WindowKey, BacktestResult> results;
+
+  /**
+   * Constructs a walk-forward runner that runs on the common fork-join pool.
+   *
+   * @param prices The price series of every ticker the candidates may invest in.
+   */
+  public WalkForwardRunner(Map<String, PriceSeries> prices) {
+    this(prices, ForkJoinPool.commonPool(), DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Constructs a walk-forward runner.
+   *
+   * @param prices    The price series of every ticker the candidates may invest in.
+   * @param pool      The pool the windows run on.
+   * @param cacheSize The largest number of window backtests kept in the cache.
+   * @throws IllegalArgumentException if the cache size is not positive.
+   */
+  public WalkForwardRunner(Map<String, PriceSeries> prices, ForkJoinPool pool, int cacheSize) {
+    this.prices = Collections.unmodifiableMap(new HashMap<>(prices));
+    this.pool = pool;
+    this.results = new SoftLruCache<>(cacheSize);
+  }
+
+  @Override
+  public List<WalkForwardWindow> run(double amount, List<WalkForwardCandidate> candidates,
+      LocalDate startDate, LocalDate endDate, int trainDays, int testDays) {
+    if (candidates.isEmpty()) {
+      throw new IllegalArgumentException("At least one candidate is needed.");
+    }
+    if (trainDays <= 0 || testDays <= 0) {
+      throw new IllegalArgumentException("Window lengths must be positive.");
+    }
+    long first = startDate.toEpochDay() + trainDays;
+    long count = (endDate.toEpochDay() - first + 1) / testDays;
+    if (count <= 0) {
+      throw new IllegalArgumentException(
+          "The dates leave no room for an out-of-sample window.");
+    }
+
+    Map<WalkForwardCandidate, BacktestEngineInterface> engines = new IdentityHashMap<>();
+    for (WalkForwardCandidate candidate : candidates) {
+      engines.computeIfAbsent(candidate,
+          c -> new BacktestEngine(prices, c.getStrategyFactory(), pool));
+    }
+    WalkForwardWindow[] windows = new WalkForwardWindow[(int) count];
+    pool.invoke(new RunWindows(amount, candidates, engines, startDate.toEpochDay(), trainDays,
+        testDays, windows, 0, windows.length));
+    return Arrays.asList(windows);
+  }
+
+  private WalkForwardWindow runWindow(double amount, List<WalkForwardCandidate> candidates,
+      Map<WalkForwardCandidate, BacktestEngineInterface> engines, LocalDate trainStart,
+      LocalDate testStart, LocalDate testEnd) {
+    LocalDate trainEnd = testStart.minusDays(1);
+    WalkForwardCandidate best = null;
+    BacktestResult bestResult = null;
+    for (WalkForwardCandidate candidate : candidates) {
+      BacktestResult result = backtest(amount, candidate, engines.get(candidate), trainStart,
+          trainEnd);
+      if (bestResult == null || BacktestResult.BY_RETURN.compare(result, bestResult) < 0) {
+        best = candidate;
+        bestResult = result;
+      }
+    }
+    return new WalkForwardWindow(best, bestResult,
+        backtest(amount, best, engines.get(best), testStart, testEnd));
+  }
+
+  private BacktestResult backtest(double amount, WalkForwardCandidate candidate,
+      BacktestEngineInterface engine, LocalDate start, LocalDate end) {
+    WindowKey key = new WindowKey(candidate, amount, start.toEpochDay(), end.toEpochDay());
+    BacktestResult result = results.get(key);
+    if (result == null) {
+      result = engine.run(new BacktestScenario(amount, candidate.getStockRatio(), start, end,
+          candidate.getIntervalDays()));
+      results.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Runs a range of windows, splitting it in halves until a single window is left.
+   */
+  private final class RunWindows extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double amount;
+    private final List<WalkForwardCandidate> candidates;
+    private final Map<WalkForwardCandidate, BacktestEngineInterface> engines;
+    private final long startDay;
+    private final int trainDays;
+    private final int testDays;
+    private final WalkForwardWindow[] windows;
+    private final int from;
+    private final int to;
+
+    RunWindows(double amount, List<WalkForwardCandidate> candidates,
+        Map<WalkForwardCandidate, BacktestEngineInterface> engines, long startDay,
+        int trainDays, int testDays, WalkForwardWindow[] windows, int from, int to) {
+      this.amount = amount;
+      this.candidates = candidates;
+      this.engines = engines;
+      this.startDay = startDay;
+      this.trainDays = trainDays;
+      this.testDays = testDays;
+      this.windows = windows;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        long trainStart = startDay + (long) from * testDays;
+        long testStart = trainStart + trainDays;
+        windows[from] = runWindow(amount, candidates, engines, LocalDate.ofEpochDay(trainStart),
+            LocalDate.ofEpochDay(testStart), LocalDate.ofEpochDay(testStart + testDays - 1));
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RunWindows(amount, candidates, engines, startDay, trainDays, testDays,
+              windows, from, middle),
+          new RunWindows(amount, candidates, engines, startDay, trainDays, testDays, windows,
+              middle, to));
+    }
+  }
+
+  /**
+   * The key of a cached backtest: the candidate, compared by identity, the amount and the bounds
+   * of the window as epoch days.
+   */
+  private static final class WindowKey {
+
+    private final WalkForwardCandidate candidate;
+    private final double amount;
+    private final long startDay;
+    private final long endDay;
+
+    WindowKey(WalkForwardCandidate candidate, double amount, long startDay, long endDay) {
+      this.candidate = candidate;
+      this.amount = amount;
+      this.startDay = startDay;
+      this.endDay = endDay;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof WindowKey)) {
+        return false;
+      }
+      WindowKey key = (WindowKey) other;
+      return candidate == key.candidate && Double.compare(amount, key.amount) == 0
+          && startDay == key.startDay && endDay == key.endDay;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(candidate), amount, startDay, endDay);
+    }
+  }
+}
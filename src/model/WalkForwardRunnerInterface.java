@@ -0,0 +1,30 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This interface specifies how strategies are evaluated walk-forward. The candidates are fitted on
+ * a training window, the best of them is applied to the out-of-sample window that follows, and
+ * both windows then roll forward by the length of the out-of-sample window.
+ */
+public interface WalkForwardRunnerInterface {
+
+  /**
+   * Runs a walk-forward evaluation. The first training window starts on the start date. Only whole
+   * out-of-sample windows are run, so days after the last one that fit before the end date are
+   * left out.
+   *
+   * @param amount     The amount invested in each interval.
+   * @param candidates The parameter sets to choose from on every training window.
+   * @param startDate  The first day of the first training window.
+   * @param endDate    The last day an out-of-sample window may reach.
+   * @param trainDays  The number of days in each training window.
+   * @param testDays   The number of days in each out-of-sample window.
+   * @return The windows, in date order.
+   * @throws IllegalArgumentException if there are no candidates, the windows are not positive or
+   *                                  the dates leave no room for an out-of-sample window.
+   */
+  public List<WalkForwardWindow> run(double amount, List<WalkForwardCandidate> candidates,
+      LocalDate startDate, LocalDate endDate, int trainDays, int testDays);
+}
@@ -0,0 +1,98 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * One step of a walk-forward run: the training window the candidates were fitted on, the candidate
+ * that did best there, and how that candidate then did on the out-of-sample window that follows.
+ */
+public final class WalkForwardWindow {
+
+  private final WalkForwardCandidate candidate;
+  private final BacktestResult inSample;
+  private final BacktestResult outOfSample;
+
+  /**
+   * Constructs a window.
+   *
+   * @param candidate   The candidate chosen on the training window.
+   * @param inSample    The backtest of the chosen candidate over the training window.
+   * @param outOfSample The backtest of the chosen candidate over the out-of-sample window.
+   */
+  WalkForwardWindow(WalkForwardCandidate candidate, BacktestResult inSample,
+      BacktestResult outOfSample) {
+    this.candidate = candidate;
+    this.inSample = inSample;
+    this.outOfSample = outOfSample;
+  }
+
+  /**
+   * Returns the candidate chosen on the training window.
+   *
+   * @return The candidate.
+   */
+  public WalkForwardCandidate getCandidate() {
+    return candidate;
+  }
+
+  /**
+   * Returns the first day of the training window.
+   *
+   * @return The training start date.
+   */
+  public LocalDate getTrainingStart() {
+    return inSample.getScenario().getStartDate();
+  }
+
+  /**
+   * Returns the last day of the training window.
+   *
+   * @return The training end date.
+   */
+  public LocalDate getTrainingEnd() {
+    return inSample.getScenario().getEndDate();
+  }
+
+  /**
+   * Returns the first day of the out-of-sample window.
+   *
+   * @return The test start date.
+   */
+  public LocalDate getTestStart() {
+    return outOfSample.getScenario().getStartDate();
+  }
+
+  /**
+   * Returns the last day of the out-of-sample window.
+   *
+   * @return The test end date.
+   */
+  public LocalDate getTestEnd() {
+    return outOfSample.getScenario().getEndDate();
+  }
+
+  /**
+   * Returns the backtest of the chosen candidate over the training window.
+   *
+   * @return The in-sample result.
+   */
+  public BacktestResult getInSample() {
+    return inSample;
+  }
+
+  /**
+   * Returns the backtest of the chosen candidate over the out-of-sample window.
+   *
+   * @return The out-of-sample result.
+   */
+  public BacktestResult getOutOfSample() {
+    return outOfSample;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s to %s: %s, in-sample=%.2f%%, out-of-sample=%.2f%%",
+        getTestStart(), getTestEnd(), candidate, inSample.getTotalReturn() * 100,
+        outOfSample.getTotalReturn() * 100);
+  }
+}
@@ -0,0 +1,38 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Mock clock that starts at the epoch and only moves when a test advances it, so that idle
+ * timeouts can be checked without waiting.
+ */
+public class MockClock extends Clock {
+
+  private volatile long millis;
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return this;
+  }
+
+  @Override
+  public Instant instant() {
+    return Instant.ofEpochMilli(millis);
+  }
+
+  /**
+   * Moves the clock forward.
+   *
+   * @param duration How far to move the clock.
+   */
+  public void advance(Duration duration) {
+    millis += duration.toMillis();
+  }
+}
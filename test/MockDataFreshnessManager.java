@@ -0,0 +1,81 @@
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import model.DataFreshnessManagerInterface;
+import model.PriceSeries;
+import model.RefreshPolicy;
+import model.TradingCalendar;
+
+/**
+ * Mock implementation of DataFreshnessManager that serves a fixed map of price series. The map is
+ * read on every call, so tests can replace a series to simulate a refresh, and nothing is ever
+ * loaded from disk or the network.
+ */
+public class MockDataFreshnessManager implements DataFreshnessManagerInterface {
+
+  private final Map<String, PriceSeries> prices;
+
+  /**
+   * Constructs a mock price source over the given series.
+   *
+   * @param prices The price series of each ticker, shared with the test.
+   */
+  public MockDataFreshnessManager(Map<String, PriceSeries> prices) {
+    this.prices = prices;
+  }
+
+  @Override
+  public PriceSeries getPriceSeries(String ticker, LocalDate date) {
+    return prices.getOrDefault(ticker, PriceSeries.empty());
+  }
+
+  @Override
+  public Map<String, PriceSeries> getPriceSeries(Collection<String> tickers, LocalDate date) {
+    Map<String, PriceSeries> series = new HashMap<>();
+    for (String ticker : tickers) {
+      series.put(ticker, getPriceSeries(ticker, date));
+    }
+    return series;
+  }
+
+  @Override
+  public PriceSeries getPriceSeriesForTrade(String ticker, LocalDate date) {
+    return getPriceSeries(ticker, date);
+  }
+
+  @Override
+  public TradingCalendar getTradingCalendar(Collection<String> tickers, LocalDate date) {
+    return TradingCalendar.union(getPriceSeries(tickers, date).values());
+  }
+
+  @Override
+  public boolean isRefreshDue(String ticker, LocalDate date) {
+    return false;
+  }
+
+  @Override
+  public void refresh(String ticker) {
+    // Tests replace the series directly.
+  }
+
+  @Override
+  public void invalidate(String ticker) {
+    // Tests replace the series directly.
+  }
+
+  @Override
+  public LocalDate getLastBarDate(String ticker) {
+    return null;
+  }
+
+  @Override
+  public void setPolicy(RefreshPolicy policy) {
+    // There is no refresh policy to apply.
+  }
+
+  @Override
+  public void shutdown() {
+    // There is no worker to stop.
+  }
+}
@@ -47,4 +47,9 @@ public class MockModelInterface implements ModelInterface {
     this.stockAnalysis = stockAnalysis;
     return stockAnalysis;
   }
+
+  @Override
+  public void closeSession(String emailId) {
+    log.append("Close session called with input " + emailId + ".");
+  }
 }
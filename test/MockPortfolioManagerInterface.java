@@ -2,7 +2,9 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import model.NetWorth;
 import model.PortfolioManagerInterface;
+import model.ValueSeries;
 
 /**
  * Mock implementation of PortfolioManager to test controller inputs and outputs.
@@ -181,6 +183,25 @@ public class MockPortfolioManagerInterface implements PortfolioManagerInterface
     return false;
   }
 
+  @Override
+  public ValueSeries getPortfolioValueSeries(String portfolioName, LocalDate startDate,
+      LocalDate endDate) throws IOException {
+    log.append("getPortfolioValueSeries method called.");
+    return new ValueSeries(new long[]{startDate.toEpochDay()}, new double[]{100.0});
+  }
+
+  @Override
+  public NetWorth getNetWorth(LocalDate date) throws IOException {
+    log.append("getNetWorth method called.");
+    return null;
+  }
+
+  @Override
+  public NetWorth getNetWorth(LocalDate startDate, LocalDate endDate) throws IOException {
+    log.append("getNetWorth method called.");
+    return null;
+  }
+
   @Override
   public void invest(String portfolioName, String strategyName, double amount,
       HashMap<String, Double> stockRatio, LocalDate date) {
@@ -0,0 +1,88 @@
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import model.FixedPoint;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+
+/**
+ * Builders for the price series and holdings checks shared by the strategy tests. Every series
+ * has one bar per calendar day, so day i of a series is its start date plus i days.
+ */
+public final class PriceFixtures {
+
+  private PriceFixtures() {
+  }
+
+  /**
+   * Returns the consecutive epoch days starting at a date.
+   *
+   * @param first The first date.
+   * @param days  The number of days.
+   * @return The epoch days.
+   */
+  public static long[] rangeFrom(LocalDate first, int days) {
+    long[] epochDays = new long[days];
+    for (int i = 0; i < days; i++) {
+      epochDays[i] = first.toEpochDay() + i;
+    }
+    return epochDays;
+  }
+
+  /**
+   * Returns a series with one close on each day from a start date.
+   *
+   * @param start  The date of the first close.
+   * @param closes The closing prices.
+   * @return The price series.
+   */
+  public static PriceSeries daily(LocalDate start, double... closes) {
+    return new PriceSeries(rangeFrom(start, closes.length), closes);
+  }
+
+  /**
+   * Returns a series with the same close on each day from a start date.
+   *
+   * @param start The date of the first close.
+   * @param days  The number of days.
+   * @param close The closing price.
+   * @return The price series.
+   */
+  public static PriceSeries flat(LocalDate start, int days, double close) {
+    double[] closes = new double[days];
+    for (int i = 0; i < days; i++) {
+      closes[i] = close;
+    }
+    return daily(start, closes);
+  }
+
+  /**
+   * Returns closing prices that start near 100 and move by a random fraction each day.
+   *
+   * @param random The source of the moves, shared between walks so tickers differ.
+   * @param days   The number of days.
+   * @param range  The width of the daily move, as a fraction of the close.
+   * @return The closing prices.
+   */
+  public static double[] randomWalk(SplittableRandom random, int days, double range) {
+    double[] closes = new double[days];
+    double close = 100;
+    for (int i = 0; i < days; i++) {
+      close *= 1 + (random.nextDouble() - 0.5) * range;
+      closes[i] = close;
+    }
+    return closes;
+  }
+
+  /**
+   * Returns the shares of a ticker a portfolio holds on a date.
+   *
+   * @param portfolio The portfolio.
+   * @param ticker    The ticker symbol of the stock.
+   * @param date      The date.
+   * @return The number of shares held.
+   */
+  public static double sharesOf(FlexiblePortfolioInterface portfolio, String ticker,
+      LocalDate date) {
+    return FixedPoint.toShares(portfolio.getHoldings(date).microSharesOf(ticker));
+  }
+}
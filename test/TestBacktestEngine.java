@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import model.BacktestEngine;
+import model.BacktestEngineInterface;
+import model.BacktestResult;
+import model.BacktestScenario;
+import model.DollarCostAveragingStrategy;
+import model.PriceSeries;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the BacktestEngine class. It checks the
+ * measured investment, value and drawdown of a scenario, and that a parallel grid run ranks the
+ * same results as running each scenario on its own.
+ */
+public class TestBacktestEngine {
+
+  private static final LocalDate START = LocalDate.parse("2023-01-02");
+
+  private Map<String, Double> weights(double aapl, double msft) {
+    Map<String, Double> weights = new HashMap<>();
+    weights.put("AAPL", aapl);
+    weights.put("MSFT", msft);
+    return weights;
+  }
+
+  @Test
+  public void testScenarioIsMeasured() {
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.daily(START, 100, 50, 50, 100, 100));
+    BacktestEngineInterface engine =
+        new BacktestEngine(prices, DollarCostAveragingStrategy::new);
+    Map<String, Double> weights = new HashMap<>();
+    weights.put("AAPL", 1.0);
+
+    BacktestResult result = engine.run(
+        new BacktestScenario(100, weights, START, START.plusDays(4), 2));
+
+    assertEquals(300, result.getInvested(), 0.01);
+    assertEquals(400, result.getFinalValue(), 0.01);
+    assertEquals(1.0 / 3, result.getTotalReturn(), 0.0001);
+    assertEquals(0.5, result.getMaxDrawdown(), 0.0001);
+  }
+
+  @Test
+  public void testGridIsRankedAndMatchesSingleRuns() {
+    double[] aapl = new double[400];
+    double[] msft = new double[400];
+    for (int i = 0; i < aapl.length; i++) {
+      aapl[i] = 100 + i * 0.5;
+      msft[i] = 200 + 20 * Math.sin(i / 10.0);
+    }
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.daily(START, aapl));
+    prices.put("MSFT", PriceFixtures.daily(START, msft));
+    BacktestEngineInterface engine = new BacktestEngine(prices,
+        DollarCostAveragingStrategy::new, new ForkJoinPool(4));
+
+    List<BacktestScenario> grid = BacktestScenario.grid(Arrays.asList(100.0, 250.0),
+        Arrays.asList(7L, 30L), Arrays.asList(weights(1, 0), weights(0.5, 0.5), weights(0, 1)),
+        Arrays.asList(START, START.plusDays(100)), START.plusDays(399));
+    List<BacktestResult> ranked = engine.runAll(grid);
+
+    assertEquals(24, ranked.size());
+    for (int i = 1; i < ranked.size(); i++) {
+      assertTrue(ranked.get(i - 1).getTotalReturn() >= ranked.get(i).getTotalReturn());
+    }
+    for (BacktestResult result : ranked) {
+      BacktestResult single = engine.run(result.getScenario());
+      assertEquals(single.getFinalValue(), result.getFinalValue(), 0.0001);
+      assertEquals(single.getMaxDrawdown(), result.getMaxDrawdown(), 0.0001);
+    }
+    assertEquals(1.0, ranked.get(0).getScenario().getStockRatio().get("AAPL"), 0.0);
+  }
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import model.DataFreshnessManager;
+import model.PriceSeries;
+import model.RefreshPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the DataFreshnessManager class. The tests
+ * read a locally written data file and check the refresh decisions of every policy.
+ */
+public class TestDataFreshnessManager {
+
+  private final String ticker = "FRESHTEST";
+  private final File dataFile = new File("res/Data/HistoricalData/" + ticker + ".csv");
+  private final File secondFile = new File("res/Data/HistoricalData/FRESHTEST2.csv");
+
+  @Before
+  public void setUp() throws IOException {
+    dataFile.getParentFile().mkdirs();
+    try (FileWriter writer = new FileWriter(dataFile)) {
+      writer.write("Date,Open,Close,Volume\n");
+      writer.write("2024-03-05,11.0,11.5,100\n");
+      writer.write("2024-03-04,10.0,10.5,100\n");
+    }
+    try (FileWriter writer = new FileWriter(secondFile)) {
+      writer.write("Date,Open,Close,Volume\n");
+      writer.write("2024-03-04,20.0,20.5,100\n");
+    }
+  }
+
+  @After
+  public void tearDown() {
+    dataFile.delete();
+    secondFile.delete();
+  }
+
+  @Test
+  public void testReadsLocalSeries() throws IOException {
+    DataFreshnessManager manager = new DataFreshnessManager(RefreshPolicy.MANUAL,
+        Duration.ofHours(1));
+    PriceSeries series = manager.getPriceSeries(ticker, LocalDate.parse("2024-03-05"));
+    assertEquals(2, series.size());
+    assertEquals(10.0, series.closeOn(LocalDate.parse("2024-03-04")), 0.0001);
+    assertEquals(LocalDate.parse("2024-03-05"), manager.getLastBarDate(ticker));
+  }
+
+  @Test
+  public void testLoadsSeveralTickersConcurrently() throws IOException {
+    DataFreshnessManager manager = new DataFreshnessManager(RefreshPolicy.MANUAL,
+        Duration.ofHours(1));
+    manager.getPriceSeries(ticker, LocalDate.parse("2024-03-05"));
+    Map<String, PriceSeries> prices = manager.getPriceSeries(
+        Arrays.asList(ticker, "FRESHTEST2"), LocalDate.parse("2024-03-05"));
+    assertEquals(2, prices.size());
+    assertEquals(11.0, prices.get(ticker).closeOn(LocalDate.parse("2024-03-05")), 0.0001);
+    assertEquals(20.0, prices.get("FRESHTEST2").closeOn(LocalDate.parse("2024-03-04")), 0.0001);
+  }
+
+  @Test
+  public void testPolicies() throws IOException {
+    DataFreshnessManager manager = new DataFreshnessManager(RefreshPolicy.MANUAL,
+        Duration.ofHours(1));
+    manager.getPriceSeries(ticker, LocalDate.parse("2024-03-05"));
+    assertFalse(manager.isRefreshDue(ticker, LocalDate.parse("2024-03-10")));
+
+    manager.setPolicy(RefreshPolicy.ONCE_PER_SESSION);
+    assertTrue(manager.isRefreshDue(ticker, LocalDate.parse("2024-03-04")));
+
+    manager.setPolicy(RefreshPolicy.TTL);
+    assertTrue(manager.isRefreshDue(ticker, LocalDate.parse("2024-03-04")));
+
+    manager.setPolicy(RefreshPolicy.BEYOND_LAST_BAR);
+    assertFalse(manager.isRefreshDue(ticker, LocalDate.parse("2024-03-05")));
+    assertTrue(manager.isRefreshDue(ticker, LocalDate.parse("2024-03-06")));
+  }
+
+  @Test
+  public void testInvalidateReloadsLocalFile() throws IOException {
+    DataFreshnessManager manager = new DataFreshnessManager(RefreshPolicy.MANUAL,
+        Duration.ofHours(1));
+    manager.getPriceSeries(ticker, LocalDate.parse("2024-03-05"));
+    try (FileWriter writer = new FileWriter(dataFile)) {
+      writer.write("Date,Open,Close,Volume\n");
+      writer.write("2024-03-06,12.0,12.5,100\n");
+    }
+    assertEquals(2, manager.getPriceSeries(ticker, LocalDate.parse("2024-03-06")).size());
+    manager.invalidate(ticker);
+    assertEquals(1, manager.getPriceSeries(ticker, LocalDate.parse("2024-03-06")).size());
+  }
+
+  @Test
+  public void testTradeAfterTodayUsesLocalSeriesEndingToday() throws IOException {
+    DataFreshnessManager manager = new DataFreshnessManager(RefreshPolicy.MANUAL,
+        Duration.ofHours(1), Clock.fixed(Instant.parse("2024-03-05T12:00:00Z"), ZoneOffset.UTC));
+    PriceSeries series = manager.getPriceSeriesForTrade(ticker, LocalDate.parse("2024-03-09"));
+    assertEquals(2, series.size());
+    assertEquals(LocalDate.parse("2024-03-05"), manager.getLastBarDate(ticker));
+  }
+}
@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.DollarCostAveragingSimulator;
+import model.FixedPoint;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+import model.TradeBatch;
+import model.User;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the DollarCostAveragingSimulator class and
+ * of buying its purchases as a batch. It checks that scheduled dates move to the next common
+ * trading day, that dates without one are skipped, and that long schedules over many tickers are
+ * planned in full.
+ */
+public class TestDollarCostAveragingSimulator {
+
+  private PriceSeries weekdays(LocalDate from, LocalDate to, double price) {
+    List<LocalDate> days = new ArrayList<>();
+    for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+      if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        days.add(day);
+      }
+    }
+    return series(days, price);
+  }
+
+  private PriceSeries series(List<LocalDate> days, double price) {
+    long[] epochDays = new long[days.size()];
+    double[] closes = new double[days.size()];
+    for (int i = 0; i < epochDays.length; i++) {
+      epochDays[i] = days.get(i).toEpochDay();
+      closes[i] = price;
+    }
+    return new PriceSeries(epochDays, closes);
+  }
+
+  @Test
+  public void testScheduledWeekendMovesToMonday() {
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", weekdays(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-02-29"),
+        50));
+    prices.put("MSFT", weekdays(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-02-29"),
+        200));
+    Map<String, Double> ratios = new HashMap<>();
+    ratios.put("AAPL", 0.5);
+    ratios.put("MSFT", 0.5);
+
+    TradeBatch batch = DollarCostAveragingSimulator.simulate(1000, ratios,
+        LocalDate.parse("2024-01-06"), LocalDate.parse("2024-01-31"), 14, prices);
+
+    assertEquals(4, batch.size());
+    assertEquals(LocalDate.parse("2024-01-08"), batch.date(0));
+    assertEquals("AAPL", batch.ticker(0));
+    assertEquals(FixedPoint.toMicroShares(10), batch.microShares(0));
+    assertEquals("MSFT", batch.ticker(1));
+    assertEquals(FixedPoint.toMicroShares(2.5), batch.microShares(1));
+    assertEquals(LocalDate.parse("2024-01-22"), batch.date(2));
+  }
+
+  @Test
+  public void testDateWithoutCommonTradingDayIsSkipped() {
+    List<LocalDate> days = new ArrayList<>();
+    days.add(LocalDate.parse("2024-01-02"));
+    days.add(LocalDate.parse("2024-01-20"));
+    days.add(LocalDate.parse("2024-01-21"));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(days, 10));
+    Map<String, Double> ratios = new HashMap<>();
+    ratios.put("AAPL", 1.0);
+    ratios.put("GOOG", 0.0);
+
+    TradeBatch batch = DollarCostAveragingSimulator.simulate(100, ratios,
+        LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"), 3, prices);
+
+    assertEquals(2, batch.size());
+    assertEquals(LocalDate.parse("2024-01-02"), batch.date(0));
+    assertEquals(LocalDate.parse("2024-01-20"), batch.date(1));
+  }
+
+  @Test
+  public void testBatchIsBoughtIntoHistory() {
+    FlexiblePortfolioInterface portfolio = new FlexiblePortfolio(
+        new User("Batch", "Test", "batch@test.com"), "Batch");
+    portfolio.buy("AAPL", 1, LocalDate.parse("2024-01-03"));
+    portfolio.buy("AAPL", 1, LocalDate.parse("2024-01-10"));
+    portfolio.buyAll(new TradeBatch(
+        new long[]{LocalDate.parse("2024-01-01").toEpochDay(),
+            LocalDate.parse("2024-01-03").toEpochDay(),
+            LocalDate.parse("2024-01-03").toEpochDay()},
+        new String[]{"AAPL", "AAPL", "MSFT"},
+        new long[]{FixedPoint.toMicroShares(2), FixedPoint.toMicroShares(3),
+            FixedPoint.toMicroShares(4)}));
+
+    assertEquals(FixedPoint.toMicroShares(2),
+        portfolio.getHoldings(LocalDate.parse("2024-01-02")).microSharesOf("AAPL"));
+    assertEquals(FixedPoint.toMicroShares(6),
+        portfolio.getHoldings(LocalDate.parse("2024-01-03")).microSharesOf("AAPL"));
+    assertEquals(FixedPoint.toMicroShares(4),
+        portfolio.getHoldings(LocalDate.parse("2024-01-05")).microSharesOf("MSFT"));
+    assertEquals(FixedPoint.toMicroShares(7),
+        portfolio.getHoldings(LocalDate.parse("2024-01-10")).microSharesOf("AAPL"));
+    assertEquals(FixedPoint.toMicroShares(4),
+        portfolio.getHoldings(LocalDate.parse("2024-02-01")).microSharesOf("MSFT"));
+  }
+
+  @Test
+  public void testTwentyYearWeeklyScheduleOverTenTickers() {
+    LocalDate start = LocalDate.parse("2004-01-01");
+    LocalDate end = LocalDate.parse("2023-12-31");
+    Map<String, PriceSeries> prices = new HashMap<>();
+    Map<String, Double> ratios = new HashMap<>();
+    for (int t = 0; t < 10; t++) {
+      prices.put("T" + t, weekdays(start, end, 10 + t));
+      ratios.put("T" + t, 0.1);
+    }
+
+    TradeBatch batch = DollarCostAveragingSimulator.simulate(1000, ratios, start, end, 7, prices);
+    FlexiblePortfolioInterface portfolio = new FlexiblePortfolio(
+        new User("Batch", "Test", "batch@test.com"), "Long");
+    portfolio.buyAll(batch);
+
+    assertEquals(1044 * 10, batch.size());
+    assertEquals(10, portfolio.getHoldings(end).size());
+    assertEquals(FixedPoint.toMicroShares(1044 * 100.0 / 19),
+        portfolio.getHoldings(end).microSharesOf("T9"), 1044);
+  }
+}
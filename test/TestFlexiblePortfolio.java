@@ -3,9 +3,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
 import model.User;
 import org.junit.Test;
 
@@ -348,6 +353,65 @@ public class TestFlexiblePortfolio {
     flexiblePortfolio.sell(ticker, secondSellShares, date);
   }
 
+  @Test
+  public void testForkIsIndependent() {
+    FlexiblePortfolio flexiblePortfolio = new FlexiblePortfolio(testUser, portfolioName);
+    LocalDate date = LocalDate.parse("2023-03-09");
+    flexiblePortfolio.buy("AAPL", 10, date);
+    FlexiblePortfolioInterface scenario = flexiblePortfolio.fork("WhatIf");
+    scenario.sell("AAPL", 5, date.plusDays(1));
+    scenario.buy("GOOGL", 2, date);
+    assertEquals("WhatIf", scenario.getPortfolioName());
+    assertEquals(5, Double.parseDouble(scenario.getComposition(date.plusDays(1)).get("AAPL")),
+        0.01);
+    assertEquals(10, Double.parseDouble(flexiblePortfolio.getComposition(date.plusDays(1))
+        .get("AAPL")), 0.01);
+    assertFalse(flexiblePortfolio.getComposition(date).containsKey("GOOGL"));
+  }
+
+  @Test
+  public void testForkValuationsAreNotMemoized() throws IOException {
+    Path data = Files.createDirectories(Path.of("res/Data/HistoricalData")).resolve("FORKMEMO.csv");
+    Path memo = Path.of("res/Data/Memo/valuations.csv");
+    try {
+      Files.write(data, Arrays.asList("Date,Open,Close,Volume", "2024-03-05,11,11,100",
+          "2024-03-04,10,10,100"));
+      FlexiblePortfolio flexiblePortfolio = new FlexiblePortfolio(testUser, "ForkMemoBase");
+      flexiblePortfolio.buy("FORKMEMO", 2, LocalDate.parse("2024-03-04"));
+      FlexiblePortfolioInterface scenario = flexiblePortfolio.fork("ForkMemoScenario");
+      assertEquals(20, scenario.totalValue(LocalDate.parse("2024-03-04")), 0.0001);
+      assertEquals(2, scenario.getValueSeries(LocalDate.parse("2024-03-04"),
+          LocalDate.parse("2024-03-05")).size());
+      assertEquals(20, flexiblePortfolio.totalValue(LocalDate.parse("2024-03-04")), 0.0001);
+      List<String> lines = Files.readAllLines(memo);
+      assertTrue(lines.stream().anyMatch(line -> line.contains("/ForkMemoBase,")));
+      assertFalse(lines.stream().anyMatch(line -> line.contains("/ForkMemoScenario,")));
+    } finally {
+      Files.deleteIfExists(data);
+    }
+  }
+
+  @Test
+  public void testConcurrentTradesAreSerialised() throws InterruptedException {
+    FlexiblePortfolio flexiblePortfolio = new FlexiblePortfolio(testUser, portfolioName);
+    LocalDate date = LocalDate.parse("2023-03-09");
+    Thread[] traders = new Thread[8];
+    for (int t = 0; t < traders.length; t++) {
+      final int offset = t;
+      traders[t] = new Thread(() -> {
+        for (int i = 0; i < 50; i++) {
+          flexiblePortfolio.buy("AAPL", 1, date.plusDays((offset + i) % 5));
+        }
+      });
+      traders[t].start();
+    }
+    for (Thread trader : traders) {
+      trader.join();
+    }
+    assertEquals(400.0, Double.parseDouble(flexiblePortfolio.getComposition(date.plusDays(4))
+        .get("AAPL")), 0.0001);
+  }
+
   private int linesInChart(String str) {
     if (str == null || str.isEmpty()) {
       return 0;
@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import model.FixedPoint;
+import model.Holdings;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the Holdings and FixedPoint classes. It
+ * checks exact share and price arithmetic and the copy-on-write updates of holdings.
+ */
+public class TestHoldings {
+
+  @Test
+  public void testFixedPointConversions() {
+    assertEquals(1_500_000L, FixedPoint.parseMicroShares("1.5"));
+    assertEquals(1_234_567L, FixedPoint.parsePriceUnits("123.4567"));
+    assertEquals(333_333L, FixedPoint.toMicroShares(1.0 / 3));
+    assertEquals("2.500", FixedPoint.formatShares(2_500_000L));
+  }
+
+  @Test
+  public void testValueIsExact() {
+    long price = FixedPoint.parsePriceUnits("0.1");
+    long total = 0;
+    for (int i = 0; i < 10; i++) {
+      total += FixedPoint.value(FixedPoint.SHARE_SCALE, price);
+    }
+    assertEquals(FixedPoint.PRICE_SCALE, total);
+    assertEquals(FixedPoint.parsePriceUnits("0.05"),
+        FixedPoint.value(FixedPoint.SHARE_SCALE / 2, price));
+  }
+
+  @Test
+  public void testPlusIsCopyOnWrite() {
+    Holdings first = Holdings.empty().plus("MSFT", 2_000_000L).plus("AAPL", 1_000_000L);
+    Holdings second = first.plus("aapl", 500_000L);
+    assertEquals(1_000_000L, first.microSharesOf("AAPL"));
+    assertEquals(1_500_000L, second.microSharesOf("AAPL"));
+    assertEquals("AAPL", second.ticker(0));
+    assertEquals("MSFT", second.ticker(1));
+  }
+
+  @Test
+  public void testPositionsAtZeroAreRemoved() {
+    Holdings holdings = Holdings.empty().plus("AAPL", 1_000_000L).plus("AAPL", -1_000_000L);
+    assertTrue(holdings.isEmpty());
+    assertEquals(-1, holdings.indexOf("AAPL"));
+    assertTrue(Holdings.empty().plus("GOOG", 3_000_000L).toComposition().containsKey("GOOG"));
+  }
+
+  @Test
+  public void testCashTravelsWithPositions() {
+    Holdings holdings = Holdings.empty().plusCash(FixedPoint.toPriceUnits(100))
+        .plus("AAPL", 1_000_000L);
+    assertEquals(100.0, holdings.cash(), 0.0001);
+    assertEquals(100.0, holdings.plus("AAPL", -1_000_000L).cash(), 0.0001);
+    assertEquals(40.0, holdings.plus(Holdings.empty().plusCash(FixedPoint.toPriceUnits(-60)))
+        .cash(), 0.0001);
+    assertTrue(holdings.fingerprint() != holdings.plusCash(1).fingerprint());
+    assertEquals(Holdings.empty().plus("AAPL", 1_000_000L).fingerprint(),
+        holdings.plusCash(-holdings.cashUnits()).fingerprint());
+  }
+}
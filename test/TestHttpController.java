@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import controller.HttpController;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the HttpController against a mock model on localhost. It checks
+ * the JSON responses, the status codes of invalid requests, logging out and concurrent clients.
+ */
+public class TestHttpController {
+
+  private static final String EMAIL = "mehereasha2601@gmail.com";
+
+  private StringBuilder log;
+  private HttpController controller;
+
+  private static final class Response {
+
+    private final int status;
+    private final String body;
+
+    private Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    log = new StringBuilder();
+    controller = new HttpController(new MockModelInterface(log), 0);
+    controller.start();
+  }
+
+  @After
+  public void tearDown() {
+    controller.stop();
+  }
+
+  private Response request(String method, String path, String form) throws IOException {
+    URL url = new URL("http://localhost:" + controller.getPort() + path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    if (form != null) {
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(form.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    int status = connection.getResponseCode();
+    try (InputStream in = status < 400 ? connection.getInputStream()
+        : connection.getErrorStream()) {
+      return new Response(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  @Test
+  public void testLoginAndValue() throws IOException {
+    Response login = request("POST", "/users/login", "email=" + EMAIL);
+    assertEquals(200, login.status);
+    assertTrue(login.body.startsWith("{\"email\":\"" + EMAIL + "\""));
+    assertTrue(log.toString().contains("Create Portfolio Manager called with input " + EMAIL));
+
+    Response value = request("GET",
+        "/portfolios/value?email=" + EMAIL + "&name=technology&date=2024-03-01", null);
+    assertEquals(200, value.status);
+    assertEquals("{\"name\":\"technology\",\"date\":\"2024-03-01\",\"value\":1000}", value.body);
+    assertTrue(log.toString().contains(
+        "getTotalPortfolioValue method called with input technology , 2024-03-01."));
+  }
+
+  @Test
+  public void testPerformanceSeries() throws IOException {
+    request("POST", "/users/login", "email=" + EMAIL);
+    Response performance = request("GET", "/portfolios/performance?email=" + EMAIL
+        + "&name=technology&start=2024-03-01&end=2024-03-05", null);
+    assertEquals(200, performance.status);
+    assertTrue(performance.body.contains("\"dates\":[\"2024-03-01\"]"));
+    assertTrue(performance.body.contains("\"values\":[100]"));
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    assertEquals(404, request("POST", "/users/login", "email=nobody@test.com").status);
+    assertEquals(400, request("POST", "/users/login", "email=not-an-email").status);
+    assertEquals(401, request("GET",
+        "/portfolios/exists?email=" + EMAIL + "&name=technology", null).status);
+    assertEquals(404, request("GET", "/portfolios/delete", null).status);
+    assertEquals(405, request("GET", "/users/login?email=" + EMAIL, null).status);
+
+    request("POST", "/users/login", "email=" + EMAIL);
+    Response badDate = request("GET",
+        "/portfolios/value?email=" + EMAIL + "&name=technology&date=03-01-2024", null);
+    assertEquals(400, badDate.status);
+    assertTrue(badDate.body.startsWith("{\"error\":"));
+    assertEquals(404, request("GET",
+        "/portfolios/value?email=" + EMAIL + "&name=savings&date=2024-03-01", null).status);
+  }
+
+  @Test
+  public void testLogoutClosesSession() throws IOException {
+    request("POST", "/users/login", "email=" + EMAIL);
+    log.setLength(0);
+    assertEquals(200, request("GET",
+        "/portfolios/exists?email=" + EMAIL + "&name=technology", null).status);
+    assertTrue(log.toString().contains("Create Portfolio Manager called with input " + EMAIL));
+
+    Response logout = request("POST", "/users/logout", "email=" + EMAIL.toUpperCase());
+    assertTrue(logout.body.contains("\"loggedOut\":true"));
+    assertTrue(log.toString().contains("Close session called with input " + EMAIL.toUpperCase()));
+    assertEquals(401, request("GET",
+        "/portfolios/exists?email=" + EMAIL + "&name=technology", null).status);
+  }
+
+  @Test
+  public void testConcurrentClients() throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(32);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        Callable<Integer> call = () -> request("GET", "/stocks/movingaverage?date=2024-03-01",
+            null).status;
+        statuses.add(clients.submit(call));
+      }
+      for (Future<Integer> status : statuses) {
+        assertEquals(400, (int) status.get());
+      }
+    } finally {
+      clients.shutdown();
+    }
+  }
+}
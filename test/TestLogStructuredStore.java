@@ -0,0 +1,187 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import model.LogStructuredStore;
+import model.PortfolioManager;
+import model.User;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the LogStructuredStore class. It checks
+ * that values survive reopening, that compaction keeps only live values, that a failed background
+ * compaction is reported to the next writer and that a record torn by a crash is dropped.
+ */
+public class TestLogStructuredStore {
+
+  private Path directory() throws IOException {
+    Path directory = Files.createTempDirectory("store");
+    directory.toFile().deleteOnExit();
+    return directory;
+  }
+
+  private List<Path> segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void testPutGetDeleteAndReopen() throws IOException {
+    Path directory = directory();
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      store.put("users/a", "first");
+      store.put("users/b", "second");
+      store.put("users/a", "replaced");
+      store.put("strategies/x", "strategy");
+      assertTrue(store.delete("users/b"));
+      assertFalse(store.delete("users/b"));
+      assertEquals("replaced", store.get("users/a"));
+      assertNull(store.get("users/b"));
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      assertEquals("replaced", store.get("users/a"));
+      assertFalse(store.containsKey("users/b"));
+      assertEquals(Arrays.asList("users/a"), store.keys("users/"));
+      assertEquals(Arrays.asList("strategies/x", "users/a"), store.keys(""));
+    }
+  }
+
+  @Test
+  public void testCompactionKeepsLiveValues() throws IOException {
+    Path directory = directory();
+    try (LogStructuredStore store = new LogStructuredStore(directory, 256)) {
+      for (int round = 0; round < 20; round++) {
+        for (int key = 0; key < 5; key++) {
+          store.put("key/" + key, "value " + round);
+        }
+      }
+      store.delete("key/4");
+      store.compact();
+      assertEquals(2, store.segmentCount());
+      assertEquals("value 19", store.get("key/0"));
+      store.put("key/0", "after");
+    }
+    assertEquals(2, segments(directory).size());
+    try (LogStructuredStore store = new LogStructuredStore(directory, 256)) {
+      assertEquals("after", store.get("key/0"));
+      assertEquals("value 19", store.get("key/3"));
+      assertNull(store.get("key/4"));
+      assertEquals(4, store.keys("key/").size());
+    }
+  }
+
+  @Test
+  public void testTornRecordIsDropped() throws IOException {
+    Path directory = directory();
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      store.put("kept", "value");
+      store.put("torn", "value");
+    }
+    Path segment = segments(directory).get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 2);
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      assertEquals("value", store.get("kept"));
+      assertNull(store.get("torn"));
+      store.put("next", "value");
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      assertEquals(Arrays.asList("kept", "next"), store.keys(""));
+    }
+  }
+
+  @Test
+  public void testBackgroundCompactionFailureIsReported() throws Exception {
+    Path directory = directory();
+    try (LogStructuredStore store = new LogStructuredStore(directory, 256)) {
+      for (int id = 1; id <= 200; id++) {
+        Files.createDirectory(directory.resolve(String.format("segment-%06d.log.tmp", id)));
+      }
+      IOException failure = null;
+      for (int round = 0; round < 200 && failure == null; round++) {
+        try {
+          store.put("key", "value " + round);
+          Thread.sleep(5);
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      assertNotNull(failure);
+      store.put("key", "after");
+      assertEquals("after", store.get("key"));
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory, 256)) {
+      assertEquals("after", store.get("key"));
+    }
+  }
+
+  @Test
+  public void testConcurrentWritersWithCompaction() throws Exception {
+    Path directory = directory();
+    try (LogStructuredStore store = new LogStructuredStore(directory, 1024)) {
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        int writer = t;
+        Thread thread = new Thread(() -> {
+          try {
+            for (int i = 0; i < 500; i++) {
+              store.put("w" + writer + "/" + (i % 10), "value " + i);
+              if (i % 100 == 0) {
+                store.compact();
+              }
+            }
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(40, store.keys("w").size());
+      assertEquals("value 499", store.get("w2/9"));
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory, 1024)) {
+      assertEquals(40, store.keys("w").size());
+      assertEquals("value 490", store.get("w3/0"));
+    }
+  }
+
+  @Test
+  public void testPortfolioManagerPersistsThroughStore() throws IOException {
+    Path directory = directory();
+    User user = new User("Store", "Test", "store@test.com");
+    HashMap<String, ArrayList<String>> stockData = new HashMap<>();
+    stockData.put("AAPL", new ArrayList<>(Arrays.asList("5", "03-01-2024")));
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      PortfolioManager portfolioManager = new PortfolioManager(user, store);
+      assertEquals("Portfolio saved to system successfully!",
+          portfolioManager.savePortfolio("Retirement", stockData));
+    }
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      PortfolioManager portfolioManager = new PortfolioManager(user, store);
+      assertTrue(portfolioManager.portfolioExists("retirement"));
+      assertEquals(1, portfolioManager.getNumberOfPortfolios());
+      assertEquals("5", portfolioManager.getPortfolioComposition("RETIREMENT",
+          LocalDate.parse("2024-03-05")).get("AAPL").get(0));
+    }
+  }
+}
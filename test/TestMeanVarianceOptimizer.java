@@ -0,0 +1,142 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import model.FrontierPoint;
+import model.MeanVarianceOptimizer;
+import model.PriceSeries;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the MeanVarianceOptimizer class. It checks
+ * the minimum variance weights of uncorrelated stocks with and without a weight cap, the shape of
+ * the efficient frontier and that the weights of hundreds of stocks respect the cap.
+ */
+public class TestMeanVarianceOptimizer {
+
+  private static final LocalDate START = LocalDate.parse("2020-01-01");
+
+  private PriceSeries series(double[] returns) {
+    long[] epochDays = new long[returns.length + 1];
+    double[] closes = new double[returns.length + 1];
+    double close = 10000;
+    epochDays[0] = START.toEpochDay();
+    closes[0] = close;
+    for (int i = 0; i < returns.length; i++) {
+      close *= 1 + returns[i];
+      epochDays[i + 1] = START.toEpochDay() + i + 1;
+      closes[i + 1] = close;
+    }
+    return new PriceSeries(epochDays, closes);
+  }
+
+  private Map<String, PriceSeries> uncorrelated() {
+    double[] first = new double[400];
+    double[] second = new double[400];
+    for (int i = 0; i < 400; i++) {
+      first[i] = i % 2 == 0 ? 0.01 : -0.01;
+      second[i] = i % 4 < 2 ? 0.021 : -0.019;
+    }
+    Map<String, PriceSeries> history = new HashMap<>();
+    history.put("AAPL", series(first));
+    history.put("MSFT", series(second));
+    return history;
+  }
+
+  private void assertValid(FrontierPoint point, double cap, String... tickers) {
+    double sum = 0;
+    for (String ticker : tickers) {
+      double weight = point.getWeight(ticker);
+      assertTrue(weight >= 0 && weight <= cap + 0.000001);
+      sum += weight;
+    }
+    assertEquals(1, sum, 0.000001);
+  }
+
+  @Test
+  public void testMinimumVarianceOfUncorrelatedStocks() {
+    FrontierPoint point = new MeanVarianceOptimizer(uncorrelated(), 1).minimumVariance();
+    assertEquals(0.8, point.getWeight("AAPL"), 0.001);
+    assertEquals(0.2, point.getWeight("MSFT"), 0.001);
+    assertValid(point, 1, "AAPL", "MSFT");
+  }
+
+  @Test
+  public void testWeightCap() {
+    FrontierPoint point = new MeanVarianceOptimizer(uncorrelated(), 0.6).minimumVariance();
+    assertEquals(0.6, point.getWeight("AAPL"), 0.000001);
+    assertEquals(0.4, point.getWeight("MSFT"), 0.000001);
+    try {
+      new MeanVarianceOptimizer(uncorrelated(), 0.4);
+      fail("Expected the cap to be too small");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("cannot invest the whole amount"));
+    }
+  }
+
+  @Test
+  public void testEfficientFrontierAndTargets() {
+    MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(uncorrelated(), 1);
+    List<FrontierPoint> frontier = optimizer.efficientFrontier(5);
+    assertEquals(5, frontier.size());
+    for (int i = 1; i < frontier.size(); i++) {
+      assertTrue(frontier.get(i).getExpectedReturn()
+          >= frontier.get(i - 1).getExpectedReturn() - 0.000001);
+      assertTrue(frontier.get(i).getVolatility()
+          >= frontier.get(i - 1).getVolatility() - 0.000001);
+      assertValid(frontier.get(i), 1, "AAPL", "MSFT");
+    }
+    assertEquals(1, frontier.get(4).getWeight("MSFT"), 0.0001);
+
+    double target = (frontier.get(0).getExpectedReturn() + frontier.get(4).getExpectedReturn())
+        / 2;
+    FrontierPoint point = optimizer.targetReturn(target);
+    assertEquals(target, point.getExpectedReturn(), 0.0001);
+    FrontierPoint sharpe = optimizer.maximumSharpe(0);
+    assertTrue(sharpe.getSharpeRatio(0) >= point.getSharpeRatio(0) - 0.000001);
+    assertTrue(sharpe.getSharpeRatio(0) >= frontier.get(0).getSharpeRatio(0) - 0.000001);
+    try {
+      optimizer.targetReturn(frontier.get(4).getExpectedReturn() + 0.01);
+      fail("Expected the target to be unreachable");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("not reachable"));
+    }
+  }
+
+  @Test
+  public void testHundredsOfStocks() {
+    SplittableRandom random = new SplittableRandom(11);
+    int days = 500;
+    double[] market = new double[days];
+    for (int i = 0; i < days; i++) {
+      market[i] = (random.nextDouble() - 0.5) * 0.02;
+    }
+    Map<String, PriceSeries> history = new HashMap<>();
+    for (int t = 0; t < 300; t++) {
+      double beta = 0.5 + random.nextDouble();
+      double drift = random.nextDouble() * 0.001;
+      double[] returns = new double[days];
+      for (int i = 0; i < days; i++) {
+        returns[i] = drift + beta * market[i] + (random.nextDouble() - 0.5) * 0.03;
+      }
+      history.put("T" + t, series(returns));
+    }
+
+    MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(history, 0.05);
+    FrontierPoint sharpe = optimizer.maximumSharpe(0.02);
+
+    double sum = 0;
+    for (double weight : sharpe.getStockRatio().values()) {
+      assertTrue(weight <= 0.05 + 0.000001);
+      sum += weight;
+    }
+    assertEquals(1, sum, 0.000001);
+    assertTrue(sharpe.getSharpeRatio(0.02)
+        >= optimizer.minimumVariance().getSharpeRatio(0.02) - 0.000001);
+  }
+}
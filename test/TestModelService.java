@@ -0,0 +1,77 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import model.LogStructuredStore;
+import model.ModelService;
+import model.PortfolioManagerInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the ModelService class. It checks that a
+ * user's portfolio manager is shared while the session is open, and that a manager holding
+ * flexible portfolios outlives idle expiry and logout.
+ */
+public class TestModelService {
+
+  private static final String EMAIL = "session@test.com";
+  private static final String OTHER = "other@test.com";
+
+  private final MockClock clock = new MockClock();
+  private LogStructuredStore store;
+  private ModelService model;
+
+  @Before
+  public void setUp() throws IOException {
+    Path directory = Files.createTempDirectory("model");
+    directory.toFile().deleteOnExit();
+    store = new LogStructuredStore(directory);
+    model = new ModelService(Duration.ofMinutes(10), clock, store);
+    model.createUserManager().saveUserData("Session", "User", EMAIL);
+    model.createUserManager().saveUserData("Other", "User", OTHER);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  public void testIdleManagerWithoutFlexiblePortfoliosExpires() {
+    PortfolioManagerInterface first = model.createPortfolioManager(EMAIL);
+    assertSame(first, model.createPortfolioManager(EMAIL));
+    clock.advance(Duration.ofMinutes(10));
+    assertNotSame(first, model.createPortfolioManager(EMAIL));
+  }
+
+  @Test
+  public void testFlexibleHoldingsSurviveExpiryAndLogout() {
+    PortfolioManagerInterface first = model.createPortfolioManager(EMAIL);
+    first.createFlexiblePortfolio("growth");
+    first.buyPortfolioStock("growth", "AAPL", 10, LocalDate.of(2024, 3, 1));
+
+    clock.advance(Duration.ofMinutes(30));
+    model.createPortfolioManager(OTHER);
+    PortfolioManagerInterface later = model.createPortfolioManager(EMAIL);
+    assertSame(first, later);
+    assertTrue(later.portfolioExists("growth"));
+    HashMap<String, ArrayList<String>> composition =
+        later.getPortfolioComposition("growth", LocalDate.of(2024, 3, 1));
+    assertEquals("10.000", composition.get("AAPL").get(0));
+
+    model.closeSession(EMAIL);
+    assertSame(first, model.createPortfolioManager(EMAIL));
+    assertFalse(model.createPortfolioManager(OTHER).portfolioExists("growth"));
+  }
+}
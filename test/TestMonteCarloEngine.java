@@ -0,0 +1,105 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import model.MonteCarloEngine;
+import model.MonteCarloEngineInterface;
+import model.PriceSeries;
+import model.ProjectionBands;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the MonteCarloEngine class. It checks the
+ * projected values against a history with a known return, that a seed always gives the same bands
+ * and that the bands are ordered.
+ */
+public class TestMonteCarloEngine {
+
+  private static final double[] PERCENTILES = {5, 50, 95};
+
+  private PriceSeries series(double[] closes) {
+    long[] epochDays = new long[closes.length];
+    for (int i = 0; i < closes.length; i++) {
+      epochDays[i] = LocalDate.parse("2010-01-04").toEpochDay() + i;
+    }
+    return new PriceSeries(epochDays, closes);
+  }
+
+  private Map<String, PriceSeries> randomHistory(long seed, int days) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, PriceSeries> history = new HashMap<>();
+    for (String ticker : new String[]{"AAPL", "MSFT"}) {
+      double[] closes = new double[days];
+      double close = 100;
+      for (int i = 0; i < days; i++) {
+        close *= 1 + (random.nextDouble() - 0.48) * 0.03;
+        closes[i] = close;
+      }
+      history.put(ticker, series(closes));
+    }
+    return history;
+  }
+
+  private Map<String, Double> evenWeights() {
+    Map<String, Double> weights = new HashMap<>();
+    weights.put("AAPL", 0.5);
+    weights.put("MSFT", 0.5);
+    return weights;
+  }
+
+  @Test
+  public void testConstantReturnHistory() {
+    double[] closes = new double[100];
+    closes[0] = 100;
+    for (int i = 1; i < closes.length; i++) {
+      closes[i] = closes[i - 1] * 1.01;
+    }
+    Map<String, PriceSeries> history = new HashMap<>();
+    history.put("AAPL", series(closes));
+    history.put("MSFT", series(closes));
+    MonteCarloEngineInterface engine = new MonteCarloEngine(history, 5, 1);
+
+    ProjectionBands bands = engine.project(evenWeights(), 1000, 100, 5, 10, 1000);
+
+    double expected = 1000 * Math.pow(1.01, 10) + 100 * Math.pow(1.01, 5);
+    assertEquals(expected, bands.finalValue(5), 0.01);
+    assertEquals(expected, bands.finalValue(95), 0.01);
+    assertEquals(1100, bands.getTotalContributed(), 0.0);
+    assertEquals(1, bands.checkpointCount());
+    assertEquals(10, bands.checkpointDay(0));
+  }
+
+  @Test
+  public void testSeedGivesSameBandsOnAnyPool() {
+    Map<String, PriceSeries> history = randomHistory(3, 1000);
+    ProjectionBands first = new MonteCarloEngine(history, 20, 42, PERCENTILES,
+        new ForkJoinPool(1)).project(evenWeights(), 1000, 100, 21, 252, 3000);
+    ProjectionBands second = new MonteCarloEngine(history, 20, 42, PERCENTILES,
+        new ForkJoinPool(4)).project(evenWeights(), 1000, 100, 21, 252, 3000);
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void testLargeProjectionBandsAreOrdered() {
+    MonteCarloEngineInterface engine = new MonteCarloEngine(randomHistory(5, 2500), 20, 9,
+        PERCENTILES, ForkJoinPool.commonPool());
+
+    ProjectionBands bands = engine.project(evenWeights(), 10000, 500, 21, 2520, 10000);
+
+    assertEquals(10000, bands.getPathCount());
+    assertEquals(120, bands.checkpointCount());
+    assertEquals(2520, bands.checkpointDay(119));
+    double[] low = bands.band(0);
+    double[] median = bands.band(1);
+    double[] high = bands.band(2);
+    for (int c = 0; c < bands.checkpointCount(); c++) {
+      assertTrue(low[c] <= median[c] && median[c] <= high[c]);
+    }
+    assertEquals(median[119], bands.finalValue(50), 0.000001);
+    assertTrue(bands.finalValue(5) < bands.finalValue(95));
+  }
+}
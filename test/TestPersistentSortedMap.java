@@ -0,0 +1,54 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import model.PersistentSortedMap;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the PersistentSortedMap class. It checks
+ * lookups and range iteration against a TreeMap and that older versions are never modified.
+ */
+public class TestPersistentSortedMap {
+
+  @Test
+  public void testMatchesTreeMap() {
+    Random random = new Random(7);
+    TreeMap<Integer, Integer> expected = new TreeMap<>();
+    PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+    for (int i = 0; i < 2000; i++) {
+      int key = random.nextInt(500);
+      expected.put(key, i);
+      map = map.put(key, i);
+    }
+    assertEquals(expected.size(), map.size());
+    for (int key = -1; key < 501; key++) {
+      assertEquals(expected.get(key), map.get(key));
+      assertEquals(expected.floorKey(key), map.floorKey(key));
+    }
+    int count = 0;
+    for (Map.Entry<Integer, Integer> entry : map.entries(100, 200)) {
+      assertEquals(expected.get(entry.getKey()), entry.getValue());
+      count++;
+    }
+    assertEquals(expected.subMap(100, true, 200, true).size(), count);
+    assertEquals(expected.firstKey(), map.firstEntry().getKey());
+    assertEquals(expected.lastKey(), map.lastEntry().getKey());
+  }
+
+  @Test
+  public void testOldVersionsAreUnchanged() {
+    PersistentSortedMap<Integer, String> first = PersistentSortedMap.<Integer, String>empty()
+        .put(1, "a").put(2, "b").put(3, "c");
+    PersistentSortedMap<Integer, String> second = first.put(2, "x")
+        .mapValuesAfter(1, value -> value + "!");
+    assertEquals("b", first.get(2));
+    assertEquals("c", first.get(3));
+    assertEquals("a", second.get(1));
+    assertEquals("x!", second.get(2));
+    assertEquals("c!", second.get(3));
+    assertTrue(PersistentSortedMap.empty().isEmpty());
+  }
+}
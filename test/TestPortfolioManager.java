@@ -1,11 +1,18 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import model.LogStructuredStore;
+import model.NetWorth;
 import model.Portfolio;
 import model.PortfolioManager;
 import model.User;
@@ -82,6 +89,94 @@ public class TestPortfolioManager {
     assertTrue(portfolioManager.portfolioExists("testPortfolio1"));
   }
 
+  @Test
+  public void testGetNetWorth() throws IOException {
+    Path historicalData = Files.createDirectories(Path.of("res/Data/HistoricalData"));
+    Path first = historicalData.resolve("NWTESTA.csv");
+    Path second = historicalData.resolve("NWTESTB.csv");
+    Path portfolios = Path.of("res/Data/Portfolios/networth@test.com");
+    Path manifest = Path.of("res/Data/Manifests/networth@test.com.csv");
+    try {
+      Files.write(first, Arrays.asList("Date,Open,Close,Volume", "2024-03-05,11,11,100",
+          "2024-03-04,10,10,100"));
+      Files.write(second, Arrays.asList("Date,Open,Close,Volume", "2024-03-05,21,21,100",
+          "2024-03-04,20,20,100"));
+      Files.createDirectories(portfolios);
+      Files.write(portfolios.resolve("Core.csv"), Arrays.asList(
+          "Ticker Symbol, Number of Shares, Date of Purchase", "NWTESTA,2,2024-03-01"));
+
+      PortfolioManager portfolioManager = new PortfolioManager(
+          new User("Net", "Worth", "networth@test.com"));
+      portfolioManager.createFlexiblePortfolio("Trading");
+      portfolioManager.buyPortfolioStock("Trading", "NWTESTA", 1, LocalDate.parse("2024-03-04"));
+      portfolioManager.buyPortfolioStock("Trading", "NWTESTB", 3, LocalDate.parse("2024-03-05"));
+
+      NetWorth netWorth = portfolioManager.getNetWorth(LocalDate.parse("2024-03-04"),
+          LocalDate.parse("2024-03-05"));
+      assertEquals(30.0, netWorth.getTotalSeries().value(0), 0.0001);
+      assertEquals(96.0, netWorth.getTotal(), 0.0001);
+      assertEquals(22.0, netWorth.getPortfolioTotals().get("Core"), 0.0001);
+      assertEquals(74.0, netWorth.getPortfolioTotals().get("Trading"), 0.0001);
+      assertEquals(33.0, netWorth.getTickerTotals().get("NWTESTA"), 0.0001);
+      assertEquals(63.0, netWorth.getTickerTotals().get("NWTESTB"), 0.0001);
+    } finally {
+      Files.deleteIfExists(first);
+      Files.deleteIfExists(second);
+      Files.deleteIfExists(portfolios.resolve("Core.csv"));
+      Files.deleteIfExists(portfolios);
+      Files.deleteIfExists(manifest);
+    }
+  }
+
+  @Test
+  public void testGetNetWorthWithCashAndMissingPrice() throws IOException {
+    Path historicalData = Files.createDirectories(Path.of("res/Data/HistoricalData"));
+    Path priced = historicalData.resolve("NWCASHA.csv");
+    try {
+      Files.write(priced, Arrays.asList("Date,Open,Close,Volume", "2024-03-05,11,11,100",
+          "2024-03-04,10,10,100"));
+      PortfolioManager portfolioManager = new PortfolioManager(
+          new User("Net", "Cash", "networthcash@test.com"));
+      portfolioManager.createFlexiblePortfolio("Savings");
+      portfolioManager.depositCash("Savings", 50, LocalDate.parse("2024-03-04"));
+      portfolioManager.buyPortfolioStock("Savings", "NWCASHA", 2, LocalDate.parse("2024-03-04"));
+      portfolioManager.buyPortfolioStock("Savings", "NWCASHNONE", 1,
+          LocalDate.parse("2024-03-04"));
+
+      NetWorth netWorth = portfolioManager.getNetWorth(LocalDate.parse("2024-03-04"),
+          LocalDate.parse("2024-03-05"));
+      assertEquals(72.0, netWorth.getTotal(), 0.0001);
+      assertEquals(50.0, netWorth.getTickerValuation().cash(), 0.0001);
+      assertEquals(72.0, netWorth.getTickerValuation().total(), 0.0001);
+      assertEquals(22.0, netWorth.getTickerTotals().get("NWCASHA"), 0.0001);
+      assertEquals(Arrays.asList("NWCASHNONE"), netWorth.getMissingTickers());
+    } finally {
+      Files.deleteIfExists(priced);
+    }
+  }
+
+  @Test
+  public void testPeriodicInvestmentKeepsImmutablePortfolio() throws IOException {
+    Path directory = Files.createTempDirectory("manager");
+    directory.toFile().deleteOnExit();
+    try (LogStructuredStore store = new LogStructuredStore(directory)) {
+      PortfolioManager portfolioManager = new PortfolioManager(testUser, store);
+      Portfolio portfolio = createTestPortfolio();
+      portfolioManager.savePortfolio(portfolio.getPortfolioName(), portfolio.getStockData());
+      HashMap<String, Double> weights = new HashMap<>();
+      weights.put("AAPL", 1.0);
+      try {
+        portfolioManager.investPeriodically(portfolio.getPortfolioName(), "dollarCostAveraging",
+            100, weights, LocalDate.parse("2024-01-01"), null, 30);
+        fail("Investing into an immutable portfolio should fail.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Portfolio already exists: testPortfolio1", e.getMessage());
+      }
+      assertFalse(portfolioManager.isPortfolioMutable(portfolio.getPortfolioName()));
+      assertEquals(1, portfolioManager.getNumberOfPortfolios());
+    }
+  }
+
   /**
    * This helper method creates and returns a PortfolioManager with test data.
    */
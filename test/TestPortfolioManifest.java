@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import model.PortfolioManager;
+import model.PortfolioManifest;
+import model.PortfolioRegistry;
+import model.SoftLruCache;
+import model.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the PortfolioManifest and SoftLruCache
+ * classes, and the lazy loading of saved portfolios by the PortfolioManager class.
+ */
+public class TestPortfolioManifest {
+
+  private static final String EMAIL = "manifest@test.com";
+
+  private Path root;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("manifest");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    deleteAll(root);
+    deleteAll(Path.of("res/Data/Portfolios", EMAIL));
+    Files.deleteIfExists(Path.of("res/Data/Manifests", EMAIL + ".csv"));
+  }
+
+  private void deleteAll(Path path) throws IOException {
+    if (Files.exists(path)) {
+      try (Stream<Path> files = Files.walk(path)) {
+        files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+
+  @Test
+  public void testManifestIsBuiltAndReread() throws IOException {
+    Path directory = Files.createDirectories(root.resolve("portfolios"));
+    Files.write(directory.resolve("Growth.csv"), Arrays.asList(
+        "Ticker Symbol, Number of Shares, Date of Purchase", "AAPL,10,2024-03-04"));
+    Path manifestFile = root.resolve("manifest.csv");
+
+    PortfolioManifest manifest = new PortfolioManifest(directory, manifestFile);
+    PortfolioManifest.Entry entry = manifest.get("growth");
+    assertEquals("Growth", entry.getName());
+    assertEquals(PortfolioRegistry.PortfolioType.IMMUTABLE, entry.getType());
+    assertEquals(Files.size(directory.resolve("Growth.csv")), entry.getSize());
+    assertTrue(Files.exists(manifestFile));
+
+    PortfolioManifest reread = new PortfolioManifest(directory, manifestFile);
+    assertEquals(1, reread.entries().size());
+    assertEquals("Growth.csv", reread.get("GROWTH").getFileName());
+    assertNull(reread.get("missing"));
+  }
+
+  @Test
+  public void testPortfoliosAreLoadedOnFirstUse() throws IOException {
+    Path directory = Files.createDirectories(Path.of("res/Data/Portfolios", EMAIL));
+    Files.write(directory.resolve("Income.csv"), Arrays.asList(
+        "Ticker Symbol, Number of Shares, Date of Purchase", "MSFT,4,2024-03-04"));
+
+    PortfolioManager manager = new PortfolioManager(new User("Man", "Ifest", EMAIL));
+    assertTrue(manager.portfolioExists("income"));
+    assertEquals(1, manager.getNumberOfPortfolios());
+    assertEquals("4", manager.getPortfolioComposition("INCOME", null).get("MSFT").get(0));
+  }
+
+  @Test
+  public void testCacheEvictsLeastRecentlyUsed() {
+    SoftLruCache<String, Integer> cache = new SoftLruCache<>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.get("a");
+    cache.put("c", 3);
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(2, cache.size());
+  }
+}
@@ -0,0 +1,53 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.Portfolio;
+import model.PortfolioInterface;
+import model.PortfolioRegistry;
+import model.User;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the PortfolioRegistry class. It checks
+ * case-insensitive lookups and the type tag kept for each portfolio.
+ */
+public class TestPortfolioRegistry {
+
+  private final User user = new User("Reg", "Test", "reg@test.com");
+
+  @Test
+  public void testLookupIgnoresCase() {
+    PortfolioRegistry registry = new PortfolioRegistry();
+    PortfolioInterface portfolio = new Portfolio(user, "Retirement",
+        new HashMap<String, ArrayList<String>>());
+    assertTrue(registry.addPortfolio(portfolio));
+    assertTrue(registry.contains("RETIREMENT"));
+    assertSame(portfolio, registry.get("retirement"));
+    assertEquals(PortfolioRegistry.PortfolioType.IMMUTABLE, registry.typeOf("Retirement"));
+    assertNull(registry.getFlexible("retirement"));
+    assertFalse(registry.addPortfolio(new Portfolio(user, "retirement",
+        new HashMap<String, ArrayList<String>>())));
+    assertEquals(1, registry.count(PortfolioRegistry.PortfolioType.IMMUTABLE));
+  }
+
+  @Test
+  public void testFlexiblePortfolioTakesPrecedence() {
+    PortfolioRegistry registry = new PortfolioRegistry();
+    registry.addPortfolio(new Portfolio(user, "Growth", new HashMap<String, ArrayList<String>>()));
+    FlexiblePortfolioInterface flexible = new FlexiblePortfolio(user, "growth");
+    assertTrue(registry.addFlexiblePortfolio(flexible));
+    assertFalse(registry.addFlexiblePortfolio(new FlexiblePortfolio(user, "GROWTH")));
+    assertSame(flexible, registry.getFlexible("Growth"));
+    assertEquals(PortfolioRegistry.PortfolioType.FLEXIBLE, registry.typeOf("growth"));
+    assertEquals(0, registry.count(PortfolioRegistry.PortfolioType.IMMUTABLE));
+    assertEquals(1, registry.count(PortfolioRegistry.PortfolioType.FLEXIBLE));
+    assertNull(registry.typeOf("missing"));
+  }
+}
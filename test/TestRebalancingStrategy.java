@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+import model.RebalancingStrategy;
+import model.Strategy;
+import model.User;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the RebalancingStrategy class. It checks
+ * that positions are traded back to their targets when they drift past the threshold and on each
+ * scheduled investment, and that long daily simulations keep every position.
+ */
+public class TestRebalancingStrategy {
+
+  private static final LocalDate START = LocalDate.parse("2023-01-02");
+
+  private Map<String, PriceSeries> prices;
+  private FlexiblePortfolioInterface portfolio;
+  private HashMap<String, Double> weights;
+
+  private double shares(String ticker, int day) {
+    return PriceFixtures.sharesOf(portfolio, ticker, START.plusDays(day));
+  }
+
+  @Before
+  public void setUp() {
+    double[] flat = new double[20];
+    double[] jump = new double[20];
+    for (int i = 0; i < 20; i++) {
+      flat[i] = 100;
+      jump[i] = i < 10 ? 100 : 150;
+    }
+    prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.daily(START, flat));
+    prices.put("MSFT", PriceFixtures.daily(START, jump));
+    portfolio = new FlexiblePortfolio(new User("Rebalance", "Test", "rebalance@test.com"),
+        "Rebalance");
+    weights = new HashMap<>();
+    weights.put("AAPL", 0.5);
+    weights.put("MSFT", 0.5);
+  }
+
+  @Test
+  public void testDriftPastThresholdRebalances() {
+    Strategy strategy = new RebalancingStrategy(portfolio, new MockDataFreshnessManager(prices),
+        0.05);
+    strategy.investPeriodically(1000, weights, START, START.plusDays(19), 15);
+
+    assertEquals(5, shares("AAPL", 9), 0.000001);
+    assertEquals(5, shares("MSFT", 9), 0.000001);
+    assertEquals(6.25, shares("AAPL", 10), 0.000001);
+    assertEquals(4.166667, shares("MSFT", 10), 0.000001);
+    assertEquals(11.25, shares("AAPL", 19), 0.000001);
+    assertEquals(7.5, shares("MSFT", 19), 0.000001);
+  }
+
+  @Test
+  public void testCalendarOnlyWaitsForNextInvestment() {
+    Strategy strategy = new RebalancingStrategy(portfolio, new MockDataFreshnessManager(prices),
+        Double.POSITIVE_INFINITY);
+    strategy.investPeriodically(1000, weights, START, START.plusDays(19), 15);
+
+    assertEquals(5, shares("AAPL", 14), 0.000001);
+    assertEquals(11.25, shares("AAPL", 15), 0.000001);
+    assertEquals(7.5, shares("MSFT", 15), 0.000001);
+  }
+
+  @Test
+  public void testInvestWithoutPriceMakesNoTrades() {
+    prices.put("GOOG", PriceFixtures.daily(START, 100));
+    Strategy strategy = new RebalancingStrategy(portfolio, new MockDataFreshnessManager(prices));
+    weights.put("AAPL", 0.25);
+    weights.put("GOOG", 0.25);
+    try {
+      strategy.invest(1000, weights, START.plusDays(5));
+      fail("Expected no price for GOOG");
+    } catch (IllegalArgumentException e) {
+      assertTrue(portfolio.getHoldingsTimeline().isEmpty());
+    }
+  }
+
+  @Test
+  public void testThirtyYearDailySimulation() {
+    SplittableRandom random = new SplittableRandom(7);
+    HashMap<String, Double> targets = new HashMap<>();
+    int days = 30 * 365;
+    for (int t = 0; t < 5; t++) {
+      prices.put("T" + t, PriceFixtures.daily(LocalDate.parse("1990-01-01"),
+          PriceFixtures.randomWalk(random, days, 0.04)));
+      targets.put("T" + t, 0.2);
+    }
+    Strategy strategy = new RebalancingStrategy(portfolio, new MockDataFreshnessManager(prices),
+        0.02);
+
+    strategy.investPeriodically(500, targets, LocalDate.parse("1990-01-01"),
+        LocalDate.parse("1990-01-01").plusDays(days - 1), 30);
+
+    assertEquals(5, portfolio.getHoldings(LocalDate.parse("2019-12-01")).size());
+  }
+}
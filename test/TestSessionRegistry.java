@@ -0,0 +1,95 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.SessionRegistry;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the SessionRegistry class. It checks that
+ * entries are shared per user, expire when idle and can be closed, and that pinned entries are
+ * kept.
+ */
+public class TestSessionRegistry {
+
+  private final MockClock clock = new MockClock();
+  private final AtomicInteger created = new AtomicInteger();
+  private final SessionRegistry<Object> registry =
+      new SessionRegistry<>(Duration.ofMinutes(10), clock);
+
+  private Object create(String emailId) {
+    created.incrementAndGet();
+    return new Object();
+  }
+
+  @Test
+  public void testSharedPerUserIgnoringCase() {
+    Object first = registry.get("user@test.com", this::create);
+    assertSame(first, registry.get("USER@test.com", this::create));
+    assertNotSame(first, registry.get("other@test.com", this::create));
+    assertEquals(2, created.get());
+    assertEquals(2, registry.size());
+  }
+
+  @Test
+  public void testUseKeepsEntryAlive() {
+    Object first = registry.get("user@test.com", this::create);
+    clock.advance(Duration.ofMinutes(9));
+    assertSame(first, registry.get("user@test.com", this::create));
+    clock.advance(Duration.ofMinutes(9));
+    assertSame(first, registry.get("user@test.com", this::create));
+    assertEquals(1, created.get());
+  }
+
+  @Test
+  public void testIdleEntryExpires() {
+    Object first = registry.get("user@test.com", this::create);
+    registry.get("other@test.com", this::create);
+    clock.advance(Duration.ofMinutes(10));
+    assertNotSame(first, registry.get("user@test.com", this::create));
+    assertEquals(3, created.get());
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testClose() {
+    Object first = registry.get("user@test.com", this::create);
+    assertTrue(registry.close("User@Test.com"));
+    assertFalse(registry.close("user@test.com"));
+    assertNotSame(first, registry.get("user@test.com", this::create));
+    registry.closeAll();
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testPinnedEntryIsKept() {
+    Set<Object> pinned = ConcurrentHashMap.newKeySet();
+    SessionRegistry<Object> pinning =
+        new SessionRegistry<>(Duration.ofMinutes(10), clock, pinned::contains);
+    Object first = pinning.get("user@test.com", this::create);
+    pinned.add(first);
+    clock.advance(Duration.ofMinutes(10));
+    assertSame(first, pinning.get("user@test.com", this::create));
+    clock.advance(Duration.ofMinutes(20));
+    pinning.get("other@test.com", this::create);
+    assertEquals(2, pinning.size());
+    assertFalse(pinning.close("user@test.com"));
+    pinning.closeAll();
+    assertSame(first, pinning.get("user@test.com", this::create));
+
+    pinned.remove(first);
+    assertTrue(pinning.close("user@test.com"));
+    assertEquals(2, created.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTimeoutMustBePositive() {
+    new SessionRegistry<Object>(Duration.ZERO, clock);
+  }
+}
@@ -0,0 +1,127 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import model.CrossoverSignals;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+import model.SignalStrategy;
+import model.Strategy;
+import model.User;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the SignalStrategy class and the
+ * CrossoverSignals it trades on. It checks the single-pass signals against moving averages
+ * computed day by day, the trades made on Buy and Sell signals, the cool-down between trades and
+ * that long backtests over many tickers keep trading.
+ */
+public class TestSignalStrategy {
+
+  private static final LocalDate START = LocalDate.parse("2023-01-02");
+
+  private static final LocalDate FIRST = LocalDate.parse("2000-01-01");
+
+  private Map<String, PriceSeries> prices;
+  private FlexiblePortfolioInterface portfolio;
+  private HashMap<String, Double> weights;
+
+  private double shares(int day) {
+    return PriceFixtures.sharesOf(portfolio, "AAPL", START.plusDays(day));
+  }
+
+  @Before
+  public void setUp() {
+    prices = new HashMap<>();
+    prices.put("AAPL",
+        PriceFixtures.daily(START, 10, 10, 10, 10, 9, 8, 7, 8, 10, 12, 14, 12, 10, 8, 6, 5));
+    portfolio = new FlexiblePortfolio(new User("Signal", "Test", "signal@test.com"), "Signal");
+    weights = new HashMap<>();
+    weights.put("AAPL", 1.0);
+  }
+
+  @Test
+  public void testSignalsMatchDailyMovingAverages() {
+    SplittableRandom random = new SplittableRandom(3);
+    double[] closes = PriceFixtures.randomWalk(random, 600, 0.05);
+    PriceSeries series = PriceFixtures.daily(START, closes);
+    CrossoverSignals signals = CrossoverSignals.movingAverages(series, 5, 20,
+        START.toEpochDay(), START.toEpochDay() + closes.length);
+
+    Map<Long, Boolean> expected = new HashMap<>();
+    int previous = 0;
+    for (int i = 20; i < closes.length; i++) {
+      long shortSum = 0;
+      long longSum = 0;
+      for (int k = i - 20; k < i; k++) {
+        longSum += series.closeUnits(k);
+        if (k >= i - 5) {
+          shortSum += series.closeUnits(k);
+        }
+      }
+      int comparison = Long.compare(shortSum * 20, longSum * 5);
+      if (i > 20 && previous < 0 && comparison > 0) {
+        expected.put(series.epochDay(i), true);
+      } else if (i > 20 && previous > 0 && comparison < 0) {
+        expected.put(series.epochDay(i), false);
+      }
+      previous = comparison;
+    }
+    assertEquals(expected.size(), signals.size());
+    assertTrue(signals.size() > 10);
+    for (int i = 0; i < signals.size(); i++) {
+      assertEquals(expected.get(signals.epochDay(i)), signals.isBuy(i));
+    }
+  }
+
+  @Test
+  public void testBuysAndSellsOnSignals() {
+    Strategy strategy = new SignalStrategy(portfolio, new MockDataFreshnessManager(prices), 2, 4,
+        1);
+    strategy.investPeriodically(120, weights, START, START.plusDays(15), 1);
+
+    assertEquals(0, shares(8), 0.000001);
+    assertEquals(10, shares(9), 0.000001);
+    assertEquals(10, shares(12), 0.000001);
+    assertEquals(0, shares(13), 0.000001);
+  }
+
+  @Test
+  public void testCoolDownAndPartialSells() {
+    prices.put("AAPL", PriceFixtures.daily(START, 10, 10, 10, 10, 9, 8, 7, 8, 10, 12, 14, 12, 10,
+        8, 6, 5, 7, 9, 11, 13));
+    Strategy strategy = new SignalStrategy(portfolio, new MockDataFreshnessManager(prices), 2, 4,
+        0.5);
+    strategy.investPeriodically(120, weights, START, START.plusDays(19), 1);
+    assertEquals(5, shares(13), 0.000001);
+    assertEquals(5 + 120.0 / 11, shares(18), 0.000001);
+
+    portfolio = new FlexiblePortfolio(new User("Signal", "Test", "signal@test.com"), "Signal");
+    strategy = new SignalStrategy(portfolio, new MockDataFreshnessManager(prices), 2, 4, 0.5);
+    strategy.investPeriodically(120, weights, START, START.plusDays(19), 7);
+    assertEquals(10, shares(13), 0.000001);
+    assertEquals(10 + 120.0 / 11, shares(19), 0.000001);
+  }
+
+  @Test
+  public void testTwentyYearsOfFiftyTickers() {
+    SplittableRandom random = new SplittableRandom(5);
+    int days = 20 * 365;
+    HashMap<String, Double> targets = new HashMap<>();
+    for (int t = 0; t < 50; t++) {
+      prices.put("T" + t, PriceFixtures.daily(FIRST, PriceFixtures.randomWalk(random, days, 0.04)));
+      targets.put("T" + t, 0.02);
+    }
+    Strategy strategy = new SignalStrategy(portfolio, new MockDataFreshnessManager(prices), 20,
+        50, 1);
+
+    strategy.investPeriodically(100, targets, FIRST, FIRST.plusDays(days - 1), 1);
+
+    assertTrue(portfolio.getHoldingsTimeline().size() > 1000);
+  }
+}
@@ -0,0 +1,216 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import model.DollarCostAveragingSimulator;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+import model.SavedPlan;
+import model.StrategyScheduler;
+import model.TradeBatch;
+import model.User;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the StrategyScheduler class. It checks
+ * that plans buy only the installments that became due since their last one when new data is
+ * stored, that open-ended plans keep investing, that finished plans stop and that the progress of
+ * a plan is saved next to its strategy.
+ */
+public class TestStrategyScheduler {
+
+  private static final LocalDate START = LocalDate.parse("2024-01-01");
+
+  private Map<String, PriceSeries> prices;
+  private FlexiblePortfolioInterface portfolio;
+  private StrategyScheduler scheduler;
+  private HashMap<String, Double> weights;
+
+  private double shares(String ticker) {
+    return PriceFixtures.sharesOf(portfolio, ticker, START.plusDays(365));
+  }
+
+  @Before
+  public void setUp() {
+    prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.flat(START, 10, 10));
+    prices.put("MSFT", PriceFixtures.flat(START, 10, 20));
+    portfolio = new FlexiblePortfolio(new User("Schedule", "Test", "schedule@test.com"),
+        "Schedule");
+    scheduler = new StrategyScheduler(new MockDataFreshnessManager(prices),
+        Clock.fixed(START.plusDays(60).atStartOfDay().toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC));
+    weights = new HashMap<>();
+    weights.put("AAPL", 0.5);
+    weights.put("MSFT", 0.5);
+  }
+
+  @Test
+  public void testOpenEndedPlanContinuesOnRefresh() {
+    assertEquals(2, scheduler.schedule(portfolio, "dollarCostAveraging", 200, weights, START,
+        null, 5, null, portfolio::buyAll));
+    assertEquals(START.plusDays(5), scheduler.getLastInstallment(portfolio,
+        "dollarCostAveraging"));
+    assertEquals(20, shares("AAPL"), 0.000001);
+
+    prices.put("AAPL", PriceFixtures.flat(START, 20, 10));
+    assertEquals(0, scheduler.onRefresh("AAPL"));
+    prices.put("MSFT", PriceFixtures.flat(START, 20, 20));
+    assertEquals(2, scheduler.onRefresh("MSFT"));
+    assertEquals(0, scheduler.onRefresh("MSFT"));
+    assertEquals(0, scheduler.onRefresh("GOOG"));
+    assertEquals(40, shares("AAPL"), 0.000001);
+    assertEquals(20, shares("MSFT"), 0.000001);
+    assertEquals(START.plusDays(15), scheduler.getLastInstallment(portfolio,
+        "dollarCostAveraging"));
+  }
+
+  @Test
+  public void testRefreshIsHandledOnSchedulerThread() throws Exception {
+    List<Thread> buyers = new ArrayList<>();
+    scheduler.schedule(portfolio, "dollarCostAveraging", 200, weights, START, null, 5, null,
+        trades -> {
+          buyers.add(Thread.currentThread());
+          portfolio.buyAll(trades);
+        });
+    prices.put("AAPL", PriceFixtures.flat(START, 20, 10));
+    prices.put("MSFT", PriceFixtures.flat(START, 20, 20));
+    assertEquals(2, (int) scheduler.submitRefresh("MSFT").get(10, TimeUnit.SECONDS));
+    assertEquals(2, buyers.size());
+    assertSame(Thread.currentThread(), buyers.get(0));
+    assertNotSame(Thread.currentThread(), buyers.get(1));
+    assertEquals(40, shares("AAPL"), 0.000001);
+  }
+
+  @Test
+  public void testResumesAfterLastInstallment() {
+    assertEquals(0, scheduler.schedule(portfolio, "dollarCostAveraging", 200, weights, START,
+        null, 5, START.plusDays(5), portfolio::buyAll));
+    prices.put("AAPL", PriceFixtures.flat(START, 15, 10));
+    prices.put("MSFT", PriceFixtures.flat(START, 15, 20));
+    assertEquals(1, scheduler.runDue());
+    assertEquals(10, shares("AAPL"), 0.000001);
+    assertEquals(START.plusDays(10), portfolio.getHoldingsTimeline().firstEntry().getKey());
+  }
+
+  @Test
+  public void testFinishedPlanStops() {
+    scheduler.schedule(portfolio, "dollarCostAveraging", 200, weights, START,
+        START.plusDays(12), 5, null, portfolio::buyAll);
+    prices.put("AAPL", PriceFixtures.flat(START, 30, 10));
+    prices.put("MSFT", PriceFixtures.flat(START, 30, 20));
+    assertEquals(1, scheduler.runDue());
+    assertNull(scheduler.getLastInstallment(portfolio, "dollarCostAveraging"));
+    assertEquals(0, scheduler.onRefresh("AAPL"));
+    assertEquals(30, shares("AAPL"), 0.000001);
+  }
+
+  @Test
+  public void testIncrementalRunsMatchFullSimulation() {
+    int days = 400;
+    long[] epochDays = new long[days];
+    double[] closes = new double[days];
+    int size = 0;
+    for (int i = 0; i < days; i++) {
+      boolean halted = i >= 100 && i < 112;
+      if (START.plusDays(i).getDayOfWeek().getValue() <= 5 && !halted) {
+        epochDays[size] = START.toEpochDay() + i;
+        closes[size] = 50 + i % 17;
+        size++;
+      }
+    }
+    PriceSeries full = new PriceSeries(Arrays.copyOf(epochDays, size),
+        Arrays.copyOf(closes, size));
+    HashMap<String, Double> single = new HashMap<>();
+    single.put("AAPL", 1.0);
+    prices.put("AAPL", PriceSeries.empty());
+    scheduler = new StrategyScheduler(new MockDataFreshnessManager(prices),
+        Clock.fixed(START.plusDays(days).atStartOfDay().toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC));
+    scheduler.schedule(portfolio, "dollarCostAveraging", 100, single, START.plusDays(2), null, 9,
+        null, portfolio::buyAll);
+    for (int stored = 3; stored <= size; stored += 3) {
+      prices.put("AAPL", new PriceSeries(Arrays.copyOf(epochDays, stored),
+          Arrays.copyOf(closes, stored)));
+      scheduler.onRefresh("AAPL");
+    }
+    prices.put("AAPL", full);
+    scheduler.onRefresh("AAPL");
+
+    TradeBatch expected = DollarCostAveragingSimulator.simulate(100, single, START.plusDays(2),
+        START.plusDays(days), 9, prices);
+    long total = 0;
+    for (int i = 0; i < expected.size(); i++) {
+      total += expected.microShares(i);
+    }
+    assertEquals(total, portfolio.getHoldings(START.plusDays(days)).microSharesOf("AAPL"));
+    assertEquals(expected.date(expected.size() - 1),
+        scheduler.getLastInstallment(portfolio, "dollarCostAveraging"));
+  }
+
+  @Test
+  public void testProgressIsSavedNextToStrategy() throws Exception {
+    Path directory = Files.createTempDirectory("strategy");
+    directory.toFile().deleteOnExit();
+    Path saved = Files.createDirectories(directory.resolve("dollarCostAveraging"));
+    Files.write(saved.resolve("Schedule.csv"), Arrays.asList(
+        "amount,stockRatio,startDate,endDate,intervalDays",
+        "200.0,\"AAPL:0.5;MSFT:0.5\",2024-01-01,,5"));
+    Clock clock = Clock.fixed(START.plusDays(60).atStartOfDay().toInstant(ZoneOffset.UTC),
+        ZoneOffset.UTC);
+    scheduler = new StrategyScheduler(new MockDataFreshnessManager(prices), clock, directory);
+    scheduler.schedule(portfolio, "dollarCostAveraging", 200, weights, START, null, 5, null,
+        portfolio::buyAll);
+    Path progress = saved.resolve("schedule@test.com").resolve("Schedule.last");
+    assertEquals(Arrays.asList("emailId,lastInstallment", "schedule@test.com,2024-01-06"),
+        Files.readAllLines(progress));
+
+    StrategyScheduler restarted =
+        new StrategyScheduler(new MockDataFreshnessManager(prices), clock, directory);
+    List<SavedPlan> plans = restarted.savedPlans(portfolio.getUser());
+    assertEquals(1, plans.size());
+    SavedPlan plan = plans.get(0);
+    assertEquals("dollarCostAveraging", plan.getStrategyName());
+    assertEquals("Schedule", plan.getPortfolioName());
+    assertEquals(200, plan.getAmount(), 0.000001);
+    assertEquals(weights, plan.getStockRatio());
+    assertEquals(START, plan.getStartDate());
+    assertNull(plan.getEndDate());
+    assertEquals(5, plan.getIntervalDays());
+    assertEquals(START.plusDays(5), plan.getLastInstallment());
+    assertTrue(restarted.savedPlans(new User("Other", "User", "other@test.com")).isEmpty());
+
+    FlexiblePortfolioInterface other = new FlexiblePortfolio(
+        new User("Other", "User", "Other@Test.com"), "Schedule");
+    scheduler.schedule(other, "dollarCostAveraging", 200, weights, START, null, 5, null,
+        other::buyAll);
+    assertEquals(1, restarted.savedPlans(portfolio.getUser()).size());
+    assertEquals(1, restarted.savedPlans(other.getUser()).size());
+
+    List<SavedPlan> restored = new ArrayList<>();
+    restarted.restoreSavedPlans(portfolio.getUser(), restored::add).get(10, TimeUnit.SECONDS);
+    assertEquals(1, restored.size());
+    assertEquals("Schedule", restored.get(0).getPortfolioName());
+
+    scheduler.cancel(portfolio, "dollarCostAveraging");
+    assertFalse(Files.exists(progress));
+    assertEquals(1, restarted.savedPlans(other.getUser()).size());
+    assertTrue(restarted.savedPlans(portfolio.getUser()).isEmpty());
+  }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import model.PriceSeries;
+import model.TradingCalendar;
+import model.ValueSeries;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the TradingCalendar class. It checks the
+ * next, previous and between queries around weekends and the ends of the calendar, and how
+ * calendars are built from price series.
+ */
+public class TestTradingCalendar {
+
+  private static final LocalDate FRIDAY = LocalDate.parse("2024-03-01");
+
+  private long day(int offset) {
+    return FRIDAY.plusDays(offset).toEpochDay();
+  }
+
+  private TradingCalendar weekdays() {
+    return TradingCalendar.of(new long[]{day(0), day(3), day(4), day(5), day(6), day(7),
+        day(10)});
+  }
+
+  @Test
+  public void testNextAndPreviousSkipWeekends() {
+    TradingCalendar calendar = weekdays();
+    LocalDate saturday = FRIDAY.plusDays(1);
+    assertFalse(calendar.isTradingDay(saturday));
+    assertTrue(calendar.isTradingDay(FRIDAY));
+    assertEquals(FRIDAY.plusDays(3), calendar.onOrAfter(saturday));
+    assertEquals(FRIDAY, calendar.onOrBefore(saturday));
+    assertEquals(FRIDAY.plusDays(3), calendar.next(FRIDAY));
+    assertEquals(FRIDAY, calendar.previous(FRIDAY.plusDays(3)));
+    assertEquals(FRIDAY.plusDays(4), calendar.onOrAfter(FRIDAY.plusDays(4)));
+  }
+
+  @Test
+  public void testEndsOfCalendar() {
+    TradingCalendar calendar = weekdays();
+    assertNull(calendar.previous(FRIDAY));
+    assertNull(calendar.onOrBefore(FRIDAY.minusDays(1)));
+    assertEquals(FRIDAY, calendar.onOrAfter(FRIDAY.minusDays(30)));
+    assertNull(calendar.next(FRIDAY.plusDays(10)));
+    assertEquals(FRIDAY.plusDays(10), calendar.onOrBefore(FRIDAY.plusDays(400)));
+    assertNull(TradingCalendar.empty().onOrAfter(FRIDAY));
+  }
+
+  @Test
+  public void testTradingDaysBetween() {
+    TradingCalendar calendar = weekdays();
+    assertEquals(7, calendar.tradingDaysBetween(FRIDAY.minusDays(5), FRIDAY.plusDays(20)));
+    assertEquals(1, calendar.tradingDaysBetween(FRIDAY.plusDays(1), FRIDAY.plusDays(3)));
+    assertEquals(0, calendar.tradingDaysBetween(FRIDAY.plusDays(1), FRIDAY.plusDays(2)));
+    assertEquals(0, calendar.tradingDaysBetween(FRIDAY.plusDays(5), FRIDAY.plusDays(4)));
+  }
+
+  @Test
+  public void testUnionAndCommonOfSeries() {
+    PriceSeries first = new PriceSeries(new long[]{day(0), day(3), day(4)},
+        new double[]{1, 1, 1});
+    PriceSeries second = new PriceSeries(new long[]{day(3), day(4), day(5)},
+        new double[]{1, 0, 1});
+    TradingCalendar union = TradingCalendar.union(Arrays.asList(first, second));
+    TradingCalendar common = TradingCalendar.common(Arrays.asList(first, second));
+    assertEquals(4, union.size());
+    assertEquals(1, common.size());
+    assertEquals(FRIDAY.plusDays(3), common.date(0));
+    assertTrue(TradingCalendar.common(Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  public void testValueSeriesOnTradingDays() {
+    long[] epochDays = new long[11];
+    double[] values = new double[11];
+    for (int i = 0; i < epochDays.length; i++) {
+      epochDays[i] = day(i);
+      values[i] = i;
+    }
+    ValueSeries trading = new ValueSeries(epochDays, values).onTradingDays(weekdays());
+    assertEquals(7, trading.size());
+    assertEquals(FRIDAY.plusDays(3), trading.date(1));
+    assertEquals(3, trading.value(1), 0.0);
+  }
+}
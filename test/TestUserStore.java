@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.User;
+import model.UserManager;
+import model.UserStore;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the UserStore class. It checks lookups by
+ * email ID, the append-only log format, compaction and concurrent sign-ups.
+ */
+public class TestUserStore {
+
+  private Path logFile() throws IOException {
+    Path directory = Files.createTempDirectory("users");
+    directory.toFile().deleteOnExit();
+    return directory.resolve("UserData.csv");
+  }
+
+  @Test
+  public void testReadsExistingFile() throws IOException {
+    Path file = logFile();
+    Files.write(file, Arrays.asList("EmailID,FirstName,LastName", "john@test.com,John,Doe",
+        "", "jane@test.com,Jane,Roe"));
+    UserStore store = new UserStore(file);
+    assertEquals(2, store.size());
+    assertEquals("Jane", store.find(" JANE@test.com ").getFirstName());
+    assertNull(store.find("nobody@test.com"));
+  }
+
+  @Test
+  public void testPutAppendsAndLatestWins() throws IOException {
+    Path file = logFile();
+    UserStore store = new UserStore(file);
+    store.put(new User("John", "Doe", "john@test.com"));
+    store.put(new User("Johnny", "Doe", "JOHN@test.com"));
+    assertEquals(1, store.size());
+    assertEquals("Johnny", store.find("john@test.com").getFirstName());
+    assertEquals(Arrays.asList("EmailID,FirstName,LastName", "john@test.com,John,Doe",
+        "JOHN@test.com,Johnny,Doe"), Files.readAllLines(file));
+
+    UserStore reopened = new UserStore(file);
+    assertEquals("Johnny", reopened.find("john@test.com").getFirstName());
+    store.compact();
+    assertEquals(Arrays.asList("EmailID,FirstName,LastName", "JOHN@test.com,Johnny,Doe"),
+        Files.readAllLines(file));
+  }
+
+  @Test
+  public void testReloadsAfterExternalChange() throws IOException {
+    Path file = logFile();
+    UserStore store = new UserStore(file);
+    assertFalse(store.contains("late@test.com"));
+    Files.write(file, Arrays.asList("EmailID,FirstName,LastName", "late@test.com,Late,User"));
+    assertTrue(store.contains("late@test.com"));
+  }
+
+  @Test
+  public void testUserManagerDelegates() throws IOException {
+    UserManager userManager = new UserManager(new UserStore(logFile()));
+    userManager.saveUserData("Test", "User", "test@test.com");
+    assertTrue(userManager.isExistingUser("TEST@test.com"));
+    assertEquals(Arrays.asList("Test", "User", "test@test.com"),
+        userManager.getExistingUserData("test@test.com"));
+    assertTrue(userManager.getExistingUserData("other@test.com").isEmpty());
+    assertEquals(1, userManager.getNumberOfUsers());
+  }
+
+  @Test
+  public void testConcurrentSignUps() throws Exception {
+    Path file = logFile();
+    UserStore store = new UserStore(file);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int offset = t * 100;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          store.put(new User("First", "Last", "user" + (offset + i) + "@test.com"));
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(800, store.size());
+    assertEquals(801, Files.readAllLines(file).size());
+    assertEquals(800, new UserStore(file).size());
+  }
+
+  @Test
+  public void testUsersStayVisibleDuringReload() throws Exception {
+    Path file = logFile();
+    List<String> lines = new ArrayList<>();
+    lines.add("EmailID,FirstName,LastName");
+    for (int i = 0; i < 5000; i++) {
+      lines.add("user" + i + "@test.com,First,Last");
+    }
+    Files.write(file, lines);
+    UserStore store = new UserStore(file);
+    assertTrue(store.contains("user0@test.com"));
+
+    Thread writer = new Thread(() -> {
+      try {
+        for (int i = 0; i < 20; i++) {
+          lines.add("extra" + i + "@test.com,Extra,User");
+          Path temporary = file.resolveSibling("UserData.tmp");
+          Files.write(temporary, lines);
+          Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+          store.size();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      assertTrue(store.contains("user4999@test.com"));
+    }
+    writer.join();
+    assertEquals(5020, store.size());
+  }
+}
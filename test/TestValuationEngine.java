@@ -0,0 +1,171 @@
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import model.FixedPoint;
+import model.Holdings;
+import model.PersistentSortedMap;
+import model.PriceSeries;
+import model.Valuation;
+import model.ValuationEngine;
+import model.ValueSeries;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the ValuationEngine class. It checks the
+ * merge-join of holdings change points with price series for single dates and date ranges.
+ */
+public class TestValuationEngine {
+
+  private final LocalDate monday = LocalDate.parse("2024-03-04");
+
+  private PriceSeries series(LocalDate first, double... closes) {
+    long[] days = new long[closes.length];
+    for (int i = 0; i < closes.length; i++) {
+      days[i] = first.toEpochDay() + i;
+    }
+    return new PriceSeries(days, closes);
+  }
+
+  private Holdings shares(String ticker, double count) {
+    return Holdings.empty().plus(ticker, FixedPoint.toMicroShares(count));
+  }
+
+  private PersistentSortedMap<LocalDate, Holdings> timeline(LocalDate date, Holdings holdings) {
+    return PersistentSortedMap.<LocalDate, Holdings>empty().put(date, holdings);
+  }
+
+  @Test
+  public void testValueOn() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 11, 12));
+    ValuationEngine engine = new ValuationEngine();
+    assertEquals(24.0, engine.valueOn(holdings, prices, monday.plusDays(2)), 0.0001);
+    assertEquals(0.0, engine.valueOn(holdings, prices, monday.minusDays(1)), 0.0001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValueOnMissingData() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 11, 12));
+    new ValuationEngine().valueOn(holdings, prices, monday.plusDays(10));
+  }
+
+  @Test
+  public void testValueOnResolvesNonTradingDays() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 11, 12, 13, 14));
+    LocalDate saturday = monday.plusDays(5);
+    assertEquals(28.0, new ValuationEngine().valueOn(holdings, prices, saturday), 0.0001);
+    assertEquals(28.0, new ValuationEngine().valueOn(holdings, prices, saturday.plusDays(1)),
+        0.0001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValueOnRespectsStalenessLimit() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 11, 12, 13, 14));
+    new ValuationEngine(1).valueOn(holdings, prices, monday.plusDays(6));
+  }
+
+  @Test
+  public void testValuationKeepsContributions() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday,
+        shares("MSFT", 2).plus("AAPL", FixedPoint.toMicroShares(3)));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10));
+    prices.put("MSFT", series(monday, 100));
+    Valuation valuation = new ValuationEngine().valuationOn(holdings, prices, monday);
+    assertEquals(2, valuation.size());
+    assertEquals("AAPL", valuation.ticker(0));
+    assertEquals(30.0, valuation.value(0), 0.0001);
+    assertEquals(200.0, valuation.getContributions().get("MSFT"), 0.0001);
+    assertEquals(230.0, valuation.total(), 0.0001);
+  }
+
+  @Test
+  public void testFloorIndex() {
+    PriceSeries prices = new PriceSeries(new long[]{10, 12, 15}, new double[]{1, 2, 3});
+    assertEquals(-1, prices.floorIndex(9));
+    assertEquals(0, prices.floorIndex(11));
+    assertEquals(1, prices.floorIndex(12));
+    assertEquals(2, prices.floorIndex(100));
+    assertEquals(0L, prices.closeUnitsAsOf(LocalDate.ofEpochDay(20), 4));
+    assertEquals(FixedPoint.toPriceUnits(3), prices.closeUnitsAsOf(LocalDate.ofEpochDay(19), 4));
+  }
+
+  @Test
+  public void testValueSeriesFollowsChangePoints() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 1));
+    Holdings later = shares("AAPL", 3).plus("GOOG", FixedPoint.SHARE_SCALE);
+    holdings = holdings.put(monday.plusDays(2), later);
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 10, 10, 10, 10));
+    prices.put("GOOG", series(monday, 100, 100, 100, 100, 100));
+
+    ValueSeries values = new ValuationEngine().valueSeries(holdings, prices,
+        monday.minusDays(1), monday.plusDays(4));
+    assertEquals(6, values.size());
+    assertEquals(0.0, values.value(0), 0.0001);
+    assertEquals(10.0, values.value(1), 0.0001);
+    assertEquals(10.0, values.value(2), 0.0001);
+    assertEquals(130.0, values.value(3), 0.0001);
+    assertEquals(130.0, values.value(5), 0.0001);
+    assertEquals(monday.plusDays(4), values.date(5));
+  }
+
+  @Test
+  public void testValueSeriesStartsFromEarlierBar() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 11, 12, 13, 14));
+
+    ValueSeries values = new ValuationEngine().valueSeries(holdings, prices,
+        monday.plusDays(5), monday.plusDays(6));
+    assertEquals(28.0, values.value(0), 0.0001);
+    assertEquals(28.0, values.value(1), 0.0001);
+  }
+
+  @Test
+  public void testValueSeriesCarriesValueOverNonTradingDays() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday, shares("AAPL", 2));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries(new long[]{monday.toEpochDay(),
+        monday.plusDays(3).toEpochDay()}, new double[]{10, 5}));
+
+    ValueSeries values = new ValuationEngine().valueSeries(holdings, prices, monday,
+        monday.plusDays(3));
+    assertEquals(20.0, values.value(1), 0.0001);
+    assertEquals(20.0, values.value(2), 0.0001);
+    assertEquals(10.0, values.value(3), 0.0001);
+    assertEquals(-0.5, values.totalReturn(), 0.0001);
+    assertEquals(0.5, values.maxDrawdown(), 0.0001);
+  }
+
+  @Test
+  public void testCashIsValuedWithHoldings() {
+    PersistentSortedMap<LocalDate, Holdings> holdings = timeline(monday,
+        Holdings.empty().plusCash(FixedPoint.toPriceUnits(50)));
+    holdings = holdings.put(monday.plusDays(2),
+        shares("AAPL", 2).plusCash(FixedPoint.toPriceUnits(30)));
+    Map<String, PriceSeries> prices = new HashMap<>();
+    prices.put("AAPL", series(monday, 10, 10, 10, 11));
+
+    ValueSeries values = new ValuationEngine().valueSeries(holdings, prices,
+        monday.minusDays(1), monday.plusDays(3));
+    assertEquals(0.0, values.value(0), 0.0001);
+    assertEquals(50.0, values.value(1), 0.0001);
+    assertEquals(50.0, values.value(3), 0.0001);
+    assertEquals(52.0, values.value(4), 0.0001);
+
+    Valuation valuation = new ValuationEngine().valuationOn(holdings, prices,
+        monday.plusDays(3));
+    assertEquals(30.0, valuation.cash(), 0.0001);
+    assertEquals(52.0, valuation.total(), 0.0001);
+  }
+}
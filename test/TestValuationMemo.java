@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.FixedPoint;
+import model.Holdings;
+import model.PersistentSortedMap;
+import model.PriceSeries;
+import model.ValuationEngine;
+import model.ValuationMemo;
+import model.ValueSeries;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the ValuationMemo class. It checks that
+ * only finalized values are memoized, that they survive a reload from disk, that trades and price
+ * corrections stop old entries from matching, that a correction only drops entries holding the
+ * corrected ticker, and that the log is compacted and survives bad lines.
+ */
+public class TestValuationMemo {
+
+  private final LocalDate monday = LocalDate.parse("2024-03-04");
+  private final Clock clock = Clock.fixed(monday.plusDays(10).atStartOfDay()
+      .toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+  private final ValuationEngine engine = new ValuationEngine();
+  private Path file;
+  private Map<String, PriceSeries> prices;
+  private Holdings holdings;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("memo", ".csv");
+    Files.delete(file);
+    prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries(new long[]{monday.toEpochDay(),
+        monday.plusDays(1).toEpochDay()}, new double[]{10, 11}));
+    holdings = Holdings.empty().plus("AAPL", FixedPoint.toMicroShares(2));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testFinalValuesSurviveReload() {
+    ValuationMemo memo = new ValuationMemo(file, clock);
+    memo.record("p", holdings, monday, FixedPoint.toPriceUnits(20), prices, engine);
+    memo.record("p", holdings, monday.plusDays(2), FixedPoint.toPriceUnits(22), prices, engine);
+
+    ValuationMemo reloaded = new ValuationMemo(file, clock);
+    assertEquals(Long.valueOf(FixedPoint.toPriceUnits(20)), reloaded.lookup("p", holdings, monday));
+    assertNull(reloaded.lookup("p", holdings, monday.plusDays(2)));
+    assertNull(reloaded.lookup("p", holdings.plus("AAPL", 1), monday));
+    assertEquals(Long.valueOf(0), reloaded.lookup("p", Holdings.empty(), monday));
+  }
+
+  @Test
+  public void testSeriesLookupAndInvalidation() {
+    PersistentSortedMap<LocalDate, Holdings> timeline =
+        PersistentSortedMap.<LocalDate, Holdings>empty().put(monday, holdings);
+    ValuationMemo memo = new ValuationMemo(file, clock);
+    ValueSeries series = engine.valueSeries(timeline, prices, monday.minusDays(1),
+        monday.plusDays(1));
+    memo.recordSeries("p", timeline, series, prices, engine);
+
+    ValueSeries memoized = memo.lookupSeries("p", timeline, monday.minusDays(1),
+        monday.plusDays(1));
+    assertNotNull(memoized);
+    assertEquals(22.0, memoized.value(2), 0.0001);
+
+    memo.invalidateFrom("AAPL", monday.plusDays(1));
+    assertNull(memo.lookupSeries("p", timeline, monday, monday.plusDays(1)));
+    assertNull(new ValuationMemo(file, clock).lookup("p", holdings, monday.plusDays(1)));
+    assertNotNull(new ValuationMemo(file, clock).lookup("p", holdings, monday));
+  }
+
+  @Test
+  public void testInvalidationCompactsLog() throws IOException {
+    ValuationMemo memo = new ValuationMemo(file, clock);
+    memo.record("p", holdings, monday, FixedPoint.toPriceUnits(20), prices, engine);
+    memo.record("p", holdings, monday.plusDays(1), FixedPoint.toPriceUnits(22), prices, engine);
+    assertEquals(2, Files.readAllLines(file).size());
+
+    memo.invalidateFrom("AAPL", monday.plusDays(1));
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).endsWith("," + monday.toEpochDay() + ","
+        + FixedPoint.toPriceUnits(20) + ",AAPL"));
+    assertNotNull(new ValuationMemo(file, clock).lookup("p", holdings, monday));
+  }
+
+  @Test
+  public void testInvalidationKeepsOtherTickers() throws IOException {
+    prices.put("MSFT", new PriceSeries(new long[]{monday.toEpochDay(),
+        monday.plusDays(1).toEpochDay()}, new double[]{30, 31}));
+    Holdings other = Holdings.empty().plus("MSFT", FixedPoint.toMicroShares(1));
+    ValuationMemo memo = new ValuationMemo(file, clock);
+    memo.record("p", holdings, monday.plusDays(1), FixedPoint.toPriceUnits(22), prices, engine);
+    memo.record("q", other, monday.plusDays(1), FixedPoint.toPriceUnits(31), prices, engine);
+
+    memo.invalidateFrom("msft", monday);
+    assertNull(memo.lookup("q", other, monday.plusDays(1)));
+    assertEquals(Long.valueOf(FixedPoint.toPriceUnits(22)),
+        memo.lookup("p", holdings, monday.plusDays(1)));
+    assertEquals(1, Files.readAllLines(file).size());
+    assertEquals(Long.valueOf(FixedPoint.toPriceUnits(22)),
+        new ValuationMemo(file, clock).lookup("p", holdings, monday.plusDays(1)));
+  }
+
+  @Test
+  public void testUnreadableLineIsSkipped() throws IOException {
+    ValuationMemo memo = new ValuationMemo(file, clock);
+    memo.record("p", holdings, monday, FixedPoint.toPriceUnits(20), prices, engine);
+    String valid = Files.readAllLines(file).get(0);
+    Files.write(file, Arrays.asList("V,broken,line", valid, "I,AAPL,not-a-day"));
+
+    ValuationMemo reloaded = new ValuationMemo(file, clock);
+    assertEquals(Long.valueOf(FixedPoint.toPriceUnits(20)), reloaded.lookup("p", holdings, monday));
+    assertEquals(Arrays.asList(valid), Files.readAllLines(file));
+    assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+  }
+
+  @Test
+  public void testCorrectedDay() {
+    PriceSeries original = prices.get("AAPL");
+    PriceSeries extended = new PriceSeries(new long[]{monday.toEpochDay(),
+        monday.plusDays(1).toEpochDay(), monday.plusDays(2).toEpochDay()},
+        new double[]{10, 11, 12});
+    PriceSeries corrected = new PriceSeries(new long[]{monday.toEpochDay(),
+        monday.plusDays(1).toEpochDay()}, new double[]{10, 11.5});
+    assertEquals(Long.MAX_VALUE, original.firstCorrectedDay(extended));
+    assertEquals(monday.plusDays(1).toEpochDay(), original.firstCorrectedDay(corrected));
+  }
+}
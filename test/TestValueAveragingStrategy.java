@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import model.BacktestEngine;
+import model.BacktestResult;
+import model.BacktestScenario;
+import model.FlexiblePortfolio;
+import model.FlexiblePortfolioInterface;
+import model.PriceSeries;
+import model.Strategy;
+import model.User;
+import model.ValuationEngine;
+import model.ValueAveragingStrategy;
+import model.ValueSeries;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the ValueAveragingStrategy class and the
+ * cash ledger of flexible portfolios it trades through. It checks deposits, withdrawals and cash
+ * settled trades, the purchases and sales made to follow the target value path, and that long
+ * simulations stay on the target value path.
+ */
+public class TestValueAveragingStrategy {
+
+  private static final LocalDate START = LocalDate.parse("2023-01-02");
+
+  private Map<String, PriceSeries> prices;
+  private FlexiblePortfolioInterface portfolio;
+  private HashMap<String, Double> weights;
+
+  private double shares(int day) {
+    return PriceFixtures.sharesOf(portfolio, "AAPL", START.plusDays(day));
+  }
+
+  @Before
+  public void setUp() {
+    prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.daily(START, 10, 8, 12.5, 10));
+    portfolio = new FlexiblePortfolio(new User("Value", "Test", "value@test.com"), "Value");
+    weights = new HashMap<>();
+    weights.put("AAPL", 1.0);
+  }
+
+  @Test
+  public void testCashLedger() {
+    portfolio.deposit(1000, START);
+    portfolio.buyWithCash("AAPL", 50, 500, START.plusDays(1));
+    portfolio.sellForCash("AAPL", 20, 250, START.plusDays(3));
+    assertEquals(1000, portfolio.getCash(START), 0.0001);
+    assertEquals(500, portfolio.getCash(START.plusDays(1)), 0.0001);
+    assertEquals(750, portfolio.getCash(START.plusDays(3)), 0.0001);
+
+    try {
+      portfolio.withdraw(600, START.plusDays(2));
+      fail("Expected not enough cash");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("Not enough cash"));
+    }
+    portfolio.withdraw(200, START.plusDays(2));
+    assertEquals(300, portfolio.getCash(START.plusDays(2)), 0.0001);
+    assertEquals(550, portfolio.getCash(START.plusDays(3)), 0.0001);
+    try {
+      portfolio.buyWithCash("AAPL", 1, 400, START.plusDays(1));
+      fail("Expected not enough cash on a later date");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("Not enough cash"));
+    }
+
+    ValueSeries values = new ValuationEngine().valueSeries(portfolio.getHoldingsTimeline(),
+        prices, START, START.plusDays(3));
+    assertEquals(1000, values.value(0), 0.0001);
+    assertEquals(50 * 8 + 500, values.value(1), 0.0001);
+    assertEquals(50 * 12.5 + 300, values.value(2), 0.0001);
+    assertEquals(30 * 10 + 550, values.value(3), 0.0001);
+  }
+
+  @Test
+  public void testFollowsTargetValuePath() {
+    Strategy strategy = new ValueAveragingStrategy(portfolio, new MockDataFreshnessManager(prices));
+    strategy.investPeriodically(100, weights, START, START.plusDays(3), 1);
+
+    assertEquals(10, shares(0), 0.000001);
+    assertEquals(25, shares(1), 0.000001);
+    assertEquals(24, shares(2), 0.000001);
+    assertEquals(40, shares(3), 0.000001);
+    assertEquals(0, portfolio.getCash(START.plusDays(1)), 0.0001);
+    assertEquals(12.5, portfolio.getCash(START.plusDays(2)), 0.0001);
+    assertEquals(0, portfolio.getCash(START.plusDays(3)), 0.0001);
+
+    BacktestResult result = new BacktestEngine(prices, ValueAveragingStrategy::new)
+        .run(new BacktestScenario(100, weights, START, START.plusDays(3), 1));
+    assertEquals(100 + 120 + 147.5, result.getInvested(), 0.0001);
+    assertEquals(400, result.getFinalValue(), 0.0001);
+  }
+
+  @Test
+  public void testGrowthRateAndIdleCash() {
+    prices.put("AAPL", PriceFixtures.flat(START, 4, 10));
+    portfolio.deposit(50, START);
+    Strategy strategy = new ValueAveragingStrategy(portfolio, new MockDataFreshnessManager(prices),
+        0.1);
+    strategy.investPeriodically(100, weights, START, START.plusDays(2), 1);
+
+    assertEquals(10, shares(0), 0.000001);
+    assertEquals(21, shares(1), 0.000001);
+    assertEquals(33.1, shares(2), 0.000001);
+    assertEquals(0, portfolio.getCash(START), 0.0001);
+
+    try {
+      new ValueAveragingStrategy(portfolio, new MockDataFreshnessManager(prices), -0.1);
+      fail("Expected a negative growth rate to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("cannot be negative"));
+    }
+  }
+
+  @Test
+  public void testTwentyYearsOfTwentyTickers() {
+    SplittableRandom random = new SplittableRandom(7);
+    LocalDate first = LocalDate.parse("2000-01-01");
+    int days = 20 * 365;
+    HashMap<String, Double> targets = new HashMap<>();
+    for (int t = 0; t < 20; t++) {
+      prices.put("T" + t, PriceFixtures.daily(first, PriceFixtures.randomWalk(random, days, 0.04)));
+      targets.put("T" + t, 0.05);
+    }
+    Strategy strategy = new ValueAveragingStrategy(portfolio, new MockDataFreshnessManager(prices));
+
+    strategy.investPeriodically(1000, targets, first, first.plusDays(days - 1), 7);
+
+    LocalDate last = first.plusDays(7L * ((days - 1) / 7));
+    ValueSeries values = new ValuationEngine().valueSeries(portfolio.getHoldingsTimeline(),
+        prices, last, last);
+    assertEquals(1000.0 * ((days - 1) / 7 + 1), values.value(0) - portfolio.getCash(last), 1);
+    assertTrue(portfolio.getHoldingsTimeline().size() > 1000);
+  }
+}
@@ -0,0 +1,134 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.BacktestEngine;
+import model.BacktestResult;
+import model.BacktestScenario;
+import model.DollarCostAveragingStrategy;
+import model.PriceSeries;
+import model.WalkForwardCandidate;
+import model.WalkForwardRunner;
+import model.WalkForwardWindow;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class has tests to validate the functionality of the WalkForwardRunner class. It checks
+ * that each window picks the candidate that did best on its training window, that out-of-sample
+ * results match backtesting the window directly, and that cached window backtests are reused.
+ */
+public class TestWalkForwardRunner {
+
+  private static final LocalDate START = LocalDate.parse("2023-01-02");
+
+  private Map<String, PriceSeries> prices;
+  private AtomicInteger strategies;
+  private WalkForwardCandidate apple;
+  private WalkForwardCandidate microsoft;
+
+  private WalkForwardCandidate candidate(String ticker) {
+    Map<String, Double> weights = new HashMap<>();
+    weights.put(ticker, 1.0);
+    return new WalkForwardCandidate(ticker, (portfolio, source) -> {
+      strategies.incrementAndGet();
+      return new DollarCostAveragingStrategy(portfolio, source);
+    }, weights, 5);
+  }
+
+  @Before
+  public void setUp() {
+    double[] aapl = new double[400];
+    double[] msft = new double[400];
+    for (int i = 0; i < aapl.length; i++) {
+      aapl[i] = i < 200 ? 100 + i : 300 - (i - 200);
+      msft[i] = i < 200 ? 300 - i : 100 + (i - 200);
+    }
+    prices = new HashMap<>();
+    prices.put("AAPL", PriceFixtures.daily(START, aapl));
+    prices.put("MSFT", PriceFixtures.daily(START, msft));
+    strategies = new AtomicInteger();
+    apple = candidate("AAPL");
+    microsoft = candidate("MSFT");
+  }
+
+  @Test
+  public void testWindowsFollowTheTrainingWinner() {
+    List<WalkForwardWindow> windows = new WalkForwardRunner(prices, new ForkJoinPool(4), 64)
+        .run(100, Arrays.asList(apple, microsoft), START, START.plusDays(399), 40, 40);
+
+    assertEquals(9, windows.size());
+    BacktestEngine engine = new BacktestEngine(prices, DollarCostAveragingStrategy::new);
+    for (int k = 0; k < windows.size(); k++) {
+      WalkForwardWindow window = windows.get(k);
+      assertEquals(START.plusDays(40L * k), window.getTrainingStart());
+      assertEquals(START.plusDays(40L * k + 39), window.getTrainingEnd());
+      assertEquals(START.plusDays(40L * k + 40), window.getTestStart());
+      assertEquals(START.plusDays(40L * k + 79), window.getTestEnd());
+      assertSame(k < 5 ? apple : microsoft, window.getCandidate());
+
+      BacktestResult direct = engine.run(new BacktestScenario(100,
+          window.getCandidate().getStockRatio(), window.getTestStart(), window.getTestEnd(), 5));
+      assertEquals(direct.getInvested(), window.getOutOfSample().getInvested(), 0.000001);
+      assertEquals(direct.getFinalValue(), window.getOutOfSample().getFinalValue(), 0.000001);
+    }
+    assertTrue(windows.get(4).getOutOfSample().getTotalReturn() < 0);
+    assertTrue(windows.get(5).getOutOfSample().getTotalReturn() > 0);
+  }
+
+  @Test
+  public void testPartialLastWindowIsLeftOut() {
+    List<WalkForwardWindow> windows = new WalkForwardRunner(prices, new ForkJoinPool(2), 64)
+        .run(100, Arrays.asList(apple, microsoft), START, START.plusDays(190), 100, 30);
+
+    assertEquals(3, windows.size());
+    assertEquals(START.plusDays(160), windows.get(2).getTestStart());
+    assertEquals(START.plusDays(189), windows.get(2).getTestEnd());
+  }
+
+  @Test
+  public void testWindowBacktestsAreCached() {
+    WalkForwardRunner runner = new WalkForwardRunner(prices, new ForkJoinPool(1), 64);
+    List<WalkForwardCandidate> candidates = Arrays.asList(apple, microsoft);
+
+    List<WalkForwardWindow> first = runner.run(100, candidates, START, START.plusDays(399), 40,
+        40);
+    assertEquals(9 * 2 + 1, strategies.get());
+
+    List<WalkForwardWindow> second = runner.run(100, candidates, START, START.plusDays(399), 40,
+        40);
+    assertEquals(9 * 2 + 1, strategies.get());
+    for (int k = 0; k < first.size(); k++) {
+      assertSame(first.get(k).getInSample(), second.get(k).getInSample());
+      assertSame(first.get(k).getOutOfSample(), second.get(k).getOutOfSample());
+    }
+
+    runner.run(100, candidates, START.plusDays(40), START.plusDays(399), 40, 40);
+    assertEquals(9 * 2 + 1, strategies.get());
+  }
+
+  @Test
+  public void testInvalidWindows() {
+    WalkForwardRunner runner = new WalkForwardRunner(prices);
+    try {
+      runner.run(100, Arrays.asList(apple), START, START.plusDays(39), 40, 40);
+      fail("Expected no room for an out-of-sample window");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("no room"));
+    }
+    try {
+      runner.run(100, Arrays.asList(apple), START, START.plusDays(399), 0, 40);
+      fail("Expected the window length to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("must be positive"));
+    }
+  }
+}